@@ -16,6 +16,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.annotation.NonNull;
@@ -35,9 +36,11 @@ import org.eclipse.tracecompass.segmentstore.core.SegmentComparators;
 import org.eclipse.tracecompass.segmentstore.core.SegmentStoreFactory.SegmentStoreType;
 import org.eclipse.tracecompass.tmf.core.analysis.IAnalysisModule;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEventType;
 import org.eclipse.tracecompass.tmf.core.event.lookup.TmfCallsite;
 import org.eclipse.tracecompass.tmf.core.segment.ISegmentAspect;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfTraceWithPreDefinedEvents;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
@@ -99,7 +102,35 @@ public class SystemCallLatencyAnalysis extends AbstractSegmentStoreAnalysisEvent
 
     @Override
     protected AbstractSegmentStoreAnalysisRequest createAnalysisRequest(ISegmentStore<ISegment> syscalls, IProgressMonitor monitor) {
-        return new SyscallLatencyAnalysisRequest(syscalls, monitor);
+        SyscallLatencyAnalysisRequest request = new SyscallLatencyAnalysisRequest(syscalls, monitor);
+        ITmfTrace trace = getTrace();
+        if (trace instanceof IKernelTrace && trace instanceof ITmfTraceWithPreDefinedEvents) {
+            /* Let the trace skip the events that are not system calls */
+            request.setEventTypes(getSyscallEventTypes(((IKernelTrace) trace).getKernelEventLayout(), (ITmfTraceWithPreDefinedEvents) trace));
+        }
+        return request;
+    }
+
+    /**
+     * Get the names of the system call entry and exit events of a trace
+     *
+     * @param layout
+     *            The event layout of the trace
+     * @param trace
+     *            The trace declaring its events
+     * @return The names of the system call events
+     */
+    private static Set<String> getSyscallEventTypes(IKernelAnalysisEventLayout layout, ITmfTraceWithPreDefinedEvents trace) {
+        ImmutableSet.Builder<String> builder = ImmutableSet.builder();
+        for (ITmfEventType eventType : trace.getContainedEventTypes()) {
+            String eventName = eventType.getName();
+            if (eventName.startsWith(layout.eventSyscallEntryPrefix()) ||
+                    eventName.startsWith(layout.eventCompatSyscallEntryPrefix()) ||
+                    eventName.startsWith(layout.eventSyscallExitPrefix())) {
+                builder.add(eventName);
+            }
+        }
+        return builder.build();
     }
 
     @Override
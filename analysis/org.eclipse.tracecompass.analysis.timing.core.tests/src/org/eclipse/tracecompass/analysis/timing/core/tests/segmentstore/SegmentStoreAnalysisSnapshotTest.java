@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.analysis.timing.core.tests.segmentstore;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.tracecompass.analysis.timing.core.segmentstore.AbstractSegmentStoreAnalysisModule;
+import org.eclipse.tracecompass.segmentstore.core.ISegment;
+import org.eclipse.tracecompass.segmentstore.core.ISegmentStore;
+import org.eclipse.tracecompass.tmf.core.exceptions.TmfAnalysisException;
+import org.eclipse.tracecompass.tmf.core.trace.TmfTraceManager;
+import org.eclipse.tracecompass.tmf.tests.stubs.trace.xml.TmfXmlTraceStub;
+import org.eclipse.tracecompass.tmf.tests.stubs.trace.xml.TmfXmlTraceStubNs;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Test the snapshots of the in-memory segment stores of the
+ * {@link AbstractSegmentStoreAnalysisModule}
+ */
+public class SegmentStoreAnalysisSnapshotTest {
+
+    private final @NonNull TmfXmlTraceStub fTrace = new TmfXmlTraceStubNs();
+    private final Path fSnapshotFile = Paths.get(TmfTraceManager.getSupplementaryFileDir(fTrace), StubPersistentSegmentStoreAnalysis.ID + ".sss");
+
+    /**
+     * Delete the snapshot and dispose the trace
+     *
+     * @throws IOException
+     *             Exception deleting the snapshot
+     */
+    @After
+    public void teardown() throws IOException {
+        Files.deleteIfExists(fSnapshotFile);
+        fTrace.dispose();
+    }
+
+    /**
+     * Test that the segment store is saved once built, and loaded instead of
+     * built again by the next analysis
+     *
+     * @throws TmfAnalysisException
+     *             should not happen
+     */
+    @Test
+    public void testSnapshot() throws TmfAnalysisException {
+        StubPersistentSegmentStoreAnalysis first = executeAnalysis();
+        assertEquals(1, first.getNbBuilds());
+        assertTrue(Files.exists(fSnapshotFile));
+        ISegmentStore<@NonNull ISegment> built = first.getSegmentStore();
+        assertNotNull(built);
+
+        StubPersistentSegmentStoreAnalysis second = executeAnalysis();
+        assertEquals(0, second.getNbBuilds());
+        ISegmentStore<@NonNull ISegment> loaded = second.getSegmentStore();
+        assertNotNull(loaded);
+        assertEquals(StubPersistentSegmentStoreAnalysis.SIZE, loaded.size());
+        Iterator<@NonNull ISegment> expected = built.getIntersectingElements(100, 200).iterator();
+        for (ISegment segment : loaded.getIntersectingElements(100, 200)) {
+            assertTrue(expected.hasNext());
+            ISegment expectedSegment = expected.next();
+            assertEquals(expectedSegment.getStart(), segment.getStart());
+            assertEquals(expectedSegment.getEnd(), segment.getEnd());
+        }
+        assertFalse(expected.hasNext());
+
+        first.dispose();
+        second.dispose();
+    }
+
+    /**
+     * Test that an invalid snapshot is ignored and the segment store built
+     * again
+     *
+     * @throws TmfAnalysisException
+     *             should not happen
+     * @throws IOException
+     *             Exception writing the snapshot
+     */
+    @Test
+    public void testInvalidSnapshot() throws TmfAnalysisException, IOException {
+        Files.write(fSnapshotFile, new byte[] { 1, 2, 3 });
+        StubPersistentSegmentStoreAnalysis analysis = executeAnalysis();
+        assertEquals(1, analysis.getNbBuilds());
+        ISegmentStore<@NonNull ISegment> store = analysis.getSegmentStore();
+        assertNotNull(store);
+        assertEquals(StubPersistentSegmentStoreAnalysis.SIZE, store.size());
+        analysis.dispose();
+    }
+
+    private StubPersistentSegmentStoreAnalysis executeAnalysis() throws TmfAnalysisException {
+        StubPersistentSegmentStoreAnalysis analysis = new StubPersistentSegmentStoreAnalysis();
+        analysis.setTrace(fTrace);
+        assertTrue(analysis.executeAnalysis(new NullProgressMonitor()));
+        return analysis;
+    }
+}
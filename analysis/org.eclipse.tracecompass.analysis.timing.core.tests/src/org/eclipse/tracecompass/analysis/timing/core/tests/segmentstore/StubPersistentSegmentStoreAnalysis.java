@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.analysis.timing.core.tests.segmentstore;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.tracecompass.analysis.timing.core.segmentstore.AbstractSegmentStoreAnalysisModule;
+import org.eclipse.tracecompass.datastore.core.interval.IHTIntervalReader;
+import org.eclipse.tracecompass.segmentstore.core.BasicSegment;
+import org.eclipse.tracecompass.segmentstore.core.ISegment;
+import org.eclipse.tracecompass.segmentstore.core.ISegmentStore;
+import org.eclipse.tracecompass.segmentstore.core.SegmentStoreFactory.SegmentStoreType;
+import org.eclipse.tracecompass.tmf.core.exceptions.TmfAnalysisException;
+
+/**
+ * Test stub for a segment store analysis whose in-memory segment store is
+ * saved once built
+ */
+public class StubPersistentSegmentStoreAnalysis extends AbstractSegmentStoreAnalysisModule {
+
+    /** The ID of this analysis */
+    public static final @NonNull String ID = "org.eclipse.tracecompass.analysis.timing.core.tests.persistent"; //$NON-NLS-1$
+
+    /** The number of segments of the segment store */
+    public static final int SIZE = 1000;
+
+    private int fNbBuilds = 0;
+
+    /**
+     * Constructor
+     */
+    public StubPersistentSegmentStoreAnalysis() {
+        setId(ID);
+    }
+
+    /**
+     * Get the number of times the segment store was built by this analysis
+     *
+     * @return The number of builds
+     */
+    public int getNbBuilds() {
+        return fNbBuilds;
+    }
+
+    @Override
+    protected boolean buildAnalysisSegments(@NonNull ISegmentStore<@NonNull ISegment> segmentStore, @NonNull IProgressMonitor monitor) throws TmfAnalysisException {
+        fNbBuilds++;
+        for (int i = 0; i < SIZE; i++) {
+            segmentStore.add(new BasicSegment(i, 2L * i));
+        }
+        return true;
+    }
+
+    @Override
+    protected @NonNull IHTIntervalReader<@NonNull ISegment> getSegmentReader() {
+        return buffer -> BasicSegment.BASIC_SEGMENT_READ_FACTORY.readInterval(buffer);
+    }
+
+    @Override
+    protected @NonNull SegmentStoreType getSegmentStoreType() {
+        return SegmentStoreType.Fast;
+    }
+
+    @Override
+    protected boolean isInMemorySegmentStorePersistent() {
+        return true;
+    }
+
+    // visibility change
+    @Override
+    public boolean executeAnalysis(@NonNull IProgressMonitor monitor) throws TmfAnalysisException {
+        return super.executeAnalysis(monitor);
+    }
+
+    @Override
+    protected void canceling() {
+        // nothing
+    }
+}
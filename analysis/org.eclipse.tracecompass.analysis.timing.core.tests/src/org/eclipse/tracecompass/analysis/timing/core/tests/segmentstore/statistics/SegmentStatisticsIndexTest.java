@@ -0,0 +1,172 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.analysis.timing.core.tests.segmentstore.statistics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.analysis.timing.core.statistics.IStatistics;
+import org.eclipse.tracecompass.analysis.timing.core.statistics.QuantileStatistics;
+import org.eclipse.tracecompass.internal.analysis.timing.core.segmentstore.statistics.SegmentStatisticsIndex;
+import org.eclipse.tracecompass.segmentstore.core.BasicSegment;
+import org.eclipse.tracecompass.segmentstore.core.ISegment;
+import org.eclipse.tracecompass.segmentstore.core.SegmentComparators;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Test the {@link SegmentStatisticsIndex} against statistics computed by
+ * iterating over the segments intersecting the ranges
+ */
+public class SegmentStatisticsIndexTest {
+
+    private static final int NB_SEGMENTS = 100000;
+    private static final double ERROR = 0.000001;
+
+    private static @NonNull List<@NonNull ISegment> fSegments = new ArrayList<>();
+    private static SegmentStatisticsIndex fIndex;
+
+    /**
+     * Create the segments and the index. Most segments are short, but some
+     * are very long, so that they intersect many ranges starting after them.
+     */
+    @BeforeClass
+    public static void setUp() {
+        Random random = new Random(42);
+        List<@NonNull ISegment> segments = new ArrayList<>();
+        for (int i = 0; i < NB_SEGMENTS; i++) {
+            long start = random.nextInt(10000000);
+            long length = random.nextInt(100) == 0 ? random.nextInt(5000000) : random.nextInt(1000);
+            segments.add(new BasicSegment(start, start + length));
+        }
+        segments.sort(SegmentComparators.INTERVAL_START_COMPARATOR);
+        fSegments = segments;
+        fIndex = SegmentStatisticsIndex.create(segments, SegmentStatisticsIndexTest::createStatistics, SegmentStatisticsIndexTest::getType, new NullProgressMonitor());
+        assertNotNull(fIndex);
+    }
+
+    private static @NonNull IStatistics<@NonNull ISegment> createStatistics() {
+        return new QuantileStatistics<>(ISegment::getLength);
+    }
+
+    private static @Nullable String getType(ISegment segment) {
+        long length = segment.getLength();
+        return length % 3 == 0 ? null : String.valueOf(length % 3);
+    }
+
+    /**
+     * Test the total and per type statistics of random ranges, as well as
+     * ranges at the limits
+     */
+    @Test
+    public void testRanges() {
+        Random random = new Random(7);
+        List<long[]> ranges = new ArrayList<>();
+        ranges.add(new long[] { Long.MIN_VALUE, Long.MAX_VALUE });
+        ranges.add(new long[] { Long.MIN_VALUE, 0 });
+        ranges.add(new long[] { 20000000, Long.MAX_VALUE });
+        ranges.add(new long[] { 5000000, 5000000 });
+        ranges.add(new long[] { 3000000, 1000000 });
+        for (int i = 0; i < 50; i++) {
+            long start = random.nextInt(11000000) - 500000;
+            long end = start + (i % 2 == 0 ? random.nextInt(10000) : random.nextInt(10000000));
+            ranges.add(new long[] { start, end });
+        }
+        for (long[] range : ranges) {
+            long start = Math.min(range[0], range[1]);
+            long end = Math.max(range[0], range[1]);
+            IStatistics<@NonNull ISegment> expected = createStatistics();
+            Map<String, IStatistics<@NonNull ISegment>> expectedPerType = new HashMap<>();
+            for (ISegment segment : fSegments) {
+                if (segment.getStart() <= end && segment.getEnd() >= start) {
+                    expected.update(segment);
+                    String type = getType(segment);
+                    if (type != null) {
+                        expectedPerType.computeIfAbsent(type, t -> createStatistics()).update(segment);
+                    }
+                }
+            }
+            String message = "[" + range[0] + ", " + range[1] + "]";
+            IStatistics<@NonNull ISegment> actual = fIndex.getStatsForRange(range[0], range[1], new NullProgressMonitor());
+            assertNotNull(actual);
+            assertStatistics(message, expected, actual);
+            Map<String, IStatistics<@NonNull ISegment>> actualPerType = fIndex.getStatsPerTypeForRange(range[0], range[1], new NullProgressMonitor());
+            assertNotNull(actualPerType);
+            assertEquals(message, expectedPerType.keySet(), actualPerType.keySet());
+            for (String type : expectedPerType.keySet()) {
+                assertStatistics(message + type, expectedPerType.get(type), actualPerType.get(type));
+            }
+        }
+    }
+
+    /**
+     * Test that the statistics of all the segments, merged from the blocks
+     * built in parallel, are the same as the statistics computed sequentially
+     */
+    @Test
+    public void testTotal() {
+        IStatistics<@NonNull ISegment> expected = createStatistics();
+        Map<String, IStatistics<@NonNull ISegment>> expectedPerType = new HashMap<>();
+        for (ISegment segment : fSegments) {
+            expected.update(segment);
+            String type = getType(segment);
+            if (type != null) {
+                expectedPerType.computeIfAbsent(type, t -> createStatistics()).update(segment);
+            }
+        }
+        IStatistics<@NonNull ISegment> actual = fIndex.getTotalStats();
+        assertStatistics("total", expected, actual);
+        Map<String, IStatistics<@NonNull ISegment>> actualPerType = fIndex.getStatsPerType();
+        assertEquals(expectedPerType.keySet(), actualPerType.keySet());
+        for (String type : expectedPerType.keySet()) {
+            assertStatistics(type, expectedPerType.get(type), actualPerType.get(type));
+        }
+
+        /* The statistics returned are copies that do not modify the index */
+        actual.update(new BasicSegment(0, 100000000));
+        assertStatistics("copy", expected, fIndex.getTotalStats());
+    }
+
+    /**
+     * Test that a canceled query or creation returns null
+     */
+    @Test
+    public void testCanceled() {
+        NullProgressMonitor monitor = new NullProgressMonitor();
+        monitor.setCanceled(true);
+        assertNull(fIndex.getStatsForRange(1000, 9000000, monitor));
+        assertNull(fIndex.getStatsPerTypeForRange(1000, 9000000, monitor));
+        assertNull(SegmentStatisticsIndex.create(fSegments, SegmentStatisticsIndexTest::createStatistics, SegmentStatisticsIndexTest::getType, monitor));
+    }
+
+    private static void assertStatistics(String message, IStatistics<@NonNull ISegment> expected, IStatistics<@NonNull ISegment> actual) {
+        assertEquals(message, expected.getNbElements(), actual.getNbElements());
+        assertEquals(message, expected.getMin(), actual.getMin());
+        assertEquals(message, expected.getMax(), actual.getMax());
+        assertEquals(message, expected.getMinObject(), actual.getMinObject());
+        assertEquals(message, expected.getMaxObject(), actual.getMaxObject());
+        assertEquals(message, expected.getTotal(), actual.getTotal(), ERROR);
+        assertEquals(message, expected.getMean(), actual.getMean(), Math.abs(expected.getMean()) * ERROR);
+        assertEquals(message, expected.getStdDev(), actual.getStdDev(), Math.abs(expected.getStdDev()) * ERROR);
+        assertEquals(message, ((QuantileStatistics<@NonNull ISegment>) expected).getQuantile(0.99), ((QuantileStatistics<@NonNull ISegment>) actual).getQuantile(0.99), ERROR);
+    }
+}
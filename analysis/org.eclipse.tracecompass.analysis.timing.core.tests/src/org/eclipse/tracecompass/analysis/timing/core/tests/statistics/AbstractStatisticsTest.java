@@ -486,6 +486,30 @@ public abstract class AbstractStatisticsTest<@NonNull E> {
         validate(offline, statsA);
     }
 
+    /**
+     * Test merging statistics nodes whose means are far apart
+     */
+    @Test
+    public void testMergeStatisticsDistinctMeans() {
+        Collection<@NonNull E> fixture1 = createElementsWithValues(ImmutableList.of(0L, 2L));
+        Collection<@NonNull E> fixture2 = createElementsWithValues(ImmutableList.of(10L, 12L, 14L));
+        Statistics<E> statsA = createStatistics();
+        Statistics<E> statsB = createStatistics();
+        Collection<@NonNull E> allElements = new ArrayList<>();
+        fixture1.stream().forEach(obj -> {
+            statsA.update(obj);
+            allElements.add(obj);
+        });
+        fixture2.stream().forEach(obj -> {
+            statsB.update(obj);
+            allElements.add(obj);
+        });
+        statsA.merge(statsB);
+
+        validate(new OfflineStatisticsCalculator<>(allElements, getMapper()), statsA);
+        assertEquals("Standard Deviation", Math.sqrt(155.2 / 4), statsA.getStdDev(), ERROR);
+    }
+
     /**
      * Test corner cases when merging statistics nodes
      */
@@ -0,0 +1,153 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.analysis.timing.core.tests.statistics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.tracecompass.analysis.timing.core.statistics.QuantileSketch;
+import org.eclipse.tracecompass.analysis.timing.core.statistics.QuantileStatistics;
+import org.junit.Test;
+
+/**
+ * Test the {@link QuantileSketch} and the {@link QuantileStatistics}
+ */
+public class QuantileStatisticsTest {
+
+    private static final double[] QUANTILES = { 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99, 0.999 };
+    private static final double ERROR = 0.000001;
+
+    private static void assertQuantiles(long[] values, QuantileSketch sketch) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        double accuracy = sketch.getRelativeAccuracy();
+        for (double quantile : QUANTILES) {
+            long expected = sorted[(int) (quantile * (sorted.length - 1))];
+            assertEquals("Quantile " + quantile, expected, sketch.getQuantile(quantile), Math.abs(expected) * accuracy + ERROR);
+        }
+        assertEquals("Min", sorted[0], sketch.getQuantile(0), ERROR);
+        assertEquals("Max", sorted[sorted.length - 1], sketch.getQuantile(1), ERROR);
+    }
+
+    /**
+     * Test an empty sketch
+     */
+    @Test
+    public void testEmpty() {
+        QuantileSketch sketch = new QuantileSketch();
+        assertEquals(0, sketch.getCount());
+        assertEquals(Double.NaN, sketch.getQuantile(0.5), ERROR);
+        QuantileStatistics<@NonNull Long> stats = new QuantileStatistics<>(e -> e);
+        assertEquals(Double.NaN, stats.getQuantile(0.99), ERROR);
+    }
+
+    /**
+     * Test the quantiles of positive values spread on several orders of
+     * magnitude, like latencies
+     */
+    @Test
+    public void testLongTail() {
+        Random random = new Random(42);
+        long[] values = new long[100000];
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.exp(random.nextDouble() * 20);
+            sketch.add(values[i]);
+        }
+        assertEquals(values.length, sketch.getCount());
+        assertQuantiles(values, sketch);
+    }
+
+    /**
+     * Test the quantiles of negative, zero and positive values
+     */
+    @Test
+    public void testNegativeValues() {
+        Random random = new Random(7);
+        long[] values = new long[10000];
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt(2001) - 1000;
+            sketch.add(values[i]);
+        }
+        assertQuantiles(values, sketch);
+    }
+
+    /**
+     * Test that the memory of the sketch is bounded and that the highest
+     * quantiles keep their accuracy when the lowest bins are collapsed
+     */
+    @Test
+    public void testCollapse() {
+        QuantileSketch sketch = new QuantileSketch(0.01, 100);
+        for (long i = 1; i <= 1000000; i++) {
+            sketch.add(i);
+        }
+        assertEquals(990000, sketch.getQuantile(0.99), 990000 * 0.01);
+        assertEquals(999000, sketch.getQuantile(0.999), 999000 * 0.01);
+        /* The lowest quantiles are collapsed and can only be overestimated */
+        double p1 = sketch.getQuantile(0.01);
+        assertEquals(1, sketch.getQuantile(0), ERROR);
+        assertTrue(p1 >= 10000 * 0.99 && p1 < 990000);
+    }
+
+    /**
+     * Test that merging sketches gives the same quantiles as a single sketch,
+     * also when merging statistics
+     */
+    @Test
+    public void testMerge() {
+        Random random = new Random(1);
+        long[] values = new long[50000];
+        QuantileStatistics<@NonNull Long> total = new QuantileStatistics<>(e -> e);
+        QuantileSketch all = new QuantileSketch();
+        List<@NonNull QuantileStatistics<@NonNull Long>> parts = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            parts.add(new QuantileStatistics<>(e -> e));
+        }
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.exp(random.nextDouble() * 15);
+            all.add(values[i]);
+            parts.get(random.nextInt(parts.size())).update(values[i]);
+        }
+        /* Merge into empty, single element and non-empty statistics */
+        QuantileStatistics<@NonNull Long> single = new QuantileStatistics<>(e -> e);
+        single.update(values[0]);
+        single.merge(new QuantileStatistics<>(e -> e));
+        for (QuantileStatistics<@NonNull Long> part : parts) {
+            total.merge(part);
+        }
+        total.merge(single);
+
+        assertEquals(values.length + 1, total.getNbElements());
+        for (double quantile : QUANTILES) {
+            QuantileSketch expected = new QuantileSketch();
+            expected.merge(all);
+            expected.add(values[0]);
+            assertEquals(expected.getQuantile(quantile), total.getQuantile(quantile), ERROR);
+        }
+    }
+
+    /**
+     * Test that sketches with different accuracies cannot be merged
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testMergeDifferentAccuracy() {
+        new QuantileSketch(0.01, 100).merge(new QuantileSketch(0.02, 100));
+    }
+}
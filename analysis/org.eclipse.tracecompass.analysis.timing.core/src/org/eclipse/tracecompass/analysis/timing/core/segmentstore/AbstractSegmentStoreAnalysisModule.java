@@ -52,6 +52,7 @@ import org.eclipse.tracecompass.tmf.core.trace.TmfTraceManager;
 public abstract class AbstractSegmentStoreAnalysisModule extends TmfAbstractAnalysisModule implements ISegmentStoreProvider {
 
     private static final String EXTENSION = ".ss"; //$NON-NLS-1$
+    private static final String SNAPSHOT_EXTENSION = ".sss"; //$NON-NLS-1$
     private final ListenerList<IAnalysisProgressListener> fListeners = new ListenerList<>(ListenerList.IDENTITY);
 
     private @Nullable ISegmentStore<ISegment> fSegmentStore;
@@ -151,6 +152,23 @@ public abstract class AbstractSegmentStoreAnalysisModule extends TmfAbstractAnal
         return SegmentStoreType.Fast;
     }
 
+    /**
+     * Whether the in-memory segment store should be saved to the
+     * supplementary files once it is built, so that it is loaded instead of
+     * built again the next time the trace is opened. Only the
+     * {@link SegmentStoreType#Fast} and {@link SegmentStoreType#Stable}
+     * segment stores can be saved. Analyses returning <code>true</code> need
+     * to implement {@link #getSegmentReader()} and {@link #getVersion()}, and
+     * their segments must be serializable. A loaded segment store is
+     * read-only.
+     *
+     * @return Whether to save the in-memory segment store
+     * @since 5.3
+     */
+    protected boolean isInMemorySegmentStorePersistent() {
+        return false;
+    }
+
     @Override
     public @Nullable ISegmentStore<ISegment> getSegmentStore() {
         return fSegmentStore;
@@ -237,15 +255,40 @@ public abstract class AbstractSegmentStoreAnalysisModule extends TmfAbstractAnal
     }
 
     private @Nullable ISegmentStore<@NonNull ISegment> buildInMemorySegmentStore(SegmentStoreType type, IProgressMonitor monitor) throws TmfAnalysisException {
+        Path snapshotFile = getSnapshotFile(type);
+        if (snapshotFile != null && Files.exists(snapshotFile)) {
+            try {
+                return SegmentStoreFactory.loadSegmentStoreSnapshot(snapshotFile, getSegmentReader(), getVersion());
+            } catch (IOException e) {
+                // The file is invalid or of another version, build it again
+                Activator.getInstance().logInfo("Segment store snapshot not loaded, building the segment store: " + e.getMessage()); //$NON-NLS-1$
+            }
+        }
+
         ISegmentStore<ISegment> segmentStore = SegmentStoreFactory.createSegmentStore(type);
         boolean completed = buildAnalysisSegments(segmentStore, monitor);
         if (!completed) {
             return null;
         }
 
+        if (snapshotFile != null) {
+            try {
+                SegmentStoreFactory.writeSegmentStoreSnapshot(segmentStore, snapshotFile, getVersion());
+            } catch (IOException e) {
+                Activator.getInstance().logWarning("Error saving the segment store snapshot", e); //$NON-NLS-1$
+            }
+        }
         return segmentStore;
     }
 
+    private @Nullable Path getSnapshotFile(SegmentStoreType type) {
+        ITmfTrace trace = getTrace();
+        if (trace == null || type == SegmentStoreType.Distinct || !isInMemorySegmentStorePersistent()) {
+            return null;
+        }
+        return Paths.get(TmfTraceManager.getSupplementaryFileDir(trace), getId() + SNAPSHOT_EXTENSION);
+    }
+
     /**
      * Send the segment store to all its listener
      *
@@ -275,10 +318,12 @@ public abstract class AbstractSegmentStoreAnalysisModule extends TmfAbstractAnal
             return properties;
         }
 
-        String fileName = getDataFileName();
         /* See if the data file already exists on disk */
-        String dir = TmfTraceManager.getSupplementaryFileDir(trace);
-        final Path file = Paths.get(dir, fileName);
+        Path file = getSnapshotFile(getSegmentStoreType());
+        if (file == null) {
+            String dir = TmfTraceManager.getSupplementaryFileDir(trace);
+            file = Paths.get(dir, getDataFileName());
+        }
 
         if (Files.exists(file)) {
             try {
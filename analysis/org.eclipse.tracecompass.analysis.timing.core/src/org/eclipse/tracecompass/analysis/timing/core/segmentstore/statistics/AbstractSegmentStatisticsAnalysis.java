@@ -12,7 +12,9 @@ package org.eclipse.tracecompass.analysis.timing.core.segmentstore.statistics;
 
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.RandomAccess;
 import java.util.function.Function;
 
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -21,7 +23,8 @@ import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.analysis.timing.core.segmentstore.ISegmentStoreProvider;
 import org.eclipse.tracecompass.analysis.timing.core.statistics.IStatistics;
 import org.eclipse.tracecompass.analysis.timing.core.statistics.IStatisticsAnalysis;
-import org.eclipse.tracecompass.analysis.timing.core.statistics.Statistics;
+import org.eclipse.tracecompass.analysis.timing.core.statistics.QuantileStatistics;
+import org.eclipse.tracecompass.internal.analysis.timing.core.segmentstore.statistics.SegmentStatisticsIndex;
 import org.eclipse.tracecompass.segmentstore.core.ISegment;
 import org.eclipse.tracecompass.segmentstore.core.ISegmentStore;
 import org.eclipse.tracecompass.tmf.core.analysis.IAnalysisModule;
@@ -33,7 +36,15 @@ import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
 import com.google.common.collect.ImmutableList;
 
 /**
- * Abstract analysis to build statistics data for a segment store
+ * Abstract analysis to build statistics data for a segment store. The
+ * statistics are {@link QuantileStatistics}, so they also estimate the
+ * percentiles of the segments' values.
+ *
+ * When the segments are held in memory, the analysis builds an index of
+ * statistics pre-aggregated by blocks of segments, in parallel. The statistics
+ * of the whole trace are merged from the blocks, and the statistics of a time
+ * range are computed from the index instead of iterating over all the segments
+ * intersecting the range.
  *
  * @author Jean-Christian Kouame
  * @since 3.0
@@ -46,6 +57,8 @@ public abstract class AbstractSegmentStatisticsAnalysis extends TmfAbstractAnaly
 
     private Map<String, IStatistics<ISegment>> fPerSegmentTypeStats = new HashMap<>();
 
+    private volatile @Nullable SegmentStatisticsIndex fStatisticsIndex;
+
     /**
      * Gets the segment mapper. This allows values to be resolved
      *
@@ -77,6 +90,17 @@ public abstract class AbstractSegmentStatisticsAnalysis extends TmfAbstractAnaly
             return false;
         }
 
+        SegmentStatisticsIndex index = createStatisticsIndex(monitor);
+        if (monitor.isCanceled()) {
+            return false;
+        }
+        if (index != null) {
+            fTotalStats = index.getTotalStats();
+            fPerSegmentTypeStats = index.getStatsPerType();
+            fStatisticsIndex = index;
+            return true;
+        }
+
         IStatistics<ISegment> totalStats = getTotalStats(TmfTimeRange.ETERNITY.getStartTime().toNanos(), TmfTimeRange.ETERNITY.getEndTime().toNanos(), monitor);
         if (totalStats == null) {
             return false;
@@ -89,6 +113,32 @@ public abstract class AbstractSegmentStatisticsAnalysis extends TmfAbstractAnaly
         return true;
     }
 
+    /**
+     * Create the index to compute the statistics of time ranges. The index is
+     * only created for segment stores whose segments are held in memory, in a
+     * list sorted by start time, and large enough to be worth it.
+     */
+    private @Nullable SegmentStatisticsIndex createStatisticsIndex(IProgressMonitor monitor) {
+        Iterable<@NonNull ISegment> store = getSegmentStore(TmfTimeRange.ETERNITY.getStartTime().toNanos(), TmfTimeRange.ETERNITY.getEndTime().toNanos());
+        if (!(store instanceof ISegmentStore)) {
+            return null;
+        }
+        Iterable<@NonNull ISegment> segments = ((ISegmentStore<@NonNull ISegment>) store).getIntersectingElements(TmfTimeRange.ETERNITY.getStartTime().toNanos(), TmfTimeRange.ETERNITY.getEndTime().toNanos());
+        if (!(segments instanceof List) || !(segments instanceof RandomAccess)) {
+            return null;
+        }
+        List<@NonNull ISegment> list = (List<@NonNull ISegment>) segments;
+        if (list.size() < 2 * SegmentStatisticsIndex.MIN_BLOCK_SIZE) {
+            return null;
+        }
+        for (int i = 1; i < list.size(); i++) {
+            if (list.get(i - 1).getStart() > list.get(i).getStart()) {
+                return null;
+            }
+        }
+        return SegmentStatisticsIndex.create(list, () -> new QuantileStatistics<>(getMapper()), this::getSegmentType, monitor);
+    }
+
     private @Nullable IStatistics<ISegment> getTotalStats(long start, long end, IProgressMonitor monitor) {
         Iterable<@NonNull ISegment> store = getSegmentStore(start, end);
         if (store == null) {
@@ -123,6 +173,10 @@ public abstract class AbstractSegmentStatisticsAnalysis extends TmfAbstractAnaly
             waitForCompletion();
             return getStatsTotal();
         }
+        SegmentStatisticsIndex index = fStatisticsIndex;
+        if (index != null) {
+            return index.getStatsForRange(start, end, monitor);
+        }
         return getTotalStats(start, end, monitor);
     }
 
@@ -157,6 +211,11 @@ public abstract class AbstractSegmentStatisticsAnalysis extends TmfAbstractAnaly
             waitForCompletion();
             return getStatsPerType();
         }
+        SegmentStatisticsIndex index = fStatisticsIndex;
+        if (index != null) {
+            Map<@NonNull String, IStatistics<@NonNull ISegment>> stats = index.getStatsPerTypeForRange(start, end, monitor);
+            return stats != null ? stats : Collections.emptyMap();
+        }
         return getPerTypeStats(start, end, monitor);
     }
 
@@ -188,7 +247,7 @@ public abstract class AbstractSegmentStatisticsAnalysis extends TmfAbstractAnaly
     }
 
     private @Nullable IStatistics<ISegment> calculateTotalManual(Iterable<@NonNull ISegment> segments, IProgressMonitor monitor) {
-        IStatistics<ISegment> total = new Statistics<>(getMapper());
+        IStatistics<ISegment> total = new QuantileStatistics<>(getMapper());
         for (ISegment segment : segments) {
             if (monitor.isCanceled()) {
                 return null;
@@ -207,9 +266,8 @@ public abstract class AbstractSegmentStatisticsAnalysis extends TmfAbstractAnaly
             }
             String segmentType = getSegmentType(segment);
             if (segmentType != null) {
-                IStatistics<ISegment> values = perSegmentTypeStats.getOrDefault(segmentType, new Statistics<>(getMapper()));
+                IStatistics<ISegment> values = perSegmentTypeStats.computeIfAbsent(segmentType, type -> new QuantileStatistics<>(getMapper()));
                 values.update(segment);
-                perSegmentTypeStats.put(segmentType, values);
             }
         }
         return perSegmentTypeStats;
@@ -217,7 +275,7 @@ public abstract class AbstractSegmentStatisticsAnalysis extends TmfAbstractAnaly
 
     /**
      * Get the type of a segment. Statistics per type will use this type as a
-     * key
+     * key. This method may be called concurrently by several threads.
      *
      * @param segment
      *            the segment for which to get the type
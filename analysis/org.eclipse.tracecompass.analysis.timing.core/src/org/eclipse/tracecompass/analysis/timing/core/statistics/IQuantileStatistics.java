@@ -0,0 +1,38 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.analysis.timing.core.statistics;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+/**
+ * Statistics that can also estimate the quantiles of the values, such as the
+ * median or the 99th percentile. The estimation is done in bounded memory, and
+ * merging statistics also merges the quantile estimations.
+ *
+ * @param <E>
+ *            The type of object to calculate statistics on
+ * @since 5.3
+ */
+public interface IQuantileStatistics<@NonNull E> extends IStatistics<E> {
+
+    /**
+     * Get the estimated value at a quantile
+     *
+     * @param quantile
+     *            The quantile, between 0 and 1. For example, 0.5 is the median
+     *            and 0.99 is the 99th percentile.
+     * @return The estimated value at this quantile, or {@link Double#NaN} if
+     *         there are no elements
+     */
+    double getQuantile(double quantile);
+
+}
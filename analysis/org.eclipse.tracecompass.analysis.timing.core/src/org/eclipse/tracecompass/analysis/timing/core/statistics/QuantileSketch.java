@@ -0,0 +1,319 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.analysis.timing.core.statistics;
+
+import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNull;
+
+import java.util.Arrays;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Mergeable sketch to estimate the quantiles of a distribution of values in
+ * bounded memory. Values are counted in logarithmic bins, so that any quantile
+ * is estimated with a bounded relative error, as described in <a href=
+ * "https://arxiv.org/abs/1908.10693">DDSketch: A Fast and Fully-Mergeable
+ * Quantile Sketch with Relative-Error Guarantees</a>.
+ * <p>
+ * The number of bins is limited. If the values span more than the maximum
+ * number of bins, the bins of the smallest magnitudes are collapsed together,
+ * so the relative error guarantee only holds for the higher quantiles, which
+ * are usually the ones of interest for latencies.
+ * <p>
+ * Two sketches with the same accuracy can be merged, the result being the same
+ * as if all values were added to a single sketch. This class is not thread
+ * safe, concurrent threads should each update their own sketch and merge them.
+ *
+ * @since 5.3
+ */
+public final class QuantileSketch {
+
+    /** Default relative accuracy of the quantiles */
+    public static final double DEFAULT_RELATIVE_ACCURACY = 0.01;
+
+    /** Default maximum number of bins for each sign */
+    public static final int DEFAULT_MAX_BINS = 2048;
+
+    private static final int INITIAL_BINS = 64;
+
+    /**
+     * Values with a smaller magnitude are counted as zeros, so that the bin
+     * indexes fit in an int
+     */
+    private static final double MIN_INDEXABLE_VALUE = Double.MIN_NORMAL;
+
+    private final double fRelativeAccuracy;
+    private final int fMaxBins;
+    private final double fGamma;
+    private final double fMultiplier;
+
+    private final Bins fPositives = new Bins();
+    /** Bins of the absolute values of negative values */
+    private final Bins fNegatives = new Bins();
+    private long fZeroCount = 0;
+    private long fCount = 0;
+    private double fMin = Double.POSITIVE_INFINITY;
+    private double fMax = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Constructor with the default relative accuracy and maximum number of
+     * bins
+     */
+    public QuantileSketch() {
+        this(DEFAULT_RELATIVE_ACCURACY, DEFAULT_MAX_BINS);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param relativeAccuracy
+     *            The relative accuracy of the quantiles, strictly between 0
+     *            and 1
+     * @param maxBins
+     *            The maximum number of bins for each of the positive and
+     *            negative values. It bounds the memory used by the sketch.
+     */
+    public QuantileSketch(double relativeAccuracy, int maxBins) {
+        if (relativeAccuracy <= 0 || relativeAccuracy >= 1 || maxBins <= 0) {
+            throw new IllegalArgumentException("Invalid sketch parameters: " + relativeAccuracy + ", " + maxBins); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        fRelativeAccuracy = relativeAccuracy;
+        fMaxBins = maxBins;
+        fGamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        fMultiplier = 1 / Math.log(fGamma);
+    }
+
+    /**
+     * Get the relative accuracy of the quantiles of this sketch
+     *
+     * @return The relative accuracy
+     */
+    public double getRelativeAccuracy() {
+        return fRelativeAccuracy;
+    }
+
+    /**
+     * Get the number of values added to the sketch
+     *
+     * @return The number of values
+     */
+    public long getCount() {
+        return fCount;
+    }
+
+    /**
+     * Add a value to the sketch
+     *
+     * @param value
+     *            The value to add. NaN values are ignored.
+     */
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        if (value >= MIN_INDEXABLE_VALUE) {
+            fPositives.add(getIndex(value), 1, fMaxBins);
+        } else if (value <= -MIN_INDEXABLE_VALUE) {
+            fNegatives.add(getIndex(-value), 1, fMaxBins);
+        } else {
+            fZeroCount++;
+        }
+        fCount++;
+        fMin = Math.min(fMin, value);
+        fMax = Math.max(fMax, value);
+    }
+
+    /**
+     * Merge the values of another sketch into this one
+     *
+     * @param other
+     *            The other sketch, which must have the same relative accuracy
+     *            and maximum number of bins
+     */
+    public void merge(QuantileSketch other) {
+        if (other.fRelativeAccuracy != fRelativeAccuracy || other.fMaxBins != fMaxBins) {
+            throw new IllegalArgumentException("Can only merge sketches with the same parameters"); //$NON-NLS-1$
+        }
+        if (other.fCount == 0) {
+            return;
+        }
+        fPositives.merge(other.fPositives, fMaxBins);
+        fNegatives.merge(other.fNegatives, fMaxBins);
+        fZeroCount += other.fZeroCount;
+        fCount += other.fCount;
+        fMin = Math.min(fMin, other.fMin);
+        fMax = Math.max(fMax, other.fMax);
+    }
+
+    /**
+     * Get the estimated value at a quantile of the values added to the sketch.
+     * The minimum and maximum quantiles are exact.
+     *
+     * @param quantile
+     *            The quantile, between 0 and 1. For example, 0.99 is the 99th
+     *            percentile.
+     * @return The estimated value, or {@link Double#NaN} if the sketch is
+     *         empty
+     */
+    public double getQuantile(double quantile) {
+        if (quantile < 0 || quantile > 1) {
+            throw new IllegalArgumentException("Quantile should be between 0 and 1: " + quantile); //$NON-NLS-1$
+        }
+        if (fCount == 0) {
+            return Double.NaN;
+        }
+        if (quantile == 0) {
+            return fMin;
+        }
+        if (quantile == 1) {
+            return fMax;
+        }
+        long rank = (long) (quantile * (fCount - 1));
+
+        /* Negative values first, the largest magnitudes being the smallest */
+        long seen = fNegatives.fTotal;
+        if (rank < seen) {
+            return clamp(-getValue(fNegatives.getIndexDescending(rank)));
+        }
+        seen += fZeroCount;
+        if (rank < seen) {
+            return clamp(0);
+        }
+        return clamp(getValue(fPositives.getIndexAscending(rank - seen)));
+    }
+
+    private int getIndex(double value) {
+        return (int) Math.ceil(Math.log(value) * fMultiplier);
+    }
+
+    /**
+     * Get the value representing a bin, whose relative distance to any value
+     * of the bin is at most the relative accuracy
+     */
+    private double getValue(int index) {
+        return 2 * Math.exp(index / fMultiplier) / (1 + fGamma);
+    }
+
+    private double clamp(double value) {
+        return Math.max(fMin, Math.min(fMax, value));
+    }
+
+    @Override
+    public String toString() {
+        return "QuantileSketch: " + fCount + " values, accuracy=" + fRelativeAccuracy; //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    /**
+     * Contiguous counts of the bins between a minimum and maximum index. The
+     * array is allocated on the first value and grows as needed, up to the
+     * maximum number of bins.
+     */
+    private static final class Bins {
+
+        private long @Nullable [] fCounts = null;
+        /** Index of the first element of the array */
+        private int fOffset;
+        /** Lowest and highest indexes of the non-empty bins */
+        private int fMinIndex;
+        private int fMaxIndex;
+        private long fTotal = 0;
+
+        public void add(int index, long count, int maxBins) {
+            long[] counts = fCounts;
+            if (counts == null || fTotal == 0) {
+                if (counts == null) {
+                    counts = new long[Math.min(INITIAL_BINS, maxBins)];
+                    fCounts = counts;
+                } else {
+                    Arrays.fill(counts, 0);
+                }
+                fOffset = index - counts.length / 2;
+                fMinIndex = index;
+                fMaxIndex = index;
+            } else if (index < fMinIndex || index > fMaxIndex) {
+                counts = extend(Math.min(index, fMinIndex), Math.max(index, fMaxIndex), maxBins);
+            }
+            /* The index may have been collapsed into the lowest bin */
+            int bin = Math.max(index, fMinIndex) - fOffset;
+            counts[bin] += count;
+            fTotal += count;
+        }
+
+        public void merge(Bins other, int maxBins) {
+            long[] otherCounts = other.fCounts;
+            if (otherCounts == null || other.fTotal == 0) {
+                return;
+            }
+            for (int i = other.fMaxIndex; i >= other.fMinIndex; i--) {
+                long count = otherCounts[i - other.fOffset];
+                if (count != 0) {
+                    add(i, count, maxBins);
+                }
+            }
+        }
+
+        /**
+         * Extend the bins to cover a range of indexes. If the range is larger
+         * than the maximum number of bins, the lowest bins are collapsed.
+         */
+        private long[] extend(int minIndex, int maxIndex, int maxBins) {
+            long[] counts = checkNotNull(fCounts);
+            int newMin = maxIndex - minIndex + 1 > maxBins ? maxIndex - maxBins + 1 : minIndex;
+            long collapsed = 0;
+            for (int i = fMinIndex; i < newMin && i <= fMaxIndex; i++) {
+                collapsed += counts[i - fOffset];
+                counts[i - fOffset] = 0;
+            }
+            int needed = maxIndex - newMin + 1;
+            if (newMin < fOffset || maxIndex >= fOffset + counts.length) {
+                int length = Math.max(needed, Math.min(maxBins, 2 * counts.length));
+                long[] newCounts = new long[length];
+                int newOffset = newMin - (length - needed) / 2;
+                int from = Math.max(fMinIndex, newMin);
+                if (from <= fMaxIndex) {
+                    System.arraycopy(counts, from - fOffset, newCounts, from - newOffset, fMaxIndex - from + 1);
+                }
+                counts = newCounts;
+                fCounts = newCounts;
+                fOffset = newOffset;
+            }
+            fMinIndex = newMin;
+            fMaxIndex = maxIndex;
+            counts[newMin - fOffset] += collapsed;
+            return counts;
+        }
+
+        public int getIndexAscending(long rank) {
+            long[] counts = checkNotNull(fCounts);
+            long seen = 0;
+            for (int i = fMinIndex; i <= fMaxIndex; i++) {
+                seen += counts[i - fOffset];
+                if (rank < seen) {
+                    return i;
+                }
+            }
+            return fMaxIndex;
+        }
+
+        public int getIndexDescending(long rank) {
+            long[] counts = checkNotNull(fCounts);
+            long seen = 0;
+            for (int i = fMaxIndex; i >= fMinIndex; i--) {
+                seen += counts[i - fOffset];
+                if (rank < seen) {
+                    return i;
+                }
+            }
+            return fMinIndex;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.analysis.timing.core.statistics;
+
+import java.util.function.Function;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Statistics that also keep a {@link QuantileSketch} of the values, to
+ * estimate their quantiles.
+ *
+ * @param <E>
+ *            The type of object to calculate statistics on
+ * @since 5.3
+ */
+public class QuantileStatistics<@NonNull E> extends Statistics<E> implements IQuantileStatistics<E> {
+
+    private final Function<E, @Nullable ? extends @Nullable Number> fMapper;
+    private final QuantileSketch fSketch = new QuantileSketch();
+
+    /**
+     * Constructor
+     *
+     * @param mapper
+     *            A mapper function that takes an object to computes statistics
+     *            for and returns the value to use for the statistics
+     */
+    public QuantileStatistics(Function<E, @Nullable ? extends @Nullable Number> mapper) {
+        super(mapper);
+        fMapper = mapper;
+    }
+
+    @Override
+    public double getQuantile(double quantile) {
+        return fSketch.getQuantile(quantile);
+    }
+
+    @Override
+    public void update(E object) {
+        super.update(object);
+        Number number = fMapper.apply(object);
+        if (number != null) {
+            fSketch.add(number.doubleValue());
+        }
+    }
+
+    @Override
+    public void merge(IStatistics<E> o) {
+        if (!(o instanceof QuantileStatistics)) {
+            throw new IllegalArgumentException("Can only merge statistics of the same class"); //$NON-NLS-1$
+        }
+        QuantileStatistics<E> other = (QuantileStatistics<E>) o;
+        /*
+         * The parent merges a single element by updating this object with it,
+         * in which case the sketch is already up to date.
+         */
+        boolean mergedByUpdate = other.getNbElements() == 1 && getNbElements() != 0;
+        super.merge(other);
+        if (!mergedByUpdate) {
+            fSketch.merge(other.fSketch);
+        }
+    }
+}
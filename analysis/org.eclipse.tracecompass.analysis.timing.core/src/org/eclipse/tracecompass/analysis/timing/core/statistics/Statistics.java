@@ -223,25 +223,15 @@ public class Statistics<@NonNull E> implements IStatistics<E> {
         fMean = ((oldNbSeg * oldAverage) + (otherAverage * otherSegments)) / fNbElements;
 
         /*
-         * This one is a bit tricky.
-         *
-         * The variance is the sum of the deltas from a mean squared.
-         *
-         * So if we add the old mean squared back to to variance and remove the
-         * new mean, the standard deviation can be easily calculated.
-         */
-        double avg1Sq = oldAverage * oldAverage;
-        double avg2sq = otherAverage * otherAverage;
-        double avgtSq = fMean * fMean;
-        /*
-         * This is a tricky part, bear in mind that the set is not continuous
-         * but discrete, Therefore, we have for n elements, n-1 intervals
-         * between them. Ergo, n-1 intervals are used for divisions and
-         * multiplications.
+         * The variance is the sum of the squared deltas from the mean. Each
+         * part's sum is relative to its own mean, so it is corrected by the
+         * distance between the means, as per the parallel algorithm shown here
+         * <a href=
+         * "https://en.wikipedia.org/wiki/Algorithms_for_calculating_variance#Parallel_algorithm">
+         * Wikipedia article</a>
          */
-        double variance1 = fVariance / (oldNbSeg - 1);
-        double variance2 = other.fVariance / (otherSegments - 1);
-        fVariance = ((variance1 + avg1Sq - avgtSq) * (oldNbSeg - 1) + (variance2 + avg2sq - avgtSq) * (otherSegments - 1));
+        double delta = otherAverage - oldAverage;
+        fVariance += other.fVariance + delta * delta * ((double) oldNbSeg * otherSegments / fNbElements);
     }
 
     private void copy(Statistics<E> copyOther) {
@@ -120,6 +120,18 @@ public class Messages extends NLS {
      * Name of the maximum end time column
      */
     public static @Nullable String SegmentStoreStatistics_MaxEndLabel;
+    /**
+     * Name of the median column
+     */
+    public static @Nullable String SegmentStoreStatistics_Percentile50Label;
+    /**
+     * Name of the 99th percentile column
+     */
+    public static @Nullable String SegmentStoreStatistics_Percentile99Label;
+    /**
+     * Name of the 99.9th percentile column
+     */
+    public static @Nullable String SegmentStoreStatistics_Percentile999Label;
 
     static {
         // initialize resource bundle
@@ -16,6 +16,7 @@ import java.util.function.Function;
 import java.util.function.UnaryOperator;
 
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.analysis.timing.core.statistics.IQuantileStatistics;
 import org.eclipse.tracecompass.analysis.timing.core.statistics.IStatistics;
 import org.eclipse.tracecompass.segmentstore.core.ISegment;
 import org.eclipse.tracecompass.tmf.core.dataprovider.DataType;
@@ -41,7 +42,8 @@ import com.google.common.collect.ImmutableList;
     }
     /**
      * Set a mapper function to convert a statistics Number to String.
-     * Used for minimum, maximum, average, standard deviation and total.
+     * Used for minimum, maximum, average, standard deviation, total and
+     * percentiles.
      *
      * @param mapper
      *              function to convert a Number to String
@@ -148,9 +150,34 @@ import com.google.common.collect.ImmutableList;
             }
         });
 
+        aspectsBuilder.add(createQuantileAspect(Objects.requireNonNull(Messages.SegmentStoreStatistics_Percentile50Label), 0.5));
+        aspectsBuilder.add(createQuantileAspect(Objects.requireNonNull(Messages.SegmentStoreStatistics_Percentile99Label), 0.99));
+        aspectsBuilder.add(createQuantileAspect(Objects.requireNonNull(Messages.SegmentStoreStatistics_Percentile999Label), 0.999));
+
         return aspectsBuilder.build();
     }
 
+    /**
+     * Create an aspect for a quantile of the statistics. The value is empty if
+     * the statistics do not estimate quantiles or if there are no elements.
+     */
+    private IDataAspect<NamedStatistics> createQuantileAspect(String name, double quantile) {
+        return new IDataAspect<NamedStatistics>() {
+            @Override
+            public String getName() {
+                return name;
+            }
+            @Override
+            public @Nullable Object apply(NamedStatistics input) {
+                IStatistics<ISegment> statistics = input.getStatistics();
+                if (!(statistics instanceof IQuantileStatistics) || statistics.getNbElements() == 0) {
+                    return null;
+                }
+                return fMapper.apply(((IQuantileStatistics<ISegment>) statistics).getQuantile(quantile));
+            }
+        };
+    }
+
    /**
     * Wrapper of statistics name and actual statistics implementation
     */
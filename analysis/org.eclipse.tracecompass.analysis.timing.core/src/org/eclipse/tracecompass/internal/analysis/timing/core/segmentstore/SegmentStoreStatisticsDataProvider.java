@@ -263,7 +263,8 @@ public class SegmentStoreStatisticsDataProvider extends AbstractTmfTraceDataProv
 
     /**
      * Set a mapper function to convert a statistics Number to String.
-     * Used for minimum, maximum, average, standard deviation and total.
+     * Used for minimum, maximum, average, standard deviation, total and
+     * percentiles.
      *
      * @param mapper
      *              function to convert a Number to String
@@ -0,0 +1,340 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.analysis.timing.core.segmentstore.statistics;
+
+import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.analysis.timing.core.statistics.IStatistics;
+import org.eclipse.tracecompass.segmentstore.core.ISegment;
+
+/**
+ * Index of pre-aggregated statistics over blocks of segments sorted by start
+ * time, to compute the statistics of a time range without iterating over all
+ * its segments. Each block keeps the statistics of its segments, in total and
+ * per segment type, and, much like the state system mipmaps, each upper level
+ * merges {@link #RESOLUTION} blocks of the level below.
+ *
+ * The statistics of a time range include all the segments intersecting the
+ * range. They are obtained by merging the blocks fully contained in the range
+ * and by updating the result with the segments at the edges of the range, as
+ * well as the segments that started before the range but end inside or after
+ * it. Blocks whose segments all end before the range are skipped.
+ *
+ * The blocks are independent chunks of time, so they are built in parallel,
+ * in the common fork/join pool, and merged into the upper levels. The top
+ * level then holds the statistics of all the segments.
+ *
+ * The index is immutable and keeps a reference to the list of segments, which
+ * must not be modified afterwards.
+ */
+@NonNullByDefault
+public class SegmentStatisticsIndex {
+
+    /**
+     * The number of blocks of a level merged in one block of the level above
+     */
+    public static final int RESOLUTION = 16;
+
+    /**
+     * The minimum number of segments in a block. Lists with fewer than
+     * {@link #MIN_BLOCK_SIZE} segments are not worth indexing.
+     */
+    public static final int MIN_BLOCK_SIZE = 1024;
+
+    /**
+     * The maximum number of blocks at the finest level. It bounds the memory
+     * used by the index, as well as the time to merge blocks.
+     */
+    private static final int MAX_BLOCKS = 256;
+
+    private final List<ISegment> fSegments;
+    private final Supplier<IStatistics<ISegment>> fStatisticsFactory;
+    private final Function<ISegment, @Nullable String> fTypeResolver;
+    private final int fBlockSize;
+    /** The maximum end time of the segments of each block */
+    private final long[] fMaxEnd;
+    /** The aggregates of each level, level 0 being the blocks */
+    private final List<@NonNull Aggregate[]> fLevels = new ArrayList<>();
+
+    private SegmentStatisticsIndex(List<ISegment> sortedSegments, Supplier<IStatistics<ISegment>> statisticsFactory, Function<ISegment, @Nullable String> typeResolver) {
+        fSegments = sortedSegments;
+        fStatisticsFactory = statisticsFactory;
+        fTypeResolver = typeResolver;
+        fBlockSize = Math.max(MIN_BLOCK_SIZE, (int) ((sortedSegments.size() + (long) MAX_BLOCKS - 1) / MAX_BLOCKS));
+        fMaxEnd = new long[(sortedSegments.size() + fBlockSize - 1) / fBlockSize];
+    }
+
+    /**
+     * Create the index. The blocks of segments are aggregated in parallel and
+     * the functions passed as parameters will be called concurrently.
+     *
+     * @param sortedSegments
+     *            The list of segments, sorted by start time
+     * @param statisticsFactory
+     *            The factory to create empty statistics. The statistics it
+     *            creates must all be mergeable together.
+     * @param typeResolver
+     *            The function returning the type of a segment, or
+     *            <code>null</code> if the segment has no type
+     * @param monitor
+     *            The progress monitor
+     * @return The index, or <code>null</code> if the monitor was canceled
+     */
+    public static @Nullable SegmentStatisticsIndex create(List<ISegment> sortedSegments, Supplier<IStatistics<ISegment>> statisticsFactory,
+            Function<ISegment, @Nullable String> typeResolver, IProgressMonitor monitor) {
+        SegmentStatisticsIndex index = new SegmentStatisticsIndex(sortedSegments, statisticsFactory, typeResolver);
+        @NonNull Aggregate[] blocks = new @NonNull Aggregate[index.fMaxEnd.length];
+        IntStream.range(0, blocks.length).parallel().forEach(block -> {
+            if (!monitor.isCanceled()) {
+                blocks[block] = index.buildBlock(block);
+            }
+        });
+        if (monitor.isCanceled()) {
+            return null;
+        }
+        index.fLevels.add(blocks);
+        @NonNull Aggregate[] level = blocks;
+        while (level.length > 1) {
+            @NonNull Aggregate[] below = level;
+            @NonNull Aggregate[] up = new @NonNull Aggregate[(below.length + RESOLUTION - 1) / RESOLUTION];
+            IntStream.range(0, up.length).parallel().forEach(i -> {
+                Aggregate aggregate = index.new Aggregate();
+                for (int j = i * RESOLUTION; j < Math.min(below.length, (i + 1) * RESOLUTION); j++) {
+                    aggregate.merge(below[j], true, true);
+                }
+                up[i] = aggregate;
+            });
+            index.fLevels.add(up);
+            level = up;
+        }
+        return index;
+    }
+
+    private Aggregate buildBlock(int block) {
+        Aggregate aggregate = new Aggregate();
+        long maxEnd = Long.MIN_VALUE;
+        for (int i = block * fBlockSize; i < Math.min(fSegments.size(), (block + 1) * fBlockSize); i++) {
+            ISegment segment = fSegments.get(i);
+            aggregate.update(segment, true, true);
+            maxEnd = Math.max(maxEnd, segment.getEnd());
+        }
+        fMaxEnd[block] = maxEnd;
+        return aggregate;
+    }
+
+    /**
+     * Get the total statistics of all the segments
+     *
+     * @return A copy of the total statistics
+     */
+    public IStatistics<ISegment> getTotalStats() {
+        Aggregate result = new Aggregate();
+        result.merge(getRoot(), true, false);
+        return result.fTotal;
+    }
+
+    /**
+     * Get the statistics per segment type of all the segments
+     *
+     * @return A copy of the statistics per type
+     */
+    public Map<String, IStatistics<ISegment>> getStatsPerType() {
+        Aggregate result = new Aggregate();
+        result.merge(getRoot(), false, true);
+        return result.fPerType;
+    }
+
+    private Aggregate getRoot() {
+        @NonNull Aggregate[] top = fLevels.get(fLevels.size() - 1);
+        return top.length > 0 ? top[0] : new Aggregate();
+    }
+
+    /**
+     * Get the total statistics of the segments intersecting a time range
+     *
+     * @param start
+     *            The start of the range
+     * @param end
+     *            The end of the range
+     * @param monitor
+     *            The progress monitor
+     * @return The statistics, or <code>null</code> if the monitor was
+     *         canceled
+     */
+    public @Nullable IStatistics<ISegment> getStatsForRange(long start, long end, IProgressMonitor monitor) {
+        Aggregate result = query(start, end, monitor, true, false);
+        return result == null ? null : result.fTotal;
+    }
+
+    /**
+     * Get the statistics per segment type of the segments intersecting a time
+     * range
+     *
+     * @param start
+     *            The start of the range
+     * @param end
+     *            The end of the range
+     * @param monitor
+     *            The progress monitor
+     * @return The statistics per type, or <code>null</code> if the monitor was
+     *         canceled
+     */
+    public @Nullable Map<String, IStatistics<ISegment>> getStatsPerTypeForRange(long start, long end, IProgressMonitor monitor) {
+        Aggregate result = query(start, end, monitor, false, true);
+        return result == null ? null : result.fPerType;
+    }
+
+    private @Nullable Aggregate query(long start, long end, IProgressMonitor monitor, boolean total, boolean perType) {
+        long t0 = Math.min(start, end);
+        long t1 = Math.max(start, end);
+        Aggregate result = new Aggregate();
+        int lo = lowerBound(t0);
+        int hi = t1 == Long.MAX_VALUE ? fSegments.size() : lowerBound(t1 + 1);
+
+        /*
+         * The segments starting before the range and ending in or after it,
+         * in the blocks that have such segments
+         */
+        for (int block = 0; block * fBlockSize < lo; block++) {
+            if (fMaxEnd[block] < t0) {
+                continue;
+            }
+            for (int i = block * fBlockSize; i < Math.min(lo, (block + 1) * fBlockSize); i++) {
+                if (monitor.isCanceled()) {
+                    return null;
+                }
+                ISegment segment = fSegments.get(i);
+                if (segment.getEnd() >= t0) {
+                    result.update(segment, total, perType);
+                }
+            }
+        }
+
+        /* The segments starting in the range */
+        int firstBlock = (lo + fBlockSize - 1) / fBlockSize;
+        int lastBlock = hi / fBlockSize - 1;
+        if (firstBlock > lastBlock) {
+            return updateSegments(result, lo, hi, monitor, total, perType);
+        }
+        if (updateSegments(result, lo, firstBlock * fBlockSize, monitor, total, perType) == null) {
+            return null;
+        }
+        mergeBlocks(result, firstBlock, lastBlock, total, perType);
+        return updateSegments(result, (lastBlock + 1) * fBlockSize, hi, monitor, total, perType);
+    }
+
+    private @Nullable Aggregate updateSegments(Aggregate result, int fromIndex, int toIndex, IProgressMonitor monitor, boolean total, boolean perType) {
+        for (int i = fromIndex; i < toIndex; i++) {
+            if (monitor.isCanceled()) {
+                return null;
+            }
+            result.update(fSegments.get(i), total, perType);
+        }
+        return result;
+    }
+
+    /**
+     * Merge the aggregates covering exactly the blocks between first and last,
+     * using the coarsest levels possible. The aggregates are merged in time
+     * order.
+     */
+    private void mergeBlocks(Aggregate result, int firstBlock, int lastBlock, boolean total, boolean perType) {
+        List<Aggregate> left = new ArrayList<>();
+        List<Aggregate> right = new ArrayList<>();
+        int a = firstBlock;
+        int b = lastBlock;
+        int level = 0;
+        while (a <= b) {
+            @NonNull Aggregate[] aggregates = fLevels.get(level);
+            while (a <= b && a % RESOLUTION != 0) {
+                left.add(aggregates[a]);
+                a++;
+            }
+            while (a <= b && (b + 1) % RESOLUTION != 0) {
+                right.add(aggregates[b]);
+                b--;
+            }
+            /* The remaining blocks are aligned on the level above */
+            a /= RESOLUTION;
+            b = (b + 1) / RESOLUTION - 1;
+            level++;
+        }
+        for (Aggregate aggregate : left) {
+            result.merge(aggregate, total, perType);
+        }
+        for (int i = right.size() - 1; i >= 0; i--) {
+            result.merge(right.get(i), total, perType);
+        }
+    }
+
+    /**
+     * Get the index of the first segment whose start time is greater or equal
+     * to the given time
+     */
+    private int lowerBound(long time) {
+        int low = 0;
+        int high = fSegments.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (fSegments.get(mid).getStart() < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Statistics of a set of segments, in total and per segment type
+     */
+    private final class Aggregate {
+        private final IStatistics<ISegment> fTotal = checkNotNull(fStatisticsFactory.get());
+        private final Map<String, IStatistics<ISegment>> fPerType = new HashMap<>();
+
+        public void update(ISegment segment, boolean total, boolean perType) {
+            if (total) {
+                fTotal.update(segment);
+            }
+            if (perType) {
+                String type = fTypeResolver.apply(segment);
+                if (type != null) {
+                    fPerType.computeIfAbsent(type, t -> fStatisticsFactory.get()).update(segment);
+                }
+            }
+        }
+
+        public void merge(Aggregate other, boolean total, boolean perType) {
+            if (total) {
+                fTotal.merge(other.fTotal);
+            }
+            if (perType) {
+                for (Entry<String, IStatistics<ISegment>> entry : other.fPerType.entrySet()) {
+                    fPerType.computeIfAbsent(entry.getKey(), t -> fStatisticsFactory.get()).merge(entry.getValue());
+                }
+            }
+        }
+    }
+}
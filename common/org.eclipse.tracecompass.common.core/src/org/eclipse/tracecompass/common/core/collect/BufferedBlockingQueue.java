@@ -23,6 +23,8 @@ import java.util.NoSuchElementException;
 import java.util.concurrent.BlockingDeque;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinPool.ManagedBlocker;
 import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Condition;
@@ -141,10 +143,11 @@ public class BufferedBlockingQueue<T> implements Iterable<T> {
         try {
             /*
              * This call blocks if the inner queue is full, effectively blocking
-             * the caller until elements are removed via the take() method.
+             * the caller until elements are removed via the take() method. A
+             * pool running the caller adds a thread while it is blocked.
              */
             if (!fInputBuffer.isEmpty()) {
-                fInnerQueue.put(fInputBuffer);
+                ForkJoinPool.managedBlock(new PutBlocker(fInputBuffer));
                 fInputBuffer = new ConcurrentLinkedDeque<>();
                 fInputBufferSize = 0;
                 signal = true;
@@ -166,6 +169,35 @@ public class BufferedBlockingQueue<T> implements Iterable<T> {
         }
     }
 
+    /**
+     * Puts a chunk in the inner queue, waiting for space to become available
+     */
+    private final class PutBlocker implements ManagedBlocker {
+        private final Deque<T> fChunk;
+        private boolean fDone = false;
+
+        public PutBlocker(Deque<T> chunk) {
+            fChunk = chunk;
+        }
+
+        @Override
+        public boolean block() throws InterruptedException {
+            if (!fDone) {
+                fInnerQueue.put(fChunk);
+                fDone = true;
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            if (!fDone) {
+                fDone = fInnerQueue.offer(fChunk);
+            }
+            return fDone;
+        }
+    }
+
     /**
      * Retrieve the head element from the queue.
      * <p>
@@ -565,4 +565,57 @@ public class BitBufferIntTest {
         /* This will try writing past the buffer's end */
         fixture2.putInt(32, 1);
     }
+
+    /**
+     * Test {@link BitBuffer#get} on byte-aligned fields of 8, 16, 32 and 64
+     * bits, compared to the same fields read at a bit offset
+     *
+     * @throws CTFException
+     *             Not expected
+     */
+    @Test
+    public void testGet_aligned() throws CTFException {
+        for (ByteOrder order : new ByteOrder[] { ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN }) {
+            for (int length : new int[] { 8, 16, 32, 64 }) {
+                for (boolean signed : new boolean[] { true, false }) {
+                    BitBuffer aligned = createBuffer(32);
+                    aligned.setByteOrder(order);
+                    aligned.position(24);
+                    long expected = aligned.get(length, signed);
+                    assertEquals(24 + length, aligned.position());
+
+                    /* The same bits, shifted by 3, read by the general path */
+                    byte[] shifted = new byte[33];
+                    ByteBuffer source = aligned.getByteBuffer();
+                    for (int i = 0; i < 32; i++) {
+                        int value = source.get(i) & 0xff;
+                        if (order == ByteOrder.BIG_ENDIAN) {
+                            shifted[i] |= (byte) (value >>> 3);
+                            shifted[i + 1] |= (byte) (value << 5);
+                        } else {
+                            shifted[i] |= (byte) (value << 3);
+                            shifted[i + 1] |= (byte) (value >>> 5);
+                        }
+                    }
+                    BitBuffer unaligned = new BitBuffer(ByteBuffer.wrap(shifted), order);
+                    unaligned.position(24 + 3);
+                    assertEquals(order + " " + length + " " + signed, expected, unaligned.get(length, signed));
+                }
+            }
+        }
+    }
+
+    /**
+     * Test {@link BitBuffer#get} on a byte-aligned field past the end of the
+     * buffer. An exception should be thrown.
+     *
+     * @throws CTFException
+     *             Expected
+     */
+    @Test(expected = CTFException.class)
+    public void testGet_alignedInvalid() throws CTFException {
+        BitBuffer fixture2 = createBuffer(8);
+        fixture2.position(8);
+        fixture2.get(64, false);
+    }
 }
@@ -19,6 +19,7 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -29,8 +30,10 @@ import org.eclipse.tracecompass.ctf.core.CTFStrings;
 import org.eclipse.tracecompass.ctf.core.event.IEventDeclaration;
 import org.eclipse.tracecompass.ctf.core.event.io.BitBuffer;
 import org.eclipse.tracecompass.ctf.core.event.scope.ILexicalScope;
+import org.eclipse.tracecompass.ctf.core.event.types.Encoding;
 import org.eclipse.tracecompass.ctf.core.event.types.IntegerDeclaration;
 import org.eclipse.tracecompass.ctf.core.event.types.IntegerDefinition;
+import org.eclipse.tracecompass.ctf.core.event.types.StringDeclaration;
 import org.eclipse.tracecompass.ctf.core.event.types.StructDeclaration;
 import org.eclipse.tracecompass.ctf.core.trace.CTFTrace;
 import org.eclipse.tracecompass.ctf.core.trace.ICTFPacketDescriptor;
@@ -228,4 +231,67 @@ public class CTFPacketReaderTest {
         assertFalse(cpr.hasMoreEvents());
     }
 
+    /**
+     * Test a packet with two event types, where only one of them is read
+     *
+     * @throws CTFException
+     *             won't happen
+     */
+    @Test
+    public void testPacketWithWantedEventIds() throws CTFException {
+        // step 1: create in memory CTF trace, events are id, timestamp, fields
+        byte[] bytes = {
+                (byte) 0x00, (byte) 0x01, 'a', 'b', (byte) 0x00, (byte) 0x11,
+                (byte) 0x01, (byte) 0x02, (byte) 0x22, (byte) 0x00,
+                (byte) 0x00, (byte) 0x03, (byte) 0x00, (byte) 0x33,
+                (byte) 0x01, (byte) 0x04, (byte) 0x44, (byte) 0x00 };
+        BitBuffer input = createBitBuffer(bytes);
+        // step 2, create the packet context
+        ICTFPacketDescriptor packetContext = new StreamInputPacketIndexEntry(0, EMPTY_STRUCT.createDefinition(null, ILexicalScope.TRACE, new BitBuffer()), bytes.length, 0, 0);
+        // step 3 create the event header
+        StructDeclaration eventHeaderDeclaration = new StructDeclaration(8);
+        eventHeaderDeclaration.addField("id", IntegerDeclaration.UINT_8_DECL);
+        eventHeaderDeclaration.addField("timestamp", IntegerDeclaration.UINT_8_DECL);
+        // step 4 create two event declarations
+        final EventDeclaration skippedDec = new EventDeclaration();
+        skippedDec.setName("skipped");
+        StructDeclaration skippedFields = new StructDeclaration(8);
+        skippedFields.addField("name", StringDeclaration.getStringDeclaration(Encoding.UTF8));
+        skippedFields.addField("value", IntegerDeclaration.UINT_8_DECL);
+        skippedDec.setFields(skippedFields);
+        skippedDec.setId(0);
+        final EventDeclaration readDec = new EventDeclaration();
+        readDec.setName("read");
+        StructDeclaration readFields = new StructDeclaration(8);
+        readFields.addField("value", IntegerDeclaration.UINT_16L_DECL);
+        readDec.setFields(readFields);
+        readDec.setId(1);
+        List<@Nullable IEventDeclaration> declarations = Arrays.asList(skippedDec, readDec);
+        // step 5: only read the second event type
+        CTFTrace trace = new CTFTrace();
+        CTFPacketReader cpr = new CTFPacketReader(input, packetContext, declarations, eventHeaderDeclaration, null, null, trace);
+        cpr.setWantedEventIds(new boolean[] { false, true });
+        assertTrue(cpr.hasMoreEvents());
+        EventDefinition event = cpr.readNextEvent();
+        assertEquals("read", event.getDeclaration().getName());
+        assertEquals(2L, event.getTimestamp());
+        assertEquals(0x22L, ((IntegerDefinition) event.getFields().getDefinition("value")).getValue());
+        assertTrue(cpr.hasMoreEvents());
+        event = cpr.readNextEvent();
+        assertEquals("read", event.getDeclaration().getName());
+        assertEquals(4L, event.getTimestamp());
+        assertEquals(0x44L, ((IntegerDefinition) event.getFields().getDefinition("value")).getValue());
+        assertFalse(cpr.hasMoreEvents());
+
+        // step 6: read all the events again
+        input.position(0);
+        cpr = new CTFPacketReader(input, packetContext, declarations, eventHeaderDeclaration, null, null, trace);
+        cpr.setWantedEventIds(null);
+        long timestamp = 0;
+        while (cpr.hasMoreEvents()) {
+            event = cpr.readNextEvent();
+            assertEquals(++timestamp, event.getTimestamp());
+        }
+        assertEquals(4L, timestamp);
+    }
 }
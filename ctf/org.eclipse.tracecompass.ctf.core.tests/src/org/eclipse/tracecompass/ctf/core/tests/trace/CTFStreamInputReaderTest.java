@@ -15,6 +15,7 @@ package org.eclipse.tracecompass.ctf.core.tests.trace;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
 
 import java.io.File;
 import java.io.IOException;
@@ -231,4 +232,31 @@ public class CTFStreamInputReaderTest {
             fixture.setCurrentEvent(eventDefinition);
         }
     }
+
+    /**
+     * Test that a reader keeps reading its stream file after another reader
+     * of the file was interrupted while mapping it, which closes the file
+     * channel they share
+     *
+     * @throws CTFException
+     *             error
+     * @throws IOException
+     *             file not there
+     */
+    @Test
+    public void testInterruptedReader() throws CTFException, IOException {
+        try (CTFStreamInputReader interrupted = getStreamInputReader()) {
+            Thread.currentThread().interrupt();
+            try {
+                interrupted.getByteBufferAt(0, Byte.SIZE);
+                fail();
+            } catch (CTFException e) {
+                /* The channel was closed by the interrupt */
+            } finally {
+                Thread.interrupted();
+            }
+        }
+        assertNotNull(fixture.getByteBufferAt(0, Byte.SIZE));
+        assertEquals(CTFResponse.OK, fixture.readNextEvent());
+    }
 }
@@ -0,0 +1,178 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.ctf.core.tests.trace;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.eclipse.tracecompass.ctf.core.CTFException;
+import org.eclipse.tracecompass.ctf.core.event.IEventDefinition;
+import org.eclipse.tracecompass.ctf.core.event.types.IntegerDefinition;
+import org.eclipse.tracecompass.ctf.core.trace.CTFTrace;
+import org.eclipse.tracecompass.ctf.core.trace.CTFTraceReader;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test the decoding ahead of the packets of a {@link CTFTraceReader}
+ */
+public class CTFTraceReaderDecodeAheadTest {
+
+    private static final int NB_PACKETS = 8;
+    private static final int EVENTS_PER_PACKET = 9;
+    private static final int HEADER_SIZE = 28;
+    private static final int PACKET_SIZE = HEADER_SIZE + EVENTS_PER_PACKET * Integer.BYTES;
+
+    private Path fDirectory;
+    private CTFTrace fTrace;
+
+    /**
+     * Write a trace of one stream, whose events have the values 0 to the
+     * number of events
+     *
+     * @throws IOException
+     *             if the trace cannot be written
+     * @throws CTFException
+     *             if the trace cannot be opened
+     */
+    @Before
+    public void setUp() throws IOException, CTFException {
+        fDirectory = Files.createTempDirectory("decodeahead");
+        UUID uuid = UUID.randomUUID();
+        try (PrintWriter pw = new PrintWriter(fDirectory.resolve("metadata").toFile())) {
+            pw.println("/*CTF 1.8*/");
+            pw.println("typealias integer { size = 8; align = 8; signed = false; base = 10; } := uint8_t;");
+            pw.println("typealias integer { size = 32; align = 32; signed = false; base = 10; } := uint32_t;");
+            pw.println("trace {");
+            pw.println(" major = 1;");
+            pw.println(" minor = 8;");
+            pw.println(" uuid = \"" + uuid + "\";");
+            pw.println(" byte_order = le;");
+            pw.println(" packet.header := struct {");
+            pw.println("  uint32_t magic;");
+            pw.println("  uint8_t uuid[16];");
+            pw.println(" };");
+            pw.println("};");
+            pw.println("stream {");
+            pw.println(" packet.context := struct {");
+            pw.println("  uint32_t packet_size;");
+            pw.println("  uint32_t content_size;");
+            pw.println(" };");
+            pw.println("};");
+            pw.println("event {");
+            pw.println(" name = value;");
+            pw.println(" fields := struct { uint32_t v; };");
+            pw.println("};");
+        }
+        ByteBuffer stream = ByteBuffer.allocate(NB_PACKETS * PACKET_SIZE);
+        for (int i = 0; i < NB_PACKETS; i++) {
+            stream.order(ByteOrder.LITTLE_ENDIAN);
+            stream.putInt(0xc1fc1fc1);
+            stream.order(ByteOrder.BIG_ENDIAN);
+            stream.putLong(uuid.getMostSignificantBits());
+            stream.putLong(uuid.getLeastSignificantBits());
+            stream.order(ByteOrder.LITTLE_ENDIAN);
+            stream.putInt(PACKET_SIZE * Byte.SIZE);
+            stream.putInt(PACKET_SIZE * Byte.SIZE);
+            for (int j = 0; j < EVENTS_PER_PACKET; j++) {
+                stream.putInt(i * EVENTS_PER_PACKET + j);
+            }
+        }
+        Files.write(fDirectory.resolve("stream"), stream.array());
+        fTrace = new CTFTrace(fDirectory.toString());
+    }
+
+    /**
+     * Delete the trace
+     */
+    @After
+    public void tearDown() {
+        File[] files = fDirectory.toFile().listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        fDirectory.toFile().delete();
+    }
+
+    private static List<Long> readValues(CTFTraceReader reader, int switchAt, int depth) throws CTFException {
+        List<Long> values = new ArrayList<>();
+        IEventDefinition event = reader.getCurrentEventDef();
+        while (event != null) {
+            if (values.size() == switchAt) {
+                reader.setPacketDecodeDepth(depth);
+            }
+            values.add(((IntegerDefinition) event.getFields().getDefinition("v")).getValue());
+            reader.advance();
+            event = reader.getCurrentEventDef();
+        }
+        return values;
+    }
+
+    private static List<Long> expectedValues() {
+        List<Long> values = new ArrayList<>();
+        for (long i = 0; i < NB_PACKETS * EVENTS_PER_PACKET; i++) {
+            values.add(i);
+        }
+        return values;
+    }
+
+    /**
+     * Test that a trace reader decoding ahead returns all the events, in order
+     *
+     * @throws CTFException
+     *             if the trace cannot be read
+     */
+    @Test
+    public void testDecodeAhead() throws CTFException {
+        /* Index the packets, only the indexed packets are decoded ahead */
+        try (CTFTraceReader reader = new CTFTraceReader(fTrace)) {
+            assertEquals(expectedValues(), readValues(reader, -1, 0));
+        }
+        try (CTFTraceReader reader = new CTFTraceReader(fTrace)) {
+            reader.setPacketDecodeDepth(3);
+            assertEquals(3, reader.getPacketDecodeDepth());
+            assertEquals(expectedValues(), readValues(reader, -1, 0));
+        }
+    }
+
+    /**
+     * Test that decoding ahead can be turned on and off while reading
+     *
+     * @throws CTFException
+     *             if the trace cannot be read
+     */
+    @Test
+    public void testChangeDepth() throws CTFException {
+        /* The packets are indexed while they are read */
+        try (CTFTraceReader reader = new CTFTraceReader(fTrace)) {
+            assertEquals(expectedValues(), readValues(reader, EVENTS_PER_PACKET + 2, 2));
+        }
+        try (CTFTraceReader reader = new CTFTraceReader(fTrace)) {
+            reader.setPacketDecodeDepth(4);
+            assertEquals(expectedValues(), readValues(reader, 3 * EVENTS_PER_PACKET, 0));
+            assertEquals(0, reader.getPacketDecodeDepth());
+        }
+    }
+}
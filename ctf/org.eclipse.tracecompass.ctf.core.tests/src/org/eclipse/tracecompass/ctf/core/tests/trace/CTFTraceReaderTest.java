@@ -300,6 +300,38 @@ public class CTFTraceReaderTest {
         assertTrue(result);
     }
 
+    /**
+     * Test that the events read after indexing the stream files in parallel
+     * are the same as when the packets are indexed while reading
+     *
+     * @throws CTFException
+     *             error
+     */
+    @Test
+    public void testIndexStreamInputs() throws CTFException {
+        String path = CtfTestTraceUtils.getTrace(testTrace).getPath();
+        CTFTrace indexedTrace = new CTFTrace(path);
+        indexedTrace.indexStreamInputs();
+        try (CTFTraceReader expected = new CTFTraceReader(new CTFTrace(path));
+                CTFTraceReader actual = new CTFTraceReader(indexedTrace)) {
+            long count = 0;
+            while (expected.hasMoreEvents()) {
+                assertTrue(actual.hasMoreEvents());
+                IEventDefinition expectedEvent = expected.getCurrentEventDef();
+                IEventDefinition actualEvent = actual.getCurrentEventDef();
+                assertNotNull(expectedEvent);
+                assertNotNull(actualEvent);
+                assertEquals(expectedEvent.getTimestamp(), actualEvent.getTimestamp());
+                assertEquals(expectedEvent.getDeclaration().getName(), actualEvent.getDeclaration().getName());
+                expected.advance();
+                actual.advance();
+                count++;
+            }
+            assertFalse(actual.hasMoreEvents());
+            assertTrue(count > 0);
+        }
+    }
+
     /**
      * @return
      */
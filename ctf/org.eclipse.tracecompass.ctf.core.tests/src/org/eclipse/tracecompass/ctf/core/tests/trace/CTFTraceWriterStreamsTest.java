@@ -0,0 +1,198 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.ctf.core.tests.trace;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import org.eclipse.tracecompass.ctf.core.CTFException;
+import org.eclipse.tracecompass.ctf.core.event.IEventDefinition;
+import org.eclipse.tracecompass.ctf.core.event.types.IntegerDefinition;
+import org.eclipse.tracecompass.ctf.core.trace.CTFTrace;
+import org.eclipse.tracecompass.ctf.core.trace.CTFTraceReader;
+import org.eclipse.tracecompass.ctf.core.trace.CTFTraceWriter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test the copy by a {@link CTFTraceWriter} of a trace with many stream files,
+ * which are copied in parallel
+ */
+public class CTFTraceWriterStreamsTest {
+
+    private static final int NB_STREAMS = 4;
+    private static final int NB_PACKETS = 3;
+    private static final int EVENTS_PER_PACKET = 5;
+    private static final int HEADER_SIZE = 48;
+    private static final int PACKET_SIZE = HEADER_SIZE + EVENTS_PER_PACKET * Integer.BYTES;
+    private static final String STREAM_PREFIX = "stream_";
+
+    private Path fDirectory;
+    private Path fOutDirectory;
+
+    /**
+     * Write a trace of many stream files, whose events have the values 0 to
+     * the number of events
+     *
+     * @throws IOException
+     *             if the trace cannot be written
+     */
+    @Before
+    public void setUp() throws IOException {
+        fDirectory = Files.createTempDirectory("writerstreams");
+        fOutDirectory = Files.createTempDirectory("writerstreamsout");
+        UUID uuid = UUID.randomUUID();
+        try (PrintWriter pw = new PrintWriter(fDirectory.resolve("metadata").toFile())) {
+            pw.println("/*CTF 1.8*/");
+            pw.println("typealias integer { size = 8; align = 8; signed = false; base = 10; } := uint8_t;");
+            pw.println("typealias integer { size = 32; align = 32; signed = false; base = 10; } := uint32_t;");
+            pw.println("typealias integer { size = 64; align = 64; signed = false; base = 10; } := uint64_t;");
+            pw.println("trace {");
+            pw.println(" major = 1;");
+            pw.println(" minor = 8;");
+            pw.println(" uuid = \"" + uuid + "\";");
+            pw.println(" byte_order = le;");
+            pw.println(" packet.header := struct {");
+            pw.println("  uint32_t magic;");
+            pw.println("  uint8_t uuid[16];");
+            pw.println("  uint32_t stream_id;");
+            pw.println(" };");
+            pw.println("};");
+            pw.println("stream {");
+            pw.println(" id = 0;");
+            pw.println(" packet.context := struct {");
+            pw.println("  uint64_t timestamp_begin;");
+            pw.println("  uint64_t timestamp_end;");
+            pw.println("  uint32_t packet_size;");
+            pw.println("  uint32_t content_size;");
+            pw.println(" };");
+            pw.println("};");
+            pw.println("event {");
+            pw.println(" name = value;");
+            pw.println(" stream_id = 0;");
+            pw.println(" fields := struct { uint32_t v; };");
+            pw.println("};");
+        }
+        int value = 0;
+        for (int s = 0; s < NB_STREAMS; s++) {
+            ByteBuffer stream = ByteBuffer.allocate(NB_PACKETS * PACKET_SIZE);
+            for (int i = 0; i < NB_PACKETS; i++) {
+                stream.order(ByteOrder.LITTLE_ENDIAN);
+                stream.putInt(0xc1fc1fc1);
+                stream.order(ByteOrder.BIG_ENDIAN);
+                stream.putLong(uuid.getMostSignificantBits());
+                stream.putLong(uuid.getLeastSignificantBits());
+                stream.order(ByteOrder.LITTLE_ENDIAN);
+                stream.putInt(0);
+                stream.putLong(i * 100L + s);
+                stream.putLong(i * 100L + s + 50);
+                stream.putInt(PACKET_SIZE * Byte.SIZE);
+                stream.putInt(PACKET_SIZE * Byte.SIZE);
+                for (int j = 0; j < EVENTS_PER_PACKET; j++) {
+                    stream.putInt(value++);
+                }
+            }
+            Files.write(fDirectory.resolve(STREAM_PREFIX + s), stream.array());
+        }
+    }
+
+    /**
+     * Delete the traces
+     */
+    @After
+    public void tearDown() {
+        delete(fDirectory.toFile());
+        delete(fOutDirectory.toFile());
+    }
+
+    private static void delete(File directory) {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    private static List<Long> readValues(CTFTrace trace) throws CTFException {
+        List<Long> values = new ArrayList<>();
+        try (CTFTraceReader reader = new CTFTraceReader(trace)) {
+            IEventDefinition event = reader.getCurrentEventDef();
+            while (event != null) {
+                values.add(((IntegerDefinition) event.getFields().getDefinition("v")).getValue());
+                reader.advance();
+                event = reader.getCurrentEventDef();
+            }
+        }
+        Collections.sort(values);
+        return values;
+    }
+
+    /**
+     * Test that all the stream files are copied
+     *
+     * @throws CTFException
+     *             if a trace cannot be read or written
+     */
+    @Test
+    public void testCopyStreams() throws CTFException {
+        CTFTrace trace = new CTFTrace(fDirectory.toString());
+        new CTFTraceWriter(trace).copyPackets(0, Long.MAX_VALUE, fOutDirectory.toString());
+        for (int s = 0; s < NB_STREAMS; s++) {
+            assertEquals(NB_PACKETS * PACKET_SIZE, fOutDirectory.resolve(STREAM_PREFIX + s).toFile().length());
+        }
+        List<Long> values = readValues(new CTFTrace(fOutDirectory.toString()));
+        assertEquals(NB_STREAMS * NB_PACKETS * EVENTS_PER_PACKET, values.size());
+        assertEquals(readValues(trace), values);
+    }
+
+    /**
+     * Test that the error of a stream file is reported once the copies of the
+     * other stream files are done or cancelled
+     *
+     * @throws CTFException
+     *             if the trace cannot be read
+     */
+    @Test
+    public void testFailingStream() throws CTFException {
+        CTFTrace trace = new CTFTrace(fDirectory.toString());
+        CTFTraceWriter writer = new CTFTraceWriter(trace);
+        /* The packets of the stream file are indexed, but it cannot be read */
+        assertTrue(fDirectory.resolve(STREAM_PREFIX + 1).toFile().delete());
+        try {
+            writer.copyPackets(0, Long.MAX_VALUE, fOutDirectory.toString());
+            fail();
+        } catch (CTFException e) {
+            /* Expected */
+        }
+        /* The other stream files are copied entirely, or not at all */
+        for (int s = 0; s < NB_STREAMS; s++) {
+            long length = fOutDirectory.resolve(STREAM_PREFIX + s).toFile().length();
+            assertTrue(String.valueOf(length), length == 0 || length == NB_PACKETS * PACKET_SIZE);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.ctf.core.tests.trace;
+
+import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNull;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.tracecompass.internal.ctf.core.trace.CompressedStreamFile;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test the {@link CompressedStreamFile}
+ */
+public class CompressedStreamFileTest {
+
+    private static final int[] MEMBER_SIZES = { 1000, 4096, 1, 70000 };
+
+    private File fFile;
+    private byte[] fContent;
+
+    /**
+     * Create the content of the stream
+     *
+     * @throws IOException
+     *             if the file cannot be created
+     */
+    @Before
+    public void setUp() throws IOException {
+        fFile = File.createTempFile("stream", ".gz");
+        int size = Arrays.stream(MEMBER_SIZES).sum();
+        fContent = new byte[size];
+        for (int i = 0; i < size; i++) {
+            fContent[i] = (byte) (i * 31 + i / 7);
+        }
+    }
+
+    /**
+     * Delete the file
+     */
+    @After
+    public void tearDown() {
+        fFile.delete();
+    }
+
+    private static byte[] gzip(byte[] content, int offset, int length) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(content, offset, length);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Make a bgzip block, a gzip member giving its size in the extra field
+     */
+    private static byte[] bgzip(byte[] content, int offset, int length) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        deflater.setInput(content, offset, length);
+        deflater.finish();
+        byte[] compressed = new byte[length + 1024];
+        int compressedSize = deflater.deflate(compressed);
+        deflater.end();
+        CRC32 crc = new CRC32();
+        crc.update(content, offset, length);
+        ByteBuffer block = ByteBuffer.allocate(18 + compressedSize + 8).order(ByteOrder.LITTLE_ENDIAN);
+        block.put((byte) 0x1f).put((byte) 0x8b).put((byte) 8).put((byte) 4).putInt(0).put((byte) 0).put((byte) 0xff);
+        block.putShort((short) 6).put((byte) 'B').put((byte) 'C').putShort((short) 2).putShort((short) (block.capacity() - 1));
+        block.put(compressed, 0, compressedSize);
+        block.putInt((int) crc.getValue()).putInt(length);
+        return block.array();
+    }
+
+    private void writeMembers(boolean bgzip) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int offset = 0;
+        for (int size : MEMBER_SIZES) {
+            out.write(bgzip ? bgzip(fContent, offset, size) : gzip(fContent, offset, size));
+            offset += size;
+        }
+        if (bgzip) {
+            /* The end-of-file block */
+            out.write(bgzip(fContent, 0, 0));
+        }
+        Files.write(fFile.toPath(), out.toByteArray());
+    }
+
+    private void assertRead(CompressedStreamFile compressedFile, @NonNull FileChannel fc, int position, int size) throws IOException {
+        ByteBuffer buffer = compressedFile.read(fc, position, size);
+        assertEquals(size, buffer.remaining());
+        byte[] bytes = new byte[size];
+        buffer.get(bytes);
+        assertArrayEquals(Arrays.copyOfRange(fContent, position, position + size), bytes);
+    }
+
+    private void testRead() throws IOException {
+        CompressedStreamFile compressedFile = CompressedStreamFile.open(checkNotNull(fFile));
+        assertNotNull(compressedFile);
+        try (FileChannel fc = FileChannel.open(fFile.toPath(), StandardOpenOption.READ)) {
+            assertEquals(fContent.length, compressedFile.size(fc));
+            /* In one member */
+            assertRead(compressedFile, fc, 0, 1000);
+            assertRead(compressedFile, fc, 1200, 100);
+            assertRead(compressedFile, fc, 5096, 1);
+            /* Across members */
+            assertRead(compressedFile, fc, 900, 5000);
+            assertRead(compressedFile, fc, 0, fContent.length);
+            try {
+                compressedFile.read(fc, fContent.length - 10, 11);
+                fail();
+            } catch (EOFException e) {
+                // Expected
+            }
+        }
+    }
+
+    /**
+     * Test reading a file made of gzip members
+     *
+     * @throws IOException
+     *             if the file cannot be read
+     */
+    @Test
+    public void testReadGzipMembers() throws IOException {
+        writeMembers(false);
+        testRead();
+    }
+
+    /**
+     * Test reading a file made of bgzip blocks
+     *
+     * @throws IOException
+     *             if the file cannot be read
+     */
+    @Test
+    public void testReadBgzipBlocks() throws IOException {
+        writeMembers(true);
+        testRead();
+    }
+
+    /**
+     * Test that a file that is not compressed is read directly
+     *
+     * @throws IOException
+     *             if the file cannot be read
+     */
+    @Test
+    public void testNotCompressed() throws IOException {
+        Files.write(fFile.toPath(), fContent);
+        assertNull(CompressedStreamFile.open(checkNotNull(fFile)));
+    }
+
+    /**
+     * Test that the members appended to a live trace file are read
+     *
+     * @throws IOException
+     *             if the file cannot be read
+     */
+    @Test
+    public void testGrowingFile() throws IOException {
+        Files.write(fFile.toPath(), gzip(fContent, 0, 1000));
+        CompressedStreamFile compressedFile = CompressedStreamFile.open(checkNotNull(fFile));
+        assertNotNull(compressedFile);
+        try (FileChannel fc = FileChannel.open(fFile.toPath(), StandardOpenOption.READ)) {
+            assertEquals(1000, compressedFile.size(fc));
+            assertRead(compressedFile, fc, 0, 1000);
+            Files.write(fFile.toPath(), gzip(fContent, 1000, 500), StandardOpenOption.APPEND);
+            assertRead(compressedFile, fc, 800, 700);
+            assertEquals(1500, compressedFile.size(fc));
+        }
+    }
+}
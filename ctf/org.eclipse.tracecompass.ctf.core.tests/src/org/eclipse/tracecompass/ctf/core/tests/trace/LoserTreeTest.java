@@ -0,0 +1,162 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.ctf.core.tests.trace;
+
+import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNull;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.tracecompass.internal.ctf.core.trace.LoserTree;
+import org.junit.Test;
+
+/**
+ * Test the {@link LoserTree} used to merge the stream input readers
+ */
+public class LoserTreeTest {
+
+    /**
+     * A sorted source of keys
+     */
+    private static class Source {
+        private final String fName;
+        private final long[] fKeys;
+        private int fIndex = 0;
+
+        public Source(String name, long... keys) {
+            fName = name;
+            fKeys = keys;
+        }
+
+        public long getKey() {
+            return fKeys[fIndex];
+        }
+
+        public boolean next() {
+            fIndex++;
+            return fIndex < fKeys.length;
+        }
+    }
+
+    private static LoserTree<Source> createTree() {
+        return new LoserTree<>(Source::getKey, checkNotNull(Comparator.comparing(source -> source.fName)));
+    }
+
+    private static List<String> merge(LoserTree<Source> tree) {
+        List<String> merged = new ArrayList<>();
+        Source top = tree.peek();
+        while (top != null) {
+            merged.add(top.fName + ':' + top.getKey());
+            if (top.next()) {
+                tree.updateTop();
+            } else {
+                assertSame(top, tree.removeTop());
+            }
+            top = tree.peek();
+        }
+        return merged;
+    }
+
+    /**
+     * Test merging random sources, compared to sorting all their keys
+     */
+    @Test
+    public void testMerge() {
+        Random random = new Random(1234);
+        for (int i = 0; i < 200; i++) {
+            LoserTree<Source> tree = createTree();
+            List<String> expected = new ArrayList<>();
+            List<long[]> all = new ArrayList<>();
+            int nbSources = 1 + random.nextInt(20);
+            for (int j = 0; j < nbSources; j++) {
+                long[] keys = new long[1 + random.nextInt(50)];
+                for (int k = 0; k < keys.length; k++) {
+                    keys[k] = random.nextInt(100);
+                }
+                Arrays.sort(keys);
+                String name = String.format("s%02d", j);
+                for (long key : keys) {
+                    all.add(new long[] { key, j });
+                    expected.add(name + ':' + key);
+                }
+                tree.add(new Source(name, keys));
+            }
+            assertEquals(nbSources, tree.size());
+            /* Sort by key, then by name, stable within a source */
+            List<String> sorted = new ArrayList<>();
+            all.sort(Comparator.<long[]> comparingLong(entry -> entry[0]).thenComparingLong(entry -> entry[1]));
+            for (long[] entry : all) {
+                sorted.add(String.format("s%02d", entry[1]) + ':' + entry[0]);
+            }
+            assertEquals(expected.size(), sorted.size());
+            assertEquals("merge " + i, sorted, merge(tree));
+            assertTrue(tree.isEmpty());
+            assertNull(tree.peek());
+        }
+    }
+
+    /**
+     * Test that the keys are compared as unsigned longs
+     */
+    @Test
+    public void testUnsigned() {
+        LoserTree<Source> tree = createTree();
+        tree.add(new Source("a", -1L));
+        tree.add(new Source("b", Long.MAX_VALUE));
+        tree.add(new Source("c", 0L, Long.MIN_VALUE));
+        assertEquals(Arrays.asList("c:0", "b:" + Long.MAX_VALUE, "c:" + Long.MIN_VALUE, "a:-1"), merge(tree));
+    }
+
+    /**
+     * Test adding sources while merging, and clearing the tree
+     */
+    @Test
+    public void testAddAndClear() {
+        LoserTree<Source> tree = createTree();
+        Source a = new Source("a", 1, 5, 9);
+        Source b = new Source("b", 2, 6);
+        tree.add(a);
+        tree.add(b);
+        assertSame(a, tree.peek());
+        a.next();
+        tree.updateTop();
+        assertSame(b, tree.peek());
+
+        tree.add(new Source("c", 0, 7));
+        tree.add(new Source("d", 3));
+        assertEquals(Arrays.asList("a", "b", "c", "d"), names(tree.getSources()));
+        assertEquals(Arrays.asList("c:0", "b:2", "d:3", "a:5", "b:6", "c:7", "a:9"), merge(tree));
+
+        tree.add(new Source("e", 4));
+        tree.clear();
+        assertTrue(tree.isEmpty());
+        assertNull(tree.peek());
+        assertNull(tree.removeTop());
+        tree.add(new Source("f", 8));
+        assertEquals(Arrays.asList("f:8"), merge(tree));
+    }
+
+    private static List<String> names(List<Source> sources) {
+        List<String> names = new ArrayList<>();
+        for (Source source : sources) {
+            names.add(source.fName);
+        }
+        return names;
+    }
+}
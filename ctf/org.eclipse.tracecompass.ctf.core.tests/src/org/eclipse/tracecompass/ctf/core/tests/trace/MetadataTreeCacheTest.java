@@ -0,0 +1,170 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.ctf.core.tests.trace;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.antlr.runtime.CommonToken;
+import org.antlr.runtime.tree.CommonTree;
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.tracecompass.internal.ctf.core.event.metadata.MetadataTreeCache;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test the {@link MetadataTreeCache}
+ */
+public class MetadataTreeCacheTest {
+
+    /* Token types, the cache does not depend on their values */
+    private static final int EVENT = 1;
+    private static final int EXPRESSION = 2;
+    private static final int LEFT = 3;
+    private static final int RIGHT = 4;
+    private static final int IDENTIFIER = 5;
+    private static final int STRING = 6;
+    private static final int STREAM = 7;
+
+    private File fDirectory;
+
+    /**
+     * Create the cache directory
+     *
+     * @throws IOException
+     *             if the directory cannot be created
+     */
+    @Before
+    public void setUp() throws IOException {
+        fDirectory = Files.createTempDirectory("metadatacache").toFile();
+        MetadataTreeCache.clearMemory();
+    }
+
+    /**
+     * Delete the cache directory
+     */
+    @After
+    public void tearDown() {
+        MetadataTreeCache.setDirectory(null);
+        MetadataTreeCache.clearMemory();
+        File[] files = fDirectory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        fDirectory.delete();
+    }
+
+    private static CommonTree node(int type, String text, CommonTree... children) {
+        CommonTree node = new CommonTree(new CommonToken(type, text));
+        for (CommonTree child : children) {
+            node.addChild(child);
+        }
+        return node;
+    }
+
+    /**
+     * A list of two declarations under a nil root, as the parser returns them
+     */
+    private static @NonNull CommonTree createTree() {
+        CommonTree root = new CommonTree();
+        root.addChild(node(EVENT, "EVENT",
+                node(EXPRESSION, "CTF_EXPRESSION_VAL",
+                        node(LEFT, "CTF_LEFT", node(IDENTIFIER, "name")),
+                        node(RIGHT, "CTF_RIGHT", node(STRING, "événement")))));
+        root.addChild(node(STREAM, "STREAM"));
+        return root;
+    }
+
+    /**
+     * Test that a tree read back is the same as the tree written
+     *
+     * @throws IOException
+     *             if the tree cannot be serialized
+     */
+    @Test
+    public void testSerialize() throws IOException {
+        CommonTree tree = createTree();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            MetadataTreeCache.write(tree, out);
+        }
+        CommonTree read = MetadataTreeCache.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertTrue(read.isNil());
+        assertEquals(tree.toStringTree(), read.toStringTree());
+        CommonTree event = (CommonTree) read.getChild(0);
+        assertEquals(EVENT, event.getType());
+        assertEquals(read, event.getParent());
+        CommonTree string = (CommonTree) event.getChild(0).getChild(1).getChild(0);
+        assertEquals(STRING, string.getType());
+        assertEquals("événement", string.getText());
+    }
+
+    /**
+     * Test the keys of the metadata texts
+     */
+    @Test
+    public void testKey() {
+        assertEquals(MetadataTreeCache.getKey("trace { major = 1; };"), MetadataTreeCache.getKey("trace { major = 1; };"));
+        assertNotEquals(MetadataTreeCache.getKey("trace { major = 1; };"), MetadataTreeCache.getKey("trace { major = 2; };"));
+    }
+
+    /**
+     * Test that every trace gets its own copy of a tree cached in memory
+     */
+    @Test
+    public void testMemory() {
+        CommonTree tree = createTree();
+        String key = MetadataTreeCache.getKey("memory");
+        assertNull(MetadataTreeCache.get(key));
+        MetadataTreeCache.put(key, tree);
+        CommonTree first = MetadataTreeCache.get(key);
+        CommonTree second = MetadataTreeCache.get(key);
+        assertNotNull(first);
+        assertNotNull(second);
+        assertNotSame(first, second);
+        assertEquals(tree.toStringTree(), first.toStringTree());
+        assertEquals(0, fDirectory.list().length);
+    }
+
+    /**
+     * Test that the trees are read back from the cache directory
+     */
+    @Test
+    public void testDirectory() {
+        MetadataTreeCache.setDirectory(fDirectory);
+        CommonTree tree = createTree();
+        String key = MetadataTreeCache.getKey("directory");
+        MetadataTreeCache.put(key, tree);
+        assertTrue(new File(fDirectory, key + ".tree").isFile());
+
+        /* As in a new session */
+        MetadataTreeCache.clearMemory();
+        CommonTree read = MetadataTreeCache.get(key);
+        assertNotNull(read);
+        assertEquals(tree.toStringTree(), read.toStringTree());
+    }
+}
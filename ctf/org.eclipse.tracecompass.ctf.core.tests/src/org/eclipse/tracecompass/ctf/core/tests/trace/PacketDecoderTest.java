@@ -0,0 +1,181 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.ctf.core.tests.trace;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.ctf.core.CTFException;
+import org.eclipse.tracecompass.ctf.core.event.IEventDeclaration;
+import org.eclipse.tracecompass.ctf.core.event.IEventDefinition;
+import org.eclipse.tracecompass.ctf.core.event.io.BitBuffer;
+import org.eclipse.tracecompass.ctf.core.event.types.IntegerDeclaration;
+import org.eclipse.tracecompass.ctf.core.event.types.IntegerDefinition;
+import org.eclipse.tracecompass.ctf.core.event.types.StructDeclaration;
+import org.eclipse.tracecompass.ctf.core.trace.CTFTrace;
+import org.eclipse.tracecompass.ctf.core.trace.ICTFPacketDescriptor;
+import org.eclipse.tracecompass.ctf.core.trace.IPacketReader;
+import org.eclipse.tracecompass.internal.ctf.core.event.EventDeclaration;
+import org.eclipse.tracecompass.internal.ctf.core.trace.CTFPacketReader;
+import org.eclipse.tracecompass.internal.ctf.core.trace.PacketDecoder;
+import org.eclipse.tracecompass.internal.ctf.core.trace.PacketDecoder.PacketReaderFactory;
+import org.eclipse.tracecompass.internal.ctf.core.trace.StreamInputPacketIndexEntry;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Test the {@link PacketDecoder}
+ */
+public class PacketDecoderTest {
+
+    private static final int NB_PACKETS = 8;
+    private static final int NB_EVENTS = 3000;
+    private static final int EVENT_SIZE = 2;
+
+    private final @NonNull List<@NonNull ICTFPacketDescriptor> fPackets = new ArrayList<>();
+    private final @NonNull PacketReaderFactory fFactory;
+
+    /**
+     * Create packets of events made of a 8-bit timestamp and a 8-bit value,
+     * the value being the index of the packet
+     */
+    public PacketDecoderTest() {
+        StructDeclaration eventHeaderDeclaration = new StructDeclaration(8);
+        eventHeaderDeclaration.addField("timestamp", IntegerDeclaration.UINT_8_DECL);
+        EventDeclaration eventDec = new EventDeclaration();
+        eventDec.setName("event");
+        StructDeclaration fields = new StructDeclaration(8);
+        fields.addField("value", IntegerDeclaration.UINT_8_DECL);
+        eventDec.setFields(fields);
+        List<@Nullable IEventDeclaration> declarations = Collections.singletonList(eventDec);
+        CTFTrace trace = new CTFTrace();
+
+        List<byte[]> contents = new ArrayList<>();
+        for (int i = 0; i < NB_PACKETS; i++) {
+            byte[] content = new byte[NB_EVENTS * EVENT_SIZE];
+            for (int j = 0; j < NB_EVENTS; j++) {
+                content[j * EVENT_SIZE] = (byte) j;
+                content[j * EVENT_SIZE + 1] = (byte) i;
+            }
+            contents.add(content);
+            long sizeBits = (long) content.length * Byte.SIZE;
+            fPackets.add(new StreamInputPacketIndexEntry(i * sizeBits, sizeBits, sizeBits, 0, 0xff, 0, 0, "cpu", i, ImmutableMap.of(), () -> null));
+        }
+        fFactory = packet -> {
+            int index = fPackets.indexOf(packet);
+            BitBuffer input = new BitBuffer(ByteBuffer.wrap(contents.get(index)));
+            return new CTFPacketReader(input, packet, declarations, eventHeaderDeclaration, null, null, trace);
+        };
+    }
+
+    private static void assertPacket(int index, @Nullable IPacketReader reader) throws CTFException {
+        assertNotNull(reader);
+        assertEquals(index, reader.getCPU());
+        for (int j = 0; j < NB_EVENTS; j++) {
+            assertTrue(reader.hasMoreEvents());
+            IEventDefinition event = reader.readNextEvent();
+            assertEquals((byte) j, (byte) event.getTimestamp());
+            assertEquals(index, ((IntegerDefinition) event.getFields().getDefinition("value")).getValue());
+        }
+        assertFalse(reader.hasMoreEvents());
+    }
+
+    /**
+     * Test that the decoded packets return the events of the packets, in
+     * order
+     *
+     * @throws CTFException
+     *             if a packet cannot be read
+     */
+    @Test
+    public void testDecode() throws CTFException {
+        try (PacketDecoder decoder = new PacketDecoder()) {
+            for (int i = 0; i < NB_PACKETS; i++) {
+                decoder.decode(fPackets.subList(i, Math.min(i + 3, NB_PACKETS)), fFactory);
+                IPacketReader reader = decoder.take(fPackets.get(i));
+                if (reader == null) {
+                    /* Not started yet, read by the caller */
+                    reader = fFactory.create(fPackets.get(i));
+                }
+                assertPacket(i, reader);
+                /* A packet is only taken once */
+                assertNull(decoder.take(fPackets.get(i)));
+            }
+        }
+    }
+
+    /**
+     * Test that a packet being decoded is waited for
+     *
+     * @throws Exception
+     *             if the test fails
+     */
+    @Test
+    public void testWaitForDecoding() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PacketReaderFactory slowFactory = packet -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                fail();
+            }
+            return fFactory.create(packet);
+        };
+        try (PacketDecoder decoder = new PacketDecoder()) {
+            decoder.decode(Collections.singletonList(fPackets.get(2)), slowFactory);
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            Thread releaser = new Thread(release::countDown);
+            releaser.start();
+            assertPacket(2, decoder.take(fPackets.get(2)));
+            releaser.join();
+        }
+    }
+
+    /**
+     * Test that the packets that are not read next anymore are dropped, and
+     * that the packets that cannot be decoded are not returned
+     */
+    @Test
+    public void testDroppedAndFailed() {
+        try (PacketDecoder decoder = new PacketDecoder()) {
+            decoder.decode(fPackets.subList(0, 2), packet -> {
+                throw new CTFException("cannot read");
+            });
+            /* Seek to the end */
+            decoder.decode(fPackets.subList(6, 8), packet -> {
+                throw new CTFException("cannot read");
+            });
+            assertNull(decoder.take(fPackets.get(0)));
+            assertNull(decoder.take(fPackets.get(1)));
+            /* Either not started or failed, the caller reads it */
+            assertNull(decoder.take(fPackets.get(7)));
+            decoder.clear();
+            assertNull(decoder.take(fPackets.get(6)));
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.ctf.core.tests.trace;
+
+import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNull;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.ctf.core.trace.ICTFPacketDescriptor;
+import org.eclipse.tracecompass.internal.ctf.core.trace.PacketPrefetcher;
+import org.eclipse.tracecompass.internal.ctf.core.trace.StreamInputPacketIndexEntry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Test the {@link PacketPrefetcher}
+ */
+public class PacketPrefetcherTest {
+
+    private static final int PACKET_SIZE = 4096;
+    private static final int NB_PACKETS = 8;
+    private static final long TIMEOUT = 10000;
+
+    private File fFile;
+    private @Nullable FileChannel fFileChannel;
+    private final @NonNull List<@NonNull ICTFPacketDescriptor> fPackets = new ArrayList<>();
+
+    /**
+     * Create a stream file where each packet is filled with its index
+     *
+     * @throws IOException
+     *             if the file cannot be created
+     */
+    @Before
+    public void setUp() throws IOException {
+        fFile = File.createTempFile("prefetch", null);
+        byte[] content = new byte[PACKET_SIZE * NB_PACKETS];
+        for (int i = 0; i < NB_PACKETS; i++) {
+            Arrays.fill(content, i * PACKET_SIZE, (i + 1) * PACKET_SIZE, (byte) i);
+            long offsetBits = (long) i * PACKET_SIZE * Byte.SIZE;
+            fPackets.add(new StreamInputPacketIndexEntry(offsetBits, PACKET_SIZE * Byte.SIZE, PACKET_SIZE * Byte.SIZE,
+                    i, i, 0, offsetBits, null, 0, ImmutableMap.of(), () -> null));
+        }
+        Files.write(fFile.toPath(), content);
+        fFileChannel = FileChannel.open(fFile.toPath(), StandardOpenOption.READ);
+    }
+
+    /**
+     * Delete the stream file
+     *
+     * @throws IOException
+     *             if the file cannot be closed
+     */
+    @After
+    public void tearDown() throws IOException {
+        getFileChannel().close();
+        fFile.delete();
+    }
+
+    private @NonNull FileChannel getFileChannel() {
+        return checkNotNull(fFileChannel);
+    }
+
+    private static void waitFor(PacketPrefetcher prefetcher, @NonNull ICTFPacketDescriptor packet) throws InterruptedException {
+        long start = System.currentTimeMillis();
+        while (!prefetcher.isDone(packet) && System.currentTimeMillis() - start < TIMEOUT) {
+            Thread.sleep(1);
+        }
+    }
+
+    /**
+     * Test that the prefetched buffers hold the content of their packets
+     *
+     * @throws InterruptedException
+     *             if the test is interrupted
+     */
+    @Test
+    public void testPrefetch() throws InterruptedException {
+        try (PacketPrefetcher prefetcher = new PacketPrefetcher(getFileChannel())) {
+            prefetcher.prefetch(fPackets.subList(1, 4));
+            for (int i = 1; i < 4; i++) {
+                ICTFPacketDescriptor packet = fPackets.get(i);
+                waitFor(prefetcher, packet);
+                ByteBuffer buffer = prefetcher.take(packet);
+                assertNotNull(buffer);
+                assertEquals(PACKET_SIZE, buffer.remaining());
+                assertEquals(i, buffer.get(0));
+                assertEquals(i, buffer.get(PACKET_SIZE - 1));
+                /* A buffer is only taken once */
+                assertNull(prefetcher.take(packet));
+            }
+            /* Never prefetched */
+            assertNull(prefetcher.take(fPackets.get(0)));
+        }
+    }
+
+    /**
+     * Test that the packets that are not read next anymore are dropped
+     *
+     * @throws InterruptedException
+     *             if the test is interrupted
+     */
+    @Test
+    public void testDropped() throws InterruptedException {
+        try (PacketPrefetcher prefetcher = new PacketPrefetcher(getFileChannel())) {
+            prefetcher.prefetch(fPackets.subList(1, 3));
+            waitFor(prefetcher, fPackets.get(2));
+            /* Seek to the end */
+            prefetcher.prefetch(fPackets.subList(6, 8));
+            assertFalse(prefetcher.isDone(fPackets.get(1)));
+            assertNull(prefetcher.take(fPackets.get(1)));
+            assertNull(prefetcher.take(fPackets.get(2)));
+            waitFor(prefetcher, fPackets.get(7));
+            ByteBuffer buffer = prefetcher.take(fPackets.get(7));
+            assertNotNull(buffer);
+            assertEquals(7, buffer.get(0));
+
+            prefetcher.prefetch(Collections.emptyList());
+            assertNull(prefetcher.take(fPackets.get(6)));
+        }
+    }
+
+    /**
+     * Test that the packets that cannot be mapped are not returned
+     *
+     * @throws InterruptedException
+     *             if the test is interrupted
+     */
+    @Test
+    public void testBeyondFile() throws InterruptedException {
+        ICTFPacketDescriptor packet = new StreamInputPacketIndexEntry((long) NB_PACKETS * PACKET_SIZE * Byte.SIZE, PACKET_SIZE * Byte.SIZE,
+                PACKET_SIZE * Byte.SIZE, 0, 0, 0, 0, null, 0, ImmutableMap.of(), () -> null);
+        try (PacketPrefetcher prefetcher = new PacketPrefetcher(getFileChannel())) {
+            prefetcher.prefetch(Collections.singletonList(packet));
+            waitFor(prefetcher, packet);
+            assertNull(prefetcher.take(packet));
+        }
+    }
+}
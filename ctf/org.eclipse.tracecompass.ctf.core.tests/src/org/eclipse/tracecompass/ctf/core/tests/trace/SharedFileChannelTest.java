@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.ctf.core.tests.trace;
+
+import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNull;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.internal.ctf.core.trace.SharedFileChannel;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test the {@link SharedFileChannel}
+ */
+public class SharedFileChannelTest {
+
+    private @Nullable File fFile;
+
+    /**
+     * Create the file to read
+     *
+     * @throws IOException
+     *             if the file cannot be created
+     */
+    @Before
+    public void setUp() throws IOException {
+        File file = checkNotNull(File.createTempFile("stream", ".ctf"));
+        Files.write(file.toPath(), new byte[] { 1, 2, 3, 4 });
+        fFile = file;
+    }
+
+    /**
+     * Delete the file
+     */
+    @After
+    public void tearDown() {
+        getFile().delete();
+    }
+
+    private @NonNull File getFile() {
+        return checkNotNull(fFile);
+    }
+
+    /**
+     * Close a channel like a thread interrupted while using it
+     */
+    private static void interrupt(FileChannel channel) {
+        Thread.currentThread().interrupt();
+        try {
+            channel.size();
+            fail();
+        } catch (IOException e) {
+            /* The channel is closed by the interrupt */
+        } finally {
+            Thread.interrupted();
+        }
+        assertFalse(channel.isOpen());
+    }
+
+    /**
+     * Test that the readers share the channel, which is closed by the last
+     * one releasing it
+     *
+     * @throws IOException
+     *             if the file cannot be read
+     */
+    @Test
+    @SuppressWarnings("resource")
+    public void testShared() throws IOException {
+        /* The channels are closed by the shared channel */
+        SharedFileChannel shared = new SharedFileChannel(getFile());
+        FileChannel first = shared.acquire();
+        FileChannel second = shared.acquire();
+        assertSame(first, second);
+        assertEquals(2, shared.getReferenceCount());
+        assertEquals(4, first.size());
+
+        shared.release();
+        assertTrue(first.isOpen());
+        shared.release();
+        assertFalse(first.isOpen());
+        assertEquals(0, shared.getReferenceCount());
+
+        /* Releasing too many times does nothing */
+        shared.release();
+        assertEquals(0, shared.getReferenceCount());
+
+        /* The channel is opened again by the next reader */
+        FileChannel third = shared.acquire();
+        assertNotSame(first, third);
+        assertTrue(third.isOpen());
+        shared.release();
+    }
+
+    /**
+     * Test that a channel closed behind the readers' back, by an interrupted
+     * thread, is opened again
+     *
+     * @throws IOException
+     *             if the file cannot be read
+     */
+    @Test
+    @SuppressWarnings("resource")
+    public void testReopenClosed() throws IOException {
+        /* The channels are closed by the shared channel */
+        SharedFileChannel shared = new SharedFileChannel(getFile());
+        FileChannel first = shared.acquire();
+        interrupt(first);
+        FileChannel second = shared.acquire();
+        assertNotSame(first, second);
+        assertTrue(second.isOpen());
+        assertEquals(2, shared.getReferenceCount());
+
+        /* A reader that already acquired the channel gets it again */
+        interrupt(second);
+        FileChannel third = shared.get();
+        assertNotSame(second, third);
+        assertTrue(third.isOpen());
+        assertSame(third, shared.get());
+        assertEquals(2, shared.getReferenceCount());
+        shared.release();
+        shared.release();
+        assertFalse(third.isOpen());
+    }
+
+    /**
+     * Test that the channel cannot be used without acquiring it
+     *
+     * @throws IOException
+     *             if the file cannot be read
+     */
+    @Test(expected = IllegalStateException.class)
+    @SuppressWarnings("resource")
+    public void testGetNotAcquired() throws IOException {
+        /* The channel is never opened */
+        new SharedFileChannel(getFile()).get();
+    }
+}
@@ -0,0 +1,209 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.ctf.core.tests.trace;
+
+import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNull;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.ctf.core.trace.ICTFPacketDescriptor;
+import org.eclipse.tracecompass.internal.ctf.core.trace.StreamInputPacketIndexCache;
+import org.eclipse.tracecompass.internal.ctf.core.trace.StreamInputPacketIndexEntry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Test the {@link StreamInputPacketIndexCache}
+ */
+public class StreamInputPacketIndexCacheTest {
+
+    private @Nullable File fDirectory;
+    private @Nullable File fStreamFile;
+    private @Nullable File fCacheFile;
+
+    /**
+     * Create a stream file
+     *
+     * @throws IOException
+     *             if the files cannot be created
+     */
+    @Before
+    public void setUp() throws IOException {
+        File directory = checkNotNull(Files.createTempDirectory("packetindex").toFile());
+        File streamFile = new File(directory, "channel0_0");
+        Files.write(streamFile.toPath(), new byte[4096]);
+        fDirectory = directory;
+        fStreamFile = streamFile;
+        fCacheFile = StreamInputPacketIndexCache.getCacheFile(directory, streamFile);
+    }
+
+    /**
+     * Delete the files
+     */
+    @After
+    public void tearDown() {
+        File directory = checkNotNull(fDirectory);
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    private @NonNull File getStreamFile() {
+        return checkNotNull(fStreamFile);
+    }
+
+    private @NonNull File getCacheFile() {
+        return checkNotNull(fCacheFile);
+    }
+
+    private static @NonNull List<@NonNull ICTFPacketDescriptor> createEntries(AtomicLong loaded) {
+        List<@NonNull ICTFPacketDescriptor> entries = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            ImmutableMap.Builder<String, Object> attributes = ImmutableMap.builder();
+            attributes.put("timestamp_begin", 100L * i);
+            attributes.put("timestamp_end", 100L * i + 99);
+            attributes.put("ratio", i / 3.0);
+            if (i % 2 == 0) {
+                attributes.put("device", "cpu" + i);
+            }
+            attributes.put("mode", new SimpleImmutableEntry<>("MODE_" + i, (long) i));
+            long offset = i * 8192L;
+            entries.add(new StreamInputPacketIndexEntry(offset, 8192, 8000 + i, 100L * i, 100L * i + 99, i, offset + 256,
+                    i % 2 == 0 ? "cpu" + i : null, i, attributes.build(), () -> {
+                        loaded.incrementAndGet();
+                        return null;
+                    }));
+        }
+        return entries;
+    }
+
+    /**
+     * Test that the entries read from the cache are the ones written
+     *
+     * @throws IOException
+     *             if the cache cannot be written
+     */
+    @Test
+    public void testReadWrite() throws IOException {
+        File cacheFile = getCacheFile();
+        File streamFile = getStreamFile();
+        AtomicLong loaded = new AtomicLong();
+        List<@NonNull ICTFPacketDescriptor> expected = createEntries(loaded);
+        assertTrue(StreamInputPacketIndexCache.write(cacheFile, streamFile, expected));
+        assertFalse(new File(cacheFile.getPath() + ".tmp").exists());
+
+        List<Long> offsets = new ArrayList<>();
+        List<ICTFPacketDescriptor> actual = StreamInputPacketIndexCache.read(cacheFile, streamFile, offset -> {
+            offsets.add(offset);
+            return null;
+        });
+        assertNotNull(actual);
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            ICTFPacketDescriptor expectedEntry = expected.get(i);
+            ICTFPacketDescriptor actualEntry = actual.get(i);
+            assertEquals(expectedEntry.getOffsetBits(), actualEntry.getOffsetBits());
+            assertEquals(expectedEntry.getOffsetBytes(), actualEntry.getOffsetBytes());
+            assertEquals(expectedEntry.getPacketSizeBits(), actualEntry.getPacketSizeBits());
+            assertEquals(expectedEntry.getContentSizeBits(), actualEntry.getContentSizeBits());
+            assertEquals(expectedEntry.getTimestampBegin(), actualEntry.getTimestampBegin());
+            assertEquals(expectedEntry.getTimestampEnd(), actualEntry.getTimestampEnd());
+            assertEquals(expectedEntry.getLostEvents(), actualEntry.getLostEvents());
+            assertEquals(expectedEntry.getPayloadStartBits(), actualEntry.getPayloadStartBits());
+            assertEquals(expectedEntry.getTarget(), actualEntry.getTarget());
+            assertEquals(expectedEntry.getTargetId(), actualEntry.getTargetId());
+            assertEquals(expectedEntry.getAttributes(), actualEntry.getAttributes());
+            assertEquals(new ArrayList<>(expectedEntry.getAttributes().keySet()), new ArrayList<>(actualEntry.getAttributes().keySet()));
+        }
+
+        /* The contexts are only read when they are needed */
+        assertTrue(offsets.isEmpty());
+        ((StreamInputPacketIndexEntry) actual.get(2)).getStreamPacketContextDef();
+        assertEquals(1, offsets.size());
+        assertEquals(expected.get(2).getOffsetBits(), (long) offsets.get(0));
+        assertEquals(0, loaded.get());
+    }
+
+    /**
+     * Test that the cache is not used when the stream file changed
+     *
+     * @throws IOException
+     *             if the files cannot be written
+     */
+    @Test
+    public void testStreamFileChanged() throws IOException {
+        File cacheFile = getCacheFile();
+        File streamFile = getStreamFile();
+        assertTrue(StreamInputPacketIndexCache.write(cacheFile, streamFile, createEntries(new AtomicLong())));
+        assertNotNull(StreamInputPacketIndexCache.read(cacheFile, streamFile, offset -> null));
+
+        /* Modification time */
+        assertTrue(streamFile.setLastModified(streamFile.lastModified() - 10000));
+        assertNull(StreamInputPacketIndexCache.read(cacheFile, streamFile, offset -> null));
+
+        /* Size */
+        assertTrue(StreamInputPacketIndexCache.write(cacheFile, streamFile, createEntries(new AtomicLong())));
+        long lastModified = streamFile.lastModified();
+        Files.write(streamFile.toPath(), new byte[8192]);
+        assertTrue(streamFile.setLastModified(lastModified));
+        assertNull(StreamInputPacketIndexCache.read(cacheFile, streamFile, offset -> null));
+    }
+
+    /**
+     * Test that missing and corrupted caches are not used
+     *
+     * @throws IOException
+     *             if the files cannot be written
+     */
+    @Test
+    public void testInvalidCache() throws IOException {
+        File cacheFile = getCacheFile();
+        File streamFile = getStreamFile();
+        assertNull(StreamInputPacketIndexCache.read(cacheFile, streamFile, offset -> null));
+
+        assertTrue(StreamInputPacketIndexCache.write(cacheFile, streamFile, createEntries(new AtomicLong())));
+        byte[] content = Files.readAllBytes(cacheFile.toPath());
+        for (int length : new int[] { 0, 7, 32, content.length / 2, content.length - 1 }) {
+            byte[] truncated = new byte[length];
+            System.arraycopy(content, 0, truncated, 0, length);
+            Files.write(cacheFile.toPath(), truncated);
+            assertNull(StreamInputPacketIndexCache.read(cacheFile, streamFile, offset -> null));
+        }
+
+        /* Corrupted length of the first attribute name, after the header */
+        ByteBuffer corrupted = ByteBuffer.wrap(content.clone());
+        corrupted.putInt(28, Integer.MAX_VALUE);
+        Files.write(cacheFile.toPath(), corrupted.array());
+        assertNull(StreamInputPacketIndexCache.read(cacheFile, streamFile, offset -> null));
+    }
+}
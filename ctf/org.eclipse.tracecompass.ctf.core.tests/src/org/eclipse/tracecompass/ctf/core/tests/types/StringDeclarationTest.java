@@ -16,15 +16,19 @@ package org.eclipse.tracecompass.ctf.core.tests.types;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 import java.nio.ByteBuffer;
 
+import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.tracecompass.ctf.core.CTFException;
 import org.eclipse.tracecompass.ctf.core.event.io.BitBuffer;
 import org.eclipse.tracecompass.ctf.core.event.scope.IDefinitionScope;
 import org.eclipse.tracecompass.ctf.core.event.types.Encoding;
 import org.eclipse.tracecompass.ctf.core.event.types.StringDeclaration;
 import org.eclipse.tracecompass.ctf.core.event.types.StringDefinition;
+import org.eclipse.tracecompass.internal.ctf.core.event.types.StringInterner;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -91,6 +95,56 @@ public class StringDeclarationTest {
         assertNotNull(result);
     }
 
+    /**
+     * Test reading strings from heap and direct buffers, the repeated strings
+     * sharing the same instance when the buffer has a table of strings
+     *
+     * @throws CTFException
+     *             out of buffer exception
+     */
+    @Test
+    public void testCreateDefinitionRepeated() throws CTFException {
+        byte[] bytes = { 'l', 's', 0, 'b', 'a', 's', 'h', 0, 'l', 's', 0, (byte) 0xe9, 0 };
+        testCreateDefinitionRepeated(ByteBuffer.wrap(bytes));
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes);
+        testCreateDefinitionRepeated(direct);
+    }
+
+    private void testCreateDefinitionRepeated(@NonNull ByteBuffer buffer) throws CTFException {
+        BitBuffer bb = new BitBuffer(buffer);
+        bb.setStringInterner(new StringInterner(16));
+        StringDefinition first = fixture.createDefinition(null, "comm", bb);
+        assertEquals("ls", first.getValue());
+        assertEquals(24, bb.position());
+        assertEquals("bash", fixture.createDefinition(null, "comm", bb).getValue());
+        StringDefinition repeated = fixture.createDefinition(null, "comm", bb);
+        assertEquals("ls", repeated.getValue());
+        assertSame(first.getValue(), repeated.getValue());
+        /* Each byte is a character */
+        assertEquals("\u00e9", fixture.createDefinition(null, "comm", bb).getValue());
+        assertEquals(buffer.capacity() * 8, bb.position());
+
+        bb = new BitBuffer(buffer);
+        first = fixture.createDefinition(null, "comm", bb);
+        bb.position(64);
+        repeated = fixture.createDefinition(null, "comm", bb);
+        assertEquals(first.getValue(), repeated.getValue());
+        assertNotSame(first.getValue(), repeated.getValue());
+    }
+
+    /**
+     * Test reading a string that is not terminated
+     *
+     * @throws CTFException
+     *             the expected exception
+     */
+    @Test(expected = CTFException.class)
+    public void testCreateDefinitionNotTerminated() throws CTFException {
+        BitBuffer bb = new BitBuffer(ByteBuffer.wrap(new byte[] { 'l', 's' }));
+        fixture.createDefinition(null, "comm", bb);
+    }
+
     /**
      * Run the Encoding getEncoding() method test.
      */
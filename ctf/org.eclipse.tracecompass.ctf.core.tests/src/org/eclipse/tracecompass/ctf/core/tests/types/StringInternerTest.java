@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.ctf.core.tests.types;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.tracecompass.internal.ctf.core.event.types.StringInterner;
+import org.junit.Test;
+
+/**
+ * Test the {@link StringInterner}
+ */
+public class StringInternerTest {
+
+    private static String decode(StringInterner interner, String value) {
+        byte[] bytes = ("xx" + value).getBytes(StandardCharsets.ISO_8859_1);
+        return interner.decode(ByteBuffer.wrap(bytes), 2, value.length());
+    }
+
+    /**
+     * Test that the repeated strings share the same instance
+     */
+    @Test
+    public void testDecode() {
+        StringInterner interner = new StringInterner(64);
+        String first = decode(interner, "swapper/0");
+        assertEquals("swapper/0", first);
+        assertSame(first, decode(interner, "swapper/0"));
+        assertEquals("", decode(interner, ""));
+        assertEquals(1, interner.getHitCount());
+        assertEquals(2, interner.getMissCount());
+    }
+
+    /**
+     * Test that the table is bounded, the strings replacing each other in
+     * their slot, and that the long strings are not kept
+     */
+    @Test
+    public void testBounded() {
+        StringInterner interner = new StringInterner(4);
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            values.add(decode(interner, "comm" + i));
+        }
+        long hits = 0;
+        for (int i = 0; i < 100; i++) {
+            String value = decode(interner, "comm" + i);
+            assertEquals(values.get(i), value);
+            if (value == values.get(i)) {
+                hits++;
+            }
+        }
+        /* At most one string per slot is still in the table */
+        assertEquals(hits, interner.getHitCount());
+        assertEquals(200 - hits, interner.getMissCount());
+        assertTrue(hits <= 4);
+
+        char[] chars = new char[1000];
+        Arrays.fill(chars, 'a');
+        String longString = new String(chars);
+        String first = decode(interner, longString);
+        assertEquals(longString, first);
+        assertNotSame(first, decode(interner, longString));
+    }
+}
@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.ctf.core.tests.types;
+
+import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNull;
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.tracecompass.ctf.core.CTFException;
+import org.eclipse.tracecompass.ctf.core.event.io.BitBuffer;
+import org.eclipse.tracecompass.ctf.core.event.types.Definition;
+import org.eclipse.tracecompass.ctf.core.event.types.Encoding;
+import org.eclipse.tracecompass.ctf.core.event.types.EnumDeclaration;
+import org.eclipse.tracecompass.ctf.core.event.types.IDeclaration;
+import org.eclipse.tracecompass.ctf.core.event.types.IntegerDeclaration;
+import org.eclipse.tracecompass.ctf.core.event.types.StringDeclaration;
+import org.eclipse.tracecompass.ctf.core.event.types.StructDeclaration;
+import org.eclipse.tracecompass.ctf.core.event.types.StructDefinition;
+import org.eclipse.tracecompass.internal.ctf.core.event.types.StructDeclarationDecoder;
+import org.junit.Test;
+
+/**
+ * Test that the {@link StructDeclarationDecoder} used by the structs reads the
+ * same values as the declarations of their fields
+ */
+public class StructDeclarationDecoderTest {
+
+    private static final int[] LENGTHS = { 3, 8, 16, 24, 32, 33, 64 };
+
+    private static @NonNull IDeclaration createField(Random random) {
+        int length = LENGTHS[random.nextInt(LENGTHS.length)];
+        ByteOrder order = random.nextBoolean() ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+        int alignment = 1 << random.nextInt(7);
+        IntegerDeclaration integer = IntegerDeclaration.createDeclaration(length, random.nextBoolean(), 10, order, Encoding.NONE, "", alignment);
+        switch (random.nextInt(4)) {
+        case 0:
+            return new EnumDeclaration(integer);
+        case 1:
+            return StringDeclaration.getStringDeclaration(Encoding.UTF8);
+        default:
+            return integer;
+        }
+    }
+
+    /**
+     * Test that random structs are read the same way by the struct and by
+     * their fields, with both byte orders for the buffer
+     *
+     * @throws CTFException
+     *             won't happen
+     */
+    @Test
+    public void testDecodeSameAsFields() throws CTFException {
+        Random random = new Random(1234);
+        for (int i = 0; i < 500; i++) {
+            StructDeclaration struct = new StructDeclaration(8);
+            int nbFields = 1 + random.nextInt(10);
+            for (int j = 0; j < nbFields; j++) {
+                struct.addField("f" + j, createField(random));
+            }
+            byte[] data = new byte[1024];
+            random.nextBytes(data);
+            /* Terminate the strings */
+            for (int j = 0; j < data.length; j += 1 + random.nextInt(32)) {
+                data[j] = 0;
+            }
+            ByteOrder order = random.nextBoolean() ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+            long start = random.nextInt(64);
+
+            BitBuffer input = new BitBuffer(ByteBuffer.wrap(data), order);
+            input.position(start);
+            StructDefinition definition = struct.createDefinition(null, "struct", input);
+
+            BitBuffer expectedInput = new BitBuffer(ByteBuffer.wrap(data), order);
+            long mask = struct.getAlignment() - 1;
+            expectedInput.position((start + mask) & ~mask);
+            for (String fieldName : struct.getFieldsList()) {
+                IDeclaration field = checkNotNull(struct.getField(fieldName));
+                Definition expected = field.createDefinition(null, fieldName, expectedInput);
+                assertEquals("struct " + i + " field " + fieldName, expected.toString(), definition.getDefinition(fieldName).toString());
+            }
+            assertEquals("struct " + i, expectedInput.position(), input.position());
+            assertEquals(order, input.getByteOrder());
+        }
+    }
+
+    /**
+     * Test that the struct is read again after a field is added
+     *
+     * @throws CTFException
+     *             won't happen
+     */
+    @Test
+    public void testAddField() throws CTFException {
+        StructDeclaration struct = new StructDeclaration(8);
+        struct.addField("a", IntegerDeclaration.UINT_16L_DECL);
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[] { 1, 2, 3, 4 });
+        StructDefinition definition = struct.createDefinition(null, "struct", new BitBuffer(buffer));
+        assertEquals(0x0201L, checkNotNull(definition.lookupInteger("a")).getValue());
+
+        struct.addField("b", IntegerDeclaration.UINT_16B_DECL);
+        BitBuffer input = new BitBuffer(buffer);
+        definition = struct.createDefinition(null, "struct", input);
+        assertEquals(0x0201L, checkNotNull(definition.lookupInteger("a")).getValue());
+        assertEquals(0x0304L, checkNotNull(definition.lookupInteger("b")).getValue());
+        assertEquals(32, input.position());
+    }
+
+    /**
+     * Test that reading a struct beyond the end of the buffer fails
+     *
+     * @throws CTFException
+     *             expected
+     */
+    @Test(expected = CTFException.class)
+    public void testOutOfBounds() throws CTFException {
+        StructDeclaration struct = new StructDeclaration(8);
+        struct.addField("a", IntegerDeclaration.UINT_32B_DECL);
+        struct.addField("b", IntegerDeclaration.UINT_64B_DECL);
+        struct.createDefinition(null, "struct", new BitBuffer(ByteBuffer.allocate(8)));
+    }
+}
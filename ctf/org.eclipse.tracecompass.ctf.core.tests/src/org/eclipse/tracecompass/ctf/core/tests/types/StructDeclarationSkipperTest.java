@@ -0,0 +1,254 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.ctf.core.tests.types;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.tracecompass.ctf.core.CTFException;
+import org.eclipse.tracecompass.ctf.core.event.io.BitBuffer;
+import org.eclipse.tracecompass.ctf.core.event.types.Encoding;
+import org.eclipse.tracecompass.ctf.core.event.types.EnumDeclaration;
+import org.eclipse.tracecompass.ctf.core.event.types.FloatDeclaration;
+import org.eclipse.tracecompass.ctf.core.event.types.ICompositeDefinition;
+import org.eclipse.tracecompass.ctf.core.event.types.IDeclaration;
+import org.eclipse.tracecompass.ctf.core.event.types.IntegerDeclaration;
+import org.eclipse.tracecompass.ctf.core.event.types.StringDeclaration;
+import org.eclipse.tracecompass.ctf.core.event.types.StructDeclaration;
+import org.eclipse.tracecompass.ctf.core.event.types.VariantDeclaration;
+import org.eclipse.tracecompass.ctf.core.trace.CTFTrace;
+import org.eclipse.tracecompass.internal.ctf.core.event.EventDeclaration;
+import org.eclipse.tracecompass.internal.ctf.core.event.EventDefinition;
+import org.eclipse.tracecompass.internal.ctf.core.event.types.ArrayDeclaration;
+import org.eclipse.tracecompass.internal.ctf.core.event.types.SequenceDeclaration;
+import org.eclipse.tracecompass.internal.ctf.core.event.types.StructDeclarationSkipper;
+import org.eclipse.tracecompass.internal.ctf.core.trace.CTFStream;
+import org.eclipse.tracecompass.internal.ctf.core.trace.StreamInputPacketIndexEntry;
+import org.junit.Test;
+
+/**
+ * Test the {@link StructDeclarationSkipper} and the lazy decoding of the event
+ * fields that uses it
+ */
+public class StructDeclarationSkipperTest {
+
+    private static final int BUFFER_SIZE = 4096;
+
+    private static @NonNull IDeclaration createField(Random random, int depth) {
+        int alignment = 1 << random.nextInt(7);
+        ByteOrder order = random.nextBoolean() ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+        switch (random.nextInt(depth > 2 ? 5 : 7)) {
+        case 0:
+            return IntegerDeclaration.createDeclaration(1 + random.nextInt(64), random.nextBoolean(), 10, order, Encoding.NONE, "", alignment);
+        case 1:
+            return new EnumDeclaration(IntegerDeclaration.createDeclaration(1 + random.nextInt(32), false, 10, order, Encoding.NONE, "", alignment));
+        case 2:
+            return random.nextBoolean() ? new FloatDeclaration(8, 24, order, alignment) : new FloatDeclaration(11, 53, order, alignment);
+        case 3:
+            return StringDeclaration.getStringDeclaration(Encoding.UTF8);
+        case 4:
+            return new ArrayDeclaration(random.nextInt(20), IntegerDeclaration.createDeclaration(random.nextBoolean() ? 8 : 1 + random.nextInt(16), false, 10, order, Encoding.NONE, "", 1 << random.nextInt(4)));
+        case 5:
+            return new ArrayDeclaration(random.nextInt(4), createStruct(random, depth + 1));
+        default:
+            return createStruct(random, depth + 1);
+        }
+    }
+
+    private static @NonNull StructDeclaration createStruct(Random random, int depth) {
+        StructDeclaration struct = new StructDeclaration(1 << random.nextInt(4));
+        int nbFields = random.nextInt(8);
+        for (int i = 0; i < nbFields; i++) {
+            struct.addField("f" + i, createField(random, depth));
+        }
+        return struct;
+    }
+
+    private static @NonNull ByteBuffer createBuffer(Random random) {
+        byte[] data = new byte[BUFFER_SIZE];
+        random.nextBytes(data);
+        /* Terminate strings every now and then */
+        for (int i = 0; i < data.length; i++) {
+            if (random.nextInt(16) == 0) {
+                data[i] = 0;
+            }
+        }
+        return ByteBuffer.wrap(data);
+    }
+
+    /**
+     * Test that skipping random structs moves the buffer at the same position
+     * as decoding them, whatever their start position
+     *
+     * @throws CTFException
+     *             won't happen
+     */
+    @Test
+    public void testSkipSameAsDecode() throws CTFException {
+        Random random = new Random(42);
+        for (int i = 0; i < 500; i++) {
+            StructDeclaration struct = createStruct(random, 0);
+            StructDeclarationSkipper skipper = StructDeclarationSkipper.create(struct);
+            assertNotNull(skipper);
+            ByteBuffer buffer = createBuffer(random);
+            for (int start = 0; start < 64; start += 1 + random.nextInt(8)) {
+                BitBuffer decoded = new BitBuffer(buffer);
+                decoded.position(start);
+                struct.createDefinition(null, "fields", decoded);
+                BitBuffer skipped = new BitBuffer(buffer);
+                skipped.position(start);
+                skipper.skip(skipped);
+                assertEquals("struct " + i + " at " + start, decoded.position(), skipped.position());
+            }
+        }
+    }
+
+    /**
+     * Test that a struct that goes beyond the end of the buffer cannot be
+     * skipped
+     *
+     * @throws CTFException
+     *             expected
+     */
+    @Test(expected = CTFException.class)
+    public void testSkipOutOfBounds() throws CTFException {
+        StructDeclaration struct = new StructDeclaration(8);
+        struct.addField("a", IntegerDeclaration.UINT_64B_DECL);
+        StructDeclarationSkipper skipper = StructDeclarationSkipper.create(struct);
+        assertNotNull(skipper);
+        BitBuffer input = new BitBuffer(ByteBuffer.allocate(4));
+        skipper.skip(input);
+    }
+
+    /**
+     * Test that structs with sequences or variants, whose size depends on
+     * their values, cannot be skipped
+     */
+    @Test
+    public void testNotSkippable() {
+        StructDeclaration sequence = new StructDeclaration(8);
+        sequence.addField("len", IntegerDeclaration.UINT_8_DECL);
+        sequence.addField("seq", new SequenceDeclaration("len", IntegerDeclaration.UINT_8_DECL));
+        assertNull(StructDeclarationSkipper.create(sequence));
+
+        StructDeclaration variant = new StructDeclaration(8);
+        variant.addField("tag", IntegerDeclaration.UINT_8_DECL);
+        variant.addField("var", new VariantDeclaration());
+        StructDeclaration nested = new StructDeclaration(8);
+        nested.addField("inner", variant);
+        assertNull(StructDeclarationSkipper.create(nested));
+    }
+
+    /**
+     * Test that the fields of an event are the same, whether they are decoded
+     * lazily or not, and that the following event is read at the same
+     * position
+     *
+     * @throws CTFException
+     *             won't happen
+     */
+    @Test
+    public void testLazyEventFields() throws CTFException {
+        StructDeclaration fields = new StructDeclaration(8);
+        fields.addField("id", IntegerDeclaration.INT_32B_DECL);
+        fields.addField("name", StringDeclaration.getStringDeclaration(Encoding.UTF8));
+        fields.addField("value", IntegerDeclaration.UINT_64B_DECL);
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        buffer.putInt(-42).put("lazy".getBytes()).put((byte) 0).putLong(3, 1234567L);
+
+        ICompositeDefinition expected = null;
+        long expectedPosition = 0;
+        for (boolean lazy : new boolean[] { false, true }) {
+            @NonNull CTFTrace trace = new CTFTrace();
+            trace.setLazyEventFields(lazy);
+            EventDeclaration declaration = new EventDeclaration();
+            declaration.setName("event");
+            declaration.setFields(fields);
+            declaration.setStream(new CTFStream(trace));
+            BitBuffer input = new BitBuffer(buffer);
+            EventDefinition event = declaration.createDefinition(null, new StreamInputPacketIndexEntry(0, 64), null, null, input, 0);
+            if (!lazy) {
+                expected = event.getFields();
+                expectedPosition = input.position();
+                continue;
+            }
+            assertEquals(expectedPosition, input.position());
+            ICompositeDefinition actual = event.getFields();
+            assertNotNull(expected);
+            assertNotNull(actual);
+            assertEquals(expected.getFieldNames(), actual.getFieldNames());
+            for (String field : expected.getFieldNames()) {
+                assertEquals(field, String.valueOf(expected.getDefinition(field)), String.valueOf(actual.getDefinition(field)));
+            }
+        }
+    }
+
+    private static @NonNull EventDeclaration createLazyEvent() {
+        StructDeclaration fields = new StructDeclaration(8);
+        fields.addField("id", IntegerDeclaration.INT_32B_DECL);
+        fields.addField("name", StringDeclaration.getStringDeclaration(Encoding.UTF8));
+        @NonNull CTFTrace trace = new CTFTrace();
+        trace.setLazyEventFields(true);
+        EventDeclaration declaration = new EventDeclaration();
+        declaration.setName("event");
+        declaration.setFields(fields);
+        declaration.setStream(new CTFStream(trace));
+        return declaration;
+    }
+
+    /**
+     * Test that the fields of an event that cannot be skipped within the
+     * packet, here a string without terminator, fail when the event is read,
+     * like the fields that are not decoded lazily
+     *
+     * @throws CTFException
+     *             expected
+     */
+    @Test(expected = CTFException.class)
+    public void testLazyEventFieldsCorrupt() throws CTFException {
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.putInt(42).put("corrupt".getBytes());
+        while (buffer.hasRemaining()) {
+            buffer.put((byte) 'x');
+        }
+        BitBuffer input = new BitBuffer(buffer);
+        createLazyEvent().createDefinition(null, new StreamInputPacketIndexEntry(0, 16), null, null, input, 0);
+    }
+
+    /**
+     * Test that the error of fields that fail to decode after the event was
+     * read is kept with the event
+     *
+     * @throws CTFException
+     *             won't happen
+     */
+    @Test
+    public void testLazyEventFieldsError() throws CTFException {
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.putInt(42).put("lazy".getBytes()).put((byte) 0);
+        BitBuffer input = new BitBuffer(buffer);
+        EventDefinition event = createLazyEvent().createDefinition(null, new StreamInputPacketIndexEntry(0, 16), null, null, input, 0);
+        /* Remove the terminator of the string once the event is read */
+        buffer.position(8);
+        while (buffer.hasRemaining()) {
+            buffer.put((byte) 'x');
+        }
+        assertNull(event.getFields());
+        assertNotNull(event.getFieldsError());
+    }
+}
@@ -22,7 +22,9 @@ import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 
 import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.ctf.core.CTFException;
+import org.eclipse.tracecompass.internal.ctf.core.event.types.StringInterner;
 
 /**
  * <b><u>BitBuffer</u></b>
@@ -56,6 +58,7 @@ public final class BitBuffer {
      */
     private long fPosition;
     private ByteOrder fByteOrder;
+    private @Nullable StringInterner fStringInterner;
 
     // ------------------------------------------------------------------------
     // Constructors
@@ -148,6 +151,37 @@ public final class BitBuffer {
      *             exception will be raised.
      */
     public long get(int length, boolean signed) throws CTFException {
+        /*
+         * Fast path for the byte-aligned fields of 8, 16, 32 and 64 bits, read
+         * with the absolute getters of the byte buffer in its byte order
+         */
+        if ((fPosition & (BIT_CHAR - 1)) == 0 && canRead(length)) {
+            int index = (int) (fPosition / BIT_CHAR);
+            switch (length) {
+            case BIT_CHAR: {
+                byte value = fBuffer.get(index);
+                fPosition += BIT_CHAR;
+                return signed ? value : value & BYTE_MASK;
+            }
+            case BIT_SHORT: {
+                short value = fBuffer.getShort(index);
+                fPosition += BIT_SHORT;
+                return signed ? value : value & SHORT_MASK;
+            }
+            case BIT_INT: {
+                int value = fBuffer.getInt(index);
+                fPosition += BIT_INT;
+                return signed ? value : value & INT_MASK;
+            }
+            case BIT_LONG: {
+                long value = fBuffer.getLong(index);
+                fPosition += BIT_LONG;
+                return value;
+            }
+            default:
+                break;
+            }
+        }
         if (length > BIT_LONG) {
             throw new CTFException("Cannot read a long longer than 64 bits. Rquested: " + length); //$NON-NLS-1$
         }
@@ -732,6 +766,31 @@ public final class BitBuffer {
         return fBuffer;
     }
 
+    /**
+     * Sets the table sharing the strings read from this buffer, typically the
+     * table of the trace being read.
+     *
+     * @param stringInterner
+     *            the table of the strings, or null to create a new instance
+     *            for each string read
+     * @since 4.1
+     * @noreference Meant to be used internally by the CTF readers only
+     */
+    public void setStringInterner(@Nullable StringInterner stringInterner) {
+        fStringInterner = stringInterner;
+    }
+
+    /**
+     * Gets the table sharing the strings read from this buffer
+     *
+     * @return the table of the strings, or null if the strings are not shared
+     * @since 4.1
+     * @noreference Meant to be used internally by the CTF readers only
+     */
+    public @Nullable StringInterner getStringInterner() {
+        return fStringInterner;
+    }
+
     /**
      * Resets the bitbuffer.
      */
@@ -14,11 +14,14 @@
 
 package org.eclipse.tracecompass.ctf.core.event.types;
 
+import java.nio.ByteBuffer;
+
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.ctf.core.CTFException;
 import org.eclipse.tracecompass.ctf.core.event.io.BitBuffer;
 import org.eclipse.tracecompass.ctf.core.event.scope.IDefinitionScope;
+import org.eclipse.tracecompass.internal.ctf.core.event.types.StringInterner;
 
 /**
  * A CTF string declaration.
@@ -43,6 +46,7 @@ public class StringDeclaration extends Declaration {
     // ------------------------------------------------------------------------
 
     private static final int BITS_PER_BYTE = Byte.SIZE;
+
     private final Encoding fEncoding;
 
     // ------------------------------------------------------------------------
@@ -133,13 +137,21 @@ public class StringDeclaration extends Declaration {
         /* Offset the buffer position wrt the current alignment */
         alignRead(input);
 
-        StringBuilder sb = new StringBuilder();
-        char c = (char) input.get(BITS_PER_BYTE, false);
-        while (c != 0) {
-            sb.append(c);
-            c = (char) input.get(BITS_PER_BYTE, false);
+        /* Find the terminator, then decode all the bytes at once */
+        ByteBuffer buffer = input.getByteBuffer();
+        int start = (int) (input.position() / BITS_PER_BYTE);
+        int limit = buffer.limit();
+        int end = start;
+        while (end < limit && buffer.get(end) != 0) {
+            end++;
+        }
+        if (end >= limit) {
+            throw new CTFException("Cannot read the string, it is not terminated before the end of the buffer. Start: " + start + " Limit: " + limit); //$NON-NLS-1$ //$NON-NLS-2$
         }
-        return sb.toString();
+        StringInterner stringInterner = input.getStringInterner();
+        String value = stringInterner != null ? stringInterner.decode(buffer, start, end - start) : StringInterner.decodeString(buffer, start, end - start);
+        input.position((long) (end + 1) * BITS_PER_BYTE);
+        return value;
     }
 
     @Override
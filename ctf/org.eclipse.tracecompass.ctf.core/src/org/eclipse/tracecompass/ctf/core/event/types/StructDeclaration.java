@@ -26,6 +26,7 @@ import org.eclipse.tracecompass.ctf.core.event.io.BitBuffer;
 import org.eclipse.tracecompass.ctf.core.event.scope.IDefinitionScope;
 import org.eclipse.tracecompass.ctf.core.event.scope.ILexicalScope;
 import org.eclipse.tracecompass.internal.ctf.core.Activator;
+import org.eclipse.tracecompass.internal.ctf.core.event.types.StructDeclarationDecoder;
 
 /**
  * A CTF structure declaration.
@@ -59,6 +60,9 @@ public class StructDeclaration extends Declaration {
     /** maximum bit alignment */
     private long fMaxAlign;
 
+    /** Decoder of the fields, created on the first read */
+    private volatile @Nullable StructDeclarationDecoder fDecoder;
+
     // ------------------------------------------------------------------------
     // Constructors
     // ------------------------------------------------------------------------
@@ -211,15 +215,16 @@ public class StructDeclaration extends Declaration {
         fFieldNames = names;
         fFields = fields;
         fMaxAlign = Math.max(fMaxAlign, declaration.getAlignment());
+        fDecoder = null;
     }
 
-    private void fillStruct(@NonNull BitBuffer input, final IDefinition[] myFields, StructDefinition structDefinition) throws CTFException {
-        final @NonNull String[] fieldNames = fFieldNames;
-        final @NonNull IDeclaration[] fields = fFields;
-        for (int i = 0; i < fields.length; i++) {
-            /* We should not have inserted null keys... */
-            myFields[i] = fields[i].createDefinition(structDefinition, fieldNames[i], input);
+    private void fillStruct(@NonNull BitBuffer input, final Definition @NonNull [] myFields, @NonNull StructDefinition structDefinition) throws CTFException {
+        StructDeclarationDecoder decoder = fDecoder;
+        if (decoder == null) {
+            decoder = StructDeclarationDecoder.create(this);
+            fDecoder = decoder;
         }
+        decoder.decode(structDefinition, input, myFields);
     }
 
     /**
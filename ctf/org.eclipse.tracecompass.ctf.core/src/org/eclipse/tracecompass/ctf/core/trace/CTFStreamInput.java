@@ -14,12 +14,16 @@
 
 package org.eclipse.tracecompass.ctf.core.trace;
 
+import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNull;
+
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.channels.FileChannel.MapMode;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 import org.eclipse.core.runtime.IStatus;
@@ -37,7 +41,10 @@ import org.eclipse.tracecompass.ctf.core.event.types.StructDeclaration;
 import org.eclipse.tracecompass.ctf.core.event.types.StructDefinition;
 import org.eclipse.tracecompass.internal.ctf.core.Activator;
 import org.eclipse.tracecompass.internal.ctf.core.SafeMappedByteBuffer;
+import org.eclipse.tracecompass.internal.ctf.core.trace.CompressedStreamFile;
+import org.eclipse.tracecompass.internal.ctf.core.trace.SharedFileChannel;
 import org.eclipse.tracecompass.internal.ctf.core.trace.StreamInputPacketIndex;
+import org.eclipse.tracecompass.internal.ctf.core.trace.StreamInputPacketIndexCache;
 import org.eclipse.tracecompass.internal.ctf.core.trace.StreamInputPacketIndexEntry;
 import org.eclipse.tracecompass.internal.ctf.core.utils.Utils;
 
@@ -70,6 +77,16 @@ public class CTFStreamInput implements IDefinitionScope {
      */
     private final String fFileName;
 
+    /**
+     * The file channel shared by the readers of the file
+     */
+    private final SharedFileChannel fFileChannel;
+
+    /**
+     * The compressed file, null if the file is not compressed
+     */
+    private final @Nullable CompressedStreamFile fCompressedFile;
+
     /**
      * The packet index of this input
      */
@@ -94,6 +111,9 @@ public class CTFStreamInput implements IDefinitionScope {
 
     private boolean fUUIDMismatchWarning = false;
 
+    private volatile boolean fIndexCacheRead = false;
+    private boolean fIndexCacheWritten = false;
+
     // ------------------------------------------------------------------------
     // Constructors
     // ------------------------------------------------------------------------
@@ -108,9 +128,26 @@ public class CTFStreamInput implements IDefinitionScope {
      * @since 2.0
      */
     public CTFStreamInput(ICTFStream stream, File file) {
+        this(stream, file, openCompressedFile(file));
+    }
+
+    /**
+     * Constructs a StreamInput whose file was already checked for compression
+     *
+     * @param stream
+     *            The stream to which this StreamInput belongs to.
+     * @param file
+     *            The stream file
+     * @param compressedFile
+     *            The compressed stream file, null if the file is not
+     *            compressed
+     */
+    CTFStreamInput(ICTFStream stream, File file, @Nullable CompressedStreamFile compressedFile) {
         fStream = stream;
         fFile = file;
         fFileName = fFile.getName();
+        fFileChannel = new SharedFileChannel(file);
+        fCompressedFile = compressedFile;
 
         fIndex = new StreamInputPacketIndex();
         /*
@@ -130,6 +167,15 @@ public class CTFStreamInput implements IDefinitionScope {
         }
     }
 
+    private static @Nullable CompressedStreamFile openCompressedFile(File file) {
+        try {
+            return CompressedStreamFile.open(file);
+        } catch (IOException e) {
+            Activator.logError("Failed to read the stream file " + file, e); //$NON-NLS-1$
+            return null;
+        }
+    }
+
     // ------------------------------------------------------------------------
     // Getters/Setters/Predicates
     // ------------------------------------------------------------------------
@@ -224,7 +270,10 @@ public class CTFStreamInput implements IDefinitionScope {
      * @throws CTFException
      *             If there was a problem reading the packed header
      */
-    public boolean addPacketHeaderIndex() throws CTFException {
+    public synchronized boolean addPacketHeaderIndex() throws CTFException {
+        if (!fIndexCacheRead) {
+            readIndexCache();
+        }
         long currentPosBits = 0L;
         if (!fIndex.isEmpty()) {
             ICTFPacketDescriptor pos = fIndex.lastElement();
@@ -233,44 +282,217 @@ public class CTFStreamInput implements IDefinitionScope {
             }
             currentPosBits = pos.getOffsetBits() + pos.getPacketSizeBits();
         }
-        if (currentPosBits < getStreamSizeBits()) {
-            return fIndex.append(createPacketIndexEntry(currentPosBits));
+        if (currentPosBits < getStreamSizeBits() && fIndex.append(createPacketIndexEntry(currentPosBits))) {
+            return true;
         }
+        /* The index is complete */
+        writeIndexCache();
         return false;
     }
 
-    private long getStreamSizeBits() {
-        return fFile.length() * Byte.SIZE;
+    /**
+     * Index all the packets of this stream file that are not indexed yet
+     *
+     * @throws CTFException
+     *             If there was a problem reading a packet header
+     */
+    void indexAllPackets() throws CTFException {
+        while (addPacketHeaderIndex()) {
+            // Index the next packet
+        }
     }
 
-    private ICTFPacketDescriptor createPacketIndexEntry(long dataOffsetbits)
-            throws CTFException {
+    /**
+     * Append a complete packet to the stream file and add it to the index.
+     * This is used to feed the packets of a live trace as they are received,
+     * the readers of the stream then read them without opening the trace
+     * again.
+     *
+     * @param packet
+     *            the bytes of the packet, from its packet header to the end of
+     *            its padding
+     * @throws CTFException
+     *             if the packet cannot be written or its header cannot be
+     *             read
+     * @since 4.1
+     */
+    public synchronized void appendPacket(ByteBuffer packet) throws CTFException {
+        if (isCompressed()) {
+            throw new CTFException("Cannot append a packet to the compressed stream file " + fFileName); //$NON-NLS-1$
+        }
+        /*
+         * The whole packet is written before it is indexed, so the index never
+         * points to a partial packet
+         */
+        try (FileChannel fc = FileChannel.open(fFile.toPath(), StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (packet.hasRemaining()) {
+                fc.write(packet);
+            }
+        } catch (IOException e) {
+            throw new CTFIOException("Failed to append a packet to " + fFileName, e); //$NON-NLS-1$
+        }
+        indexAllPackets();
+    }
+
+    /**
+     * Read the index from the packet index cache of the trace, if there is a
+     * valid one for this stream file
+     */
+    private synchronized void readIndexCache() {
+        if (fIndexCacheRead) {
+            return;
+        }
+        fIndexCacheRead = true;
+        File directory = getStream().getTrace().getPacketIndexDirectory();
+        if (directory == null || !fIndex.isEmpty()) {
+            return;
+        }
+        List<ICTFPacketDescriptor> entries = StreamInputPacketIndexCache.read(StreamInputPacketIndexCache.getCacheFile(directory, fFile), fFile, this::readPacketContext);
+        if (entries == null || entries.isEmpty()) {
+            return;
+        }
+        fIndex.appendAll(entries);
+        for (ICTFPacketDescriptor entry : entries) {
+            fLostSoFar = entry.getLostEvents() + fLostSoFar;
+            setTimestampEnd(entry.getTimestampEnd());
+        }
+        fIndexCacheWritten = true;
+    }
 
-        try (FileChannel fc = FileChannel.open(fFile.toPath(), StandardOpenOption.READ)) {
-            if (fc == null) {
-                throw new IOException("Failed to create FileChannel"); //$NON-NLS-1$
+    /**
+     * Write the complete index to the packet index cache of the trace
+     */
+    private synchronized void writeIndexCache() {
+        File directory = getStream().getTrace().getPacketIndexDirectory();
+        if (fIndexCacheWritten || directory == null || fIndex.isEmpty()) {
+            return;
+        }
+        fIndexCacheWritten = true;
+        List<ICTFPacketDescriptor> entries = new ArrayList<>();
+        synchronized (fIndex) {
+            for (int i = 0; i < fIndex.size(); i++) {
+                entries.add(checkNotNull(fIndex.getElement(i)));
             }
-            BitBuffer bitBuffer = createBitBufferForPacketHeader(fc, dataOffsetbits);
-            /*
-             * Read the trace packet header if it exists.
-             */
-            parseTracePacketHeader(bitBuffer);
-
-            /*
-             * Read the stream packet context if it exists.
-             */
-            long size = fc.size();
-            ICTFPacketDescriptor packetIndex = parsePacketContext(dataOffsetbits, size, bitBuffer);
-
-            /* Basic validation */
-            if (packetIndex.getContentSizeBits() > packetIndex.getPacketSizeBits()) {
-                throw new CTFException("Content size (" + packetIndex.getContentSizeBits() + ") > packet size (" + packetIndex.getPacketSizeBits() + ")"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        }
+        try {
+            if (directory.isDirectory()) {
+                StreamInputPacketIndexCache.write(StreamInputPacketIndexCache.getCacheFile(directory, fFile), fFile, entries);
             }
+        } catch (IOException e) {
+            Activator.logError("Failed to write the packet index cache of " + fFileName, e); //$NON-NLS-1$
+        }
+    }
 
-            if (packetIndex.getPacketSizeBits() > ((size * Byte.SIZE - packetIndex.getOffsetBits()))) {
-                throw new CTFException("Not enough data remaining in the file for the size of this packet"); //$NON-NLS-1$
+    /**
+     * Read the packet context of a packet again, for the index entries
+     * restored from the cache
+     */
+    @SuppressWarnings("resource")
+    private @Nullable StructDefinition readPacketContext(long dataOffsetBits) {
+        try {
+            /* The channel is closed when its last reader releases it */
+            FileChannel fc = fFileChannel.acquire();
+            try {
+                BitBuffer bitBuffer = createBitBufferForPacketHeader(fc, dataOffsetBits);
+                parseTracePacketHeader(bitBuffer);
+                return fStreamPacketContextDecl.createDefinition(this, ILexicalScope.STREAM_PACKET_CONTEXT, bitBuffer);
+            } finally {
+                fFileChannel.release();
+            }
+        } catch (IOException | CTFException e) {
+            Activator.logError("Failed to read the packet context at bit " + dataOffsetBits + " of " + fFileName, e); //$NON-NLS-1$ //$NON-NLS-2$
+            return null;
+        }
+    }
+
+    /**
+     * Get the file channel shared by the readers of the file. It must be
+     * acquired before being used and released after.
+     *
+     * @return the shared file channel
+     */
+    SharedFileChannel getSharedFileChannel() {
+        return fFileChannel;
+    }
+
+    /**
+     * Get whether the stream file is compressed. The offsets of the packets
+     * are then offsets in the decompressed stream.
+     *
+     * @return true if the file is compressed
+     */
+    boolean isCompressed() {
+        return fCompressedFile != null;
+    }
+
+    /**
+     * Get the size of the stream, decompressed if the file is compressed
+     *
+     * @param fc
+     *            the channel of the stream file
+     * @return the size in bytes
+     * @throws IOException
+     *             if the file cannot be read
+     */
+    long getStreamSize(FileChannel fc) throws IOException {
+        CompressedStreamFile compressedFile = fCompressedFile;
+        return compressedFile != null ? compressedFile.size(fc) : fc.size();
+    }
+
+    /**
+     * Get the bytes of a part of the stream, mapped from the file or
+     * decompressed if the file is compressed
+     *
+     * @param fc
+     *            the channel of the stream file
+     * @param position
+     *            the position in the stream, in bytes
+     * @param size
+     *            the number of bytes
+     * @return the buffer of the bytes
+     * @throws IOException
+     *             if the file cannot be read
+     * @throws CTFException
+     *             if the file cannot be mapped
+     */
+    ByteBuffer getByteBuffer(FileChannel fc, long position, long size) throws IOException, CTFException {
+        CompressedStreamFile compressedFile = fCompressedFile;
+        if (compressedFile != null) {
+            return compressedFile.read(fc, position, size);
+        }
+        return SafeMappedByteBuffer.map(fc, MapMode.READ_ONLY, position, size);
+    }
+
+    @SuppressWarnings("resource")
+    private long getStreamSizeBits() throws CTFException {
+        if (fCompressedFile == null) {
+            return fFile.length() * Byte.SIZE;
+        }
+        try {
+            /* The channel is closed when its last reader releases it */
+            FileChannel fc = fFileChannel.acquire();
+            try {
+                return getStreamSize(fc) * Byte.SIZE;
+            } finally {
+                fFileChannel.release();
+            }
+        } catch (IOException e) {
+            throw new CTFIOException("Failed to read the size of " + fFileName, e); //$NON-NLS-1$
+        }
+    }
+
+    @SuppressWarnings("resource")
+    private ICTFPacketDescriptor createPacketIndexEntry(long dataOffsetbits)
+            throws CTFException {
+
+        try {
+            /* The channel is closed when its last reader releases it */
+            FileChannel fc = fFileChannel.acquire();
+            try {
+                return createPacketIndexEntry(fc, dataOffsetbits);
+            } finally {
+                fFileChannel.release();
             }
-            return packetIndex;
         } catch (IOException e) {
             throw new CTFException("Failed to create packet index entry", e); //$NON-NLS-1$
         } catch (CTFException e) {
@@ -278,6 +500,31 @@ public class CTFStreamInput implements IDefinitionScope {
         }
     }
 
+    private ICTFPacketDescriptor createPacketIndexEntry(FileChannel fc, long dataOffsetbits)
+            throws CTFException, IOException {
+        BitBuffer bitBuffer = createBitBufferForPacketHeader(fc, dataOffsetbits);
+        /*
+         * Read the trace packet header if it exists.
+         */
+        parseTracePacketHeader(bitBuffer);
+
+        /*
+         * Read the stream packet context if it exists.
+         */
+        long size = getStreamSize(fc);
+        ICTFPacketDescriptor packetIndex = parsePacketContext(dataOffsetbits, size, bitBuffer);
+
+        /* Basic validation */
+        if (packetIndex.getContentSizeBits() > packetIndex.getPacketSizeBits()) {
+            throw new CTFException("Content size (" + packetIndex.getContentSizeBits() + ") > packet size (" + packetIndex.getPacketSizeBits() + ")"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        }
+
+        if (packetIndex.getPacketSizeBits() > ((size * Byte.SIZE - packetIndex.getOffsetBits()))) {
+            throw new CTFException("Not enough data remaining in the file for the size of this packet"); //$NON-NLS-1$
+        }
+        return packetIndex;
+    }
+
     private BitBuffer createBitBufferForPacketHeader(FileChannel fc, long dataOffsetbits) throws CTFException, IOException {
         /*
          * create a packet bit buffer to read the packet header
@@ -288,17 +535,13 @@ public class CTFStreamInput implements IDefinitionScope {
         return bitBuffer;
     }
 
-    private static ByteBuffer getByteBufferAt(FileChannel fc, long position, long size) throws CTFException, IOException {
-        return SafeMappedByteBuffer.map(fc, MapMode.READ_ONLY, position, size);
-    }
-
-    private static ByteBuffer createPacketBitBuffer(FileChannel fc,
+    private ByteBuffer createPacketBitBuffer(FileChannel fc,
             long packetOffsetBytes, long maxSize) throws CTFException, IOException {
         /*
          * If there is less data remaining than what we want to map, reduce the
          * map size.
          */
-        long remain = fc.size() - packetOffsetBytes;
+        long remain = getStreamSize(fc) - packetOffsetBytes;
         /*
          * Initial size, it is the minimum of the the file size and the maximum
          * possible size of the
@@ -312,7 +555,7 @@ public class CTFStreamInput implements IDefinitionScope {
          * Map the packet.
          */
         try {
-            return getByteBufferAt(fc, packetOffsetBytes, mapSize);
+            return getByteBuffer(fc, packetOffsetBytes, mapSize);
         } catch (IllegalArgumentException | IOException e) {
             throw new CTFException(e);
         }
@@ -14,13 +14,16 @@
 
 package org.eclipse.tracecompass.ctf.core.trace;
 
+import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNull;
+
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.nio.channels.FileChannel;
-import java.nio.channels.FileChannel.MapMode;
-import java.nio.file.StandardOpenOption;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
@@ -32,9 +35,11 @@ import org.eclipse.tracecompass.ctf.core.event.io.BitBuffer;
 import org.eclipse.tracecompass.ctf.core.event.types.IDeclaration;
 import org.eclipse.tracecompass.ctf.core.event.types.StructDeclaration;
 import org.eclipse.tracecompass.internal.ctf.core.Activator;
-import org.eclipse.tracecompass.internal.ctf.core.SafeMappedByteBuffer;
 import org.eclipse.tracecompass.internal.ctf.core.trace.CTFPacketReader;
 import org.eclipse.tracecompass.internal.ctf.core.trace.NullPacketReader;
+import org.eclipse.tracecompass.internal.ctf.core.trace.PacketDecoder;
+import org.eclipse.tracecompass.internal.ctf.core.trace.PacketPrefetcher;
+import org.eclipse.tracecompass.internal.ctf.core.trace.SharedFileChannel;
 
 /**
  * A CTF trace event reader. Reads the events of a trace file.
@@ -59,7 +64,21 @@ public class CTFStreamInputReader implements AutoCloseable {
 
     private final CTFStreamInput fStreamInput;
 
-    private final @Nullable FileChannel fFileChannel;
+    private boolean fClosed = false;
+
+    /**
+     * The read-ahead of the next packets, null if disabled
+     */
+    private final @Nullable PacketPrefetcher fPrefetcher;
+
+    private final int fPrefetchDepth;
+
+    /**
+     * The decoding ahead of the next packets, null if disabled
+     */
+    private @Nullable PacketDecoder fDecoder = null;
+
+    private int fDecodeDepth = 0;
 
     /**
      * The packet reader used to read packets from this trace file.
@@ -84,6 +103,16 @@ public class CTFStreamInputReader implements AutoCloseable {
      */
     private boolean fLive = false;
 
+    /**
+     * Names of the events to read, null to read all the events
+     */
+    private @Nullable Set<String> fEventFilter = null;
+
+    /**
+     * The event IDs to read, computed from the names
+     */
+    private boolean @Nullable [] fWantedEventIds = null;
+
     // ------------------------------------------------------------------------
     // Constructors
     // ------------------------------------------------------------------------
@@ -99,10 +128,21 @@ public class CTFStreamInputReader implements AutoCloseable {
         fStreamInput = streamInput;
         fFile = fStreamInput.getFile();
         try {
-            fFileChannel = FileChannel.open(fFile.toPath(), StandardOpenOption.READ);
+            acquireFileChannel();
         } catch (IOException e) {
             throw new CTFIOException(e);
         }
+        CTFTrace trace = fStreamInput.getStream().getTrace();
+        fDecodeDepth = trace.getPacketDecodeDepth();
+        if (fDecodeDepth > 0) {
+            fDecoder = new PacketDecoder();
+        }
+        fPrefetchDepth = trace.getPacketPrefetchDepth();
+        if (fPrefetchDepth > 0) {
+            fPrefetcher = new PacketPrefetcher(this::map);
+        } else {
+            fPrefetcher = null;
+        }
         try {
             /*
              * Get the iterator on the packet index.
@@ -117,10 +157,14 @@ public class CTFStreamInputReader implements AutoCloseable {
                 // time
                 if (fStreamInput.addPacketHeaderIndex()) {
                     fPacketIndex = getPacketSize() - 1;
+                } else {
+                    /* No packet yet, a live reader starts from the first one */
+                    fPacketIndex = -1;
                 }
             }
             ICTFPacketDescriptor packet = getPacket();
             fPacketReader = getCurrentPacketReader(packet);
+            readAheadNextPackets();
         } catch (Exception e) {
             try {
                 close();
@@ -132,23 +176,76 @@ public class CTFStreamInputReader implements AutoCloseable {
     }
 
     private IPacketReader getCurrentPacketReader(@Nullable ICTFPacketDescriptor packet) throws CTFException {
-        IPacketReader ctfPacketReader = NullPacketReader.INSTANCE;
-        if (packet != null) {
-            long size = packet.getContentSizeBits();
-            if (size < 0) {
-                throw new CTFIOException("Cannot have negative sized buffers."); //$NON-NLS-1$
+        if (packet == null) {
+            return NullPacketReader.INSTANCE;
+        }
+        PacketDecoder decoder = fDecoder;
+        IPacketReader decodedPacketReader = decoder != null ? decoder.take(packet) : null;
+        if (decodedPacketReader != null) {
+            return decodedPacketReader;
+        }
+        PacketPrefetcher prefetcher = fPrefetcher;
+        ByteBuffer buffer = prefetcher != null ? prefetcher.take(packet) : null;
+        return createPacketReader(packet, buffer, getWantedEventIds());
+    }
+
+    /**
+     * Create a packet reader at the start of a packet. This is also called by
+     * the decoding threads, so it only uses the state of the stream.
+     */
+    private CTFPacketReader createPacketReader(ICTFPacketDescriptor packet, @Nullable ByteBuffer prefetchedBuffer, boolean @Nullable [] wantedEventIds) throws CTFException {
+        long size = packet.getContentSizeBits();
+        if (size < 0) {
+            throw new CTFIOException("Cannot have negative sized buffers."); //$NON-NLS-1$
+        }
+        ByteBuffer buffer = prefetchedBuffer;
+        if (buffer == null) {
+            buffer = getByteBufferAt(packet.getOffsetBits(), size);
+        }
+        CTFTrace trace = getStreamInput().getStream().getTrace();
+        BitBuffer bitBuffer = new BitBuffer(buffer);
+        bitBuffer.position(packet.getPayloadStartBits());
+        bitBuffer.setStringInterner(trace.getStringInterner());
+        IDeclaration eventHeaderDeclaration = getStreamInput().getStream().getEventHeaderDeclaration();
+        CTFPacketReader packetReader = new CTFPacketReader(bitBuffer, packet, getEventDeclarations(), eventHeaderDeclaration, getStreamEventContextDecl(), trace.getPacketHeaderDef(), trace);
+        packetReader.setWantedEventIds(wantedEventIds);
+        return packetReader;
+    }
+
+    /**
+     * Read ahead, or decode ahead, the indexed packets following the current
+     * one
+     */
+    private void readAheadNextPackets() {
+        PacketDecoder decoder = fDecoder;
+        if (decoder != null) {
+            if (fLive) {
+                /* The declarations can change while reading a live trace */
+                decoder.clear();
+                return;
             }
-            BitBuffer bitBuffer = new BitBuffer(getByteBufferAt(packet.getOffsetBits(), size));
-            bitBuffer.position(packet.getPayloadStartBits());
-            IDeclaration eventHeaderDeclaration = getStreamInput().getStream().getEventHeaderDeclaration();
-            CTFTrace trace = getStreamInput().getStream().getTrace();
-            ctfPacketReader = new CTFPacketReader(bitBuffer, packet, getEventDeclarations(), eventHeaderDeclaration, getStreamEventContextDecl(), trace.getPacketHeaderDef(), trace);
+            boolean[] wantedEventIds = getWantedEventIds();
+            decoder.decode(getNextPackets(fDecodeDepth), packet -> createPacketReader(packet, null, wantedEventIds));
+            /* The decoding threads read the packets themselves */
+            return;
+        }
+        PacketPrefetcher prefetcher = fPrefetcher;
+        if (prefetcher != null) {
+            prefetcher.prefetch(getNextPackets(fPrefetchDepth));
         }
-        return ctfPacketReader;
+    }
+
+    private List<ICTFPacketDescriptor> getNextPackets(int depth) {
+        List<ICTFPacketDescriptor> packets = new ArrayList<>(depth);
+        int end = Math.min(fPacketIndex + 1 + depth, getPacketSize());
+        for (int i = fPacketIndex + 1; i < end; i++) {
+            packets.add(checkNotNull(fStreamInput.getIndex().getElement(i)));
+        }
+        return packets;
     }
 
     /**
-     * Get a bytebuffer map of the file
+     * Get a bytebuffer map of the file, decompressed if the file is compressed
      *
      * @param position
      *            start offset in bits
@@ -162,25 +259,62 @@ public class CTFStreamInputReader implements AutoCloseable {
      */
     public ByteBuffer getByteBufferAt(long position, long size) throws CTFException {
         try {
-            return SafeMappedByteBuffer.map(fFileChannel, MapMode.READ_ONLY, position / BITS_PER_BYTE, (size + BITS_PER_BYTE - 1) / BITS_PER_BYTE);
+            return map(position / BITS_PER_BYTE, (size + BITS_PER_BYTE - 1) / BITS_PER_BYTE);
         } catch (IOException e) {
             throw new CTFIOException(e.getMessage(), e);
         }
     }
 
     /**
-     * Dispose the StreamInputReader, closes the file channel and its packet
-     * reader
+     * Map a part of the stream with the shared channel of the stream file. The
+     * channel is closed for all the readers when a thread using it is
+     * interrupted, so it is mapped again with a new channel if another thread
+     * closed it.
+     */
+    @SuppressWarnings("resource")
+    private ByteBuffer map(long position, long size) throws IOException, CTFException {
+        /* The channel is closed when its last reader releases it */
+        SharedFileChannel channel = fStreamInput.getSharedFileChannel();
+        try {
+            return fStreamInput.getByteBuffer(channel.get(), position, size);
+        } catch (ClosedChannelException e) {
+            if (e instanceof ClosedByInterruptException) {
+                /* This thread was interrupted, do not read the file again */
+                throw e;
+            }
+            return fStreamInput.getByteBuffer(channel.get(), position, size);
+        }
+    }
+
+    @SuppressWarnings("resource")
+    private void acquireFileChannel() throws IOException {
+        /* The channel is closed when its last reader releases it */
+        fStreamInput.getSharedFileChannel().acquire();
+    }
+
+    /**
+     * Dispose the StreamInputReader, releases the file channel and closes its
+     * packet reader. The file channel is closed when none of the readers of
+     * the stream input use it anymore.
      *
      * @throws IOException
      *             If an I/O error occurs
      */
     @Override
     public void close() throws IOException {
-        if (fFileChannel != null) {
-            fFileChannel.close();
+        PacketDecoder decoder = fDecoder;
+        if (decoder != null) {
+            decoder.close();
+        }
+        PacketPrefetcher prefetcher = fPrefetcher;
+        if (prefetcher != null) {
+            prefetcher.close();
         }
         fPacketReader = NullPacketReader.INSTANCE;
+        if (!fClosed) {
+            fClosed = true;
+            fStreamInput.getSharedFileChannel().release();
+        }
     }
 
     // ------------------------------------------------------------------------
@@ -261,6 +395,54 @@ public class CTFStreamInputReader implements AutoCloseable {
      */
     public void setLive(boolean live) {
         fLive = live;
+        PacketDecoder decoder = fDecoder;
+        if (live && decoder != null) {
+            decoder.clear();
+        }
+    }
+
+    /**
+     * Set the number of packets decoded ahead by this reader, as
+     * {@link CTFTrace#setPacketDecodeDepth(int)} does for the new readers.
+     * The packets are not prefetched while they are decoded ahead.
+     *
+     * @param depth
+     *            the number of packets to decode ahead, 0 to decode the
+     *            events when they are read
+     * @since 4.1
+     */
+    public void setPacketDecodeDepth(int depth) {
+        int decodeDepth = Math.max(0, depth);
+        if (decodeDepth == fDecodeDepth) {
+            return;
+        }
+        PacketDecoder decoder = fDecoder;
+        if (decoder != null) {
+            decoder.close();
+        }
+        PacketPrefetcher prefetcher = fPrefetcher;
+        if (prefetcher != null) {
+            prefetcher.close();
+        }
+        fDecodeDepth = decodeDepth;
+        fDecoder = null;
+        if (decodeDepth > 0) {
+            fDecoder = new PacketDecoder();
+        }
+        if (!fClosed) {
+            readAheadNextPackets();
+        }
+    }
+
+    /**
+     * Get the number of packets decoded ahead by this reader
+     *
+     * @return the number of packets decoded ahead, 0 if the events are
+     *         decoded when they are read
+     * @since 4.1
+     */
+    public int getPacketDecodeDepth() {
+        return fDecodeDepth;
     }
 
     /**
@@ -272,6 +454,65 @@ public class CTFStreamInputReader implements AutoCloseable {
         return fLive;
     }
 
+    /**
+     * Set the names of the events to read. The other events are skipped when
+     * reading the next events, by only decoding their header. The lost events
+     * are always read.
+     *
+     * @param eventNames
+     *            the names of the events to read, or null to read all the
+     *            events
+     * @since 4.1
+     */
+    public void setEventFilter(@Nullable Set<String> eventNames) {
+        fEventFilter = eventNames;
+        fWantedEventIds = null;
+        IPacketReader packetReader = fPacketReader;
+        if (packetReader instanceof CTFPacketReader) {
+            ((CTFPacketReader) packetReader).setWantedEventIds(getWantedEventIds());
+        }
+        PacketDecoder decoder = fDecoder;
+        if (decoder != null) {
+            /* Decode the next packets again with the new filter */
+            decoder.clear();
+            readAheadNextPackets();
+        }
+    }
+
+    /**
+     * Get the names of the events to read
+     *
+     * @return the names of the events to read, or null if all the events are
+     *         read
+     * @since 4.1
+     */
+    public @Nullable Set<String> getEventFilter() {
+        return fEventFilter;
+    }
+
+    /**
+     * Get the event IDs to read, computed again when events are declared
+     * while reading a live trace
+     */
+    private boolean @Nullable [] getWantedEventIds() {
+        Set<String> eventFilter = fEventFilter;
+        if (eventFilter == null) {
+            return null;
+        }
+        List<@Nullable IEventDeclaration> declarations = getEventDeclarations();
+        boolean[] wantedEventIds = fWantedEventIds;
+        if (wantedEventIds == null || wantedEventIds.length != declarations.size()) {
+            wantedEventIds = new boolean[declarations.size()];
+            for (int i = 0; i < wantedEventIds.length; i++) {
+                IEventDeclaration declaration = declarations.get(i);
+                /* Undeclared IDs are read, to report them as invalid */
+                wantedEventIds[i] = declaration == null || eventFilter.contains(declaration.getName());
+            }
+            fWantedEventIds = wantedEventIds;
+        }
+        return wantedEventIds;
+    }
+
     /**
      * Get the event context of the stream
      *
@@ -336,6 +577,11 @@ public class CTFStreamInputReader implements AutoCloseable {
             if (fStreamInput.addPacketHeaderIndex()) {
                 fPacketIndex = getPacketSize() - 1;
             } else {
+                /*
+                 * Stay after the last packet read, a live reader reads the
+                 * next packet once it is added
+                 */
+                fPacketIndex--;
                 fPacketReader = NullPacketReader.INSTANCE;
                 return;
             }
@@ -343,6 +589,7 @@ public class CTFStreamInputReader implements AutoCloseable {
         }
         ICTFPacketDescriptor packet = getPacket();
         fPacketReader = getCurrentPacketReader(packet);
+        readAheadNextPackets();
     }
 
     /**
@@ -500,7 +747,7 @@ public class CTFStreamInputReader implements AutoCloseable {
 
     private @Nullable ICTFPacketDescriptor getPacket() {
         int packetIndex = getPacketIndex();
-        if (packetIndex >= fStreamInput.getIndex().size()) {
+        if (packetIndex < 0 || packetIndex >= fStreamInput.getIndex().size()) {
             return null;
         }
         return fStreamInput.getIndex().getElement(packetIndex);
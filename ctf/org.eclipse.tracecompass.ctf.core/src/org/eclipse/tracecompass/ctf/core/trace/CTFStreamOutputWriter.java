@@ -39,6 +39,8 @@ import org.eclipse.tracecompass.internal.ctf.core.trace.StreamInputPacketIndex;
  */
 public class CTFStreamOutputWriter {
 
+    private static final String GZIP_EXTENSION = ".gz"; //$NON-NLS-1$
+
     // ------------------------------------------------------------------------
     // Attributes
     // ------------------------------------------------------------------------
@@ -69,6 +71,10 @@ public class CTFStreamOutputWriter {
     public CTFStreamOutputWriter(@NonNull CTFStreamInput streamInput, @NonNull File file) throws CTFException {
         fStreamInput = streamInput;
         String inFileName = streamInput.getFile().getName();
+        if (streamInput.isCompressed() && inFileName.endsWith(GZIP_EXTENSION)) {
+            /* The packets are written decompressed */
+            inFileName = inFileName.substring(0, inFileName.length() - GZIP_EXTENSION.length());
+        }
         Path outFilePath = FileSystems.getDefault().getPath(file.getAbsolutePath(), inFileName);
 
         try {
@@ -118,11 +124,11 @@ public class CTFStreamOutputWriter {
                     initialLost = (long) entry.getAttributes().getOrDefault(CTFStrings.EVENTS_DISCARDED, 0L);
                 }
                 if (startTime <= packetStart && endTime >= packetEnd) {
-                    // MUCH faster
-                    fStreamPacketOutputWriter.writePacket(entry, fc, initialLost);
+                    // MUCH faster, the events are not decoded
+                    fStreamPacketOutputWriter.writePacket(entry, source, fc, initialLost);
                     count++;
                 } else if (startTime <= packetEnd && endTime >= packetStart) {
-                    fStreamPacketOutputWriter.writePacket(entry, startTime, endTime, initialLost, fc);
+                    fStreamPacketOutputWriter.writePacket(entry, startTime, endTime, initialLost, source, fc);
                     count++;
                 } else if (entry.getTimestampBegin() > endTime) {
                     break;
@@ -13,12 +13,10 @@
  *******************************************************************************/
 package org.eclipse.tracecompass.ctf.core.trace;
 
-import java.io.File;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
-import java.nio.channels.FileChannel.MapMode;
 import java.nio.file.StandardOpenOption;
 
 import org.eclipse.jdt.annotation.NonNull;
@@ -36,7 +34,6 @@ import org.eclipse.tracecompass.ctf.core.event.types.SimpleDatatypeDefinition;
 import org.eclipse.tracecompass.ctf.core.event.types.StringDefinition;
 import org.eclipse.tracecompass.ctf.core.event.types.StructDefinition;
 import org.eclipse.tracecompass.internal.ctf.core.Activator;
-import org.eclipse.tracecompass.internal.ctf.core.SafeMappedByteBuffer;
 import org.eclipse.tracecompass.internal.ctf.core.trace.CTFPacketReader;
 import org.eclipse.tracecompass.internal.ctf.core.trace.StreamInputPacketIndexEntry;
 
@@ -101,33 +98,41 @@ public class CTFStreamPacketOutputWriter {
      * @since 3.0
      */
     public void writePacket(ICTFPacketDescriptor entry, FileChannel output, long initialLost) throws IOException, CTFException {
+        try (FileChannel source = FileChannel.open(fStreamInput.getFile().toPath(), StandardOpenOption.READ)) {
+            writePacket(entry, source, output, initialLost);
+        }
+    }
+
+    /**
+     * Writes a whole stream packet, read from an already opened stream file.
+     * Only the packet header and context are rewritten, the events are copied
+     * as is.
+     */
+    void writePacket(ICTFPacketDescriptor entry, @NonNull FileChannel source, FileChannel output, long initialLost) throws IOException, CTFException {
         long startOffsetBits = entry.getPayloadStartBits();
         long endOffsetBits = entry.getContentSizeBits();
         StructDefinition context = null;
-        File file = fStreamInput.getFile();
-        try (FileChannel fc = FileChannel.open(file.toPath(), StandardOpenOption.READ);) {
-            ByteBuffer bb = SafeMappedByteBuffer.map(fc, FileChannel.MapMode.READ_ONLY, entry.getOffsetBytes(), (long) Math.ceil(entry.getContentSizeBits() / (double) Byte.SIZE));
-            BitBuffer bbInput = new BitBuffer(bb);
-            bbInput.position(entry.getPayloadStartBits());
-            ICTFStream stream = fStreamInput.getStream();
-            CTFTrace trace = stream.getTrace();
-            CTFPacketReader currentPacketReader = new CTFPacketReader(
-                    bbInput,
-                    entry,
-                    stream.getEventDeclarations(),
-                    stream.getEventHeaderDeclaration(),
-                    stream.getEventContextDecl(),
-                    trace.getPacketHeaderDef(),
-                    trace);
-            if (entry instanceof StreamInputPacketIndexEntry) {
-                context = ((StreamInputPacketIndexEntry) entry).getStreamPacketContextDef();
-            }
-            if (context == null) {
-                return;
-            }
-            ICompositeDefinition tracePacketHeader = currentPacketReader.getTracePacketHeader();
-            writeCustomPacket(entry, fc, output, startOffsetBits, endOffsetBits, context, tracePacketHeader, entry.getTimestampBegin(), initialLost);
+        ByteBuffer bb = fStreamInput.getByteBuffer(source, entry.getOffsetBytes(), (long) Math.ceil(entry.getContentSizeBits() / (double) Byte.SIZE));
+        BitBuffer bbInput = new BitBuffer(bb);
+        bbInput.position(entry.getPayloadStartBits());
+        ICTFStream stream = fStreamInput.getStream();
+        CTFTrace trace = stream.getTrace();
+        CTFPacketReader currentPacketReader = new CTFPacketReader(
+                bbInput,
+                entry,
+                stream.getEventDeclarations(),
+                stream.getEventHeaderDeclaration(),
+                stream.getEventContextDecl(),
+                trace.getPacketHeaderDef(),
+                trace);
+        if (entry instanceof StreamInputPacketIndexEntry) {
+            context = ((StreamInputPacketIndexEntry) entry).getStreamPacketContextDef();
         }
+        if (context == null) {
+            return;
+        }
+        ICompositeDefinition tracePacketHeader = currentPacketReader.getTracePacketHeader();
+        writeCustomPacket(entry, source, output, startOffsetBits, endOffsetBits, context, tracePacketHeader, entry.getTimestampBegin(), initialLost);
     }
 
     /**
@@ -150,96 +155,147 @@ public class CTFStreamPacketOutputWriter {
      * @since 3.0
      */
     public void writePacket(ICTFPacketDescriptor entry, long startTime, long endTime, long initialLost, FileChannel output) throws IOException, CTFException {
+        try (FileChannel source = FileChannel.open(fStreamInput.getFile().toPath(), StandardOpenOption.READ)) {
+            writePacket(entry, startTime, endTime, initialLost, source, output);
+        }
+    }
+
+    /**
+     * Writes the events of a stream packet that are in a time range, read
+     * from an already opened stream file
+     */
+    void writePacket(ICTFPacketDescriptor entry, long startTime, long endTime, long initialLost, @NonNull FileChannel source, FileChannel output) throws IOException, CTFException {
         if (entry.getTimestampBegin() > endTime || entry.getTimestampEnd() < startTime || startTime > endTime) {
             throw new IllegalStateException();
         }
         long startOffsetBits = entry.getPayloadStartBits();
         long endOffsetBits = entry.getContentSizeBits();
         StructDefinition context = null;
-        File file = fStreamInput.getFile();
-        try (FileChannel fc = FileChannel.open(file.toPath(), StandardOpenOption.READ);) {
-            ByteBuffer bb = SafeMappedByteBuffer.map(fc, FileChannel.MapMode.READ_ONLY, entry.getOffsetBytes(), bitsToBytes(entry.getContentSizeBits()));
-            BitBuffer bbInput = new BitBuffer(bb);
-            bbInput.position(entry.getPayloadStartBits());
-            ICTFStream stream = fStreamInput.getStream();
-            CTFTrace trace = stream.getTrace();
-            CTFPacketReader currentPacketReader = new CTFPacketReader(
-                    bbInput,
-                    entry,
-                    stream.getEventDeclarations(),
-                    stream.getEventHeaderDeclaration(),
-                    stream.getEventContextDecl(),
-                    trace.getPacketHeaderDef(),
-                    trace);
-            long lastLargeTimestamp = entry.getTimestampBegin();
-            if (entry instanceof StreamInputPacketIndexEntry) {
-                context = ((StreamInputPacketIndexEntry) entry).getStreamPacketContextDef();
-            }
-            if (context == null) {
-                return;
-            }
-            boolean startIsSet = false;
-            while (currentPacketReader.hasMoreEvents()) {
+        ByteBuffer bb = fStreamInput.getByteBuffer(source, entry.getOffsetBytes(), bitsToBytes(entry.getContentSizeBits()));
+        BitBuffer bbInput = new BitBuffer(bb);
+        bbInput.position(entry.getPayloadStartBits());
+        ICTFStream stream = fStreamInput.getStream();
+        CTFTrace trace = stream.getTrace();
+        CTFPacketReader currentPacketReader = new CTFPacketReader(
+                bbInput,
+                entry,
+                stream.getEventDeclarations(),
+                stream.getEventHeaderDeclaration(),
+                stream.getEventContextDecl(),
+                trace.getPacketHeaderDef(),
+                trace);
+        long lastLargeTimestamp = entry.getTimestampBegin();
+        if (entry instanceof StreamInputPacketIndexEntry) {
+            context = ((StreamInputPacketIndexEntry) entry).getStreamPacketContextDef();
+        }
+        if (context == null) {
+            return;
+        }
+        boolean startIsSet = false;
+        while (currentPacketReader.hasMoreEvents()) {
 
-                IEventDefinition event = currentPacketReader.readNextEvent();
-                long timestampInCycles = event.getTimestamp();
-                if (!startIsSet) {
-                    /*
-                     * handle "P" and "I" framed timestamps. overwrite the
-                     * timestamp if there is one before the trim
-                     */
-                    ICompositeDefinition eventHeader = event.getEventHeader();
-                    Definition def = null;
-                    if (eventHeader != null) {
-                        def = eventHeader.getDefinition(CTFStrings.TIMESTAMP);
-                    }
-                    if (def == null && eventHeader instanceof StructDefinition) {
-                        StructDefinition structDefinition = (StructDefinition) eventHeader;
-                        def = structDefinition.lookupDefinition(CTFStrings.TIMESTAMP);
-                    }
-                    Definition definition = ((StreamInputPacketIndexEntry) entry).getStreamPacketContextDef().getDefinition(CTFStrings.TIMESTAMP_BEGIN);
-                    if (definition != null && def != null && def.size() == definition.size()) {
-                        lastLargeTimestamp = timestampInCycles;
-                    }
+            IEventDefinition event = currentPacketReader.readNextEvent();
+            long timestampInCycles = event.getTimestamp();
+            if (!startIsSet) {
+                /*
+                 * handle "P" and "I" framed timestamps. overwrite the
+                 * timestamp if there is one before the trim
+                 */
+                ICompositeDefinition eventHeader = event.getEventHeader();
+                Definition def = null;
+                if (eventHeader != null) {
+                    def = eventHeader.getDefinition(CTFStrings.TIMESTAMP);
                 }
-                if (timestampInCycles >= startTime && !startIsSet) {
-                    startOffsetBits = currentPacketReader.getLocation();
-                    startIsSet = true;
+                if (def == null && eventHeader instanceof StructDefinition) {
+                    StructDefinition structDefinition = (StructDefinition) eventHeader;
+                    def = structDefinition.lookupDefinition(CTFStrings.TIMESTAMP);
                 }
-                if (timestampInCycles > endTime + 1) {
-                    endOffsetBits = currentPacketReader.getLocation();
-                    break;
+                Definition definition = ((StreamInputPacketIndexEntry) entry).getStreamPacketContextDef().getDefinition(CTFStrings.TIMESTAMP_BEGIN);
+                if (definition != null && def != null && def.size() == definition.size()) {
+                    lastLargeTimestamp = timestampInCycles;
                 }
             }
-            if (startOffsetBits >= endOffsetBits) {
-                return;
+            if (timestampInCycles >= startTime && !startIsSet) {
+                startOffsetBits = currentPacketReader.getLocation();
+                startIsSet = true;
+            }
+            if (timestampInCycles > endTime + 1) {
+                endOffsetBits = currentPacketReader.getLocation();
+                break;
             }
-            ICompositeDefinition tracePacketHeader = currentPacketReader.getTracePacketHeader();
-            writeCustomPacket(entry, fc, output, startOffsetBits, endOffsetBits, context, tracePacketHeader, lastLargeTimestamp, initialLost);
         }
+        if (startOffsetBits >= endOffsetBits) {
+            return;
+        }
+        ICompositeDefinition tracePacketHeader = currentPacketReader.getTracePacketHeader();
+        writeCustomPacket(entry, source, output, startOffsetBits, endOffsetBits, context, tracePacketHeader, lastLargeTimestamp, initialLost);
     }
 
-    private static void writeCustomPacket(ICTFPacketDescriptor entry, FileChannel source, FileChannel output, long startOffsetBits, long endOffsetBits, StructDefinition packetContext, ICompositeDefinition tracePacketHeader, long startTime,
+    private void writeCustomPacket(ICTFPacketDescriptor entry, @NonNull FileChannel source, FileChannel output, long startOffsetBits, long endOffsetBits, StructDefinition packetContext, ICompositeDefinition tracePacketHeader, long startTime,
             long initialLost)
             throws IOException, CTFException {
-        ByteBuffer inBuffer = SafeMappedByteBuffer.map(source, MapMode.READ_ONLY, entry.getOffsetBytes(), bitsToBytes(entry.getContentSizeBits()));
         int headerSizeBits = (int) (tracePacketHeader == null ? 0 : tracePacketHeader.size());
         int packetSizeBits = (int) (headerSizeBits + packetContext.size() + endOffsetBits - startOffsetBits);
         int alignmentSize = Byte.SIZE;
         int lastBitsOfBody = (int) (endOffsetBits % alignmentSize);
         int contentSizeBits = (lastBitsOfBody != 0) ? (packetSizeBits - alignmentSize + lastBitsOfBody) : packetSizeBits;
-        byte[] toWrite = new byte[(int) bitsToBytes(packetSizeBits)];
-        ByteBuffer buffer = ByteBuffer.wrap(toWrite);
-        byte[] header = new byte[(int) bitsToBytes(headerSizeBits)];
-        byte[] body = new byte[(int) bitsToBytes(endOffsetBits - startOffsetBits)];
-        inBuffer.get(header);
-        inBuffer.position((int) bitsToBytes(startOffsetBits));
-        inBuffer.get(body);
-        buffer.put(header);
-        writeContext(startTime, packetContext, contentSizeBits, (int) bitsToBytes(packetSizeBits) * Byte.SIZE, initialLost, buffer);
-        buffer.position((int) bitsToBytes(headerSizeBits + packetContext.size()));
-        buffer.put(body);
-        output.write(ByteBuffer.wrap(toWrite));
+        long packetSize = bitsToBytes(packetSizeBits);
+        int headerSize = (int) bitsToBytes(headerSizeBits);
+        int prefixSize = (int) bitsToBytes(headerSizeBits + packetContext.size());
+        long bodySize = bitsToBytes(endOffsetBits - startOffsetBits);
+        if (prefixSize + bodySize > packetSize) {
+            throw new CTFIOException("Packet at offset " + entry.getOffsetBytes() + " cannot be rewritten"); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+
+        /* Only the header and the context are rewritten */
+        ByteBuffer prefix = ByteBuffer.allocate(prefixSize);
+        if (fStreamInput.isCompressed()) {
+            prefix.put(fStreamInput.getByteBuffer(source, entry.getOffsetBytes(), headerSize));
+        } else {
+            prefix.limit(headerSize);
+            readFully(source, prefix, entry.getOffsetBytes());
+            prefix.limit(prefixSize);
+        }
+        writeContext(startTime, packetContext, contentSizeBits, (int) packetSize * Byte.SIZE, initialLost, prefix);
+        prefix.rewind();
+        while (prefix.hasRemaining()) {
+            output.write(prefix);
+        }
+
+        long position = entry.getOffsetBytes() + bitsToBytes(startOffsetBits);
+        if (fStreamInput.isCompressed()) {
+            /* The events are decompressed, the output is not compressed */
+            ByteBuffer body = fStreamInput.getByteBuffer(source, position, bodySize);
+            while (body.hasRemaining()) {
+                output.write(body);
+            }
+        } else {
+            /* The events are copied from file to file, without going through the heap */
+            long remaining = bodySize;
+            while (remaining > 0) {
+                long transferred = source.transferTo(position, remaining, output);
+                if (transferred <= 0) {
+                    throw new CTFIOException("Unexpected end of stream file at offset " + position); //$NON-NLS-1$
+                }
+                position += transferred;
+                remaining -= transferred;
+            }
+        }
+        long padding = packetSize - prefixSize - bodySize;
+        if (padding > 0) {
+            ByteBuffer zeros = ByteBuffer.allocate((int) padding);
+            while (zeros.hasRemaining()) {
+                output.write(zeros);
+            }
+        }
+    }
+
+    private static void readFully(FileChannel source, ByteBuffer buffer, long position) throws IOException, CTFException {
+        while (buffer.hasRemaining()) {
+            if (source.read(buffer, position + buffer.position()) < 0) {
+                throw new CTFIOException("Unexpected end of stream file at offset " + position); //$NON-NLS-1$
+            }
+        }
     }
 
     private static long bitsToBytes(long bits) {
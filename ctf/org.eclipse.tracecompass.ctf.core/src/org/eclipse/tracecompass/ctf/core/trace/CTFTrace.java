@@ -16,6 +16,8 @@
 
 package org.eclipse.tracecompass.ctf.core.trace;
 
+import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNull;
+
 import java.io.File;
 import java.io.FileFilter;
 import java.io.FileInputStream;
@@ -27,14 +29,20 @@ import java.nio.ByteOrder;
 import java.nio.channels.FileChannel;
 import java.nio.channels.FileChannel.MapMode;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.jdt.annotation.NonNull;
@@ -57,7 +65,9 @@ import org.eclipse.tracecompass.internal.ctf.core.Activator;
 import org.eclipse.tracecompass.internal.ctf.core.SafeMappedByteBuffer;
 import org.eclipse.tracecompass.internal.ctf.core.event.metadata.MetadataStrings;
 import org.eclipse.tracecompass.internal.ctf.core.event.metadata.ParseException;
+import org.eclipse.tracecompass.internal.ctf.core.event.types.StringInterner;
 import org.eclipse.tracecompass.internal.ctf.core.trace.CTFStream;
+import org.eclipse.tracecompass.internal.ctf.core.trace.CompressedStreamFile;
 import org.eclipse.tracecompass.internal.ctf.core.utils.Utils;
 
 import com.google.common.collect.ImmutableMap;
@@ -146,10 +156,39 @@ public class CTFTrace implements IDefinitionScope {
     private static final FileFilter METADATA_FILE_FILTER = new MetadataFileFilter();
     private static final Comparator<File> METADATA_COMPARATOR = new MetadataComparator();
 
+    /** Number of strings shared per trace */
+    private static final int STRING_INTERNER_SIZE = 16384;
+
+    /**
+     * Threads indexing the stream files. Indexing mostly waits for the file
+     * reads, so there are more threads than processors, and they are not the
+     * threads of the common pool, which compute.
+     */
+    private static final ExecutorService INDEXING_EXECUTOR = checkNotNull(Executors.newFixedThreadPool(
+            2 * Runtime.getRuntime().availableProcessors(), runnable -> {
+                Thread thread = new Thread(runnable, "CTF Stream Indexer"); //$NON-NLS-1$
+                thread.setDaemon(true);
+                return thread;
+            }));
+
     private final DeclarationScope fScope = new DeclarationScope(null, MetadataStrings.TRACE);
 
     private boolean fUUIDMismatchWarning = false;
 
+    private boolean fLazyEventFields = false;
+
+    private @Nullable File fPacketIndexDirectory = null;
+
+    private int fPacketPrefetchDepth = 0;
+
+    private int fPacketDecodeDepth = 0;
+
+    /** Shares the repeated strings of the events of this trace */
+    private final StringInterner fStringInterner = new StringInterner(STRING_INTERNER_SIZE);
+
+    /** The metadata of a trace read from a directory, kept to parse its updates */
+    private @Nullable Metadata fMetadata = null;
+
     // ------------------------------------------------------------------------
     // Constructors
     // ------------------------------------------------------------------------
@@ -189,6 +228,7 @@ public class CTFTrace implements IDefinitionScope {
 
         /* Open and parse the metadata file */
         metadata.parseFile();
+        fMetadata = metadata;
 
         init(path);
     }
@@ -471,6 +511,7 @@ public class CTFTrace implements IDefinitionScope {
         ByteBuffer byteBuffer;
         BitBuffer streamBitBuffer;
         ICTFStream stream;
+        CompressedStreamFile compressedFile;
 
         if (!streamFile.canRead()) {
             throw new CTFException("Unreadable file : " //$NON-NLS-1$
@@ -480,8 +521,14 @@ public class CTFTrace implements IDefinitionScope {
             return null;
         }
         try (FileChannel fc = FileChannel.open(streamFile.toPath(), StandardOpenOption.READ)) {
-            /* Map one memory page of 4 kiB */
-            byteBuffer = SafeMappedByteBuffer.map(fc, MapMode.READ_ONLY, 0, (int) Math.min(fc.size(), 4096L));
+            compressedFile = CompressedStreamFile.open(streamFile);
+            if (compressedFile != null) {
+                /* Decompress the start of the file */
+                byteBuffer = compressedFile.read(fc, 0, Math.min(compressedFile.size(fc), 4096L));
+            } else {
+                /* Map one memory page of 4 kiB */
+                byteBuffer = SafeMappedByteBuffer.map(fc, MapMode.READ_ONLY, 0, (int) Math.min(fc.size(), 4096L));
+            }
             /* Create a BitBuffer with this mapping and the trace byte order */
             streamBitBuffer = new BitBuffer(byteBuffer, this.getByteOrder());
             if (fPacketHeaderDecl != null) {
@@ -528,7 +575,7 @@ public class CTFTrace implements IDefinitionScope {
         /*
          * Create the stream input and add a reference to the streamInput in the stream.
          */
-        ctfStream.addInput(new CTFStreamInput(ctfStream, streamFile));
+        ctfStream.addInput(new CTFStreamInput(ctfStream, streamFile, compressedFile));
         return ctfStream;
     }
 
@@ -642,6 +689,24 @@ public class CTFTrace implements IDefinitionScope {
         openStreamInput(streamFile);
     }
 
+    /**
+     * Parse the metadata appended to the metadata file while the trace is
+     * being read, adding the new declarations to the trace.
+     *
+     * @return true if new metadata was parsed
+     * @throws CTFException
+     *             If the new metadata cannot be parsed
+     * @since 4.1
+     */
+    public boolean updateMetadata() throws CTFException {
+        Metadata metadata = fMetadata;
+        if (metadata == null) {
+            /* A streamed trace receives its metadata fragments directly */
+            return false;
+        }
+        return metadata.parseFileUpdate();
+    }
+
     /**
      * Registers a new stream to the trace.
      *
@@ -894,6 +959,180 @@ public class CTFTrace implements IDefinitionScope {
         return fPacketHeaderDef;
     }
 
+    /**
+     * Set whether the fields of the events are decoded lazily. When they are,
+     * the fields that can be skipped without being decoded, those without
+     * sequences or variants, are only decoded on first access to the fields
+     * of the event definition. This speeds up reading the events when most
+     * of the fields are not needed, but the events keep a reference to the
+     * buffer of their packet until their fields are decoded.
+     *
+     * @param lazyEventFields
+     *            true to decode the event fields lazily
+     * @since 4.1
+     */
+    public void setLazyEventFields(boolean lazyEventFields) {
+        fLazyEventFields = lazyEventFields;
+    }
+
+    /**
+     * Get whether the fields of the events are decoded lazily
+     *
+     * @return true if the event fields are decoded lazily
+     * @since 4.1
+     */
+    public boolean isLazyEventFields() {
+        return fLazyEventFields;
+    }
+
+    /**
+     * Set the directory where the packet indexes of the stream files are
+     * cached. Once the index of a stream file is complete, it is saved in
+     * this directory and it is reloaded from there the next time the trace is
+     * opened, as long as the stream file keeps the same size and modification
+     * time.
+     *
+     * @param directory
+     *            the directory of the packet index cache, or null to not cache
+     *            the packet indexes
+     * @since 4.1
+     */
+    public void setPacketIndexDirectory(@Nullable File directory) {
+        fPacketIndexDirectory = directory;
+    }
+
+    /**
+     * Get the directory where the packet indexes of the stream files are
+     * cached
+     *
+     * @return the directory of the packet index cache, or null if the packet
+     *         indexes are not cached
+     * @since 4.1
+     */
+    public @Nullable File getPacketIndexDirectory() {
+        return fPacketIndexDirectory;
+    }
+
+    /**
+     * Set the number of packets read ahead by the stream input readers. The
+     * indexed packets following the current packet of a reader are mapped,
+     * and their pages loaded in memory, by background threads, so that
+     * reading from the disk overlaps with decoding the events. This only
+     * applies to the readers created after this call.
+     *
+     * @param depth
+     *            the number of packets to read ahead per stream file, 0 to
+     *            disable the read-ahead
+     * @since 4.1
+     */
+    public void setPacketPrefetchDepth(int depth) {
+        fPacketPrefetchDepth = Math.max(0, depth);
+    }
+
+    /**
+     * Get the number of packets read ahead by the stream input readers
+     *
+     * @return the number of packets read ahead per stream file, 0 if the
+     *         read-ahead is disabled
+     * @since 4.1
+     */
+    public int getPacketPrefetchDepth() {
+        return fPacketPrefetchDepth;
+    }
+
+    /**
+     * Set the number of packets decoded ahead by the stream input readers.
+     * The indexed packets following the current packet of a reader are
+     * decoded into batches of events by background threads, the reader then
+     * returning the events of these batches. The packets of a stream are
+     * independent once indexed, so a single trace is decoded on many cores.
+     * The decoded events are kept in memory until they are read, so this is
+     * meant for the readers going through large parts of a trace. This only
+     * applies to the readers created after this call, the read-ahead of
+     * {@link #setPacketPrefetchDepth(int)} being disabled for them. A single
+     * trace reader can also decode ahead, with
+     * {@link CTFTraceReader#setPacketDecodeDepth(int)}.
+     *
+     * @param depth
+     *            the number of packets to decode ahead per stream file, 0 to
+     *            decode the events when they are read
+     * @since 4.1
+     */
+    public void setPacketDecodeDepth(int depth) {
+        fPacketDecodeDepth = Math.max(0, depth);
+    }
+
+    /**
+     * Get the number of packets decoded ahead by the stream input readers
+     *
+     * @return the number of packets decoded ahead per stream file, 0 if the
+     *         events are decoded when they are read
+     * @since 4.1
+     */
+    public int getPacketDecodeDepth() {
+        return fPacketDecodeDepth;
+    }
+
+    /**
+     * Get the table sharing the repeated strings of the events of this trace,
+     * like the process names or the file names, so that each of them is kept
+     * once in memory by the events, and by the analyses storing them
+     *
+     * @return the table of the strings of this trace
+     */
+    StringInterner getStringInterner() {
+        return fStringInterner;
+    }
+
+    /**
+     * Index all the packets of the stream files of this trace. The stream
+     * files are independent, so they are indexed in parallel, by threads
+     * dedicated to the indexing, each file being indexed in order by one
+     * thread. The resulting indexes are the same as when the packets are
+     * indexed while reading the trace. This returns once all the files are
+     * indexed.
+     *
+     * This must be called before reading the trace. A stream file that cannot
+     * be completely indexed keeps the packets indexed so far, the next ones
+     * will be indexed while reading. If the calling thread is interrupted,
+     * the files not indexed yet are indexed while reading as well.
+     *
+     * @since 4.1
+     */
+    public void indexStreamInputs() {
+        List<CTFStreamInput> inputs = new ArrayList<>();
+        for (ICTFStream stream : getStreams()) {
+            inputs.addAll(stream.getStreamInputs());
+        }
+        if (inputs.size() <= 1) {
+            inputs.forEach(CTFTrace::indexStreamInput);
+            return;
+        }
+        List<Future<?>> futures = new ArrayList<>();
+        for (CTFStreamInput input : inputs) {
+            futures.add(INDEXING_EXECUTOR.submit(() -> indexStreamInput(input)));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                Activator.log(IStatus.WARNING, "Failed to index the packets of a stream file: " + e.getCause()); //$NON-NLS-1$
+            } catch (InterruptedException e) {
+                futures.forEach(f -> f.cancel(false));
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static void indexStreamInput(CTFStreamInput input) {
+        try {
+            input.indexAllPackets();
+        } catch (CTFException e) {
+            Activator.log(IStatus.WARNING, "Failed to index the packets of " + input.getFilename() + ": " + e.getMessage()); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+    }
+
     /**
      * Sets the environment map
      *
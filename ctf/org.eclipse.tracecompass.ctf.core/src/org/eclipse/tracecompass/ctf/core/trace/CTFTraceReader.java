@@ -26,10 +26,13 @@ import java.util.Objects;
 import java.util.PriorityQueue;
 import java.util.Set;
 
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.ctf.core.CTFException;
 import org.eclipse.tracecompass.ctf.core.event.IEventDeclaration;
 import org.eclipse.tracecompass.ctf.core.event.IEventDefinition;
 import org.eclipse.tracecompass.internal.ctf.core.Activator;
+import org.eclipse.tracecompass.internal.ctf.core.trace.LoserTree;
 import org.eclipse.tracecompass.internal.ctf.core.trace.StreamInputReaderTimestampComparator;
 
 /**
@@ -45,6 +48,9 @@ public class CTFTraceReader implements AutoCloseable {
 
     private static final int MIN_PRIO_SIZE = 16;
 
+    /** Key of the readers without a current event, sorted last */
+    private static final long NO_EVENT = -1L;
+
     // ------------------------------------------------------------------------
     // Attributes
     // ------------------------------------------------------------------------
@@ -60,9 +66,14 @@ public class CTFTraceReader implements AutoCloseable {
     private final List<CTFStreamInputReader> fStreamInputReaders = Collections.synchronizedList(new ArrayList<CTFStreamInputReader>());
 
     /**
-     * Priority queue to order the trace file readers by timestamp.
+     * Loser tree to merge the trace file readers by timestamp.
      */
-    private PriorityQueue<CTFStreamInputReader> fPrio;
+    private final LoserTree<CTFStreamInputReader> fPrio = new LoserTree<>(
+            reader -> {
+                IEventDefinition currentEvent = reader.getCurrentEvent();
+                return currentEvent != null ? currentEvent.getTimestamp() : NO_EVENT;
+            },
+            (a, b) -> a.getStreamInput().getFilename().compareTo(b.getStreamInput().getFilename()));
 
     /**
      * Array to count the number of event per trace file.
@@ -84,6 +95,16 @@ public class CTFTraceReader implements AutoCloseable {
      */
     private boolean fClosed = false;
 
+    /**
+     * Names of the events to read, null to read all the events
+     */
+    private @Nullable Set<@NonNull String> fEventFilter = null;
+
+    /**
+     * The number of packets decoded ahead by the stream input readers
+     */
+    private int fPacketDecodeDepth;
+
     // ------------------------------------------------------------------------
     // Constructors
     // ------------------------------------------------------------------------
@@ -98,6 +119,7 @@ public class CTFTraceReader implements AutoCloseable {
      */
     public CTFTraceReader(CTFTrace trace) throws CTFException {
         fTrace = trace;
+        fPacketDecodeDepth = trace.getPacketDecodeDepth();
         fStreamInputReaders.clear();
 
         /**
@@ -185,10 +207,19 @@ public class CTFTraceReader implements AutoCloseable {
     /**
      * Get the priority queue of this trace reader.
      *
-     * @return The priority queue of input readers
+     * @return A copy of the priority queue of input readers, changing it has
+     *         no effect on this trace reader
+     * @deprecated The readers are merged by a loser tree, use
+     *             {@link #getTopStream()} to get the reader with the oldest
+     *             event
      */
+    @Deprecated
     protected PriorityQueue<CTFStreamInputReader> getPrio() {
-        return fPrio;
+        PriorityQueue<CTFStreamInputReader> prio = new PriorityQueue<>(Math.max(fPrio.size(), MIN_PRIO_SIZE),
+                new StreamInputReaderTimestampComparator()
+                .thenComparing(reader -> reader.getStreamInput().getFilename()));
+        prio.addAll(fPrio.getSources());
+        return prio;
     }
 
     // ------------------------------------------------------------------------
@@ -254,6 +285,8 @@ public class CTFTraceReader implements AutoCloseable {
                 try (CTFStreamInputReader streamInputReader = new CTFStreamInputReader(checkNotNull(streamInput))) {
                     if (!fStreamInputReaders.contains(streamInputReader)) {
                         CTFStreamInputReader streamInputReaderToAdd = new CTFStreamInputReader(checkNotNull(streamInput));
+                        streamInputReaderToAdd.setEventFilter(fEventFilter);
+                        streamInputReaderToAdd.setPacketDecodeDepth(fPacketDecodeDepth);
                         streamInputReaderToAdd.readNextEvent();
                         fStreamInputReaders.add(streamInputReaderToAdd);
                         readers.add(streamInputReaderToAdd);
@@ -293,22 +326,6 @@ public class CTFTraceReader implements AutoCloseable {
      *             if an error occurs
      */
     private void populateStreamInputReaderHeap() throws CTFException {
-        if (fStreamInputReaders.isEmpty()) {
-            fPrio = new PriorityQueue<>(MIN_PRIO_SIZE,
-                    new StreamInputReaderTimestampComparator()
-                    .thenComparing(reader-> reader.getStreamInput().getFilename()));
-            return;
-        }
-
-        /*
-         * Create the priority queue with a size twice as bigger as the number of reader
-         * in order to avoid constant resizing.
-         */
-        fPrio = new PriorityQueue<>(
-                Math.max(fStreamInputReaders.size() * 2, MIN_PRIO_SIZE),
-                new StreamInputReaderTimestampComparator()
-                .thenComparing(reader-> reader.getStreamInput().getFilename()));
-
         int pos = 0;
 
         for (CTFStreamInputReader reader : fStreamInputReaders) {
@@ -348,14 +365,16 @@ public class CTFTraceReader implements AutoCloseable {
      * @throws CTFException
      *             if an error occurs
      */
+    @SuppressWarnings("resource")
     public boolean advance() throws CTFException {
         /*
-         * Remove the reader from the top of the priority queue.
+         * Get the reader at the top of the loser tree, it stays there while
+         * it reads its next event.
          */
-        CTFStreamInputReader top = fPrio.poll();
+        CTFStreamInputReader top = fPrio.peek();
 
         /*
-         * If the queue was empty.
+         * If the tree was empty.
          */
         if (top == null) {
             return false;
@@ -366,9 +385,10 @@ public class CTFTraceReader implements AutoCloseable {
         switch (top.readNextEvent()) {
         case OK: {
             /*
-             * Add it back in the queue.
+             * Replay its matches, nothing is done if it still has the oldest
+             * event.
              */
-            fPrio.add(top);
+            fPrio.updateTop();
             /*
              * We're in OK, there's a guaranteed top#getCurrentEvent() unless another thread
              * does something bad.
@@ -380,17 +400,20 @@ public class CTFTraceReader implements AutoCloseable {
             break;
         }
         case WAIT: {
-            fPrio.add(top);
+            fPrio.updateTop();
             break;
         }
         case FINISH:
+            /* The readers removed from the tree are closed with this reader */
+            fPrio.removeTop();
             break;
         case ERROR:
         default:
             // something bad happend
+            fPrio.removeTop();
         }
         /*
-         * If there is no reader in the queue, it means the trace reader reached the end
+         * If there is no reader in the tree, it means the trace reader reached the end
          * of the trace.
          */
         return hasMoreEvents();
@@ -404,7 +427,7 @@ public class CTFTraceReader implements AutoCloseable {
      */
     public void goToLastEvent() throws CTFException {
         long endTime = Long.MIN_VALUE;
-        for (CTFStreamInputReader sir : fPrio) {
+        for (CTFStreamInputReader sir : fPrio.getSources()) {
             sir.goToLastEvent();
             IEventDefinition currentEvent = sir.getCurrentEvent();
             if (currentEvent != null) {
@@ -435,7 +458,7 @@ public class CTFTraceReader implements AutoCloseable {
      */
     public boolean seek(long timestamp) throws CTFException {
         /*
-         * Remove all the trace readers from the priority queue
+         * Remove all the trace readers from the loser tree
          */
         fPrio.clear();
         for (CTFStreamInputReader streamInputReader : fStreamInputReaders) {
@@ -445,7 +468,7 @@ public class CTFTraceReader implements AutoCloseable {
             streamInputReader.seek(timestamp);
 
             /*
-             * Add it to the priority queue if there is a current event.
+             * Add it to the loser tree if there is a current event.
              */
             if (streamInputReader.getCurrentEvent() != null) {
                 fPrio.add(streamInputReader);
@@ -530,6 +553,65 @@ public class CTFTraceReader implements AutoCloseable {
         return fEndTime;
     }
 
+    /**
+     * Set the names of the events to read. The other events are skipped by
+     * the stream input readers when reading the next events, by only decoding
+     * their header, so they are never the current event after the next call
+     * to {@link #advance()} or {@link #seek(long)}. The lost events are always
+     * read.
+     *
+     * @param eventNames
+     *            the names of the events to read, or null to read all the
+     *            events
+     * @since 4.1
+     */
+    public void setEventFilter(@Nullable Set<@NonNull String> eventNames) {
+        fEventFilter = eventNames;
+        for (CTFStreamInputReader reader : fStreamInputReaders) {
+            reader.setEventFilter(eventNames);
+        }
+    }
+
+    /**
+     * Get the names of the events to read
+     *
+     * @return the names of the events to read, or null if all the events are
+     *         read
+     * @since 4.1
+     */
+    public @Nullable Set<@NonNull String> getEventFilter() {
+        return fEventFilter;
+    }
+
+    /**
+     * Set the number of packets decoded ahead by the stream input readers of
+     * this trace reader, see {@link CTFTrace#setPacketDecodeDepth(int)}. This
+     * is meant for the trace readers going through large parts of a trace.
+     *
+     * @param depth
+     *            the number of packets to decode ahead per stream file, 0 to
+     *            decode the events when they are read
+     * @since 4.1
+     */
+    public void setPacketDecodeDepth(int depth) {
+        fPacketDecodeDepth = Math.max(0, depth);
+        for (CTFStreamInputReader reader : fStreamInputReaders) {
+            reader.setPacketDecodeDepth(fPacketDecodeDepth);
+        }
+    }
+
+    /**
+     * Get the number of packets decoded ahead by the stream input readers of
+     * this trace reader
+     *
+     * @return the number of packets decoded ahead per stream file, 0 if the
+     *         events are decoded when they are read
+     * @since 4.1
+     */
+    public int getPacketDecodeDepth() {
+        return fPacketDecodeDepth;
+    }
+
     /**
      * Sets a trace to be live or not
      *
@@ -537,7 +619,7 @@ public class CTFTraceReader implements AutoCloseable {
      *            whether the trace is live
      */
     public void setLive(boolean live) {
-        for (CTFStreamInputReader s : fPrio) {
+        for (CTFStreamInputReader s : fPrio.getSources()) {
             s.setLive(live);
         }
     }
@@ -612,7 +694,7 @@ public class CTFTraceReader implements AutoCloseable {
      * @since 1.0
      */
     public void populateIndex() throws CTFException {
-        for (CTFStreamInputReader sir : fPrio) {
+        for (CTFStreamInputReader sir : fPrio.getSources()) {
             sir.goToLastEvent();
         }
         seek(0);
@@ -18,7 +18,15 @@ import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNull;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
@@ -101,13 +109,94 @@ public class CTFTraceWriter {
             }
 
             // Copy packets
+            List<CTFStreamOutputWriter> writers = new ArrayList<>();
             for (ICTFStream stream : trace.getStreams()) {
                 Set<CTFStreamInput> inputs = stream.getStreamInputs();
                 for (CTFStreamInput s : inputs) {
-                    CTFStreamOutputWriter streamOutputwriter = new CTFStreamOutputWriter(checkNotNull(s), out);
-                    streamOutputwriter.copyPackets(adjustedStart, adjustedEnd);
+                    writers.add(new CTFStreamOutputWriter(checkNotNull(s), out));
                 }
             }
+            copyPackets(writers, adjustedStart, adjustedEnd);
+        }
+    }
+
+    /**
+     * Copy the packets of the stream files in parallel, each stream file being
+     * written by one thread. The copies that did not start are cancelled after
+     * an error, and this returns once all the others are done, so that no
+     * thread writes to the output trace anymore.
+     */
+    private static void copyPackets(List<CTFStreamOutputWriter> writers, long startTime, long endTime) throws CTFException {
+        if (writers.size() <= 1) {
+            for (CTFStreamOutputWriter writer : writers) {
+                writer.copyPackets(startTime, endTime);
+            }
+            return;
+        }
+        int nbThreads = Math.min(writers.size(), Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = Executors.newFixedThreadPool(nbThreads, runnable -> {
+            Thread thread = new Thread(runnable, "CTF Trace Writer"); //$NON-NLS-1$
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<Future<?>> futures = new ArrayList<>();
+        Throwable error = null;
+        try {
+            for (CTFStreamOutputWriter writer : writers) {
+                futures.add(executor.submit(() -> {
+                    writer.copyPackets(startTime, endTime);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    if (error == null) {
+                        error = e.getCause();
+                        futures.forEach(f -> f.cancel(false));
+                    }
+                } catch (CancellationException e) {
+                    /* Cancelled after an error */
+                }
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(f -> f.cancel(false));
+            error = e;
+        } finally {
+            executor.shutdown();
+            awaitTermination(executor);
+        }
+        if (error instanceof InterruptedException) {
+            Thread.currentThread().interrupt();
+            throw new CTFIOException("Interrupted while copying packets", (Exception) error); //$NON-NLS-1$
+        }
+        if (error instanceof CTFException) {
+            throw (CTFException) error;
+        }
+        if (error instanceof Error) {
+            throw (Error) error;
+        }
+        if (error != null) {
+            throw new CTFIOException("Error copying packets: " + error, (Exception) error); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * Wait for the running copies, even if the thread is interrupted, since
+     * they keep writing to the output trace
+     */
+    private static void awaitTermination(ExecutorService executor) {
+        boolean interrupted = false;
+        while (!executor.isTerminated()) {
+            try {
+                executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
         }
     }
 }
@@ -46,6 +46,7 @@ import org.eclipse.tracecompass.ctf.parser.CTFParser;
 import org.eclipse.tracecompass.ctf.parser.CTFParser.parse_return;
 import org.eclipse.tracecompass.internal.ctf.core.event.metadata.CtfAntlrException;
 import org.eclipse.tracecompass.internal.ctf.core.event.metadata.IOStructGen;
+import org.eclipse.tracecompass.internal.ctf.core.event.metadata.MetadataTreeCache;
 import org.eclipse.tracecompass.internal.ctf.core.event.metadata.ParseException;
 import org.eclipse.tracecompass.internal.ctf.core.utils.Utils;
 
@@ -96,6 +97,11 @@ public class Metadata {
 
     private IOStructGen fTreeParser;
 
+    /**
+     * Size of the part of the metadata file that was parsed, in bytes
+     */
+    private long fParsedSize = 0;
+
     // ------------------------------------------------------------------------
     // Constructors
     // ------------------------------------------------------------------------
@@ -152,19 +158,19 @@ public class Metadata {
     public void parseFile() throws CTFException {
 
         /*
-         * Reader. It will contain a StringReader if we are using packet-based metadata
-         * and it will contain a FileReader if we have text-based metadata.
+         * The metadata text is read from the packets if the metadata is
+         * packet-based, or as it is if it is text-based.
          */
 
         File metadataFile = new File(getMetadataPath());
         ByteOrder byteOrder = CTFTrace.startsWithMagicNumber(metadataFile, Utils.TSDL_MAGIC);
         fDetectedByteOrder = byteOrder;
         try (FileInputStream fis = new FileInputStream(metadataFile);
-                FileChannel metadataFileChannel = fis.getChannel();
-                /* Check if metadata is packet-based, if not it is text based */
-                Reader metadataTextInput = ( byteOrder!= null ? readBinaryMetaData(metadataFileChannel) : new FileReader(metadataFile));) {
+                FileChannel metadataFileChannel = fis.getChannel()) {
 
-            readMetaDataText(metadataTextInput);
+            String metadataText = readMetaDataText(metadataFileChannel, false);
+            fParsedSize = metadataFileChannel.position();
+            readMetaDataText(metadataText);
 
         } catch (FileNotFoundException e) {
             throw new CTFException("Cannot find metadata file!", e); //$NON-NLS-1$
@@ -178,7 +184,53 @@ public class Metadata {
 
     }
 
-    private Reader readBinaryMetaData(FileChannel metadataFileChannel) throws CTFException {
+    /**
+     * Parse the metadata appended to the metadata file since it was last
+     * parsed, as the metadata of a live trace grows. Only the new fragments
+     * are parsed, and the declarations they add are added to the trace. A
+     * packet still being written is left for the next update.
+     *
+     * @return true if new metadata was parsed
+     * @throws CTFException
+     *             If there was a problem parsing the new metadata, it is then
+     *             parsed again at the next update
+     * @since 4.1
+     */
+    public synchronized boolean parseFileUpdate() throws CTFException {
+        if (fTreeParser == null) {
+            parseFile();
+            return true;
+        }
+        File metadataFile = new File(getMetadataPath());
+        if (metadataFile.length() <= fParsedSize) {
+            return false;
+        }
+        try (FileInputStream fis = new FileInputStream(metadataFile);
+                FileChannel metadataFileChannel = fis.getChannel()) {
+            metadataFileChannel.position(fParsedSize);
+            String metadataText = readMetaDataText(metadataFileChannel, true);
+            if (metadataText.trim().isEmpty()) {
+                return false;
+            }
+            long parsedSize = metadataFileChannel.position();
+            parseTextFragment(metadataText);
+            fParsedSize = parsedSize;
+            return true;
+        } catch (IOException e) {
+            throw new CTFException(e);
+        }
+    }
+
+    private String readMetaDataText(FileChannel metadataFileChannel, boolean growing) throws CTFException, IOException {
+        if (fDetectedByteOrder == null) {
+            /* Text-based metadata, read with the platform charset as before */
+            ByteBuffer text = ByteBuffer.allocate((int) (metadataFileChannel.size() - metadataFileChannel.position()));
+            while (text.hasRemaining() && metadataFileChannel.read(text) >= 0) {
+                // Read the rest of the file
+            }
+            text.flip();
+            return Charset.defaultCharset().decode(text).toString();
+        }
         /* Create StringBuffer to receive metadata text */
         StringBuffer metadataText = new StringBuffer();
 
@@ -186,14 +238,13 @@ public class Metadata {
          * Read metadata packet one by one, appending the text to the StringBuffer
          */
         MetadataPacketHeader packetHeader = readMetadataPacket(
-                metadataFileChannel, metadataText);
+                metadataFileChannel, metadataText, growing);
         while (packetHeader != null) {
             packetHeader = readMetadataPacket(metadataFileChannel,
-                    metadataText);
+                    metadataText, growing);
         }
 
-        /* Wrap the metadata string with a StringReader */
-        return new StringReader(metadataText.toString());
+        return metadataText.toString();
     }
 
     /**
@@ -240,9 +291,8 @@ public class Metadata {
      *             parsing a TSDL file
      */
     public void parseText(String data) throws CTFException {
-        Reader metadataTextInput = new StringReader(data);
         try {
-            readMetaDataText(metadataTextInput);
+            readMetaDataText(data);
         } catch (IOException | ParseException e) {
             throw new CTFException(e);
         } catch (RecognitionException | RewriteCardinalityException e) {
@@ -251,8 +301,14 @@ public class Metadata {
 
     }
 
-    private void readMetaDataText(Reader metadataTextInput) throws IOException, RecognitionException, ParseException {
-        CommonTree tree = createAST(metadataTextInput);
+    private void readMetaDataText(String metadataText) throws IOException, RecognitionException, ParseException {
+        /* The tree of metadata parsed before is read from the cache */
+        String key = MetadataTreeCache.getKey(NonNullUtils.checkNotNull(metadataText));
+        CommonTree tree = MetadataTreeCache.get(key);
+        if (tree == null) {
+            tree = NonNullUtils.checkNotNull(createAST(new StringReader(metadataText)));
+            MetadataTreeCache.put(key, tree);
+        }
 
         /* Generate IO structures (declarations) */
         fTreeParser = new IOStructGen(tree, NonNullUtils.checkNotNull(fTrace));
@@ -323,18 +379,28 @@ public class Metadata {
      *            Metadata FileChannel
      * @param metadataText
      *            StringBuffer to which the metadata text will be appended.
+     * @param growing
+     *            Whether the file is still being written, a partial packet at
+     *            the end of the file is then left unread
      * @return A structure describing the header of the metadata packet, or null if
      *         the end of the file is reached.
      * @throws CTFException
      */
     private MetadataPacketHeader readMetadataPacket(
-            FileChannel metadataFileChannel, StringBuffer metadataText)
+            FileChannel metadataFileChannel, StringBuffer metadataText, boolean growing)
             throws CTFException {
         /* Allocate a ByteBuffer for the header */
         ByteBuffer headerByteBuffer = ByteBuffer.allocate(METADATA_PACKET_HEADER_SIZE);
 
         /* Read the header */
+        long packetPosition;
+        long fileSize;
         try {
+            packetPosition = metadataFileChannel.position();
+            fileSize = metadataFileChannel.size();
+            if (growing && fileSize - packetPosition < METADATA_PACKET_HEADER_SIZE) {
+                return null;
+            }
             int nbBytesRead = metadataFileChannel.read(headerByteBuffer);
 
             /* Return null if EOF */
@@ -357,6 +423,14 @@ public class Metadata {
         headerByteBuffer.order(fDetectedByteOrder);
 
         MetadataPacketHeader header = new MetadataPacketHeader(headerByteBuffer);
+        if (growing && fileSize - packetPosition < header.getPacketSize() / BITS_PER_BYTE) {
+            try {
+                metadataFileChannel.position(packetPosition);
+            } catch (IOException e) {
+                throw new CTFException("Error reading the metadata header.", e); //$NON-NLS-1$
+            }
+            return null;
+        }
 
         /* Check TSDL magic number */
         if (!header.isMagicValid()) {
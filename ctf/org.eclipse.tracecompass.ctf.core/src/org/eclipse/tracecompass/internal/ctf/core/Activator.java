@@ -17,6 +17,7 @@ package org.eclipse.tracecompass.internal.ctf.core;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Plugin;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.tracecompass.internal.ctf.core.event.metadata.MetadataTreeCache;
 import org.osgi.framework.BundleContext;
 
 /**
@@ -35,6 +36,8 @@ public class Activator extends Plugin {
      */
     public static final String PLUGIN_ID = "org.eclipse.tracecompass.ctf.core"; //$NON-NLS-1$
 
+    private static final String METADATA_CACHE_DIRECTORY = "metadata"; //$NON-NLS-1$
+
     /**
      *  The shared instance
      */
@@ -80,10 +83,16 @@ public class Activator extends Plugin {
     public void start(BundleContext context) throws Exception {
         super.start(context);
         setDefault(this);
+        try {
+            MetadataTreeCache.setDirectory(getStateLocation().append(METADATA_CACHE_DIRECTORY).toFile());
+        } catch (IllegalStateException e) {
+            /* No state location, the metadata trees are only cached in memory */
+        }
     }
 
     @Override
     public void stop(BundleContext context) throws Exception {
+        MetadataTreeCache.setDirectory(null);
         setDefault(null);
         super.stop(context);
     }
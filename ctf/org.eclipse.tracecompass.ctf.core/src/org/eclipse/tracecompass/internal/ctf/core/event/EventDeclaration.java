@@ -40,6 +40,7 @@ import org.eclipse.tracecompass.ctf.core.trace.CTFIOException;
 import org.eclipse.tracecompass.ctf.core.trace.CTFStreamInputReader;
 import org.eclipse.tracecompass.ctf.core.trace.CTFTrace;
 import org.eclipse.tracecompass.ctf.core.trace.ICTFPacketDescriptor;
+import org.eclipse.tracecompass.internal.ctf.core.event.types.StructDeclarationSkipper;
 import org.eclipse.tracecompass.internal.ctf.core.event.types.composite.EventHeaderDefinition;
 import org.eclipse.tracecompass.internal.ctf.core.trace.CTFStream;
 
@@ -72,6 +73,29 @@ public class EventDeclaration implements IEventDeclaration {
      */
     private StructDeclaration fFields = null;
 
+    /**
+     * Skipper of the event fields, to decode them lazily, or null if they
+     * cannot be skipped
+     */
+    private @Nullable StructDeclarationSkipper fFieldsSkipper = null;
+
+    private volatile boolean fFieldsSkipperSet = false;
+
+    /**
+     * Skipper of the event context, to skip the events that are not read, or
+     * null if it cannot be skipped
+     */
+    private @Nullable StructDeclarationSkipper fContextSkipper = null;
+
+    private volatile boolean fContextSkipperSet = false;
+
+    /**
+     * Skipper of the stream event context, and the declaration it skips
+     */
+    private volatile @Nullable StructDeclarationSkipper fStreamContextSkipper = null;
+
+    private volatile @Nullable StructDeclaration fStreamContextSkipperDecl = null;
+
     /**
      * Stream to which belongs this event.
      */
@@ -103,6 +127,10 @@ public class EventDeclaration implements IEventDeclaration {
 
     /**
      * Creates an instance of EventDefinition corresponding to this declaration.
+     * If the trace decodes the event fields lazily and the fields can be
+     * skipped, only their position is kept and they are decoded on first
+     * access. The fields that cannot be skipped within the packet are decoded
+     * right away, so that their error is thrown here.
      *
      * @param streamEventContextDecl
      *            event context
@@ -127,7 +155,30 @@ public class EventDeclaration implements IEventDeclaration {
         final CTFTrace trace = stream == null ? null : stream.getTrace();
         StructDefinition streamEventContext = streamEventContextDecl != null ? streamEventContextDecl.createDefinition(trace, ILexicalScope.STREAM_EVENT_CONTEXT, input) : null;
         StructDefinition eventContext = fContext != null ? fContext.createFieldDefinition(eventHeaderDef, trace, ILexicalScope.CONTEXT, input) : null;
-        StructDefinition eventPayload = fFields != null ? fFields.createFieldDefinition(eventHeaderDef, trace, ILexicalScope.FIELDS, input) : null;
+        StructDefinition eventPayload = null;
+        LazyEventFields lazyPayload = null;
+        final StructDeclaration fields = fFields;
+        if (fields != null) {
+            StructDeclarationSkipper skipper = trace != null && trace.isLazyEventFields() ? getFieldsSkipper(fields) : null;
+            if (skipper != null) {
+                lazyPayload = new LazyEventFields(fields, eventHeaderDef, trace, input);
+                long position = input.position();
+                try {
+                    skipper.skip(input);
+                } catch (CTFException e) {
+                    /*
+                     * The fields do not fit in the packet, decode them now so
+                     * that the error is reported by the reader, as for the
+                     * fields that are not skipped
+                     */
+                    lazyPayload = null;
+                    input.position(position);
+                }
+            }
+            if (lazyPayload == null) {
+                eventPayload = fields.createFieldDefinition(eventHeaderDef, trace, ILexicalScope.FIELDS, input);
+            }
+        }
         long timestamp = calculateTimestamp(eventHeaderDef, prevTimestamp, eventPayload, eventContext);
 
         int cpu = (int) packetDescriptor.getTargetId();
@@ -140,9 +191,94 @@ public class EventDeclaration implements IEventDeclaration {
                 eventContext,
                 packetContext,
                 eventPayload,
+                lazyPayload,
                 packetDescriptor);
     }
 
+    /**
+     * Move the buffer after an event without creating its definition. Only
+     * the timestamp of the event is computed, from its header, so the next
+     * events with compact timestamps can be read. The contexts and fields
+     * that cannot be skipped, or that may hold the timestamp, are decoded.
+     *
+     * @param streamEventContextDecl
+     *            event context
+     * @param eventHeaderDef
+     *            The event header definition, already read
+     * @param input
+     *            the bitbuffer input source, after the event header
+     * @param prevTimestamp
+     *            The timestamp of the previous event
+     * @return the timestamp of the skipped event
+     * @throws CTFException
+     *             As a bitbuffer is used to read, it could have wrapped
+     *             IOExceptions.
+     */
+    public long skipDefinition(@Nullable StructDeclaration streamEventContextDecl, @Nullable ICompositeDefinition eventHeaderDef, @NonNull BitBuffer input, long prevTimestamp)
+            throws CTFException {
+        final CTFStream stream = fStream;
+        final CTFTrace trace = stream == null ? null : stream.getTrace();
+        if (streamEventContextDecl != null) {
+            StructDeclarationSkipper skipper = getStreamContextSkipper(streamEventContextDecl);
+            if (skipper != null) {
+                skipper.skip(input);
+            } else {
+                streamEventContextDecl.createDefinition(trace, ILexicalScope.STREAM_EVENT_CONTEXT, input);
+            }
+        }
+        StructDefinition eventContext = null;
+        if (fContext != null) {
+            StructDeclarationSkipper skipper = getContextSkipper(fContext);
+            if (skipper != null) {
+                skipper.skip(input);
+            } else {
+                eventContext = fContext.createFieldDefinition(eventHeaderDef, trace, ILexicalScope.CONTEXT, input);
+            }
+        }
+        StructDefinition eventPayload = null;
+        if (fFields != null) {
+            StructDeclarationSkipper skipper = getFieldsSkipper(fFields);
+            if (skipper != null) {
+                skipper.skip(input);
+            } else {
+                eventPayload = fFields.createFieldDefinition(eventHeaderDef, trace, ILexicalScope.FIELDS, input);
+            }
+        }
+        return calculateTimestamp(eventHeaderDef, prevTimestamp, eventPayload, eventContext);
+    }
+
+    private @Nullable StructDeclarationSkipper getStreamContextSkipper(@NonNull StructDeclaration streamEventContextDecl) {
+        if (fStreamContextSkipperDecl != streamEventContextDecl) {
+            fStreamContextSkipper = StructDeclarationSkipper.create(streamEventContextDecl);
+            fStreamContextSkipperDecl = streamEventContextDecl;
+        }
+        return fStreamContextSkipper;
+    }
+
+    /**
+     * Get the skipper of the context. Like the fields, a context with a
+     * timestamp is never skipped.
+     */
+    private @Nullable StructDeclarationSkipper getContextSkipper(StructDeclaration context) {
+        if (!fContextSkipperSet) {
+            fContextSkipper = context.hasField(CTFStrings.TIMESTAMP) ? null : StructDeclarationSkipper.create(context);
+            fContextSkipperSet = true;
+        }
+        return fContextSkipper;
+    }
+
+    /**
+     * Get the skipper of the fields. Fields with a timestamp are never
+     * skipped, as the timestamp of the event may come from them.
+     */
+    private @Nullable StructDeclarationSkipper getFieldsSkipper(StructDeclaration fields) {
+        if (!fFieldsSkipperSet) {
+            fFieldsSkipper = fields.hasField(CTFStrings.TIMESTAMP) ? null : StructDeclarationSkipper.create(fields);
+            fFieldsSkipperSet = true;
+        }
+        return fFieldsSkipper;
+    }
+
     private static long calculateTimestamp(@Nullable ICompositeDefinition eventHeaderDef, long prevTimestamp, StructDefinition eventPayload, StructDefinition eventContext) throws CTFIOException {
         long timestamp = 0;
         Definition def = null;
@@ -221,6 +357,7 @@ public class EventDeclaration implements IEventDeclaration {
      */
     public void setContext(StructDeclaration context) {
         fContext = context;
+        fContextSkipperSet = false;
     }
 
     /**
@@ -231,6 +368,7 @@ public class EventDeclaration implements IEventDeclaration {
      */
     public void setFields(StructDeclaration fields) {
         fFields = fields;
+        fFieldsSkipperSet = false;
     }
 
     @Override
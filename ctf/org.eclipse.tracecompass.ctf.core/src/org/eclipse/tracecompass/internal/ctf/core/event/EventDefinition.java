@@ -21,6 +21,7 @@ import java.util.Map;
 
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.ctf.core.CTFException;
 import org.eclipse.tracecompass.ctf.core.event.IEventDeclaration;
 import org.eclipse.tracecompass.ctf.core.event.IEventDefinition;
 import org.eclipse.tracecompass.ctf.core.event.scope.IDefinitionScope;
@@ -32,6 +33,7 @@ import org.eclipse.tracecompass.ctf.core.event.types.IDefinition;
 import org.eclipse.tracecompass.ctf.core.event.types.StructDeclaration;
 import org.eclipse.tracecompass.ctf.core.event.types.StructDefinition;
 import org.eclipse.tracecompass.ctf.core.trace.ICTFPacketDescriptor;
+import org.eclipse.tracecompass.internal.ctf.core.Activator;
 
 /**
  * Representation of a particular instance of an event.
@@ -64,9 +66,20 @@ public final class EventDefinition implements IDefinitionScope, IEventDefinition
     private final ICompositeDefinition fPacketContext;
 
     /**
-     * The event fields structure definition.
+     * The event fields structure definition, decoded on first access if the
+     * fields are lazy.
      */
-    private final ICompositeDefinition fFields;
+    private ICompositeDefinition fFields;
+
+    /**
+     * The fields to decode on first access, null once they are decoded
+     */
+    private volatile @Nullable LazyEventFields fLazyFields;
+
+    /**
+     * The error that prevented the lazy fields from being decoded, if any
+     */
+    private @Nullable CTFException fFieldsError;
 
     /**
      * The current cpu, could be @link {@link IPacketHeader#UNKNOWN_CPU}
@@ -114,11 +127,52 @@ public final class EventDefinition implements IDefinitionScope, IEventDefinition
             ICompositeDefinition packetContext,
             ICompositeDefinition fields,
             @Nullable ICTFPacketDescriptor packetDescriptor) {
+        this(declaration, cpu, timestamp, eventHeaderDefinition, streamContext, eventContext, packetContext, fields, null, packetDescriptor);
+    }
+
+    /**
+     * Constructs an event definition whose fields may be decoded lazily.
+     *
+     * @param declaration
+     *            The corresponding event declaration
+     * @param cpu
+     *            The cpu source of the event. You can use UNKNOWN_CPU if it is
+     *            not known.
+     * @param timestamp
+     *            event timestamp
+     * @param eventHeaderDefinition
+     *            The event header definition, can be null if there is no header
+     *            definition
+     * @param streamContext
+     *            the stream context
+     * @param eventContext
+     *            The event context
+     * @param packetContext
+     *            the packet context (the one with content size, not magic
+     *            number)
+     * @param fields
+     *            The event fields, if they are already decoded
+     * @param lazyFields
+     *            The event fields to decode on first access, or null
+     * @param packetDescriptor
+     *            descriptor of the packet containing this event
+     */
+    EventDefinition(IEventDeclaration declaration,
+            int cpu,
+            long timestamp,
+            ICompositeDefinition eventHeaderDefinition,
+            ICompositeDefinition streamContext,
+            ICompositeDefinition eventContext,
+            ICompositeDefinition packetContext,
+            ICompositeDefinition fields,
+            @Nullable LazyEventFields lazyFields,
+            @Nullable ICTFPacketDescriptor packetDescriptor) {
         fDeclaration = declaration;
         fEventHeaderDefinition = eventHeaderDefinition;
         fCpu = cpu;
         fTimestamp = timestamp;
         fFields = fields;
+        fLazyFields = lazyFields;
         fEventContext = eventContext;
         fPacketContext = packetContext;
         fStreamContext = streamContext;
@@ -154,9 +208,39 @@ public final class EventDefinition implements IDefinitionScope, IEventDefinition
 
     @Override
     public ICompositeDefinition getFields() {
+        if (fLazyFields != null) {
+            decodeFields();
+        }
         return fFields;
     }
 
+    private synchronized void decodeFields() {
+        LazyEventFields lazyFields = fLazyFields;
+        if (lazyFields == null) {
+            return;
+        }
+        try {
+            fFields = lazyFields.decode();
+        } catch (CTFException e) {
+            fFieldsError = e;
+            Activator.logError("Failed to decode the fields of event " + fDeclaration.getName() + " at " + fTimestamp, e); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        fLazyFields = null;
+    }
+
+    /**
+     * Get the error that prevented the fields of this event from being
+     * decoded. The fields that were skipped while reading the packet are
+     * decoded on first access, after the event was read, so their error is
+     * kept with the event, whose fields are then null.
+     *
+     * @return the error, or null if the fields were decoded
+     */
+    public synchronized @Nullable CTFException getFieldsError() {
+        decodeFields();
+        return fFieldsError;
+    }
+
     @Override
     public ICompositeDefinition getEventContext() {
         return fEventContext;
@@ -241,7 +325,7 @@ public final class EventDefinition implements IDefinitionScope, IEventDefinition
         if (lookupPath.equals("context")) { //$NON-NLS-1$
             return fEventContext;
         } else if (lookupPath.equals("fields")) { //$NON-NLS-1$
-            return fFields;
+            return getFields();
         } else {
             return null;
         }
@@ -264,11 +348,12 @@ public final class EventDefinition implements IDefinitionScope, IEventDefinition
             }
         }
 
-        if (fFields != null) {
-            list = fFields.getFieldNames();
+        ICompositeDefinition fields = getFields();
+        if (fields != null) {
+            list = fields.getFieldNames();
 
             for (String field : list) {
-                retString.append(field).append(" : ").append(fFields.getDefinition(field).toString()).append(cr); //$NON-NLS-1$
+                retString.append(field).append(" : ").append(fields.getDefinition(field).toString()).append(cr); //$NON-NLS-1$
             }
         }
 
@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.ctf.core.event;
+
+import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNull;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.ctf.core.CTFException;
+import org.eclipse.tracecompass.ctf.core.event.io.BitBuffer;
+import org.eclipse.tracecompass.ctf.core.event.scope.IDefinitionScope;
+import org.eclipse.tracecompass.ctf.core.event.scope.ILexicalScope;
+import org.eclipse.tracecompass.ctf.core.event.types.ICompositeDefinition;
+import org.eclipse.tracecompass.ctf.core.event.types.StructDeclaration;
+import org.eclipse.tracecompass.ctf.core.event.types.StructDefinition;
+import org.eclipse.tracecompass.internal.ctf.core.event.types.StringInterner;
+
+/**
+ * The location of the fields of an event that were skipped while reading the
+ * packet, to decode them later. It keeps a reference to the buffer of the
+ * packet.
+ */
+@NonNullByDefault
+final class LazyEventFields {
+
+    private final StructDeclaration fDeclaration;
+    private final @Nullable ICompositeDefinition fEventHeaderDef;
+    private final @Nullable IDefinitionScope fDefinitionScope;
+    private final ByteBuffer fBuffer;
+    private final ByteOrder fByteOrder;
+    private final @Nullable StringInterner fStringInterner;
+    private final long fPosition;
+
+    /**
+     * Constructor
+     *
+     * @param declaration
+     *            the fields declaration
+     * @param eventHeaderDef
+     *            the event header, used for scopes
+     * @param definitionScope
+     *            the definition scope, the trace
+     * @param input
+     *            the input, at the position of the fields, with the string
+     *            interner of its trace
+     */
+    public LazyEventFields(StructDeclaration declaration, @Nullable ICompositeDefinition eventHeaderDef, @Nullable IDefinitionScope definitionScope, BitBuffer input) {
+        fDeclaration = declaration;
+        fEventHeaderDef = eventHeaderDef;
+        fDefinitionScope = definitionScope;
+        fBuffer = checkNotNull(input.getByteBuffer());
+        fByteOrder = checkNotNull(input.getByteOrder());
+        fStringInterner = input.getStringInterner();
+        fPosition = input.position();
+    }
+
+    /**
+     * Decode the fields. The buffer of the packet is not modified, so this can
+     * be called from any thread.
+     *
+     * @return the fields definition
+     * @throws CTFException
+     *             if the fields cannot be read
+     */
+    public StructDefinition decode() throws CTFException {
+        BitBuffer input = new BitBuffer(checkNotNull(fBuffer.duplicate()), fByteOrder);
+        input.setStringInterner(fStringInterner);
+        input.position(fPosition);
+        return checkNotNull(fDeclaration.createFieldDefinition(fEventHeaderDef, fDefinitionScope, ILexicalScope.FIELDS, input));
+    }
+}
@@ -0,0 +1,306 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.ctf.core.event.metadata;
+
+import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNull;
+import static org.eclipse.tracecompass.common.core.NonNullUtils.nullToEmptyString;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.antlr.runtime.CommonToken;
+import org.antlr.runtime.tree.CommonTree;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.ctf.parser.CTFParser;
+import org.eclipse.tracecompass.internal.ctf.core.Activator;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.FrameworkUtil;
+
+/**
+ * Cache of the syntax trees of parsed TSDL metadata, keyed by a hash of the
+ * metadata text. Parsing the metadata of a trace with many event declarations
+ * takes seconds, while reading its tree back is fast, so traces opened again,
+ * or sharing their metadata with other traces, skip the parser.
+ * <p>
+ * The trees are kept serialized, recently used ones in memory and all of them
+ * in the cache directory if one is set. A new tree is read for every trace,
+ * since the declarations are generated from it for one trace.
+ */
+@NonNullByDefault
+public final class MetadataTreeCache {
+
+    private static final int MAGIC = 0x54534454; // "TSDT"
+    private static final int VERSION = 1;
+    private static final String FILE_EXTENSION = ".tree"; //$NON-NLS-1$
+    private static final long MAX_MEMORY_BYTES = 64L * 1024 * 1024;
+    private static final int MAX_FILES = 64;
+    /** Token type of the nil root of a list of trees */
+    private static final int NIL = -1;
+
+    /** Version of the parser, whose trees of a metadata text may differ */
+    private static final String PARSER_VERSION = getParserVersion();
+
+    private static final Map<String, byte @Nullable []> MEMORY = new LinkedHashMap<>(16, 0.75f, true);
+    private static long memorySize = 0;
+    private static @Nullable File cacheDirectory = null;
+
+    private MetadataTreeCache() {
+        // Do nothing
+    }
+
+    /**
+     * Set the directory where the trees are cached across sessions
+     *
+     * @param directory
+     *            the directory, or null to only cache the trees in memory
+     */
+    public static synchronized void setDirectory(@Nullable File directory) {
+        cacheDirectory = directory;
+    }
+
+    /**
+     * Get the key of the metadata text in the cache. The key also depends on
+     * the version of the parser, so the trees cached on disk by another
+     * version are not used.
+     *
+     * @param text
+     *            the metadata text
+     * @return the key
+     */
+    public static String getKey(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256"); //$NON-NLS-1$
+            digest.update(PARSER_VERSION.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            byte[] hash = digest.digest(text.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            /* Every Java platform implements SHA-256 */
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Get the tree of the metadata text with a key
+     *
+     * @param key
+     *            the key of the metadata text
+     * @return a new copy of the tree, or null if it is not cached
+     */
+    public static @Nullable CommonTree get(String key) {
+        byte[] bytes = getBytes(key);
+        if (bytes == null) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            return read(in);
+        } catch (IOException e) {
+            Activator.logError("Failed to read the cached metadata tree " + key, e); //$NON-NLS-1$
+            return null;
+        }
+    }
+
+    /**
+     * Cache the tree of a metadata text
+     *
+     * @param key
+     *            the key of the metadata text
+     * @param tree
+     *            the tree, before it is used to generate the declarations
+     */
+    public static void put(String key, CommonTree tree) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            write(tree, out);
+        } catch (IOException e) {
+            /* Does not happen when writing to memory */
+            Activator.logError("Failed to serialize the metadata tree", e); //$NON-NLS-1$
+            return;
+        }
+        putBytes(key, checkNotNull(bytes.toByteArray()));
+    }
+
+    /**
+     * Clear the trees cached in memory
+     */
+    public static synchronized void clearMemory() {
+        MEMORY.clear();
+        memorySize = 0;
+    }
+
+    // ------------------------------------------------------------------------
+    // Storage
+    // ------------------------------------------------------------------------
+
+    private static synchronized byte @Nullable [] getBytes(String key) {
+        byte[] bytes = MEMORY.get(key);
+        if (bytes != null) {
+            return bytes;
+        }
+        File file = getFile(key);
+        if (file == null || !file.isFile()) {
+            return null;
+        }
+        try {
+            bytes = checkNotNull(Files.readAllBytes(file.toPath()));
+            /* The least recently used files are deleted first */
+            file.setLastModified(System.currentTimeMillis());
+        } catch (IOException e) {
+            Activator.logError("Failed to read the metadata tree cache " + file, e); //$NON-NLS-1$
+            return null;
+        }
+        putInMemory(key, bytes);
+        return bytes;
+    }
+
+    private static synchronized void putBytes(String key, byte[] bytes) {
+        putInMemory(key, bytes);
+        File file = getFile(key);
+        File directory = cacheDirectory;
+        if (file == null || directory == null) {
+            return;
+        }
+        try {
+            Files.createDirectories(directory.toPath());
+            File tmp = new File(directory, key + ".tmp"); //$NON-NLS-1$
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmp.toPath()))) {
+                out.write(bytes);
+            }
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Activator.logError("Failed to write the metadata tree cache " + file, e); //$NON-NLS-1$
+            return;
+        }
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(FILE_EXTENSION));
+        if (files != null && files.length > MAX_FILES) {
+            Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+            for (int i = 0; i < files.length - MAX_FILES; i++) {
+                files[i].delete();
+            }
+        }
+    }
+
+    private static void putInMemory(String key, byte[] bytes) {
+        byte[] previous = MEMORY.put(key, bytes);
+        memorySize += bytes.length - (previous == null ? 0 : previous.length);
+        Iterator<byte @Nullable []> iterator = MEMORY.values().iterator();
+        while (memorySize > MAX_MEMORY_BYTES && iterator.hasNext()) {
+            byte[] removed = iterator.next();
+            memorySize -= removed == null ? 0 : removed.length;
+            iterator.remove();
+        }
+    }
+
+    private static @Nullable File getFile(String key) {
+        File directory = cacheDirectory;
+        return directory == null ? null : new File(directory, key + FILE_EXTENSION);
+    }
+
+    private static String getParserVersion() {
+        /* Outside of OSGi, the trees are only cached in memory */
+        Bundle bundle = FrameworkUtil.getBundle(CTFParser.class);
+        return bundle == null ? "" : nullToEmptyString(bundle.getVersion().toString()); //$NON-NLS-1$
+    }
+
+    // ------------------------------------------------------------------------
+    // Serialization
+    // ------------------------------------------------------------------------
+
+    /**
+     * Write a tree. The declarations are generated from the types, texts and
+     * children of the nodes, so only those are written.
+     *
+     * @param tree
+     *            the tree
+     * @param out
+     *            the output
+     * @throws IOException
+     *             if the tree cannot be written
+     */
+    public static void write(CommonTree tree, DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        writeNode(tree, out);
+    }
+
+    /**
+     * Read a tree written by {@link #write(CommonTree, DataOutputStream)}
+     *
+     * @param in
+     *            the input
+     * @return the tree
+     * @throws IOException
+     *             if the tree cannot be read or was not written by this
+     *             version
+     */
+    public static CommonTree read(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("Not a metadata tree of this version"); //$NON-NLS-1$
+        }
+        return readNode(in);
+    }
+
+    private static void writeNode(CommonTree node, DataOutputStream out) throws IOException {
+        if (node.isNil()) {
+            out.writeInt(NIL);
+        } else {
+            out.writeInt(node.getType());
+            String text = node.getText();
+            byte[] bytes = text == null ? new byte[0] : text.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+        int count = node.getChildCount();
+        out.writeInt(count);
+        for (int i = 0; i < count; i++) {
+            writeNode(checkNotNull((CommonTree) node.getChild(i)), out);
+        }
+    }
+
+    private static CommonTree readNode(DataInputStream in) throws IOException {
+        int type = in.readInt();
+        CommonTree node;
+        if (type == NIL) {
+            node = new CommonTree();
+        } else {
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            node = new CommonTree(new CommonToken(type, new String(bytes, StandardCharsets.UTF_8)));
+        }
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            node.addChild(readNode(in));
+        }
+        return node;
+    }
+}
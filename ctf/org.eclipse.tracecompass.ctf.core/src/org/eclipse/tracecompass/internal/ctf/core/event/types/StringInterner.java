@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.ctf.core.event.types;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Decodes the strings of a trace from their bytes, returning the same
+ * instance for the strings that are repeated, like process names, file names
+ * or system call names. Each trace has its own table, so the strings of a
+ * trace are not kept by the other traces, and the table is collected with
+ * its trace.
+ *
+ * The table is direct-mapped by the hash of the bytes, which is the hash of
+ * the decoded string, so its size is bounded and a repeated string is found
+ * without allocating anything. A string replaces the one with the same slot.
+ * The table is read and written without locks by the threads decoding the
+ * trace: the strings are immutable, so a thread sees either string of a slot,
+ * and compares its content before returning it.
+ *
+ * Each byte is decoded as the character with the same value, like the CTF
+ * strings have always been read.
+ */
+@NonNullByDefault
+public final class StringInterner {
+
+    /** The longest strings interned, longer ones are rarely repeated */
+    private static final int MAX_LENGTH = 256;
+
+    private static final int BYTE_MASK = 0xff;
+
+    private final @Nullable String[] fTable;
+    private final int fMask;
+
+    private long fHits = 0;
+    private long fMisses = 0;
+
+    /**
+     * Constructor
+     *
+     * @param size
+     *            the number of slots of the table, rounded up to a power of
+     *            two
+     */
+    public StringInterner(int size) {
+        int tableSize = Integer.highestOneBit(Math.max(1, size - 1)) << 1;
+        fTable = new @Nullable String[tableSize];
+        fMask = tableSize - 1;
+    }
+
+    /**
+     * Decode a string from its bytes
+     *
+     * @param buffer
+     *            the buffer holding the string
+     * @param start
+     *            the index of the first byte of the string
+     * @param length
+     *            the number of bytes of the string, without its terminator
+     * @return the string, an instance shared with the previous identical
+     *         strings if it was found in the table
+     */
+    public String decode(ByteBuffer buffer, int start, int length) {
+        if (length > MAX_LENGTH) {
+            return decodeString(buffer, start, length);
+        }
+        int hash = 0;
+        for (int i = start; i < start + length; i++) {
+            hash = 31 * hash + (buffer.get(i) & BYTE_MASK);
+        }
+        int slot = (hash ^ (hash >>> 16)) & fMask;
+        String candidate = fTable[slot];
+        if (candidate != null && candidate.hashCode() == hash && matches(candidate, buffer, start, length)) {
+            fHits++;
+            return candidate;
+        }
+        fMisses++;
+        String value = decodeString(buffer, start, length);
+        fTable[slot] = value;
+        return value;
+    }
+
+    /**
+     * Get the number of strings found in the table. The count is approximate
+     * when the trace is decoded by many threads.
+     *
+     * @return the number of strings that were shared
+     */
+    public long getHitCount() {
+        return fHits;
+    }
+
+    /**
+     * Get the number of strings that were not found in the table, longer
+     * strings not included. The count is approximate when the trace is
+     * decoded by many threads.
+     *
+     * @return the number of strings that were decoded and added to the table
+     */
+    public long getMissCount() {
+        return fMisses;
+    }
+
+    private static boolean matches(String candidate, ByteBuffer buffer, int start, int length) {
+        if (candidate.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (candidate.charAt(i) != (buffer.get(start + i) & BYTE_MASK)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Decode a string from its bytes, without looking it up in a table
+     *
+     * @param buffer
+     *            the buffer holding the string
+     * @param start
+     *            the index of the first byte of the string
+     * @param length
+     *            the number of bytes of the string, without its terminator
+     * @return a new string
+     */
+    public static String decodeString(ByteBuffer buffer, int start, int length) {
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + start, length, StandardCharsets.ISO_8859_1);
+        }
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(start + i);
+        }
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+}
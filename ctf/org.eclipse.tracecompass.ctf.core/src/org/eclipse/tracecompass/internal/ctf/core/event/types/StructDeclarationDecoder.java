@@ -0,0 +1,163 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.ctf.core.event.types;
+
+import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNull;
+
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.ctf.core.CTFException;
+import org.eclipse.tracecompass.ctf.core.event.io.BitBuffer;
+import org.eclipse.tracecompass.ctf.core.event.scope.IDefinitionScope;
+import org.eclipse.tracecompass.ctf.core.event.types.Definition;
+import org.eclipse.tracecompass.ctf.core.event.types.EnumDeclaration;
+import org.eclipse.tracecompass.ctf.core.event.types.EnumDefinition;
+import org.eclipse.tracecompass.ctf.core.event.types.IDeclaration;
+import org.eclipse.tracecompass.ctf.core.event.types.IntegerDeclaration;
+import org.eclipse.tracecompass.ctf.core.event.types.IntegerDefinition;
+import org.eclipse.tracecompass.ctf.core.event.types.StructDeclaration;
+
+/**
+ * Decoder of the fields of a {@link StructDeclaration}, specialized once for
+ * its declaration.
+ *
+ * Each field gets a reader chosen from its declaration. Byte-aligned integers
+ * and enums of 8, 16, 32 or 64 bits are read directly by the byte-aligned fast
+ * path of the {@link BitBuffer}, instead of going through the definition
+ * creation of their declaration. The other fields are read by their
+ * declaration.
+ *
+ * The decoder holds no state and can be used by several threads at once.
+ */
+@NonNullByDefault
+public final class StructDeclarationDecoder {
+
+    private static final int BITS_PER_BYTE = Byte.SIZE;
+
+    /**
+     * Reads the definition of a field
+     */
+    @FunctionalInterface
+    private interface FieldReader {
+        Definition read(@Nullable IDefinitionScope definitionScope, String fieldName, BitBuffer input) throws CTFException;
+    }
+
+    private final @NonNull String[] fFieldNames;
+    private final @NonNull FieldReader[] fReaders;
+
+    private StructDeclarationDecoder(@NonNull String[] fieldNames, @NonNull FieldReader[] readers) {
+        fFieldNames = fieldNames;
+        fReaders = readers;
+    }
+
+    /**
+     * Create the decoder of a struct. The decoder must be created again if
+     * fields are added to the struct.
+     *
+     * @param declaration
+     *            the struct declaration
+     * @return the decoder
+     */
+    public static StructDeclarationDecoder create(StructDeclaration declaration) {
+        List<String> names = new ArrayList<>();
+        for (String fieldName : declaration.getFieldsList()) {
+            names.add(fieldName);
+        }
+        @NonNull String[] fieldNames = new @NonNull String[names.size()];
+        @NonNull FieldReader[] readers = new @NonNull FieldReader[names.size()];
+        for (int i = 0; i < fieldNames.length; i++) {
+            String fieldName = names.get(i);
+            IDeclaration field = declaration.getField(fieldName);
+            fieldNames[i] = fieldName;
+            readers[i] = field == null ? missingField(fieldName) : createReader(field);
+        }
+        return new StructDeclarationDecoder(fieldNames, readers);
+    }
+
+    /**
+     * Read the fields of a struct, the struct being already aligned
+     *
+     * @param definitionScope
+     *            the struct definition, scope of its fields
+     * @param input
+     *            the input, at the position of the first field
+     * @param fields
+     *            the array where to put the definitions of the fields
+     * @throws CTFException
+     *             if a field cannot be read
+     */
+    public void decode(IDefinitionScope definitionScope, BitBuffer input, Definition[] fields) throws CTFException {
+        final @NonNull FieldReader[] readers = fReaders;
+        final @NonNull String[] fieldNames = fFieldNames;
+        for (int i = 0; i < readers.length; i++) {
+            fields[i] = readers[i].read(definitionScope, fieldNames[i], input);
+        }
+    }
+
+    private static FieldReader missingField(String fieldName) {
+        return (scope, name, input) -> {
+            throw new CTFException("Missing declaration of field " + fieldName); //$NON-NLS-1$
+        };
+    }
+
+    private static FieldReader createReader(IDeclaration declaration) {
+        if (declaration instanceof IntegerDeclaration) {
+            IntegerDeclaration integer = (IntegerDeclaration) declaration;
+            if (isByteAligned(integer)) {
+                return (scope, name, input) -> new IntegerDefinition(integer, scope, name, readValue(integer, input));
+            }
+        } else if (declaration instanceof EnumDeclaration) {
+            EnumDeclaration enumDeclaration = (EnumDeclaration) declaration;
+            IntegerDeclaration integer = checkNotNull(enumDeclaration.getContainerType());
+            if (isByteAligned(integer)) {
+                return (scope, name, input) -> new EnumDefinition(enumDeclaration, scope, name,
+                        new IntegerDefinition(integer, scope, name, readValue(integer, input)));
+            }
+        }
+        return declaration::createDefinition;
+    }
+
+    /**
+     * Whether an integer is always byte aligned and its size is a primitive
+     * type, so that it is read by the byte-aligned fast path of
+     * {@link BitBuffer#get(int, boolean)}
+     */
+    private static boolean isByteAligned(IntegerDeclaration declaration) {
+        if (declaration.getAlignment() % BITS_PER_BYTE != 0) {
+            return false;
+        }
+        switch (declaration.getLength()) {
+        case Byte.SIZE:
+        case Short.SIZE:
+        case Integer.SIZE:
+        case Long.SIZE:
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    private static long readValue(IntegerDeclaration declaration, BitBuffer input) throws CTFException {
+        long mask = declaration.getAlignment() - 1;
+        input.position((input.position() + mask) & ~mask);
+        ByteOrder byteOrder = input.getByteOrder();
+        input.setByteOrder(declaration.getByteOrder());
+        long value = input.get(declaration.getLength(), declaration.isSigned());
+        input.setByteOrder(byteOrder);
+        return value;
+    }
+}
@@ -0,0 +1,190 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.ctf.core.event.types;
+
+import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNull;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.ctf.core.CTFException;
+import org.eclipse.tracecompass.ctf.core.event.io.BitBuffer;
+import org.eclipse.tracecompass.ctf.core.event.types.EnumDeclaration;
+import org.eclipse.tracecompass.ctf.core.event.types.FloatDeclaration;
+import org.eclipse.tracecompass.ctf.core.event.types.IDeclaration;
+import org.eclipse.tracecompass.ctf.core.event.types.IntegerDeclaration;
+import org.eclipse.tracecompass.ctf.core.event.types.StringDeclaration;
+import org.eclipse.tracecompass.ctf.core.event.types.StructDeclaration;
+
+/**
+ * Moves a {@link BitBuffer} over the data of a {@link StructDeclaration}
+ * without creating its definition, so that it can be decoded later, only if
+ * needed.
+ *
+ * The struct is reduced to a list of steps. Once aligned, a run of fixed-size
+ * fields whose alignments divide the alignment of the run always has the same
+ * size, so it is skipped at once. Strings are skipped by scanning for their
+ * null terminator. Structs with sequences or variants need to decode some of
+ * their fields to know their size and cannot be skipped.
+ */
+@NonNullByDefault
+public final class StructDeclarationSkipper {
+
+    /** Size of a step that is a null terminated string */
+    private static final long STRING = -1;
+
+    /** Maximum number of steps, before merging, of a struct to skip */
+    private static final int MAX_STEPS = 4096;
+
+    private static final int BITS_PER_BYTE = Byte.SIZE;
+    private static final int SIZE_64 = Long.SIZE;
+
+    private final long[] fAlignments;
+    private final long[] fSizes;
+
+    private StructDeclarationSkipper(long[] alignments, long[] sizes) {
+        fAlignments = alignments;
+        fSizes = sizes;
+    }
+
+    /**
+     * Create a skipper for a struct, if it can be skipped without decoding
+     * any of its fields
+     *
+     * @param declaration
+     *            the struct declaration
+     * @return the skipper, or null if the struct contains fields whose size
+     *         is only known by decoding them
+     */
+    public static @Nullable StructDeclarationSkipper create(StructDeclaration declaration) {
+        List<long[]> steps = new ArrayList<>();
+        if (!addSteps(declaration, steps)) {
+            return null;
+        }
+        /* Merge the runs of fixed-size steps */
+        List<long[]> merged = new ArrayList<>();
+        long[] run = null;
+        for (long[] step : steps) {
+            long alignment = step[0];
+            long size = step[1];
+            if (size != STRING && run != null && run[1] != STRING && run[0] % alignment == 0) {
+                run[1] = align(run[1], alignment) + size;
+            } else {
+                run = new long[] { alignment, size };
+                merged.add(run);
+            }
+        }
+        long[] alignments = new long[merged.size()];
+        long[] sizes = new long[merged.size()];
+        for (int i = 0; i < merged.size(); i++) {
+            alignments[i] = merged.get(i)[0];
+            sizes[i] = merged.get(i)[1];
+        }
+        return new StructDeclarationSkipper(alignments, sizes);
+    }
+
+    /**
+     * Add the steps to skip a declaration, in the order they are read.
+     *
+     * @return false if the declaration cannot be skipped
+     */
+    private static boolean addSteps(IDeclaration declaration, List<long[]> steps) {
+        long alignment = declaration.getAlignment();
+        if (alignment <= 0 || Long.bitCount(alignment) != 1 || steps.size() >= MAX_STEPS) {
+            return false;
+        }
+        if (declaration instanceof IntegerDeclaration) {
+            int length = ((IntegerDeclaration) declaration).getLength();
+            return length <= SIZE_64 && steps.add(new long[] { alignment, length });
+        }
+        if (declaration instanceof EnumDeclaration) {
+            return addSteps(checkNotNull(((EnumDeclaration) declaration).getContainerType()), steps);
+        }
+        if (declaration instanceof FloatDeclaration) {
+            /* Only 32 and 64 bit floats are read, see FloatDeclaration */
+            FloatDeclaration floatDeclaration = (FloatDeclaration) declaration;
+            int length = floatDeclaration.getExponent() + floatDeclaration.getMantissa();
+            return steps.add(new long[] { alignment, (length == Integer.SIZE || length == SIZE_64) ? length : 0 });
+        }
+        if (declaration instanceof StringDeclaration) {
+            return steps.add(new long[] { alignment, STRING });
+        }
+        if (declaration instanceof ArrayDeclaration) {
+            ArrayDeclaration arrayDeclaration = (ArrayDeclaration) declaration;
+            steps.add(new long[] { alignment, 0 });
+            if (arrayDeclaration.isAlignedBytes()) {
+                return steps.add(new long[] { alignment, (long) arrayDeclaration.getLength() * BITS_PER_BYTE });
+            }
+            IDeclaration elementType = checkNotNull(arrayDeclaration.getElementType());
+            for (int i = 0; i < arrayDeclaration.getLength(); i++) {
+                if (!addSteps(elementType, steps)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (declaration instanceof StructDeclaration) {
+            StructDeclaration structDeclaration = (StructDeclaration) declaration;
+            steps.add(new long[] { alignment, 0 });
+            for (String fieldName : structDeclaration.getFieldsList()) {
+                IDeclaration field = structDeclaration.getField(fieldName);
+                if (field == null || !addSteps(field, steps)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        /* Sequences and variants depend on the value of other fields */
+        return false;
+    }
+
+    /**
+     * Move the buffer after the struct data, as if its definition had been
+     * created
+     *
+     * @param input
+     *            the buffer, at the position of the struct
+     * @throws CTFException
+     *             if the struct goes beyond the end of the buffer
+     */
+    public void skip(BitBuffer input) throws CTFException {
+        ByteBuffer buffer = checkNotNull(input.getByteBuffer());
+        long position = input.position();
+        for (int i = 0; i < fSizes.length; i++) {
+            position = align(position, fAlignments[i]);
+            if (fSizes[i] == STRING) {
+                position = skipString(buffer, position);
+            } else {
+                position += fSizes[i];
+            }
+        }
+        input.position(position);
+    }
+
+    private static long skipString(ByteBuffer buffer, long position) throws CTFException {
+        int limit = buffer.limit();
+        for (long index = position / BITS_PER_BYTE; index < limit; index++) {
+            if (buffer.get((int) index) == 0) {
+                return (index + 1) * BITS_PER_BYTE;
+            }
+        }
+        throw new CTFException("Unterminated string at position " + position); //$NON-NLS-1$
+    }
+
+    private static long align(long position, long alignment) {
+        long mask = alignment - 1;
+        return (position + mask) & ~mask;
+    }
+}
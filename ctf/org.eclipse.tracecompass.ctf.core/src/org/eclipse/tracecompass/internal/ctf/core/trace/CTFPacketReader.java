@@ -79,6 +79,24 @@ public final class CTFPacketReader implements IPacketReader, IDefinitionScope {
 
     private long fPosition;
 
+    /**
+     * The event IDs to read, indexed by event ID, or null to read all the
+     * events
+     */
+    private boolean @Nullable [] fWantedEventIds;
+
+    /**
+     * Whether the header of the next event was already read, while skipping
+     * the unwanted events
+     */
+    private boolean fHasNextHeader;
+
+    private int fNextEventId;
+
+    private long fNextEventStart;
+
+    private @Nullable CTFException fSkipException;
+
     /**
      * Constructor
      *
@@ -118,14 +136,67 @@ public final class CTFPacketReader implements IPacketReader, IDefinitionScope {
         return (int) fPacketContext.getTargetId();
     }
 
+    /**
+     * Set the IDs of the events to read. The other events are skipped by only
+     * decoding their header, and the parts of the event that cannot be
+     * skipped without decoding them. The lost events are always read.
+     *
+     * @param wantedEventIds
+     *            the event IDs to read, indexed by event ID, the events with
+     *            IDs outside of the array being read, or null to read all the
+     *            events
+     */
+    public void setWantedEventIds(boolean @Nullable [] wantedEventIds) {
+        fWantedEventIds = wantedEventIds;
+    }
+
     @Override
     public boolean hasMoreEvents() {
-        return fHasLost || (fInput.position() < fPacketContext.getContentSizeBits());
+        if (fWantedEventIds != null && !fHasNextHeader && fSkipException == null) {
+            try {
+                skipUnwantedEvents();
+            } catch (CTFException e) {
+                /* Thrown by the next read */
+                fSkipException = e;
+            }
+        }
+        return fHasLost || fHasNextHeader || fSkipException != null || (fInput.position() < fPacketContext.getContentSizeBits());
+    }
+
+    /**
+     * Skip the events that are not wanted, up to the header of the next
+     * wanted event
+     */
+    private void skipUnwantedEvents() throws CTFException {
+        boolean[] wantedEventIds = fWantedEventIds;
+        while (wantedEventIds != null && fInput.position() < fPacketContext.getContentSizeBits()) {
+            final long posStart = fInput.position();
+            int eventID = readEventHeader(posStart);
+            if (eventID >= wantedEventIds.length || wantedEventIds[eventID]) {
+                fHasNextHeader = true;
+                fNextEventId = eventID;
+                fNextEventStart = posStart;
+                return;
+            }
+            EventDeclaration declaration = getDeclaration(eventID);
+            fLastTimestamp = declaration.skipDefinition(fStreamContext, fEventHeader, fInput, fLastTimestamp);
+            if (posStart == fInput.position()) {
+                throw new CTFIOException("Empty event not allowed, event: " + declaration.getName()); //$NON-NLS-1$
+            }
+        }
     }
 
     @Override
     public EventDefinition readNextEvent() throws CTFException {
-        int eventID = (int) IEventDeclaration.UNSET_EVENT_ID;
+        CTFException skipException = fSkipException;
+        if (skipException != null) {
+            fSkipException = null;
+            throw skipException;
+        }
+        if (fHasNextHeader) {
+            fHasNextHeader = false;
+            return readEvent(fNextEventId, fNextEventStart);
+        }
         final long posStart = fInput.position();
         /*
          * Return the Lost Event after all other events in this packet. We need to check
@@ -135,7 +206,16 @@ public final class CTFPacketReader implements IPacketReader, IDefinitionScope {
             fHasLost = false;
             return createLostEvent(fPacketContext);
         }
+        return readEvent(readEventHeader(posStart), posStart);
+    }
 
+    /**
+     * Read the header of an event
+     *
+     * @return the ID of the event
+     */
+    private int readEventHeader(long posStart) throws CTFException {
+        int eventID = (int) IEventDeclaration.UNSET_EVENT_ID;
         fEventHeader = null;
         /* Read the stream event header. */
         final IDeclaration streamEventHeaderDecl = fStreamEventHeaderDecl;
@@ -183,12 +263,23 @@ public final class CTFPacketReader implements IPacketReader, IDefinitionScope {
         if (eventID < 0 || eventID >= fDeclarations.size()) {
             throw new CTFIOException("Invalid event id : " + eventID + " File position : " + posStart / 8 + '/' + fPacketContext.getContentSizeBits() / 8); //$NON-NLS-1$ //$NON-NLS-2$
         }
+        return eventID;
+    }
+
+    private EventDeclaration getDeclaration(int eventID) throws CTFIOException {
         /* Get the right event definition using the event id. */
         IEventDeclaration eventDeclaration = fDeclarations.get(eventID);
         if (!(eventDeclaration instanceof EventDeclaration)) {
             throw new CTFIOException("Invalid event id : " + eventID); //$NON-NLS-1$
         }
-        EventDeclaration declaration = (EventDeclaration) eventDeclaration;
+        return (EventDeclaration) eventDeclaration;
+    }
+
+    /**
+     * Read an event whose header was read
+     */
+    private EventDefinition readEvent(int eventID, long posStart) throws CTFException {
+        EventDeclaration declaration = getDeclaration(eventID);
         EventDefinition eventDef = declaration.createDefinition(fStreamContext, fPacketContext, fTracePacketHeader, fEventHeader, fInput, fLastTimestamp);
         fLastTimestamp = eventDef.getTimestamp();
         /*
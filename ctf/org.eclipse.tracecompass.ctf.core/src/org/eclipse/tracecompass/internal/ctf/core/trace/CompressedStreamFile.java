@@ -0,0 +1,458 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.ctf.core.trace;
+
+import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNull;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * A stream file compressed with gzip, read without being decompressed to the
+ * disk.
+ *
+ * The file must be made of several gzip members, each member being
+ * decompressed on its own when a part of it is read. The members should
+ * contain whole packets, so that a packet is decompressed at once, but reads
+ * spanning several members are supported. A file written by bgzip, whose
+ * members give their compressed size in the "BC" extra field, is indexed by
+ * reading the member headers only, the other files are decompressed once to
+ * find the member boundaries. A file made of one gzip member can be read, but
+ * it is decompressed at once.
+ *
+ * The decompressed members most recently read are kept, so that the readers
+ * of a stream file share them.
+ */
+@NonNullByDefault
+public final class CompressedStreamFile {
+
+    private static final int GZIP_MAGIC = 0x8b1f;
+    private static final int GZIP_HEADER_SIZE = 10;
+    private static final int GZIP_TRAILER_SIZE = 8;
+    private static final int DEFLATE = 8;
+
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+
+    private static final int SCAN_CHUNK_SIZE = 64 * 1024;
+    private static final int MAX_CACHED_MEMBERS = 16;
+
+    /** Inflaters are native resources, keep the ones that are released */
+    private static final Deque<@Nullable Inflater> INFLATERS = new ArrayDeque<>();
+    private static final int MAX_INFLATERS = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * The index of the gzip members of the file. The members that are not
+     * empty are indexed.
+     */
+    private static final class Index {
+        /** The offsets of the compressed data of the members */
+        private final long[] fDataOffsets;
+        /** The sizes of the compressed data of the members */
+        private final int[] fDataSizes;
+        /** The offsets of the members in the decompressed stream */
+        private final long[] fOffsets;
+        /** The decompressed sizes of the members */
+        private final int[] fSizes;
+        /** The decompressed size of the stream */
+        private final long fSize;
+        /** The end of the last member indexed, including the empty ones */
+        private final long fEnd;
+
+        public Index(long[] dataOffsets, int[] dataSizes, long[] offsets, int[] sizes, long size, long end) {
+            fDataOffsets = dataOffsets;
+            fDataSizes = dataSizes;
+            fOffsets = offsets;
+            fSizes = sizes;
+            fSize = size;
+            fEnd = end;
+        }
+    }
+
+    private static final Index EMPTY_INDEX = new Index(new long[0], new int[0], new long[0], new int[0], 0, 0);
+
+    private final File fFile;
+
+    /** The index, replaced when members are appended to the file */
+    private volatile Index fIndex = EMPTY_INDEX;
+
+    /** The decompressed members most recently used, by index */
+    private final Map<Integer, @Nullable ByteBuffer> fCache = new LinkedHashMap<>(MAX_CACHED_MEMBERS, 0.75f, true);
+
+    private CompressedStreamFile(File file) {
+        fFile = file;
+    }
+
+    /**
+     * Open a stream file if it is compressed
+     *
+     * @param file
+     *            the stream file
+     * @return the compressed stream file, or null if the file is not
+     *         compressed
+     * @throws IOException
+     *             if the file cannot be read
+     */
+    public static @Nullable CompressedStreamFile open(File file) throws IOException {
+        try (FileChannel fc = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            return isCompressed(fc) ? new CompressedStreamFile(file) : null;
+        }
+    }
+
+    /**
+     * Get whether a stream file is compressed with gzip
+     *
+     * @param fc
+     *            the channel of the stream file
+     * @return true if the file starts with the gzip magic number
+     * @throws IOException
+     *             if the file cannot be read
+     */
+    public static boolean isCompressed(FileChannel fc) throws IOException {
+        ByteBuffer magic = ByteBuffer.allocate(Short.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        while (magic.hasRemaining()) {
+            if (fc.read(magic, magic.position()) < 0) {
+                return false;
+            }
+        }
+        return (magic.getShort(0) & 0xffff) == GZIP_MAGIC;
+    }
+
+    /**
+     * Get the compressed file
+     *
+     * @return the file
+     */
+    public File getFile() {
+        return fFile;
+    }
+
+    /**
+     * Get the size of the decompressed stream
+     *
+     * @param fc
+     *            the channel of the compressed file
+     * @return the decompressed size, in bytes
+     * @throws IOException
+     *             if the file cannot be read or is not a valid gzip file
+     */
+    public long size(FileChannel fc) throws IOException {
+        return index(fc).fSize;
+    }
+
+    /**
+     * Read a part of the decompressed stream
+     *
+     * @param fc
+     *            the channel of the compressed file
+     * @param position
+     *            the position in the decompressed stream, in bytes
+     * @param size
+     *            the number of bytes to read
+     * @return a read-only buffer of the decompressed bytes, positioned at 0
+     * @throws IOException
+     *             if the file cannot be read or is not a valid gzip file
+     */
+    public ByteBuffer read(FileChannel fc, long position, long size) throws IOException {
+        Index index = fIndex;
+        if (index == EMPTY_INDEX || position + size > index.fSize) {
+            /* A live trace file may have grown */
+            index = index(fc);
+        }
+        long[] offsets = index.fOffsets;
+        int[] sizes = index.fSizes;
+        if (position < 0 || size < 0 || size > Integer.MAX_VALUE || position + size > index.fSize) {
+            throw new EOFException("Cannot read " + size + " bytes at " + position + " of " + fFile); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        }
+        if (size == 0) {
+            return checkNotNull(ByteBuffer.allocate(0).asReadOnlyBuffer());
+        }
+        int member = findMember(offsets, position);
+        int start = (int) (position - offsets[member]);
+        if (start + size <= sizes[member]) {
+            /* The usual case, the packet is in one member */
+            ByteBuffer buffer = getMember(fc, index, member).duplicate();
+            buffer.position(start);
+            buffer.limit((int) (start + size));
+            return checkNotNull(buffer.slice());
+        }
+        byte[] bytes = new byte[(int) size];
+        int done = 0;
+        while (done < size) {
+            ByteBuffer buffer = getMember(fc, index, member).duplicate();
+            buffer.position(start);
+            int length = (int) Math.min(buffer.remaining(), size - done);
+            buffer.get(bytes, done, length);
+            done += length;
+            member++;
+            start = 0;
+        }
+        return checkNotNull(ByteBuffer.wrap(bytes).asReadOnlyBuffer());
+    }
+
+    private static int findMember(long[] offsets, long position) {
+        int index = Arrays.binarySearch(offsets, position);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    private ByteBuffer getMember(FileChannel fc, Index index, int member) throws IOException {
+        synchronized (fCache) {
+            ByteBuffer buffer = fCache.get(member);
+            if (buffer != null) {
+                return buffer;
+            }
+        }
+        long[] dataOffsets = index.fDataOffsets;
+        int[] dataSizes = index.fDataSizes;
+        int[] sizes = index.fSizes;
+        /* Decompressed outside of the lock, so that members are decompressed in parallel */
+        ByteBuffer compressed = ByteBuffer.allocate(dataSizes[member]);
+        readFully(fc, compressed, dataOffsets[member]);
+        byte[] decompressed = new byte[sizes[member]];
+        Inflater inflater = takeInflater();
+        try {
+            inflater.setInput(compressed.array());
+            int done = 0;
+            while (done < decompressed.length) {
+                int length = inflater.inflate(decompressed, done, decompressed.length - done);
+                if (length == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Truncated gzip member at " + dataOffsets[member] + " of " + fFile); //$NON-NLS-1$ //$NON-NLS-2$
+                }
+                done += length;
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Invalid gzip member at " + dataOffsets[member] + " of " + fFile, e); //$NON-NLS-1$ //$NON-NLS-2$
+        } finally {
+            releaseInflater(inflater);
+        }
+        ByteBuffer buffer = checkNotNull(ByteBuffer.wrap(decompressed).asReadOnlyBuffer());
+        synchronized (fCache) {
+            fCache.put(member, buffer);
+            if (fCache.size() > MAX_CACHED_MEMBERS) {
+                fCache.remove(fCache.keySet().iterator().next());
+            }
+        }
+        return buffer;
+    }
+
+    /**
+     * Index the gzip members of the file. A live trace file can grow, so the
+     * members appended since the last call are indexed.
+     */
+    private synchronized Index index(FileChannel fc) throws IOException {
+        Index index = fIndex;
+        long fileSize = fc.size();
+        long position = index.fEnd;
+        if (index != EMPTY_INDEX && position + GZIP_HEADER_SIZE + GZIP_TRAILER_SIZE > fileSize) {
+            return index;
+        }
+        int count = index.fOffsets.length;
+        long[] dataOffsets = Arrays.copyOf(index.fDataOffsets, Math.max(16, count * 2));
+        int[] dataSizes = Arrays.copyOf(index.fDataSizes, dataOffsets.length);
+        long[] offsets = Arrays.copyOf(index.fOffsets, dataOffsets.length);
+        int[] sizes = Arrays.copyOf(index.fSizes, dataOffsets.length);
+        long size = index.fSize;
+        while (position + GZIP_HEADER_SIZE + GZIP_TRAILER_SIZE <= fileSize) {
+            long[] member = readMember(fc, position, fileSize);
+            long dataOffset = member[0];
+            long dataSize = member[1];
+            long decompressedSize = member[2];
+            position = dataOffset + dataSize + GZIP_TRAILER_SIZE;
+            if (decompressedSize == 0) {
+                /* The empty end-of-file member of bgzip */
+                continue;
+            }
+            if (count == offsets.length) {
+                int capacity = count * 2;
+                dataOffsets = Arrays.copyOf(dataOffsets, capacity);
+                dataSizes = Arrays.copyOf(dataSizes, capacity);
+                offsets = Arrays.copyOf(offsets, capacity);
+                sizes = Arrays.copyOf(sizes, capacity);
+            }
+            dataOffsets[count] = dataOffset;
+            dataSizes[count] = (int) dataSize;
+            offsets[count] = size;
+            sizes[count] = (int) decompressedSize;
+            size += decompressedSize;
+            count++;
+        }
+        index = new Index(Arrays.copyOf(dataOffsets, count), Arrays.copyOf(dataSizes, count),
+                Arrays.copyOf(offsets, count), Arrays.copyOf(sizes, count), size, position);
+        fIndex = index;
+        return index;
+    }
+
+    /**
+     * Read the header of a gzip member
+     *
+     * @return the offset and size of the compressed data, and the size of the
+     *         decompressed data
+     */
+    private long[] readMember(FileChannel fc, long position, long fileSize) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(GZIP_HEADER_SIZE);
+        header.order(ByteOrder.LITTLE_ENDIAN);
+        readFully(fc, header, position);
+        if ((header.getShort(0) & 0xffff) != GZIP_MAGIC || header.get(2) != DEFLATE) {
+            throw new IOException("Invalid gzip member at " + position + " of " + fFile); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        int flags = header.get(3);
+        long dataOffset = position + GZIP_HEADER_SIZE;
+        long blockSize = -1;
+        if ((flags & FEXTRA) != 0) {
+            ByteBuffer extraLength = ByteBuffer.allocate(Short.BYTES);
+            extraLength.order(ByteOrder.LITTLE_ENDIAN);
+            readFully(fc, extraLength, dataOffset);
+            int length = extraLength.getShort(0) & 0xffff;
+            ByteBuffer extra = ByteBuffer.allocate(length);
+            extra.order(ByteOrder.LITTLE_ENDIAN);
+            readFully(fc, extra, dataOffset + Short.BYTES);
+            blockSize = getBlockSize(extra);
+            dataOffset += Short.BYTES + length;
+        }
+        if ((flags & FNAME) != 0) {
+            dataOffset = skipString(fc, dataOffset);
+        }
+        if ((flags & FCOMMENT) != 0) {
+            dataOffset = skipString(fc, dataOffset);
+        }
+        if ((flags & FHCRC) != 0) {
+            dataOffset += Short.BYTES;
+        }
+        long dataSize;
+        long decompressedSize;
+        if (blockSize >= 0) {
+            dataSize = position + blockSize + 1 - GZIP_TRAILER_SIZE - dataOffset;
+            ByteBuffer trailer = ByteBuffer.allocate(Integer.BYTES);
+            trailer.order(ByteOrder.LITTLE_ENDIAN);
+            readFully(fc, trailer, dataOffset + dataSize + Integer.BYTES);
+            decompressedSize = trailer.getInt(0) & 0xffffffffL;
+        } else {
+            long[] scanned = scanMember(fc, dataOffset);
+            dataSize = scanned[0];
+            decompressedSize = scanned[1];
+        }
+        if (dataSize < 0 || dataSize > Integer.MAX_VALUE || decompressedSize > Integer.MAX_VALUE || dataOffset + dataSize + GZIP_TRAILER_SIZE > fileSize) {
+            throw new IOException("Invalid gzip member at " + position + " of " + fFile); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        return new long[] { dataOffset, dataSize, decompressedSize };
+    }
+
+    /**
+     * Get the size of a bgzip block, minus one, from the extra field of its
+     * header
+     */
+    private static long getBlockSize(ByteBuffer extra) {
+        int position = 0;
+        while (position + 4 <= extra.limit()) {
+            int length = extra.getShort(position + 2) & 0xffff;
+            if (extra.get(position) == 'B' && extra.get(position + 1) == 'C' && length == Short.BYTES) {
+                return extra.getShort(position + 4) & 0xffff;
+            }
+            position += 4 + length;
+        }
+        return -1;
+    }
+
+    private static long skipString(FileChannel fc, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(1);
+        long current = position;
+        do {
+            buffer.clear();
+            readFully(fc, buffer, current);
+            current++;
+        } while (buffer.get(0) != 0);
+        return current;
+    }
+
+    /**
+     * Decompress a member to find its end
+     *
+     * @return the size of the compressed and of the decompressed data
+     */
+    private long[] scanMember(FileChannel fc, long dataOffset) throws IOException {
+        Inflater inflater = takeInflater();
+        try {
+            ByteBuffer input = ByteBuffer.allocate(SCAN_CHUNK_SIZE);
+            byte[] output = new byte[SCAN_CHUNK_SIZE];
+            long read = 0;
+            long decompressed = 0;
+            while (!inflater.finished()) {
+                if (inflater.needsInput()) {
+                    input.clear();
+                    int length = fc.read(input, dataOffset + read);
+                    if (length <= 0) {
+                        throw new EOFException("Truncated gzip member at " + dataOffset + " of " + fFile); //$NON-NLS-1$ //$NON-NLS-2$
+                    }
+                    inflater.setInput(input.array(), 0, length);
+                    read += length;
+                }
+                decompressed += inflater.inflate(output);
+                if (inflater.needsDictionary()) {
+                    throw new IOException("Invalid gzip member at " + dataOffset + " of " + fFile); //$NON-NLS-1$ //$NON-NLS-2$
+                }
+            }
+            return new long[] { read - inflater.getRemaining(), decompressed };
+        } catch (DataFormatException e) {
+            throw new IOException("Invalid gzip member at " + dataOffset + " of " + fFile, e); //$NON-NLS-1$ //$NON-NLS-2$
+        } finally {
+            releaseInflater(inflater);
+        }
+    }
+
+    private static void readFully(FileChannel fc, ByteBuffer buffer, long position) throws IOException {
+        long start = position - buffer.position();
+        while (buffer.hasRemaining()) {
+            if (fc.read(buffer, start + buffer.position()) < 0) {
+                throw new EOFException("Unexpected end of file at " + (start + buffer.position())); //$NON-NLS-1$
+            }
+        }
+    }
+
+    private static Inflater takeInflater() {
+        synchronized (INFLATERS) {
+            Inflater inflater = INFLATERS.poll();
+            if (inflater != null) {
+                return inflater;
+            }
+        }
+        /* The gzip header and trailer are parsed here */
+        return new Inflater(true);
+    }
+
+    private static void releaseInflater(Inflater inflater) {
+        inflater.reset();
+        synchronized (INFLATERS) {
+            if (INFLATERS.size() < MAX_INFLATERS) {
+                INFLATERS.push(inflater);
+                return;
+            }
+        }
+        inflater.end();
+    }
+}
@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.ctf.core.trace;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.ctf.core.CTFException;
+import org.eclipse.tracecompass.ctf.core.event.IEventDefinition;
+import org.eclipse.tracecompass.ctf.core.event.types.ICompositeDefinition;
+import org.eclipse.tracecompass.ctf.core.trace.CTFIOException;
+import org.eclipse.tracecompass.ctf.core.trace.ICTFPacketDescriptor;
+import org.eclipse.tracecompass.ctf.core.trace.IPacketReader;
+
+/**
+ * Packet reader returning the events of a packet that was already decoded.
+ * If the decoding of the packet failed, the events read before the failure
+ * are returned, then the error is thrown, like the packet reader that decoded
+ * them would do.
+ */
+@NonNullByDefault
+public final class DecodedPacketReader implements IPacketReader {
+
+    private final ICTFPacketDescriptor fPacket;
+    private final int fCpu;
+    private final IEventDefinition[] fEvents;
+    private final int fSize;
+    private @Nullable CTFException fError;
+    private int fIndex = 0;
+    private @Nullable ICompositeDefinition fEventHeader = null;
+
+    /**
+     * Constructor
+     *
+     * @param packet
+     *            the decoded packet
+     * @param cpu
+     *            the CPU of the packet
+     * @param events
+     *            the events of the packet, in order, the array may be larger
+     *            than the number of events
+     * @param size
+     *            the number of events
+     * @param error
+     *            the error that stopped the decoding, or null if the whole
+     *            packet was decoded
+     */
+    public DecodedPacketReader(ICTFPacketDescriptor packet, int cpu, IEventDefinition[] events, int size, @Nullable CTFException error) {
+        fPacket = packet;
+        fCpu = cpu;
+        fEvents = events;
+        fSize = size;
+        fError = error;
+    }
+
+    @Override
+    public int getCPU() {
+        return fCpu;
+    }
+
+    @Override
+    public boolean hasMoreEvents() {
+        return fIndex < fSize || fError != null;
+    }
+
+    @Override
+    public IEventDefinition readNextEvent() throws CTFException {
+        if (fIndex >= fSize) {
+            CTFException error = fError;
+            if (error != null) {
+                fError = null;
+                throw error;
+            }
+            throw new CTFIOException("No more events in packet at offset " + fPacket.getOffsetBytes()); //$NON-NLS-1$
+        }
+        IEventDefinition event = fEvents[fIndex];
+        fIndex++;
+        fEventHeader = event.getEventHeader();
+        return event;
+    }
+
+    @Override
+    public ICTFPacketDescriptor getCurrentPacket() {
+        return fPacket;
+    }
+
+    @Override
+    public @Nullable ICompositeDefinition getCurrentPacketEventHeader() {
+        return fEventHeader;
+    }
+}
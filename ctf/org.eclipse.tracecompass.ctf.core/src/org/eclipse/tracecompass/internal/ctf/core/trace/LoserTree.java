@@ -0,0 +1,307 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.ctf.core.trace;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Tournament tree of losers to merge sorted sources, like the stream input
+ * readers of a trace, by their current key, an unsigned long like a
+ * timestamp.
+ *
+ * Each inner node keeps the loser of the match played there, and the root
+ * keeps the overall winner, the source with the smallest key. The best of the
+ * sources that the winner beat on its path, its challenger, is also kept.
+ *
+ * When the key of the winner changes, it is first compared to its challenger.
+ * If the winner still has the smallest key, nothing is replayed, that is a
+ * single comparison, which is the common case of a source holding a run of
+ * consecutive elements. Otherwise, the matches on the path of the old winner
+ * are replayed, one comparison per level, then the path of the new winner is
+ * walked to find its challenger, another comparison per level. The
+ * comparisons are of primitive keys, unlike the comparators of a priority
+ * queue.
+ *
+ * Equal keys are ordered by the given comparator, then by the order in which
+ * the sources were added, so the merge is deterministic.
+ *
+ * The sources are added and removed in slots. Adding sources marks the tree
+ * to be rebuilt, in linear time, the next time it is used. This class is not
+ * thread safe.
+ *
+ * @param <T>
+ *            the type of the sources
+ */
+@NonNullByDefault
+public final class LoserTree<T> {
+
+    private static final int MIN_CAPACITY = 2;
+
+    private final ToLongFunction<T> fKeyFunction;
+    private final Comparator<T> fTieBreaker;
+
+    /** The sources, null for empty slots */
+    private @Nullable T[] fSources;
+    /** The current key of the source of each slot */
+    private long[] fKeys;
+    /** The order in which the source of each slot was added */
+    private long[] fOrder;
+    /** The loser of each inner node, fTree[0] is the winner */
+    private int[] fTree;
+    /** The best source that the winner beat on its path, -1 if none */
+    private int fChallenger = -1;
+    private long fNextOrder = 0;
+    private int fSize = 0;
+    private boolean fDirty = false;
+
+    /**
+     * Constructor
+     *
+     * @param keyFunction
+     *            the function returning the current key of a source, compared
+     *            as an unsigned long
+     * @param tieBreaker
+     *            the comparator of the sources with the same key
+     */
+    public LoserTree(ToLongFunction<T> keyFunction, Comparator<T> tieBreaker) {
+        fKeyFunction = keyFunction;
+        fTieBreaker = tieBreaker;
+        @SuppressWarnings("unchecked")
+        @Nullable T[] sources = (@Nullable T[]) new Object[MIN_CAPACITY];
+        fSources = sources;
+        fKeys = new long[MIN_CAPACITY];
+        fOrder = new long[MIN_CAPACITY];
+        fTree = new int[MIN_CAPACITY];
+    }
+
+    /**
+     * Add a source
+     *
+     * @param source
+     *            the source, which must have a current key
+     */
+    public void add(T source) {
+        int capacity = fSources.length;
+        if (fSize == capacity) {
+            fSources = Arrays.copyOf(fSources, capacity * 2);
+            fKeys = Arrays.copyOf(fKeys, capacity * 2);
+            fOrder = Arrays.copyOf(fOrder, capacity * 2);
+            fTree = new int[capacity * 2];
+        }
+        int slot = 0;
+        while (fSources[slot] != null) {
+            slot++;
+        }
+        fSources[slot] = source;
+        fKeys[slot] = fKeyFunction.applyAsLong(source);
+        fOrder[slot] = fNextOrder++;
+        fSize++;
+        fDirty = true;
+    }
+
+    /**
+     * Get the source with the smallest key
+     *
+     * @return the source, or null if there are no sources
+     */
+    public @Nullable T peek() {
+        if (fSize == 0) {
+            return null;
+        }
+        if (fDirty) {
+            build();
+        }
+        return fSources[fTree[0]];
+    }
+
+    /**
+     * Update the position of the source with the smallest key, after its key
+     * changed. Keys can only increase.
+     */
+    public void updateTop() {
+        if (fSize == 0) {
+            return;
+        }
+        if (fDirty) {
+            build();
+        }
+        int winner = fTree[0];
+        @Nullable T source = fSources[winner];
+        if (source == null) {
+            return;
+        }
+        fKeys[winner] = fKeyFunction.applyAsLong(source);
+        /* Fast path, the winner still beats all the sources it played */
+        if (fChallenger < 0 || less(winner, fChallenger)) {
+            return;
+        }
+        replay(winner);
+    }
+
+    /**
+     * Remove the source with the smallest key
+     *
+     * @return the removed source, or null if there are no sources
+     */
+    public @Nullable T removeTop() {
+        @Nullable T top = peek();
+        if (top == null) {
+            return null;
+        }
+        int winner = fTree[0];
+        fSources[winner] = null;
+        fSize--;
+        if (fSize > 0) {
+            replay(winner);
+        }
+        return top;
+    }
+
+    /**
+     * Remove all the sources
+     */
+    public void clear() {
+        Arrays.fill(fSources, null);
+        fSize = 0;
+        fNextOrder = 0;
+        fChallenger = -1;
+        fDirty = false;
+    }
+
+    /**
+     * Get whether there are no sources
+     *
+     * @return true if there are no sources
+     */
+    public boolean isEmpty() {
+        return fSize == 0;
+    }
+
+    /**
+     * Get the number of sources
+     *
+     * @return the number of sources
+     */
+    public int size() {
+        return fSize;
+    }
+
+    /**
+     * Get the sources, in the order they were added
+     *
+     * @return a new list of the sources
+     */
+    public List<T> getSources() {
+        List<T> sources = new ArrayList<>(fSize);
+        Integer[] slots = new Integer[fSources.length];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = i;
+        }
+        Arrays.sort(slots, Comparator.comparingLong(slot -> fOrder[slot]));
+        for (int slot : slots) {
+            @Nullable T source = fSources[slot];
+            if (source != null) {
+                sources.add(source);
+            }
+        }
+        return sources;
+    }
+
+    /**
+     * Compare the sources of two slots, empty slots being greater than all
+     * the sources
+     */
+    private boolean less(int a, int b) {
+        @Nullable T sourceA = fSources[a];
+        @Nullable T sourceB = fSources[b];
+        if (sourceB == null) {
+            return sourceA != null || a < b;
+        }
+        if (sourceA == null) {
+            return false;
+        }
+        int comparison = Long.compareUnsigned(fKeys[a], fKeys[b]);
+        if (comparison == 0) {
+            comparison = fTieBreaker.compare(sourceA, sourceB);
+        }
+        if (comparison == 0) {
+            comparison = Long.compare(fOrder[a], fOrder[b]);
+        }
+        return comparison < 0;
+    }
+
+    /**
+     * Play all the matches, the leaves being the slots
+     */
+    private void build() {
+        int capacity = fSources.length;
+        int[] winners = new int[2 * capacity];
+        for (int i = 0; i < capacity; i++) {
+            winners[capacity + i] = i;
+        }
+        for (int node = capacity - 1; node > 0; node--) {
+            int left = winners[2 * node];
+            int right = winners[2 * node + 1];
+            if (less(left, right)) {
+                winners[node] = left;
+                fTree[node] = right;
+            } else {
+                winners[node] = right;
+                fTree[node] = left;
+            }
+        }
+        fTree[0] = winners[1];
+        fDirty = false;
+        updateChallenger();
+    }
+
+    /**
+     * Replay the matches on the path of a slot whose source was the winner,
+     * then find the challenger of the new winner on its own path
+     */
+    private void replay(int slot) {
+        int capacity = fSources.length;
+        int winner = slot;
+        for (int node = (slot + capacity) >>> 1; node > 0; node >>>= 1) {
+            int loser = fTree[node];
+            if (less(loser, winner)) {
+                fTree[node] = winner;
+                winner = loser;
+            }
+        }
+        fTree[0] = winner;
+        updateChallenger();
+    }
+
+    /**
+     * Find the best source that the winner beat, one comparison per level of
+     * its path
+     */
+    private void updateChallenger() {
+        int capacity = fSources.length;
+        int challenger = -1;
+        for (int node = (fTree[0] + capacity) >>> 1; node > 0; node >>>= 1) {
+            int loser = fTree[node];
+            if (fSources[loser] != null && (challenger < 0 || less(loser, challenger))) {
+                challenger = loser;
+            }
+        }
+        fChallenger = challenger;
+    }
+}
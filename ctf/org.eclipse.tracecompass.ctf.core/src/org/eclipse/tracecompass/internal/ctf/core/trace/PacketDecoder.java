@@ -0,0 +1,214 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.ctf.core.trace;
+
+import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNull;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.ctf.core.CTFException;
+import org.eclipse.tracecompass.ctf.core.event.IEventDefinition;
+import org.eclipse.tracecompass.ctf.core.trace.ICTFPacketDescriptor;
+import org.eclipse.tracecompass.ctf.core.trace.IPacketReader;
+
+/**
+ * Decoding ahead of the packets of a stream file. The packets that will be
+ * read next are decoded into batches of events by background threads, so
+ * that the packets of a single stream, and therefore of a single trace, are
+ * decoded on many cores while the events are merged in order by the trace
+ * reader.
+ *
+ * The decoder is used by one stream input reader, which gives it the packets
+ * following its current one and takes the decoded packets it reads. A packet
+ * whose decoding has not started yet is not waited for, the reader decodes
+ * its events itself as they are read. A packet being decoded is waited for.
+ */
+@NonNullByDefault
+public final class PacketDecoder implements AutoCloseable {
+
+    private static final int INITIAL_BATCH_SIZE = 1024;
+
+    private static final ExecutorService EXECUTOR = checkNotNull(Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(), runnable -> {
+                Thread thread = new Thread(runnable, "CTF Packet Decoder"); //$NON-NLS-1$
+                thread.setDaemon(true);
+                return thread;
+            }));
+
+    /**
+     * Factory of the packet readers decoding the packets. It is called by the
+     * decoding threads, so it must not use the state of the stream input
+     * reader.
+     */
+    @FunctionalInterface
+    public interface PacketReaderFactory {
+        /**
+         * Create a packet reader at the start of a packet
+         *
+         * @param packet
+         *            the packet to read
+         * @return the packet reader
+         * @throws CTFException
+         *             if the packet cannot be read
+         */
+        IPacketReader create(ICTFPacketDescriptor packet) throws CTFException;
+    }
+
+    /**
+     * The decoding of a packet, started either by a decoding thread or by
+     * the reader taking it
+     */
+    private static final class DecodeTask implements Runnable {
+
+        private final ICTFPacketDescriptor fPacket;
+        private final PacketReaderFactory fFactory;
+        private final AtomicBoolean fStarted = new AtomicBoolean();
+        private final CompletableFuture<DecodedPacketReader> fResult = new CompletableFuture<>();
+        private volatile boolean fCancelled = false;
+
+        public DecodeTask(ICTFPacketDescriptor packet, PacketReaderFactory factory) {
+            fPacket = packet;
+            fFactory = factory;
+        }
+
+        /**
+         * Prevent the task from starting
+         *
+         * @return true if the task was not started yet
+         */
+        public boolean preventStart() {
+            return fStarted.compareAndSet(false, true);
+        }
+
+        public void cancel() {
+            fCancelled = true;
+            preventStart();
+        }
+
+        @Override
+        public void run() {
+            if (!fStarted.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                IPacketReader reader = fFactory.create(fPacket);
+                IEventDefinition[] events = new IEventDefinition[INITIAL_BATCH_SIZE];
+                int size = 0;
+                CTFException error = null;
+                while (!fCancelled && reader.hasMoreEvents()) {
+                    try {
+                        IEventDefinition event = reader.readNextEvent();
+                        if (size == events.length) {
+                            events = Arrays.copyOf(events, size * 2);
+                        }
+                        events[size++] = event;
+                    } catch (CTFException e) {
+                        error = e;
+                        break;
+                    }
+                }
+                fResult.complete(new DecodedPacketReader(fPacket, reader.getCPU(), events, size, error));
+            } catch (CTFException | RuntimeException e) {
+                fResult.completeExceptionally(e);
+            }
+        }
+    }
+
+    /** The packets being decoded, by offset in bits */
+    private final Map<Long, @Nullable DecodeTask> fPending = new LinkedHashMap<>();
+
+    /**
+     * Set the packets to decode ahead. The packets already being decoded are
+     * kept, the ones that are not in the given packets anymore, after a seek
+     * for example, are dropped.
+     *
+     * @param packets
+     *            the packets that will be read next, in order
+     * @param factory
+     *            the factory of the packet readers decoding the packets
+     */
+    public void decode(Collection<ICTFPacketDescriptor> packets, PacketReaderFactory factory) {
+        Set<Long> offsets = new HashSet<>();
+        for (ICTFPacketDescriptor packet : packets) {
+            offsets.add(packet.getOffsetBits());
+        }
+        fPending.values().removeIf(task -> {
+            if (task == null) {
+                return true;
+            }
+            if (offsets.contains(task.fPacket.getOffsetBits())) {
+                return false;
+            }
+            task.cancel();
+            return true;
+        });
+        for (ICTFPacketDescriptor packet : packets) {
+            long offsetBits = packet.getOffsetBits();
+            if (!fPending.containsKey(offsetBits)) {
+                DecodeTask task = new DecodeTask(packet, factory);
+                fPending.put(offsetBits, task);
+                EXECUTOR.execute(task);
+            }
+        }
+    }
+
+    /**
+     * Take the decoded events of a packet. This waits for the packet if it is
+     * being decoded.
+     *
+     * @param packet
+     *            the packet to read
+     * @return the reader of the decoded events, or null if the decoding of
+     *         the packet was not started or failed
+     */
+    public @Nullable IPacketReader take(ICTFPacketDescriptor packet) {
+        DecodeTask task = fPending.remove(packet.getOffsetBits());
+        if (task == null || task.preventStart()) {
+            return null;
+        }
+        try {
+            return task.fResult.join();
+        } catch (CompletionException e) {
+            /* The reader will read the packet itself and report the error */
+            return null;
+        }
+    }
+
+    /**
+     * Drop the packets being decoded, the decoder can still be used
+     */
+    public void clear() {
+        for (DecodeTask task : fPending.values()) {
+            if (task != null) {
+                task.cancel();
+            }
+        }
+        fPending.clear();
+    }
+
+    @Override
+    public void close() {
+        clear();
+    }
+}
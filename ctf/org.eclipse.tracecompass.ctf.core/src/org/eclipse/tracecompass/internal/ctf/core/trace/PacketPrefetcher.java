@@ -0,0 +1,200 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.ctf.core.trace;
+
+import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.ctf.core.CTFException;
+import org.eclipse.tracecompass.ctf.core.trace.ICTFPacketDescriptor;
+import org.eclipse.tracecompass.internal.ctf.core.SafeMappedByteBuffer;
+
+/**
+ * Read-ahead of the packets of a stream file. The packets that will be read
+ * next are mapped, and their pages loaded in memory, by background threads,
+ * so that reading a trace from a cold cache overlaps the disk accesses with
+ * the decoding of the current packets.
+ *
+ * The prefetcher is used by one stream input reader, which gives it the
+ * packets following its current one and takes the buffers of the packets it
+ * reads. A buffer that is not ready yet is not waited for, the reader maps
+ * the packet itself, its pages being loaded anyway.
+ */
+@NonNullByDefault
+public final class PacketPrefetcher implements AutoCloseable {
+
+    private static final int BITS_PER_BYTE = Byte.SIZE;
+
+    private static final ExecutorService EXECUTOR = checkNotNull(Executors.newFixedThreadPool(
+            Math.max(1, Runtime.getRuntime().availableProcessors() / 2), runnable -> {
+                Thread thread = new Thread(runnable, "CTF Packet Prefetcher"); //$NON-NLS-1$
+                thread.setDaemon(true);
+                return thread;
+            }));
+
+    /**
+     * Loader of the bytes of the packets, called by the prefetching threads
+     */
+    @FunctionalInterface
+    public interface PacketLoader {
+        /**
+         * Load a part of the stream file
+         *
+         * @param position
+         *            the position in the stream, in bytes
+         * @param size
+         *            the number of bytes
+         * @return the buffer of the bytes
+         * @throws IOException
+         *             if the file cannot be read
+         * @throws CTFException
+         *             if the file cannot be mapped
+         */
+        ByteBuffer load(long position, long size) throws IOException, CTFException;
+    }
+
+    private final PacketLoader fLoader;
+
+    /** The packets being prefetched, by offset in bits */
+    private final Map<Long, @Nullable CompletableFuture<@Nullable ByteBuffer>> fPending = new LinkedHashMap<>();
+
+    /**
+     * Constructor
+     *
+     * @param fileChannel
+     *            the channel of the stream file, closed by the stream input
+     *            reader
+     */
+    public PacketPrefetcher(FileChannel fileChannel) {
+        this((position, size) -> SafeMappedByteBuffer.map(fileChannel, FileChannel.MapMode.READ_ONLY, position, size));
+    }
+
+    /**
+     * Constructor, for the stream files that are not mapped directly, like
+     * the compressed ones which are decompressed ahead
+     *
+     * @param loader
+     *            the loader of the packets
+     */
+    public PacketPrefetcher(PacketLoader loader) {
+        fLoader = loader;
+    }
+
+    /**
+     * Set the packets to read ahead. The packets already being prefetched are
+     * kept, the ones that are not in the given packets anymore, after a seek
+     * for example, are dropped.
+     *
+     * @param packets
+     *            the packets that will be read next, in order
+     */
+    public void prefetch(Collection<ICTFPacketDescriptor> packets) {
+        Set<Long> offsets = new HashSet<>();
+        for (ICTFPacketDescriptor packet : packets) {
+            offsets.add(packet.getOffsetBits());
+        }
+        fPending.keySet().removeIf(offset -> {
+            if (offsets.contains(offset)) {
+                return false;
+            }
+            CompletableFuture<@Nullable ByteBuffer> future = fPending.get(offset);
+            if (future != null) {
+                future.cancel(false);
+            }
+            return true;
+        });
+        for (ICTFPacketDescriptor packet : packets) {
+            long offsetBits = packet.getOffsetBits();
+            long sizeBits = packet.getContentSizeBits();
+            if (!fPending.containsKey(offsetBits) && sizeBits >= 0) {
+                fPending.put(offsetBits, CompletableFuture.supplyAsync(() -> load(offsetBits, sizeBits), EXECUTOR));
+            }
+        }
+    }
+
+    /**
+     * Get whether the buffer of a packet is ready to be taken
+     *
+     * @param packet
+     *            the packet
+     * @return true if the packet was prefetched, or failed to be
+     */
+    public boolean isDone(ICTFPacketDescriptor packet) {
+        CompletableFuture<@Nullable ByteBuffer> future = fPending.get(packet.getOffsetBits());
+        return future != null && future.isDone();
+    }
+
+    /**
+     * Take the buffer of a packet, if it was prefetched
+     *
+     * @param packet
+     *            the packet to read
+     * @return the buffer of the whole packet content, or null if the packet
+     *         is not prefetched yet
+     */
+    public @Nullable ByteBuffer take(ICTFPacketDescriptor packet) {
+        CompletableFuture<@Nullable ByteBuffer> future = fPending.remove(packet.getOffsetBits());
+        if (future == null) {
+            return null;
+        }
+        if (!future.isDone()) {
+            /* Do not start it if it is still queued */
+            future.cancel(false);
+            return null;
+        }
+        if (future.isCompletedExceptionally()) {
+            return null;
+        }
+        return future.getNow(null);
+    }
+
+    /**
+     * Drop the packets being prefetched
+     */
+    @Override
+    public void close() {
+        for (CompletableFuture<@Nullable ByteBuffer> future : fPending.values()) {
+            if (future != null) {
+                future.cancel(false);
+            }
+        }
+        fPending.clear();
+    }
+
+    private @Nullable ByteBuffer load(long offsetBits, long sizeBits) {
+        try {
+            ByteBuffer buffer = fLoader.load(offsetBits / BITS_PER_BYTE, (sizeBits + BITS_PER_BYTE - 1) / BITS_PER_BYTE);
+            if (buffer instanceof MappedByteBuffer) {
+                /* Touch the pages, so they are read from the disk now */
+                ((MappedByteBuffer) buffer).load();
+            }
+            return buffer;
+        } catch (IOException | CTFException e) {
+            /* The reader will map the packet itself and report the error */
+            return null;
+        }
+    }
+}
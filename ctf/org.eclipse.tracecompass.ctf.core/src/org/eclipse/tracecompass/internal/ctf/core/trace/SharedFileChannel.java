@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.ctf.core.trace;
+
+import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * A read-only file channel shared by all the readers of a stream file. The
+ * readers only map regions of the file, which does not use the position of the
+ * channel, so one channel can serve all of them. The channel is opened by the
+ * first reader acquiring it and closed when the last one releases it, so the
+ * number of open file handles of a trace does not depend on the number of its
+ * readers.
+ */
+@NonNullByDefault
+public final class SharedFileChannel {
+
+    private final File fFile;
+    private @Nullable FileChannel fChannel = null;
+    private int fReferences = 0;
+
+    /**
+     * Constructor
+     *
+     * @param file
+     *            the file to read
+     */
+    public SharedFileChannel(File file) {
+        fFile = file;
+    }
+
+    /**
+     * Acquire the channel, opening it if it is not open. Every call must be
+     * followed by a call to {@link #release()}.
+     *
+     * @return the channel
+     * @throws IOException
+     *             if the file cannot be opened
+     */
+    public synchronized FileChannel acquire() throws IOException {
+        FileChannel channel = open();
+        fReferences++;
+        return channel;
+    }
+
+    /**
+     * Get the channel, for a reader that acquired it. A channel is closed for
+     * all its readers when a thread using it is interrupted, so the readers
+     * get the channel each time they use it instead of keeping it, and it is
+     * opened again if it was closed.
+     *
+     * @return the channel
+     * @throws IOException
+     *             if the file cannot be opened
+     */
+    public synchronized FileChannel get() throws IOException {
+        if (fReferences == 0) {
+            throw new IllegalStateException("The channel of " + fFile + " is not acquired"); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        return open();
+    }
+
+    @SuppressWarnings("resource")
+    private FileChannel open() throws IOException {
+        FileChannel channel = fChannel;
+        /*
+         * A channel is closed when a thread using it is interrupted. The new
+         * channel is closed when the last reader releases it.
+         */
+        if (channel == null || !channel.isOpen()) {
+            channel = checkNotNull(FileChannel.open(fFile.toPath(), StandardOpenOption.READ));
+            fChannel = channel;
+        }
+        return channel;
+    }
+
+    /**
+     * Release the channel, closing it if no reader uses it anymore
+     *
+     * @throws IOException
+     *             if the channel cannot be closed
+     */
+    public synchronized void release() throws IOException {
+        if (fReferences == 0) {
+            return;
+        }
+        fReferences--;
+        FileChannel channel = fChannel;
+        if (fReferences == 0 && channel != null) {
+            fChannel = null;
+            channel.close();
+        }
+    }
+
+    /**
+     * Get the number of readers using the channel
+     *
+     * @return the number of references to the channel
+     */
+    public synchronized int getReferenceCount() {
+        return fReferences;
+    }
+}
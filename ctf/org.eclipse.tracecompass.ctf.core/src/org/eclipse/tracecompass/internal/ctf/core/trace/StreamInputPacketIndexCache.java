@@ -0,0 +1,328 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.ctf.core.trace;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.function.LongFunction;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.ctf.core.CTFException;
+import org.eclipse.tracecompass.ctf.core.event.types.StructDefinition;
+import org.eclipse.tracecompass.ctf.core.trace.ICTFPacketDescriptor;
+import org.eclipse.tracecompass.internal.ctf.core.SafeMappedByteBuffer;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Persistent cache of the packet index of a stream file, so that re-opening a
+ * trace does not need to read the header and context of every packet again.
+ *
+ * The cache is a binary file holding the values of each index entry and the
+ * attributes of its packet context. It is only valid for the stream file of
+ * the same size and modification time. The packet context definitions are not
+ * kept, the entries read them again from the stream file when they are needed.
+ *
+ * The file starts with a header:
+ *
+ * <pre>
+ * int    magic
+ * int    version
+ * long   stream file size
+ * long   stream file modification time
+ * int    number of attribute names, then the names
+ * int    number of entries
+ * </pre>
+ *
+ * followed by the entries. Strings are written as their length in bytes,
+ * -1 for null, followed by their UTF-8 bytes.
+ */
+@NonNullByDefault
+public final class StreamInputPacketIndexCache {
+
+    private static final int MAGIC = 0xC7F1DE7C;
+    private static final int VERSION = 1;
+
+    private static final String SUFFIX = ".packetindex"; //$NON-NLS-1$
+    private static final String TEMP_SUFFIX = ".tmp"; //$NON-NLS-1$
+
+    private static final byte TYPE_LONG = 'L';
+    private static final byte TYPE_DOUBLE = 'D';
+    private static final byte TYPE_STRING = 'S';
+    private static final byte TYPE_ENUM = 'E';
+
+    private StreamInputPacketIndexCache() {
+        // Do nothing
+    }
+
+    /**
+     * Get the cache file of a stream file
+     *
+     * @param directory
+     *            the directory of the cache files
+     * @param streamFile
+     *            the stream file
+     * @return the cache file
+     */
+    public static File getCacheFile(File directory, File streamFile) {
+        return new File(directory, streamFile.getName() + SUFFIX);
+    }
+
+    /**
+     * Write the index of a stream file. The cache is written to a temporary
+     * file first, then renamed, so that a partial cache is never read.
+     *
+     * @param cacheFile
+     *            the cache file
+     * @param streamFile
+     *            the stream file
+     * @param entries
+     *            the complete index of the stream file
+     * @return true if the cache was written, false if the entries have values
+     *         that cannot be cached
+     * @throws IOException
+     *             if the cache cannot be written
+     */
+    public static boolean write(File cacheFile, File streamFile, Collection<ICTFPacketDescriptor> entries) throws IOException {
+        Map<String, Integer> names = new LinkedHashMap<>();
+        for (ICTFPacketDescriptor entry : entries) {
+            for (Entry<?, ?> attribute : entry.getAttributes().entrySet()) {
+                if (getType(attribute.getValue()) == 0) {
+                    return false;
+                }
+                names.putIfAbsent(String.valueOf(attribute.getKey()), names.size());
+            }
+        }
+        File tempFile = new File(cacheFile.getPath() + TEMP_SUFFIX);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile.toPath())))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(streamFile.length());
+            out.writeLong(streamFile.lastModified());
+            out.writeInt(names.size());
+            for (String name : names.keySet()) {
+                writeString(out, name);
+            }
+            out.writeInt(entries.size());
+            for (ICTFPacketDescriptor entry : entries) {
+                writeEntry(out, entry, names);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(tempFile.toPath());
+            throw e;
+        }
+        Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        return true;
+    }
+
+    private static void writeEntry(DataOutputStream out, ICTFPacketDescriptor entry, Map<String, Integer> names) throws IOException {
+        out.writeLong(entry.getOffsetBits());
+        out.writeLong(entry.getPacketSizeBits());
+        out.writeLong(entry.getContentSizeBits());
+        out.writeLong(entry.getTimestampBegin());
+        out.writeLong(entry.getTimestampEnd());
+        out.writeLong(entry.getLostEvents());
+        out.writeLong(entry.getPayloadStartBits());
+        writeString(out, entry.getTarget());
+        out.writeLong(entry.getTargetId());
+        Map<?, ?> attributes = entry.getAttributes();
+        out.writeInt(attributes.size());
+        for (Entry<?, ?> attribute : attributes.entrySet()) {
+            Object value = attribute.getValue();
+            byte type = getType(value);
+            if (value == null || type == 0) {
+                throw new IOException("Unexpected attribute " + attribute.getKey()); //$NON-NLS-1$
+            }
+            out.writeInt(names.getOrDefault(String.valueOf(attribute.getKey()), -1));
+            out.writeByte(type);
+            switch (type) {
+            case TYPE_LONG:
+                out.writeLong((Long) value);
+                break;
+            case TYPE_DOUBLE:
+                out.writeDouble((Double) value);
+                break;
+            case TYPE_STRING:
+                writeString(out, (String) value);
+                break;
+            case TYPE_ENUM:
+                Entry<?, ?> enumValue = (Entry<?, ?>) value;
+                Object enumNumber = enumValue.getValue();
+                writeString(out, (String) enumValue.getKey());
+                out.writeLong(enumNumber instanceof Long ? (Long) enumNumber : 0L);
+                break;
+            default:
+                throw new IOException("Unexpected attribute " + attribute.getKey()); //$NON-NLS-1$
+            }
+        }
+    }
+
+    /**
+     * Get the type of an attribute value, as in
+     * StreamInputPacketIndexEntry#computeAttributeMap, or 0 if it cannot be
+     * cached
+     */
+    private static byte getType(@Nullable Object value) {
+        if (value instanceof Long) {
+            return TYPE_LONG;
+        }
+        if (value instanceof Double) {
+            return TYPE_DOUBLE;
+        }
+        if (value instanceof String) {
+            return TYPE_STRING;
+        }
+        if (value instanceof Entry && ((Entry<?, ?>) value).getKey() instanceof String && ((Entry<?, ?>) value).getValue() instanceof Long) {
+            return TYPE_ENUM;
+        }
+        return 0;
+    }
+
+    private static void writeString(DataOutputStream out, @Nullable String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Read the index of a stream file from its cache
+     *
+     * @param cacheFile
+     *            the cache file
+     * @param streamFile
+     *            the stream file
+     * @param contextLoader
+     *            the function that reads the packet context at an offset in
+     *            bits, for the entries that need it
+     * @return the entries of the index, or null if there is no valid cache
+     *         for this stream file
+     */
+    public static @Nullable List<ICTFPacketDescriptor> read(File cacheFile, File streamFile, LongFunction<@Nullable StructDefinition> contextLoader) {
+        if (!cacheFile.isFile()) {
+            return null;
+        }
+        try (FileChannel fc = FileChannel.open(cacheFile.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = SafeMappedByteBuffer.map(fc, FileChannel.MapMode.READ_ONLY, 0, fc.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION ||
+                    buffer.getLong() != streamFile.length() || buffer.getLong() != streamFile.lastModified()) {
+                return null;
+            }
+            int nbNames = buffer.getInt();
+            if (nbNames < 0) {
+                return null;
+            }
+            List<String> names = new ArrayList<>();
+            for (int i = 0; i < nbNames; i++) {
+                String name = readString(buffer);
+                if (name == null) {
+                    return null;
+                }
+                names.add(name);
+            }
+            int nbEntries = buffer.getInt();
+            if (nbEntries < 0) {
+                return null;
+            }
+            List<ICTFPacketDescriptor> entries = new ArrayList<>(nbEntries);
+            for (int i = 0; i < nbEntries; i++) {
+                ICTFPacketDescriptor entry = readEntry(buffer, names, contextLoader);
+                if (entry == null) {
+                    return null;
+                }
+                entries.add(entry);
+            }
+            return buffer.hasRemaining() ? null : entries;
+        } catch (IOException | CTFException | BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            /* Corrupted or unreadable cache, index the stream file again */
+            return null;
+        }
+    }
+
+    private static @Nullable ICTFPacketDescriptor readEntry(ByteBuffer buffer, List<String> names, LongFunction<@Nullable StructDefinition> contextLoader) {
+        long offsetBits = buffer.getLong();
+        long packetSizeBits = buffer.getLong();
+        long contentSizeBits = buffer.getLong();
+        long timestampBegin = buffer.getLong();
+        long timestampEnd = buffer.getLong();
+        long lostEvents = buffer.getLong();
+        long endPacketHeaderBits = buffer.getLong();
+        String target = readString(buffer);
+        long targetId = buffer.getLong();
+        int nbAttributes = buffer.getInt();
+        ImmutableMap.Builder<String, Object> attributes = ImmutableMap.builder();
+        for (int i = 0; i < nbAttributes; i++) {
+            String name = names.get(buffer.getInt());
+            byte type = buffer.get();
+            switch (type) {
+            case TYPE_LONG:
+                attributes.put(name, buffer.getLong());
+                break;
+            case TYPE_DOUBLE:
+                attributes.put(name, buffer.getDouble());
+                break;
+            case TYPE_STRING:
+                String value = readString(buffer);
+                if (value == null) {
+                    return null;
+                }
+                attributes.put(name, value);
+                break;
+            case TYPE_ENUM:
+                String label = readString(buffer);
+                if (label == null) {
+                    return null;
+                }
+                attributes.put(name, new SimpleImmutableEntry<>(label, buffer.getLong()));
+                break;
+            default:
+                return null;
+            }
+        }
+        return new StreamInputPacketIndexEntry(offsetBits, packetSizeBits, contentSizeBits, timestampBegin, timestampEnd,
+                lostEvents, endPacketHeaderBits, target, targetId, attributes.build(), () -> contextLoader.apply(offsetBits));
+    }
+
+    private static @Nullable String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > buffer.remaining()) {
+            /* Corrupted length, do not allocate it */
+            throw new BufferUnderflowException();
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -17,10 +17,12 @@ package org.eclipse.tracecompass.internal.ctf.core.trace;
 import java.util.AbstractMap;
 import java.util.Collections;
 import java.util.Map;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.common.core.NonNullUtils;
 import org.eclipse.tracecompass.ctf.core.CTFStrings;
 import org.eclipse.tracecompass.ctf.core.event.types.EnumDefinition;
@@ -97,7 +99,12 @@ public class StreamInputPacketIndexEntry implements ICTFPacketDescriptor {
 
     private final long fEndPacketHeaderBits;
 
-    private final StructDefinition fStreamPacketContextDef;
+    private volatile StructDefinition fStreamPacketContextDef;
+
+    /**
+     * Reads the packet context again, for entries restored from a cache
+     */
+    private final @Nullable Supplier<@Nullable StructDefinition> fContextLoader;
 
     // ------------------------------------------------------------------------
     // Constructors
@@ -127,6 +134,7 @@ public class StreamInputPacketIndexEntry implements ICTFPacketDescriptor {
         fTimestampEnd = Long.MAX_VALUE;
         fEndPacketHeaderBits = dataOffsetBits;
         fStreamPacketContextDef = null;
+        fContextLoader = null;
     }
 
     private static long bitsToBytes(long value) {
@@ -167,6 +175,7 @@ public class StreamInputPacketIndexEntry implements ICTFPacketDescriptor {
      */
     public StreamInputPacketIndexEntry(long dataOffsetBits, StructDefinition streamPacketContextDef, long fileSizeBytes, long lostSoFar, long endPacketHeaderBits) {
         fStreamPacketContextDef = streamPacketContextDef;
+        fContextLoader = null;
         fEndPacketHeaderBits = endPacketHeaderBits;
         fAttributes = computeAttributeMap(streamPacketContextDef);
         fContentSizeBits = computeContentSize(fileSizeBytes);
@@ -193,9 +202,12 @@ public class StreamInputPacketIndexEntry implements ICTFPacketDescriptor {
      */
     public StreamInputPacketIndexEntry(ICTFPacketDescriptor entryToAdd, long newTimestampEnd) {
         if (entryToAdd instanceof StreamInputPacketIndexEntry) {
-            fStreamPacketContextDef = ((StreamInputPacketIndexEntry) entryToAdd).getStreamPacketContextDef();
+            StreamInputPacketIndexEntry entry = (StreamInputPacketIndexEntry) entryToAdd;
+            fStreamPacketContextDef = entry.fStreamPacketContextDef;
+            fContextLoader = entry.fContextLoader;
         } else {
             fStreamPacketContextDef = null;
+            fContextLoader = null;
         }
 
         fEndPacketHeaderBits = entryToAdd.getPayloadStartBits();
@@ -213,6 +225,52 @@ public class StreamInputPacketIndexEntry implements ICTFPacketDescriptor {
         fLostEvents = entryToAdd.getLostEvents();
     }
 
+    /**
+     * Constructor of an entry restored from a packet index cache. The packet
+     * context is not decoded, it is read again from the stream file if it is
+     * needed.
+     *
+     * @param offsetBits
+     *            offset of the packet in the file, in bits
+     * @param packetSizeBits
+     *            packet size, in bits
+     * @param contentSizeBits
+     *            content size, in bits
+     * @param timestampBegin
+     *            begin timestamp
+     * @param timestampEnd
+     *            end timestamp
+     * @param lostEvents
+     *            number of lost events in the packet
+     * @param endPacketHeaderBits
+     *            end of packet headers
+     * @param target
+     *            the target being traced
+     * @param targetID
+     *            the target ID
+     * @param attributes
+     *            the attributes of the packet context
+     * @param contextLoader
+     *            reads the packet context from the stream file
+     */
+    public StreamInputPacketIndexEntry(long offsetBits, long packetSizeBits, long contentSizeBits, long timestampBegin, long timestampEnd,
+            long lostEvents, long endPacketHeaderBits, String target, long targetID, @NonNull Map<String, Object> attributes,
+            @NonNull Supplier<@Nullable StructDefinition> contextLoader) {
+        fOffsetBits = offsetBits;
+        fOffsetBytes = bitsToBytes(offsetBits);
+        fPacketSizeBits = packetSizeBits;
+        fContentSizeBits = contentSizeBits;
+        fTimestampBegin = timestampBegin;
+        fTimestampEnd = timestampEnd;
+        fLostEvents = lostEvents;
+        fEndPacketHeaderBits = endPacketHeaderBits;
+        fTarget = target;
+        fTargetID = targetID;
+        fAttributes = attributes;
+        fStreamPacketContextDef = null;
+        fContextLoader = contextLoader;
+    }
+
     private static @NonNull Map<String, Object> computeAttributeMap(StructDefinition streamPacketContextDef) {
         Builder<String, Object> attributeBuilder = ImmutableMap.<String, Object> builder();
         for (String field : streamPacketContextDef.getDeclaration().getFieldsList()) {
@@ -419,6 +477,12 @@ public class StreamInputPacketIndexEntry implements ICTFPacketDescriptor {
      * @return the backing context definition
      */
     public StructDefinition getStreamPacketContextDef() {
-        return fStreamPacketContextDef;
+        StructDefinition context = fStreamPacketContextDef;
+        Supplier<@Nullable StructDefinition> contextLoader = fContextLoader;
+        if (context == null && contextLoader != null) {
+            context = contextLoader.get();
+            fStreamPacketContextDef = context;
+        }
+        return context;
     }
 }
@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.tmf.ctf.core.tests.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEventField;
+import org.eclipse.tracecompass.tmf.core.exceptions.TmfTraceException;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfContext;
+import org.eclipse.tracecompass.tmf.ctf.core.event.CtfTmfEvent;
+import org.eclipse.tracecompass.tmf.ctf.core.trace.CtfTmfTrace;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test the string fields of the {@link CtfTmfEvent}, whose content is decoded
+ * when it is read
+ */
+public class CtfTmfEventStringTest {
+
+    private static final String NAME = "swapper";
+    private static final int NB_EVENTS = 4;
+    private static final int HEADER_SIZE = 28;
+    /* A 32-bit value, then the name and its terminator, aligned on 32 bits */
+    private static final int EVENT_SIZE = Integer.BYTES + 8;
+    private static final int PACKET_SIZE = HEADER_SIZE + NB_EVENTS * EVENT_SIZE;
+
+    private Path fDirectory;
+    private CtfTmfTrace fTrace;
+
+    /**
+     * Write a trace of one packet, whose events all have the same name
+     *
+     * @throws IOException
+     *             if the trace cannot be written
+     * @throws TmfTraceException
+     *             if the trace cannot be opened
+     */
+    @Before
+    public void setUp() throws IOException, TmfTraceException {
+        fDirectory = Files.createTempDirectory("eventstring");
+        UUID uuid = UUID.randomUUID();
+        try (PrintWriter pw = new PrintWriter(fDirectory.resolve("metadata").toFile())) {
+            pw.println("/*CTF 1.8*/");
+            pw.println("typealias integer { size = 8; align = 8; signed = false; base = 10; } := uint8_t;");
+            pw.println("typealias integer { size = 32; align = 32; signed = false; base = 10; } := uint32_t;");
+            pw.println("trace {");
+            pw.println(" major = 1;");
+            pw.println(" minor = 8;");
+            pw.println(" uuid = \"" + uuid + "\";");
+            pw.println(" byte_order = le;");
+            pw.println(" packet.header := struct {");
+            pw.println("  uint32_t magic;");
+            pw.println("  uint8_t uuid[16];");
+            pw.println(" };");
+            pw.println("};");
+            pw.println("stream {");
+            pw.println(" packet.context := struct {");
+            pw.println("  uint32_t packet_size;");
+            pw.println("  uint32_t content_size;");
+            pw.println(" };");
+            pw.println("};");
+            pw.println("event {");
+            pw.println(" name = task;");
+            pw.println(" fields := struct { uint32_t tid; string comm; };");
+            pw.println("};");
+        }
+        ByteBuffer stream = ByteBuffer.allocate(PACKET_SIZE);
+        stream.order(ByteOrder.LITTLE_ENDIAN);
+        stream.putInt(0xc1fc1fc1);
+        stream.order(ByteOrder.BIG_ENDIAN);
+        stream.putLong(uuid.getMostSignificantBits());
+        stream.putLong(uuid.getLeastSignificantBits());
+        stream.order(ByteOrder.LITTLE_ENDIAN);
+        stream.putInt(PACKET_SIZE * Byte.SIZE);
+        stream.putInt(PACKET_SIZE * Byte.SIZE);
+        for (int i = 0; i < NB_EVENTS; i++) {
+            stream.putInt(i);
+            stream.put(NAME.getBytes(StandardCharsets.US_ASCII)).put((byte) 0);
+        }
+        Files.write(fDirectory.resolve("stream"), stream.array());
+        fTrace = new CtfTmfTrace();
+        fTrace.initTrace(null, fDirectory.toString(), CtfTmfEvent.class);
+    }
+
+    /**
+     * Dispose the trace and delete it
+     */
+    @After
+    public void tearDown() {
+        fTrace.dispose();
+        File[] files = fDirectory.toFile().listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        fDirectory.toFile().delete();
+    }
+
+    private static Object getComm(ITmfEvent event) {
+        ITmfEventField field = event.getContent().getField("comm");
+        assertNotNull(field);
+        return field.getValue();
+    }
+
+    /**
+     * Test that the strings of the content of the events, decoded after the
+     * events were read, are shared by the events of the trace
+     */
+    @Test
+    public void testStringField() {
+        ITmfContext context = fTrace.seekEvent(0L);
+        ITmfEvent first = fTrace.getNext(context);
+        ITmfEvent second = fTrace.getNext(context);
+        context.dispose();
+        assertNotNull(first);
+        assertNotNull(second);
+        Object firstComm = getComm(first);
+        assertEquals(NAME, firstComm);
+        assertSame(firstComm, getComm(first));
+        assertSame(firstComm, getComm(second));
+    }
+}
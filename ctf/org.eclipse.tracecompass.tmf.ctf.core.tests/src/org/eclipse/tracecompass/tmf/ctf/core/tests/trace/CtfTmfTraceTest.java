@@ -23,6 +23,7 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -31,7 +32,10 @@ import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.tracecompass.testtraces.ctf.CtfTestTrace;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEventType;
+import org.eclipse.tracecompass.tmf.core.request.ITmfEventRequest;
+import org.eclipse.tracecompass.tmf.core.request.TmfEventRequest;
 import org.eclipse.tracecompass.tmf.core.signal.TmfEndSynchSignal;
 import org.eclipse.tracecompass.tmf.core.signal.TmfSignal;
 import org.eclipse.tracecompass.tmf.core.timestamp.ITmfTimestamp;
@@ -431,6 +435,50 @@ public class CtfTmfTraceTest {
         assertFalse(eventNames.containsAll(Arrays.asList(names)));
     }
 
+    /**
+     * Test that a request for all the events of some types receives all the
+     * events of these types, and skips some of the other events, through
+     * {@link CtfTmfTrace#armRequest}
+     *
+     * @throws InterruptedException
+     *             if the requests are interrupted
+     */
+    @Test
+    public void testRequestEventTypes() throws InterruptedException {
+        fixture.indexTrace(true);
+        EventCountRequest allEvents = new EventCountRequest();
+        fixture.sendRequest(allEvents);
+        allEvents.waitForCompletion();
+
+        EventCountRequest schedSwitch = new EventCountRequest();
+        schedSwitch.setEventTypes(Collections.singleton("sched_switch"));
+        fixture.sendRequest(schedSwitch);
+        schedSwitch.waitForCompletion();
+
+        assertTrue(allEvents.fSchedSwitch > 0);
+        assertEquals(allEvents.fSchedSwitch, schedSwitch.fSchedSwitch);
+        assertTrue(schedSwitch.fOthers < allEvents.fOthers);
+    }
+
+    private static class EventCountRequest extends TmfEventRequest {
+        private long fSchedSwitch = 0;
+        private long fOthers = 0;
+
+        public EventCountRequest() {
+            super(ITmfEvent.class, TmfTimeRange.ETERNITY, 0, ITmfEventRequest.ALL_DATA, ExecutionType.FOREGROUND);
+        }
+
+        @Override
+        public void handleData(ITmfEvent event) {
+            super.handleData(event);
+            if (event.getName().equals("sched_switch")) {
+                fSchedSwitch++;
+            } else {
+                fOthers++;
+            }
+        }
+    }
+
     /**
      * Run the String getHostId() method test
      */
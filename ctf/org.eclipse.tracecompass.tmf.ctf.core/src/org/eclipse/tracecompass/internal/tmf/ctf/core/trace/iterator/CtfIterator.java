@@ -18,8 +18,10 @@ package org.eclipse.tracecompass.internal.tmf.ctf.core.trace.iterator;
 import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNull;
 
 import java.util.Objects;
+import java.util.Set;
 
 import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.ctf.core.CTFException;
 import org.eclipse.tracecompass.ctf.core.event.IEventDefinition;
 import org.eclipse.tracecompass.ctf.core.trace.CTFStreamInputReader;
@@ -147,7 +149,7 @@ public class CtfIterator extends CTFTraceReader
      * @return CtfTmfEvent The current event
      */
     public synchronized CtfTmfEvent getCurrentEvent() {
-        final CTFStreamInputReader top = super.getPrio().peek();
+        final CTFStreamInputReader top = super.getTopStream();
         if (top != null) {
             if (!fCurLocation.equals(fPreviousLocation)) {
                 fPreviousLocation = fCurLocation;
@@ -165,7 +167,7 @@ public class CtfIterator extends CTFTraceReader
      * @return long The current timestamp location
      */
     public synchronized long getCurrentTimestamp() {
-        final CTFStreamInputReader top = super.getPrio().peek();
+        final CTFStreamInputReader top = super.getTopStream();
         if (top != null) {
             IEventDefinition currentEvent = top.getCurrentEvent();
             if (currentEvent != null) {
@@ -243,6 +245,19 @@ public class CtfIterator extends CTFTraceReader
     // CTFTraceReader
     // ------------------------------------------------------------------------
 
+    @Override
+    public synchronized void setEventFilter(@Nullable Set<@NonNull String> eventNames) {
+        if (Objects.equals(eventNames, getEventFilter())) {
+            return;
+        }
+        super.setEventFilter(eventNames);
+        /*
+         * The current event may not be one of the new types, make sure the
+         * next seek is not skipped
+         */
+        fCurLocation = NULL_LOCATION;
+    }
+
     @Override
     public boolean seek(long timestamp) {
         return seek(new CtfLocationInfo(timestamp, 0));
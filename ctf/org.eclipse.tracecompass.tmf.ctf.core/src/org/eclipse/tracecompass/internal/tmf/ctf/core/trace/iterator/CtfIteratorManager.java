@@ -14,18 +14,25 @@
 
 package org.eclipse.tracecompass.internal.tmf.ctf.core.trace.iterator;
 
-import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNull;
-
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.Random;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
+import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.common.core.log.TraceCompassLog;
+import org.eclipse.tracecompass.common.core.log.TraceCompassLogUtils;
 import org.eclipse.tracecompass.internal.tmf.ctf.core.Activator;
+import org.eclipse.tracecompass.tmf.ctf.core.context.CtfLocation;
 import org.eclipse.tracecompass.tmf.ctf.core.context.CtfLocationInfo;
 import org.eclipse.tracecompass.tmf.ctf.core.context.CtfTmfContext;
 import org.eclipse.tracecompass.tmf.ctf.core.trace.CtfTmfTrace;
@@ -35,22 +42,38 @@ import org.eclipse.tracecompass.tmf.ctf.core.trace.CtfTmfTrace;
  *
  * Each instance of {@link CtfTmfTrace} should possess one of these, which will
  * manage the iterators that are opened to read that trace. This will allow
- * controlling the number of opened file handles per trace.
+ * controlling the number of iterators per trace. The iterators of a trace
+ * share one file handle per stream file.
  *
  * @author Matthew Khouzam
  */
 public class CtfIteratorManager {
+
+    private static final @NonNull Logger LOGGER = TraceCompassLog.getLogger(CtfIteratorManager.class);
+
     /*
-     * Cache size. Under 1023 on linux32 systems. Number of file handles
-     * created.
+     * Cache size. Each iterator keeps the read state of every stream of the
+     * trace, the file handles being shared by the iterators.
      */
     private static final int MAX_SIZE = 100;
 
-    /** The map of the cache */
+    /*
+     * Number of iterators of disposed contexts kept to be handed to the next
+     * contexts.
+     */
+    private static final int MAX_IDLE = 8;
+
+    /*
+     * Maximum number of events read to move an idle iterator forward to the
+     * location of a context, instead of seeking.
+     */
+    private static final int MAX_WARM_EVENTS = 1000;
+
+    /** The map of the cache, from the least to the most recently used */
     private final Map<CtfTmfContext, CtfIterator> fMap;
 
-    /** An array pointing to the same cache. this allows fast "random" accesses */
-    private final List<CtfTmfContext> fRandomAccess;
+    /** The iterators of the disposed contexts, most recently released first */
+    private final Deque<CtfIterator> fIdle;
 
     /** Lock for when we access the two previous data structures */
     private final Lock fAccessLock = new ReentrantLock();
@@ -58,8 +81,10 @@ public class CtfIteratorManager {
     /** The parent trace */
     private final CtfTmfTrace fTrace;
 
-    /** Random number generator */
-    private final Random fRnd;
+    private long fHits = 0;
+    private long fMisses = 0;
+    private long fReuses = 0;
+    private long fEvictions = 0;
 
     /**
      * Constructor
@@ -68,142 +93,269 @@ public class CtfIteratorManager {
      *            The trace whose iterators this manager will manage
      */
     public CtfIteratorManager(CtfTmfTrace trace) {
-        fMap = new HashMap<>();
-        fRandomAccess = new ArrayList<>();
-        fRnd = new Random(System.nanoTime());
+        fMap = new LinkedHashMap<>(MAX_SIZE, 0.75f, true);
+        fIdle = new ArrayDeque<>(MAX_IDLE);
         fTrace = trace;
     }
 
     /**
-     * This needs explaining: the iterator table is effectively a cache. Originally
-     * the contexts had a 1 to 1 structure with the file handles of a trace. This
-     * failed since there is a limit to how many file handles we can have opened
-     * simultaneously. Then a round-robin scheme was implemented, this lead up to a
-     * two competing contexts syncing up and using the same file handler, causing
-     * horrible slowdowns. Now a random replacement algorithm is selected. This is
-     * the same as used by arm processors, and it works quite well when many cores
-     * so this looks promising for very multi-threaded systems.
+     * This needs explaining: the iterator table is effectively a cache.
+     * Originally the contexts had a 1 to 1 structure with the file handles of a
+     * trace. This failed since there is a limit to how many file handles we can
+     * have opened simultaneously. Now the iterators share the file handles, but
+     * each of them still holds the packets being read, so their number is
+     * bounded.
+     *
+     * A context without iterator first takes the iterator of a disposed context
+     * that is the closest before its location, so that a sequential reader
+     * handing over to the next one reuses an iterator that is already there or
+     * just a few events away. Otherwise, a new iterator is created, and when the
+     * cache is full, the iterator of the least recently used context is taken.
      *
      * @param context
      *            the context to look up
      * @return the iterator referring to the context or null in the case of an error
      */
     public @Nullable CtfIterator getIterator(final CtfTmfContext context) {
-        /*
-         * if the element is in the map, we don't need to do anything else.
-         */
-        CtfIterator iter = fMap.get(context);
-        if (iter == null) {
-
-            fAccessLock.lock();
-            try {
+        fAccessLock.lock();
+        try {
+            /*
+             * if the element is in the map, we don't need to do anything else.
+             */
+            CtfIterator iter = fMap.get(context);
+            if (iter != null) {
+                fHits++;
+                return iter;
+            }
+            fMisses++;
+            Set<@NonNull String> eventTypes = context.getEventTypes();
+            CtfLocationInfo location = null;
+            if (context.getLocation() != null) {
+                location = (CtfLocationInfo) context.getLocation().getLocationInfo();
+            }
+            /*
+             * Assign an iterator to a context.
+             */
+            iter = takeIdleIterator(location, eventTypes);
+            if (iter != null) {
+                fReuses++;
+            } else if (fMap.size() < MAX_SIZE) {
                 /*
-                 * Assign an iterator to a context.
+                 * if we're not full yet, just add an element.
                  */
-                if (fRandomAccess.size() < MAX_SIZE) {
-                    /*
-                     * if we're not full yet, just add an element.
-                     */
-                    iter = (CtfIterator) fTrace.createIterator();
-                    if (iter == null) {
-                        return null;
-                    }
-                    addElement(context, iter);
-
-                } else {
-                    /*
-                     * if we're full, randomly replace an element
-                     */
-                    iter = replaceRandomElement(context);
+                iter = (CtfIterator) fTrace.createIterator();
+                if (iter == null) {
+                    return null;
                 }
-                if (context.getLocation() != null) {
-                    final CtfLocationInfo location = (CtfLocationInfo) context.getLocation().getLocationInfo();
-                    iter.seek(location);
+            } else {
+                /*
+                 * if we're full, replace the least recently used element
+                 */
+                iter = replaceLeastRecentlyUsed();
+                if (iter == null) {
+                    return null;
                 }
-            } finally {
-                fAccessLock.unlock();
+                fEvictions++;
             }
+            fMap.put(context, iter);
+            /* The iterator may have been used with other event types */
+            iter.setEventFilter(eventTypes);
+            iter.setPacketDecodeDepth(context.getPacketDecodeDepth());
+            if (location != null) {
+                moveTo(iter, location);
+            }
+            return iter;
+        } finally {
+            fAccessLock.unlock();
         }
-        return iter;
     }
 
     /**
-     * Remove an iterator from this manager
+     * Remove an iterator from this manager. The iterator is kept to be handed
+     * to the next context.
      *
      * @param context
      *            The context of the iterator to remove
      */
+    @SuppressWarnings("resource")
     public void removeIterator(CtfTmfContext context) {
         fAccessLock.lock();
         try {
-            /* The try below is only to auto-call CtfIterator.close() */
-            try (CtfIterator removed = fMap.remove(context)) {
-                // try with resource
+            /* The iterator is kept idle, it is closed when it is evicted */
+            CtfIterator removed = fMap.remove(context);
+            if (removed == null || removed.isClosed()) {
+                return;
             }
-            fRandomAccess.remove(context);
-
+            if (fIdle.size() >= MAX_IDLE) {
+                fIdle.removeLast().dispose();
+            }
+            /* Do not keep decoding packets that may never be read */
+            removed.setPacketDecodeDepth(0);
+            fIdle.addFirst(removed);
         } finally {
             fAccessLock.unlock();
         }
     }
 
     /**
-     * Add a pair of context and element to the hashmap and the arraylist.
+     * Take the idle iterator to hand to a context. The iterator with the same
+     * event types which is the closest before the location is preferred, then
+     * the most recently released one.
      *
-     * @param context
-     *            the context
-     * @param elem
-     *            the iterator
+     * @param location
+     *            the location of the context, null if it has none
+     * @param eventTypes
+     *            the event types of the context
+     * @return the iterator, or null if there is no idle iterator
+     */
+    private @Nullable CtfIterator takeIdleIterator(@Nullable CtfLocationInfo location, @Nullable Set<@NonNull String> eventTypes) {
+        CtfIterator best = null;
+        CtfLocationInfo bestLocation = null;
+        Iterator<CtfIterator> iterator = fIdle.iterator();
+        while (iterator.hasNext()) {
+            /* The iterators that stay idle are closed when they are evicted */
+            @SuppressWarnings("resource")
+            CtfIterator candidate = iterator.next();
+            if (candidate.isClosed()) {
+                iterator.remove();
+                candidate.dispose();
+                continue;
+            }
+            if (location == null || !Objects.equals(candidate.getEventFilter(), eventTypes)) {
+                continue;
+            }
+            CtfLocationInfo candidateLocation = candidate.getLocation().getLocationInfo();
+            if (!candidateLocation.equals(CtfLocation.INVALID_LOCATION) && candidateLocation.compareTo(location) <= 0
+                    && (bestLocation == null || candidateLocation.compareTo(bestLocation) > 0)) {
+                best = candidate;
+                bestLocation = candidateLocation;
+            }
+        }
+        if (best != null) {
+            fIdle.remove(best);
+            return best;
+        }
+        return fIdle.pollFirst();
+    }
+
+    /**
+     * Move an iterator to a location, by reading the next events if the
+     * location is a few events ahead, or by seeking otherwise
      */
-    private void addElement(final CtfTmfContext context,
-            final CtfIterator elem) {
+    private static void moveTo(CtfIterator iter, CtfLocationInfo location) {
+        CtfLocationInfo current = iter.getLocation().getLocationInfo();
+        if (!current.equals(CtfLocation.INVALID_LOCATION)) {
+            for (int i = 0; i < MAX_WARM_EVENTS && current.compareTo(location) < 0; i++) {
+                if (!iter.advance()) {
+                    break;
+                }
+                current = iter.getLocation().getLocationInfo();
+            }
+        }
+        /* Seeking at the current location does nothing */
+        iter.seek(location);
+    }
+
+    /**
+     * Replace the least recently used element
+     *
+     * @return the iterator of the removed element, or null in the case of an
+     *         error
+     */
+    private @Nullable CtfIterator replaceLeastRecentlyUsed() {
+        Iterator<Entry<CtfTmfContext, CtfIterator>> iterator = fMap.entrySet().iterator();
+        Entry<CtfTmfContext, CtfIterator> eldest = iterator.next();
+        iterator.remove();
+        final CtfTmfContext victim = eldest.getKey();
+        CtfIterator elem = eldest.getValue();
+        if (elem.isClosed()) {
+            /*
+             * In case the iterator streams have been closed, we need to
+             * replace it by a fresh new one to access the trace. We also report
+             * that as an error as it should not happen.
+             */
+            Activator.getDefault().logError("Found closed iterator in iterator manager for trace " + victim.getTrace()); //$NON-NLS-1$
+
+            elem.dispose();
+            elem = (CtfIterator) fTrace.createIterator();
+        }
+        /* The victim is not in the map anymore, its iterator is kept */
+        victim.dispose();
+        return elem;
+    }
+
+    // ------------------------------------------------------------------------
+    // Metrics
+    // ------------------------------------------------------------------------
+
+    /**
+     * Get the number of times a context had its iterator
+     *
+     * @return the number of hits
+     */
+    public long getHitCount() {
         fAccessLock.lock();
         try {
-            fMap.put(context, elem);
-            fRandomAccess.add(context);
+            return fHits;
+        } finally {
+            fAccessLock.unlock();
+        }
+    }
 
+    /**
+     * Get the number of times an iterator had to be assigned to a context
+     *
+     * @return the number of misses
+     */
+    public long getMissCount() {
+        fAccessLock.lock();
+        try {
+            return fMisses;
         } finally {
             fAccessLock.unlock();
         }
     }
 
     /**
-     * Replace a random element
+     * Get the number of times the iterator of a disposed context was handed to
+     * another context
      *
-     * @param context
-     *            the context to swap in
-     * @return the iterator of the removed elements.
+     * @return the number of reuses
      */
-    private CtfIterator replaceRandomElement(final CtfTmfContext context) {
-        /*
-         * This needs some explanation too: We need to select a random victim
-         * and remove it. The order of the elements is not important, so instead
-         * of just calling arraylist.remove(element) which has an O(n)
-         * complexity, we pick an random number. The element is swapped out of
-         * the array and removed and replaced in the hashmap.
-         */
-        fAccessLock.lock(); // just in case, should only be called when already locked
+    public long getReuseCount() {
+        fAccessLock.lock();
         try {
-            final int size = fRandomAccess.size();
-            final int pos = fRnd.nextInt(size);
-            final CtfTmfContext victim = fRandomAccess.get(pos);
-            fRandomAccess.set(pos, context);
-            CtfIterator elem = checkNotNull(fMap.remove(victim));
-            if (elem.isClosed()) {
-                /*
-                 * In case the iterator streams have been closed, we need to
-                 * replace it by a fresh new one to access the trace. We also
-                 * report that as an error as it should not happen.
-                 */
-                Activator.getDefault().logError("Found closed iterator in iterator manager for trace " + victim.getTrace()); //$NON-NLS-1$
+            return fReuses;
+        } finally {
+            fAccessLock.unlock();
+        }
+    }
 
-                elem.dispose();
-                elem = (CtfIterator) fTrace.createIterator();
-            }
-            fMap.put(context, elem);
-            victim.dispose();
-            return elem;
+    /**
+     * Get the number of times the iterator of the least recently used context
+     * was taken from it
+     *
+     * @return the number of evictions
+     */
+    public long getEvictionCount() {
+        fAccessLock.lock();
+        try {
+            return fEvictions;
+        } finally {
+            fAccessLock.unlock();
+        }
+    }
 
+    /**
+     * Get the number of iterators of this manager, assigned to a context or
+     * idle
+     *
+     * @return the number of iterators
+     */
+    public int getIteratorCount() {
+        fAccessLock.lock();
+        try {
+            return fMap.size() + fIdle.size();
         } finally {
             fAccessLock.unlock();
         }
@@ -216,14 +368,19 @@ public class CtfIteratorManager {
     public void dispose() {
         fAccessLock.lock();
         try {
+            TraceCompassLogUtils.traceInstant(LOGGER, Level.FINE, "CtfIteratorManager:Dispose", "trace", fTrace.getName(), //$NON-NLS-1$ //$NON-NLS-2$
+                    "hits", fHits, "misses", fMisses, "reuses", fReuses, "evictions", fEvictions); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
             for (CtfIterator iterator : fMap.values()) {
                 iterator.dispose();
             }
             fMap.clear();
-            fRandomAccess.clear();
+            for (CtfIterator iterator : fIdle) {
+                iterator.dispose();
+            }
+            fIdle.clear();
 
         } finally {
             fAccessLock.unlock();
         }
     }
-}
\ No newline at end of file
+}
@@ -15,6 +15,9 @@
 
 package org.eclipse.tracecompass.tmf.ctf.core.context;
 
+import java.util.Set;
+
+import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.internal.tmf.ctf.core.trace.iterator.CtfIterator;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfContext;
@@ -36,6 +39,8 @@ public class CtfTmfContext implements ITmfContext {
 
     private CtfLocation fCurLocation;
     private long fCurRank;
+    private @Nullable Set<@NonNull String> fEventTypes;
+    private int fPacketDecodeDepth = 0;
 
     private final CtfTmfTrace fTrace;
 
@@ -161,6 +166,73 @@ public class CtfTmfContext implements ITmfContext {
         fTrace.disposeContext(this);
     }
 
+    /**
+     * Set the names of the event types to read from this context. The events
+     * of the other types are skipped by the CTF reader, so the ranks of the
+     * events read from this context are unknown from now on.
+     *
+     * @param eventTypes
+     *            the names of the event types to read, or null to read all the
+     *            events
+     * @since 4.3
+     */
+    public synchronized void setEventTypes(@Nullable Set<@NonNull String> eventTypes) {
+        fEventTypes = eventTypes;
+        if (eventTypes != null) {
+            fCurRank = ITmfContext.UNKNOWN_RANK;
+        }
+        /* The iterator is closed by the iterator manager of the trace */
+        @SuppressWarnings("resource")
+        CtfIterator iterator = getIterator();
+        if (iterator != null) {
+            iterator.setEventFilter(eventTypes);
+        }
+    }
+
+    /**
+     * Get the names of the event types to read from this context
+     *
+     * @return the names of the event types to read, or null if all the events
+     *         are read
+     * @since 4.3
+     */
+    public @Nullable Set<@NonNull String> getEventTypes() {
+        return fEventTypes;
+    }
+
+    /**
+     * Set the number of packets decoded ahead per stream file when reading
+     * from this context. This is meant for the contexts reading large parts
+     * of a trace, the decoded events being kept in memory until they are
+     * read.
+     *
+     * @param depth
+     *            the number of packets to decode ahead, 0 to decode the
+     *            events when they are read
+     * @since 4.3
+     */
+    public synchronized void setPacketDecodeDepth(int depth) {
+        fPacketDecodeDepth = depth;
+        /* The iterator is closed by the iterator manager of the trace */
+        @SuppressWarnings("resource")
+        CtfIterator iterator = getIterator();
+        if (iterator != null) {
+            iterator.setPacketDecodeDepth(depth);
+        }
+    }
+
+    /**
+     * Get the number of packets decoded ahead per stream file when reading
+     * from this context
+     *
+     * @return the number of packets decoded ahead, 0 if the events are
+     *         decoded when they are read
+     * @since 4.3
+     */
+    public int getPacketDecodeDepth() {
+        return fPacketDecodeDepth;
+    }
+
     /**
      * Seeks to a given timestamp. Wrapper to help CtfTmfTrace
      *
@@ -18,6 +18,7 @@ package org.eclipse.tracecompass.tmf.ctf.core.trace;
 
 import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNull;
 
+import java.io.File;
 import java.nio.BufferOverflowException;
 import java.nio.ByteBuffer;
 import java.nio.file.Path;
@@ -65,6 +66,7 @@ import org.eclipse.tracecompass.tmf.core.event.aspect.ITmfEventAspect;
 import org.eclipse.tracecompass.tmf.core.event.aspect.TmfBaseAspects;
 import org.eclipse.tracecompass.tmf.core.exceptions.TmfTraceException;
 import org.eclipse.tracecompass.tmf.core.project.model.ITmfPropertiesProvider;
+import org.eclipse.tracecompass.tmf.core.request.ITmfEventRequest;
 import org.eclipse.tracecompass.tmf.core.timestamp.ITmfTimestamp;
 import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimeRange;
 import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimestamp;
@@ -73,6 +75,7 @@ import org.eclipse.tracecompass.tmf.core.trace.ITmfContext;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTraceKnownSize;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTraceWithPreDefinedEvents;
 import org.eclipse.tracecompass.tmf.core.trace.TmfTrace;
+import org.eclipse.tracecompass.tmf.core.trace.TmfTraceManager;
 import org.eclipse.tracecompass.tmf.core.trace.TraceValidationStatus;
 import org.eclipse.tracecompass.tmf.core.trace.indexer.ITmfPersistentlyIndexable;
 import org.eclipse.tracecompass.tmf.core.trace.indexer.ITmfTraceIndexer;
@@ -159,6 +162,17 @@ public class CtfTmfTrace extends TmfTrace
      */
     private static final int CTF_AVG_EVENT_SIZE = 16;
 
+    /**
+     * Number of packets read ahead per stream file
+     */
+    private static final int PACKET_PREFETCH_DEPTH = 4;
+
+    /**
+     * Number of packets decoded ahead per stream file, by the background
+     * requests reading the trace to its end
+     */
+    private static final int PACKET_DECODE_DEPTH = 2;
+
     // -------------------------------------------
     // Fields
     // -------------------------------------------
@@ -225,6 +239,16 @@ public class CtfTmfTrace extends TmfTrace
 
         try {
             this.fTrace = new CTFTrace(path);
+            /*
+             * The event content is lazy-loaded, so only decode the fields of
+             * the events whose content is read
+             */
+            fTrace.setLazyEventFields(true);
+            /* Keep the packet indexes with the other supplementary files */
+            fTrace.setPacketIndexDirectory(new File(TmfTraceManager.getSupplementaryFileDir(this)));
+            fTrace.indexStreamInputs();
+            /* Read the next packets from the disk while decoding */
+            fTrace.setPacketPrefetchDepth(PACKET_PREFETCH_DEPTH);
             CtfTmfContext ctx;
             /* Set the start and (current) end times for this trace */
             ctx = (CtfTmfContext) seekEvent(0L);
@@ -470,6 +494,30 @@ public class CtfTmfTrace extends TmfTrace
         return event;
     }
 
+    /**
+     * The event types of the requests reading all the events of a time range
+     * are passed down to the CTF reader, which then skips the other events
+     * without decoding their fields. The background requests reading all the
+     * events to the end of the trace, like the analyses, decode the next
+     * packets ahead in parallel.
+     */
+    @Override
+    public synchronized ITmfContext armRequest(final ITmfEventRequest request) {
+        ITmfContext context = super.armRequest(request);
+        if (context instanceof CtfTmfContext && request.getNbRequested() == ITmfEventRequest.ALL_DATA) {
+            CtfTmfContext ctfContext = (CtfTmfContext) context;
+            Set<@NonNull String> eventTypes = request.getEventTypes();
+            if (eventTypes != null) {
+                ctfContext.setEventTypes(eventTypes);
+            }
+            if (request.getExecType() == ITmfEventRequest.ExecutionType.BACKGROUND &&
+                    request.getRange().getEndTime().equals(TmfTimestamp.BIG_CRUNCH)) {
+                ctfContext.setPacketDecodeDepth(PACKET_DECODE_DEPTH);
+            }
+        }
+        return context;
+    }
+
     /**
      * Ctf traces have a clock with a unique uuid that will be used to identify the
      * host. Traces with the same clock uuid will be known to have been made on the
@@ -0,0 +1,151 @@
+/**********************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ **********************************************************************/
+
+package org.eclipse.tracecompass.lttng2.control.core.tests.relayd;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import org.eclipse.tracecompass.ctf.core.CTFException;
+import org.eclipse.tracecompass.internal.lttng2.control.core.relayd.LttngRelaydLiveReader;
+import org.eclipse.tracecompass.internal.lttng2.control.core.relayd.impl.LttngRelaydConnectorFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test the {@link LttngRelaydLiveReader} with a mock relay daemon
+ */
+public class LttngRelaydLiveReaderTest {
+
+    private static final String SESSION_NAME = "live"; //$NON-NLS-1$
+    private static final String METADATA = "/* CTF 1.8 */\n"; //$NON-NLS-1$
+
+    private MockRelayd fRelayd;
+    private Socket fSocket;
+    private File fDirectory;
+
+    /**
+     * Start the relay daemon and connect to it
+     *
+     * @throws IOException
+     *             if the relay daemon, the connection or the directory cannot
+     *             be created
+     */
+    @Before
+    public void setUp() throws IOException {
+        fRelayd = new MockRelayd(SESSION_NAME, METADATA);
+        fRelayd.addStream(1, "channel0_0"); //$NON-NLS-1$
+        fRelayd.addStream(2, "channel0_1"); //$NON-NLS-1$
+        fSocket = new Socket(InetAddress.getLoopbackAddress(), fRelayd.getPort());
+        fDirectory = Files.createTempDirectory("live").toFile(); //$NON-NLS-1$
+    }
+
+    /**
+     * Disconnect, stop the relay daemon and delete the trace
+     *
+     * @throws IOException
+     *             if the trace cannot be deleted
+     */
+    @After
+    public void tearDown() throws IOException {
+        fSocket.close();
+        fRelayd.close();
+        try (Stream<Path> files = Files.walk(fDirectory.toPath())) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @SuppressWarnings("resource")
+    private LttngRelaydLiveReader attach(String sessionName) throws IOException {
+        /* The connector is closed with the reader, or by attach if it fails */
+        return LttngRelaydLiveReader.attach(LttngRelaydConnectorFactory.getNewConnector(fSocket), sessionName, fDirectory);
+    }
+
+    private byte[] read(String fileName) throws IOException {
+        return Files.readAllBytes(new File(fDirectory, fileName).toPath());
+    }
+
+    /**
+     * Test receiving the packets, streams and metadata of a session until it
+     * is destroyed
+     *
+     * @throws IOException
+     *             if the communication fails
+     * @throws CTFException
+     *             if a packet cannot be added
+     */
+    @Test
+    public void testLiveSession() throws IOException, CTFException {
+        byte[] first = { 1, 2, 3, 4 };
+        byte[] second = { 5, 6, 7, 8, 9, 10, 11, 12 };
+        byte[] third = { 13, 14, 15, 16 };
+        byte[] fourth = { 17, 18 };
+        fRelayd.addPacket(1, first, 10, 20);
+        fRelayd.addPacket(2, second, 15, 30);
+
+        try (LttngRelaydLiveReader reader = attach(SESSION_NAME)) {
+            assertEquals(METADATA, new String(read("metadata"), StandardCharsets.UTF_8)); //$NON-NLS-1$
+            assertEquals(0, read("channel0_0").length); //$NON-NLS-1$
+
+            assertEquals(2, reader.poll());
+            assertArrayEquals(first, read("channel0_0")); //$NON-NLS-1$
+            assertArrayEquals(second, read("channel0_1")); //$NON-NLS-1$
+            assertEquals(30, reader.getTimestampEnd());
+
+            /* Nothing new yet */
+            assertEquals(0, reader.poll());
+            assertFalse(reader.isComplete());
+
+            /* A packet, a new stream and new metadata */
+            fRelayd.addPacket(1, third, 20, 40);
+            fRelayd.addStream(3, "channel1_0"); //$NON-NLS-1$
+            fRelayd.addPacket(3, fourth, 25, 35);
+            fRelayd.addMetadata("event { };\n"); //$NON-NLS-1$
+            assertEquals(1, reader.poll());
+            assertEquals(1, reader.poll());
+            assertArrayEquals(new byte[] { 1, 2, 3, 4, 13, 14, 15, 16 }, read("channel0_0")); //$NON-NLS-1$
+            assertArrayEquals(fourth, read("channel1_0")); //$NON-NLS-1$
+            assertEquals(METADATA + "event { };\n", new String(read("metadata"), StandardCharsets.UTF_8)); //$NON-NLS-1$ //$NON-NLS-2$
+            assertEquals(40, reader.getTimestampEnd());
+            assertEquals(4, reader.getPacketCount());
+
+            fRelayd.hangUp();
+            assertEquals(0, reader.poll());
+            assertTrue(reader.isComplete());
+        }
+    }
+
+    /**
+     * Test attaching to a session that does not exist
+     */
+    @Test
+    public void testSessionNotFound() {
+        try (LttngRelaydLiveReader reader = attach("other")) { //$NON-NLS-1$
+            fail();
+        } catch (IOException e) {
+            // Expected
+        }
+    }
+}
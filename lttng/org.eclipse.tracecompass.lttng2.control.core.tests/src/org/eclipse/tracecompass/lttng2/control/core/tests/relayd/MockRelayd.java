@@ -0,0 +1,286 @@
+/**********************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ **********************************************************************/
+
+package org.eclipse.tracecompass.lttng2.control.core.tests.relayd;
+
+import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNull;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.tracecompass.internal.lttng2.control.core.relayd.commands.Command;
+import org.eclipse.tracecompass.internal.lttng2.control.core.relayd.commands.ConnectResponse;
+import org.eclipse.tracecompass.internal.lttng2.control.core.relayd.commands.ConnectionType;
+import org.eclipse.tracecompass.internal.lttng2.control.core.relayd.commands.LttngViewerCommands;
+
+/**
+ * A relay daemon serving one live session to one viewer over the loopback
+ * interface, with the packets and streams given by the test
+ */
+public class MockRelayd implements AutoCloseable {
+
+    private static final long SESSION_ID = 1;
+    private static final long METADATA_STREAM_ID = 1000;
+    private static final int HOST_NAME_MAX = 64;
+    private static final int NAME_MAX = 255;
+    private static final int PATH_MAX = 4096;
+
+    private final ServerSocket fServer;
+    private final Thread fThread;
+    private final String fSessionName;
+    private final Map<Long, MockStream> fStreams = new LinkedHashMap<>();
+    private final List<MockStream> fNewStreams = new ArrayList<>();
+    private final Deque<String> fMetadata = new ArrayDeque<>();
+    private boolean fAttached = false;
+    private boolean fHungUp = false;
+    private volatile boolean fClosed = false;
+
+    private static class MockStream {
+        private final long fId;
+        private final String fChannelName;
+        private final Deque<byte[]> fPackets = new ArrayDeque<>();
+        private final Deque<long[]> fTimestamps = new ArrayDeque<>();
+        private long fOffset = 0;
+        private byte[] fCurrent = new byte[0];
+
+        public MockStream(long id, String channelName) {
+            fId = id;
+            fChannelName = channelName;
+        }
+    }
+
+    /**
+     * Constructor, starts serving on a free port of the loopback interface
+     *
+     * @param sessionName
+     *            the name of the session
+     * @param metadata
+     *            the metadata of the session
+     * @throws IOException
+     *             if the server socket cannot be opened
+     */
+    public MockRelayd(String sessionName, String metadata) throws IOException {
+        fSessionName = sessionName;
+        fMetadata.add(metadata);
+        fServer = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        fThread = new Thread(this::serve, "Mock relayd"); //$NON-NLS-1$
+        fThread.setDaemon(true);
+        fThread.start();
+    }
+
+    /**
+     * Get the port the relay daemon listens to
+     *
+     * @return the port
+     */
+    public int getPort() {
+        return fServer.getLocalPort();
+    }
+
+    /**
+     * Add a stream to the session. The streams added after the viewer
+     * attached are announced as new streams.
+     *
+     * @param id
+     *            the id of the stream
+     * @param channelName
+     *            the name of its channel
+     */
+    public synchronized void addStream(long id, String channelName) {
+        MockStream stream = new MockStream(id, channelName);
+        fStreams.put(id, stream);
+        if (fAttached) {
+            fNewStreams.add(stream);
+        }
+    }
+
+    /**
+     * Add a packet to a stream
+     *
+     * @param streamId
+     *            the id of the stream
+     * @param packet
+     *            the bytes of the packet
+     * @param begin
+     *            the begin timestamp of the packet
+     * @param end
+     *            the end timestamp of the packet
+     */
+    public synchronized void addPacket(long streamId, byte[] packet, long begin, long end) {
+        MockStream stream = checkNotNull(fStreams.get(streamId));
+        stream.fPackets.add(packet);
+        stream.fTimestamps.add(new long[] { begin, end });
+    }
+
+    /**
+     * Add a metadata fragment, announced with the next index
+     *
+     * @param metadata
+     *            the metadata fragment
+     */
+    public synchronized void addMetadata(String metadata) {
+        fMetadata.add(metadata);
+    }
+
+    /**
+     * Destroy the session, the streams hang up once their packets are read
+     */
+    public synchronized void hangUp() {
+        fHungUp = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        fClosed = true;
+        fServer.close();
+    }
+
+    private void serve() {
+        try (Socket socket = fServer.accept();
+                DataInputStream in = new DataInputStream(socket.getInputStream());
+                DataOutputStream out = new DataOutputStream(socket.getOutputStream())) {
+            while (!fClosed) {
+                /* The viewer command header */
+                in.readLong();
+                int command = in.readInt();
+                in.readInt();
+                synchronized (this) {
+                    handle(command, in, out);
+                }
+                out.flush();
+            }
+        } catch (IOException e) {
+            // The viewer closed the connection
+        }
+    }
+
+    private void handle(int command, DataInputStream in, DataOutputStream out) throws IOException {
+        if (command == Command.VIEWER_CONNECT.getCommand()) {
+            in.readFully(new byte[ConnectResponse.SIZE]);
+            out.write(new ConnectResponse(0, 2, 4, ConnectionType.VIEWER_CLIENT_COMMAND).serialize());
+        } else if (command == Command.VIEWER_LIST_SESSIONS.getCommand()) {
+            out.writeInt(1);
+            out.writeLong(SESSION_ID);
+            out.writeInt(1000);
+            out.writeInt(0);
+            out.writeInt(fStreams.size());
+            out.write(fixed("localhost", HOST_NAME_MAX)); //$NON-NLS-1$
+            out.write(fixed(fSessionName, NAME_MAX));
+        } else if (command == Command.VIEWER_CREATE_SESSION.getCommand()) {
+            out.writeInt(1);
+        } else if (command == Command.VIEWER_ATTACH_SESSION.getCommand()) {
+            long sessionId = in.readLong();
+            in.readLong();
+            in.readInt();
+            if (sessionId != SESSION_ID) {
+                out.writeInt(6);
+                out.writeInt(0);
+                return;
+            }
+            fAttached = true;
+            out.writeInt(1);
+            out.writeInt(fStreams.size() + 1);
+            writeStream(out, METADATA_STREAM_ID, "metadata", 1); //$NON-NLS-1$
+            for (MockStream stream : fStreams.values()) {
+                writeStream(out, stream.fId, stream.fChannelName, 0);
+            }
+        } else if (command == Command.VIEWER_GET_METADATA.getCommand()) {
+            in.readLong();
+            String metadata = fMetadata.poll();
+            byte[] data = metadata == null ? new byte[0] : metadata.getBytes(StandardCharsets.UTF_8);
+            out.writeLong(data.length);
+            out.writeInt(metadata == null ? 2 : 1);
+            out.write(data);
+        } else if (command == Command.VIEWER_GET_NEXT_INDEX.getCommand()) {
+            writeIndex(out, checkNotNull(fStreams.get(in.readLong())));
+        } else if (command == Command.VIEWER_GET_PACKET.getCommand()) {
+            long streamId = in.readLong();
+            in.readLong();
+            in.readInt();
+            MockStream stream = checkNotNull(fStreams.get(streamId));
+            byte[] data = stream.fCurrent;
+            out.writeInt(1);
+            out.writeInt(data.length);
+            out.writeInt(0);
+            out.write(data);
+        } else if (command == Command.VIEWER_GET_NEW_STREAMS.getCommand()) {
+            out.writeInt(fNewStreams.isEmpty() ? 2 : 1);
+            out.writeInt(fNewStreams.size());
+            for (MockStream stream : fNewStreams) {
+                writeStream(out, stream.fId, stream.fChannelName, 0);
+            }
+            fNewStreams.clear();
+        } else {
+            throw new IOException("Unknown command " + command); //$NON-NLS-1$
+        }
+    }
+
+    private void writeIndex(DataOutputStream out, MockStream stream) throws IOException {
+        byte[] packet = stream.fPackets.poll();
+        long[] timestamps = stream.fTimestamps.poll();
+        int status;
+        if (packet != null) {
+            status = 1;
+        } else {
+            status = fHungUp ? 3 : 2;
+        }
+        long size = packet == null ? 0 : packet.length * 8L;
+        ByteBuffer index = ByteBuffer.allocate((Long.SIZE * 7 + Integer.SIZE * 2) / 8);
+        index.putLong(stream.fOffset);
+        index.putLong(size);
+        index.putLong(size);
+        index.putLong(timestamps == null ? 0 : timestamps[0]);
+        index.putLong(timestamps == null ? 0 : timestamps[1]);
+        index.putLong(0);
+        index.putLong(stream.fId);
+        index.putInt(status);
+        int flags = 0;
+        if (!fNewStreams.isEmpty()) {
+            flags |= LttngViewerCommands.NEW_STREAM;
+        }
+        if (!fMetadata.isEmpty()) {
+            flags |= LttngViewerCommands.NEW_METADATA;
+        }
+        index.putInt(flags);
+        out.write(index.array());
+        if (packet != null) {
+            stream.fCurrent = packet;
+            stream.fOffset += packet.length;
+        }
+    }
+
+    private static void writeStream(DataOutputStream out, long id, String channelName, int metadataFlag) throws IOException {
+        out.writeLong(id);
+        out.writeLong(SESSION_ID);
+        out.writeInt(metadataFlag);
+        out.write(fixed("live/" + channelName, PATH_MAX)); //$NON-NLS-1$
+        out.write(fixed(channelName, NAME_MAX));
+    }
+
+    private static byte[] fixed(String string, int size) {
+        byte[] bytes = new byte[size];
+        byte[] content = string.getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(content, 0, bytes, 0, Math.min(content.length, size - 1));
+        return bytes;
+    }
+}
@@ -0,0 +1,330 @@
+/**********************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ **********************************************************************/
+
+package org.eclipse.tracecompass.internal.lttng2.control.core.relayd;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.ctf.core.CTFException;
+import org.eclipse.tracecompass.ctf.core.trace.CTFStreamInput;
+import org.eclipse.tracecompass.ctf.core.trace.CTFTrace;
+import org.eclipse.tracecompass.ctf.core.trace.ICTFStream;
+import org.eclipse.tracecompass.internal.lttng2.control.core.relayd.commands.AttachReturnCode;
+import org.eclipse.tracecompass.internal.lttng2.control.core.relayd.commands.AttachSessionResponse;
+import org.eclipse.tracecompass.internal.lttng2.control.core.relayd.commands.CreateSessionResponse;
+import org.eclipse.tracecompass.internal.lttng2.control.core.relayd.commands.CreateSessionReturnCode;
+import org.eclipse.tracecompass.internal.lttng2.control.core.relayd.commands.GetPacketReturnCode;
+import org.eclipse.tracecompass.internal.lttng2.control.core.relayd.commands.IndexResponse;
+import org.eclipse.tracecompass.internal.lttng2.control.core.relayd.commands.LttngViewerCommands;
+import org.eclipse.tracecompass.internal.lttng2.control.core.relayd.commands.SessionResponse;
+import org.eclipse.tracecompass.internal.lttng2.control.core.relayd.commands.StreamResponse;
+import org.eclipse.tracecompass.internal.lttng2.control.core.relayd.commands.TracePacketResponse;
+
+/**
+ * Reader of a live session of a relay daemon. It receives the packets of the
+ * streams of the session and writes them to a local copy of the trace. Once
+ * the trace is opened and given to the reader, the packets are appended to
+ * the stream inputs of the trace, which index them as they arrive, so the
+ * readers of the trace read the new events without opening it again.
+ *
+ * The metadata received after the trace is opened is appended to the local
+ * copy and its new declarations are added to the trace.
+ */
+public final class LttngRelaydLiveReader implements AutoCloseable {
+
+    private static final String METADATA_FILE_NAME = "metadata"; //$NON-NLS-1$
+    private static final String STREAM_FILE_PREFIX = "stream_"; //$NON-NLS-1$
+
+    private final ILttngRelaydConnector fRelayd;
+    private final AttachSessionResponse fSession;
+    private final File fDirectory;
+    private final Map<Long, LiveStream> fStreams = new LinkedHashMap<>();
+
+    private @Nullable CTFTrace fTrace = null;
+    private long fTimestampEnd = Long.MIN_VALUE;
+    private long fPacketCount = 0;
+
+    /**
+     * A data stream of the session and its file in the local copy of the trace
+     */
+    private static final class LiveStream {
+        private final StreamResponse fResponse;
+        private final File fFile;
+        private @Nullable CTFStreamInput fInput = null;
+        private boolean fHungUp = false;
+
+        public LiveStream(StreamResponse response, File file) {
+            fResponse = response;
+            fFile = file;
+        }
+    }
+
+    /**
+     * Constructor, writes the metadata of the session and creates the files of
+     * its streams in the local copy of the trace
+     *
+     * @param relayd
+     *            the connector to the relay daemon
+     * @param session
+     *            the session the connector is attached to
+     * @param directory
+     *            the directory of the local copy of the trace
+     * @throws IOException
+     *             if the metadata cannot be received or the files cannot be
+     *             written
+     */
+    public LttngRelaydLiveReader(ILttngRelaydConnector relayd, AttachSessionResponse session, File directory) throws IOException {
+        fRelayd = relayd;
+        fSession = session;
+        fDirectory = directory;
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create the trace directory " + directory); //$NON-NLS-1$
+        }
+        String metadata = relayd.getMetadata(session);
+        if (metadata == null) {
+            throw new IOException("The session has no metadata"); //$NON-NLS-1$
+        }
+        Files.write(getMetadataFile().toPath(), metadata.getBytes(StandardCharsets.UTF_8));
+        addStreams(session.getStreamList());
+    }
+
+    /**
+     * Attach to a session of the relay daemon and create a reader of it
+     *
+     * @param relayd
+     *            the connector to the relay daemon, closed with the reader or
+     *            if the reader cannot be created
+     * @param sessionName
+     *            the name of the session
+     * @param directory
+     *            the directory of the local copy of the trace
+     * @return the reader
+     * @throws IOException
+     *             if the session is not found, cannot be attached to, or the
+     *             local copy cannot be written
+     */
+    public static LttngRelaydLiveReader attach(ILttngRelaydConnector relayd, String sessionName, File directory) throws IOException {
+        try {
+            SessionResponse selectedSession = null;
+            for (SessionResponse session : relayd.getSessions()) {
+                if (nullTerminatedString(session.getSessionName()).equals(sessionName)) {
+                    selectedSession = session;
+                    break;
+                }
+            }
+            if (selectedSession == null) {
+                throw new IOException("Session not found: " + sessionName); //$NON-NLS-1$
+            }
+            CreateSessionResponse createSession = relayd.createSession();
+            if (createSession.getStatus() != CreateSessionReturnCode.LTTNG_VIEWER_CREATE_SESSION_OK) {
+                throw new IOException("Cannot create the viewer session: " + createSession.getStatus()); //$NON-NLS-1$
+            }
+            AttachSessionResponse attachedSession = relayd.attachToSession(selectedSession);
+            if (attachedSession.getStatus() != AttachReturnCode.VIEWER_ATTACH_OK) {
+                throw new IOException("Cannot attach to the session: " + attachedSession.getStatus()); //$NON-NLS-1$
+            }
+            return new LttngRelaydLiveReader(relayd, attachedSession, directory);
+        } catch (IOException e) {
+            /* There is no reader to close the connector */
+            relayd.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Get the directory of the local copy of the trace, to open it
+     *
+     * @return the trace directory
+     */
+    public File getTraceDirectory() {
+        return fDirectory;
+    }
+
+    /**
+     * Get the metadata file of the local copy of the trace
+     *
+     * @return the metadata file
+     */
+    public File getMetadataFile() {
+        return new File(fDirectory, METADATA_FILE_NAME);
+    }
+
+    /**
+     * Set the trace opened on the local copy. The packets received from then
+     * on are appended to its stream inputs.
+     *
+     * @param trace
+     *            the trace
+     */
+    public synchronized void setTrace(CTFTrace trace) {
+        fTrace = trace;
+        for (LiveStream stream : fStreams.values()) {
+            stream.fInput = findStreamInput(trace, stream.fFile);
+        }
+    }
+
+    /**
+     * Request the next packet of every stream that did not hang up, and write
+     * the packets received to the trace
+     *
+     * @return the number of packets received
+     * @throws IOException
+     *             if the communication with the relay daemon fails or a packet
+     *             cannot be written
+     * @throws CTFException
+     *             if a packet cannot be added to the trace or the new metadata
+     *             cannot be parsed
+     */
+    public synchronized int poll() throws IOException, CTFException {
+        int received = 0;
+        for (LiveStream stream : new ArrayList<>(fStreams.values())) {
+            if (stream.fHungUp) {
+                continue;
+            }
+            IndexResponse index = fRelayd.getNextIndex(stream.fResponse);
+            switch (index.getStatus()) {
+            case VIEWER_INDEX_OK:
+                TracePacketResponse packet = fRelayd.getPacketFromStream(index, stream.fResponse.getId());
+                if (packet.getStatus() == GetPacketReturnCode.VIEWER_GET_PACKET_OK) {
+                    append(stream, packet.getData());
+                    fTimestampEnd = Math.max(fTimestampEnd, index.getTimestampEnd());
+                    fPacketCount++;
+                    received++;
+                }
+                break;
+            case VIEWER_INDEX_HUP:
+                stream.fHungUp = true;
+                break;
+            case VIEWER_INDEX_ERR:
+                throw new IOException("Cannot get the next index of stream " + stream.fResponse.getId()); //$NON-NLS-1$
+            case VIEWER_INDEX_RETRY:
+            case VIEWER_INDEX_INACTIVE:
+            case VIEWER_INDEX_EOF:
+            default:
+                /* No packet available yet */
+                break;
+            }
+            if ((index.getFlags() & LttngViewerCommands.NEW_METADATA) != 0) {
+                String metadata = fRelayd.getMetadata(fSession);
+                if (metadata != null) {
+                    Files.write(getMetadataFile().toPath(), metadata.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+                    CTFTrace trace = fTrace;
+                    if (trace != null) {
+                        trace.updateMetadata();
+                    }
+                }
+            }
+            if ((index.getFlags() & LttngViewerCommands.NEW_STREAM) != 0) {
+                addStreams(fRelayd.getNewStreams());
+            }
+        }
+        return received;
+    }
+
+    /**
+     * Get whether all the streams of the session hung up, the session was
+     * destroyed and no more packets will be received
+     *
+     * @return true if the trace is complete
+     */
+    public synchronized boolean isComplete() {
+        return !fStreams.isEmpty() && fStreams.values().stream().allMatch(stream -> stream.fHungUp);
+    }
+
+    /**
+     * Get the end timestamp of the last packet received
+     *
+     * @return the end timestamp in clock cycles, or {@link Long#MIN_VALUE} if
+     *         no packet was received
+     */
+    public synchronized long getTimestampEnd() {
+        return fTimestampEnd;
+    }
+
+    /**
+     * Get the number of packets received
+     *
+     * @return the number of packets
+     */
+    public synchronized long getPacketCount() {
+        return fPacketCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        fRelayd.close();
+    }
+
+    // ------------------------------------------------------------------------
+    // Helpers
+    // ------------------------------------------------------------------------
+
+    private void addStreams(Iterable<StreamResponse> streams) throws IOException {
+        for (StreamResponse response : streams) {
+            if (response.getMetadataFlag() == 1 || fStreams.containsKey(response.getId())) {
+                continue;
+            }
+            String name = nullTerminatedString(response.getChannelName());
+            File file = new File(fDirectory, name.isEmpty() ? STREAM_FILE_PREFIX + response.getId() : name);
+            if (isStreamFile(file)) {
+                /* Channels of different traces of the session can share a name */
+                file = new File(fDirectory, name + '_' + response.getId());
+            }
+            /* Start from an empty file, the directory may hold an older copy */
+            Files.write(file.toPath(), new byte[0]);
+            fStreams.put(response.getId(), new LiveStream(response, file));
+        }
+    }
+
+    private boolean isStreamFile(File file) {
+        return fStreams.values().stream().anyMatch(stream -> stream.fFile.equals(file));
+    }
+
+    private void append(LiveStream stream, byte[] data) throws IOException, CTFException {
+        CTFStreamInput input = stream.fInput;
+        if (input != null) {
+            input.appendPacket(ByteBuffer.wrap(data));
+            return;
+        }
+        Files.write(stream.fFile.toPath(), data, StandardOpenOption.APPEND);
+        CTFTrace trace = fTrace;
+        if (trace != null) {
+            /* The first packet of the stream tells the trace which stream it is */
+            trace.addStreamFile(stream.fFile);
+            stream.fInput = findStreamInput(trace, stream.fFile);
+        }
+    }
+
+    private static @Nullable CTFStreamInput findStreamInput(CTFTrace trace, File file) {
+        for (ICTFStream stream : trace.getStreams()) {
+            for (CTFStreamInput input : stream.getStreamInputs()) {
+                if (input.getFile().equals(file)) {
+                    return input;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String nullTerminatedString(String string) {
+        int end = string.indexOf('\0');
+        return (end < 0 ? string : string.substring(0, end)).trim();
+    }
+}
@@ -24,6 +24,7 @@ import java.util.Comparator;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Random;
 
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.tracecompass.common.core.NonNullUtils;
@@ -34,6 +35,7 @@ import org.eclipse.tracecompass.segmentstore.core.BasicSegment;
 import org.eclipse.tracecompass.segmentstore.core.ISegment;
 import org.eclipse.tracecompass.segmentstore.core.ISegmentStore;
 import org.eclipse.tracecompass.segmentstore.core.SegmentComparators;
+import org.eclipse.tracecompass.segmentstore.core.SegmentSummary;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -570,6 +572,76 @@ public abstract class AbstractTestSegmentStore {
         }
     }
 
+    /**
+     * Test the {@link ISegmentStore#getSummaries(long, long, int)} method
+     */
+    @Test
+    public void testGetSummaries() {
+        List<SegmentSummary> summaries = fSegmentStore.getSummaries(0, 15, 4);
+        assertEquals(4, summaries.size());
+        assertSummary(summaries.get(0), 0, 3, 1, 4, 4, 4);
+        assertSummary(summaries.get(1), 4, 7, 3, 2, 4, 8);
+        assertSummary(summaries.get(2), 8, 11, 1, 4, 4, 4);
+        assertSummary(summaries.get(3), 12, 15, 0, Long.MAX_VALUE, Long.MIN_VALUE, 0);
+
+        /* Segments starting before the range are not counted */
+        summaries = fSegmentStore.getSummaries(3, 9, 1);
+        assertEquals(1, summaries.size());
+        assertSummary(summaries.get(0), 3, 9, 3, 2, 4, 8);
+
+        /* The whole time range */
+        summaries = fSegmentStore.getSummaries(Long.MIN_VALUE, Long.MAX_VALUE, 2);
+        assertEquals(2, summaries.size());
+        assertSummary(summaries.get(0), Long.MIN_VALUE, -1, 0, Long.MAX_VALUE, Long.MIN_VALUE, 0);
+        assertSummary(summaries.get(1), 0, Long.MAX_VALUE, 5, 2, 4, 16);
+    }
+
+    /**
+     * Test the {@link ISegmentStore#getSummaries(long, long, int)} method on a
+     * store large enough to be pre-aggregated, against summaries computed from
+     * the segments.
+     */
+    @Test
+    public void testGetSummariesLargeStore() {
+        ISegmentStore<@NonNull TestSegment> store = getSegmentStore();
+        List<@NonNull TestSegment> segments = new ArrayList<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 10000; i++) {
+            long start = random.nextInt(1000000);
+            TestSegment segment = new TestSegment(start, start + random.nextInt(5000), "test");
+            segments.add(segment);
+            store.add(segment);
+        }
+        long[][] ranges = { { 0, 1000000 }, { 12345, 678901 }, { 999000, 1005000 }, { -100, 10 }, { 500000, 500000 } };
+        int[] nbBuckets = { 1, 7, 100, 1000 };
+        for (long[] range : ranges) {
+            for (int nb : nbBuckets) {
+                List<SegmentSummary> actual = store.getSummaries(range[0], range[1], nb);
+                List<SegmentSummary> expected = SegmentSummary.createBuckets(range[0], range[1], nb);
+                for (SegmentSummary bucket : expected) {
+                    segments.stream()
+                            .filter(s -> s.getStart() >= bucket.getStart() && s.getStart() <= bucket.getEnd())
+                            .forEach(bucket::update);
+                }
+                assertEquals(expected.size(), actual.size());
+                for (int i = 0; i < expected.size(); i++) {
+                    SegmentSummary exp = expected.get(i);
+                    assertSummary(actual.get(i), exp.getStart(), exp.getEnd(), exp.getCount(), exp.getMinLength(), exp.getMaxLength(), exp.getTotalLength());
+                }
+            }
+        }
+        store.dispose();
+    }
+
+    private static void assertSummary(SegmentSummary summary, long start, long end, long count, long min, long max, long total) {
+        assertEquals(start, summary.getStart());
+        assertEquals(end, summary.getEnd());
+        assertEquals(count, summary.getCount());
+        assertEquals(min, summary.getMinLength());
+        assertEquals(max, summary.getMaxLength());
+        assertEquals(total, summary.getTotalLength());
+    }
+
     /**
      * Test retainAll() contract
      */
@@ -0,0 +1,207 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.segmentstore.core.tests;
+
+import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNull;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.tracecompass.datastore.core.interval.IHTIntervalReader;
+import org.eclipse.tracecompass.segmentstore.core.BasicSegment;
+import org.eclipse.tracecompass.segmentstore.core.ISegment;
+import org.eclipse.tracecompass.segmentstore.core.ISegmentStore;
+import org.eclipse.tracecompass.segmentstore.core.SegmentStoreFactory;
+import org.eclipse.tracecompass.segmentstore.core.SegmentStoreFactory.SegmentStoreType;
+import org.eclipse.tracecompass.segmentstore.core.SegmentSummary;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Iterables;
+
+/**
+ * Test the snapshots of in-memory segment stores, saved with
+ * {@link SegmentStoreFactory#writeSegmentStoreSnapshot} and loaded with
+ * {@link SegmentStoreFactory#loadSegmentStoreSnapshot}
+ */
+public class SegmentStoreSnapshotTest {
+
+    private static final int VERSION = 3;
+    private static final @NonNull IHTIntervalReader<@NonNull ISegment> READER = buffer -> BasicSegment.BASIC_SEGMENT_READ_FACTORY.readInterval(buffer);
+
+    private Path fFile;
+
+    /**
+     * Create the file for the snapshot
+     *
+     * @throws IOException
+     *             Exception creating the file
+     */
+    @Before
+    public void setup() throws IOException {
+        fFile = Files.createTempFile("segmentStoreSnapshot", ".sss");
+    }
+
+    /**
+     * Delete the snapshot file
+     *
+     * @throws IOException
+     *             Exception deleting the file
+     */
+    @After
+    public void teardown() throws IOException {
+        Files.deleteIfExists(fFile);
+    }
+
+    private @NonNull Path getFile() {
+        return checkNotNull(fFile);
+    }
+
+    private static @NonNull ISegmentStore<@NonNull ISegment> createStore(SegmentStoreType type, int nbSegments) {
+        ISegmentStore<@NonNull ISegment> store = SegmentStoreFactory.createSegmentStore(type);
+        for (int i = 0; i < nbSegments; i++) {
+            // Insert the segments out of order
+            long start = (i * 7919L) % nbSegments;
+            store.add(new BasicSegment(start, start + i % 100));
+        }
+        return store;
+    }
+
+    /**
+     * Test that a saved and loaded store contains the same segments as the
+     * original, for every in-memory store type
+     *
+     * @throws IOException
+     *             Exception with the snapshot file
+     */
+    @Test
+    public void testSaveAndLoad() throws IOException {
+        for (SegmentStoreType type : new SegmentStoreType[] { SegmentStoreType.Fast, SegmentStoreType.Stable, SegmentStoreType.Distinct }) {
+            ISegmentStore<@NonNull ISegment> store = createStore(type, 10000);
+            SegmentStoreFactory.writeSegmentStoreSnapshot(store, getFile(), VERSION);
+            ISegmentStore<@NonNull ISegment> loaded = SegmentStoreFactory.loadSegmentStoreSnapshot(getFile(), READER, VERSION);
+
+            assertEquals(store.size(), loaded.size());
+            assertIterablesEqual(store, loaded);
+            assertIterablesEqual(store.getIntersectingElements(5000, 5010), loaded.getIntersectingElements(5000, 5010));
+            List<SegmentSummary> expected = store.getSummaries(0, 10000, 10);
+            List<SegmentSummary> actual = loaded.getSummaries(0, 10000, 10);
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).getCount(), actual.get(i).getCount());
+                assertEquals(expected.get(i).getTotalLength(), actual.get(i).getTotalLength());
+            }
+            loaded.dispose();
+            store.dispose();
+        }
+    }
+
+    /**
+     * Test that searching and summarizing the segments of a loaded store does
+     * not read them from the file, only iterating over them does
+     *
+     * @throws IOException
+     *             Exception with the snapshot file
+     */
+    @Test
+    public void testSegmentsReadOnAccess() throws IOException {
+        AtomicInteger nbRead = new AtomicInteger();
+        IHTIntervalReader<@NonNull ISegment> reader = buffer -> {
+            nbRead.incrementAndGet();
+            return READER.readInterval(buffer);
+        };
+        ISegmentStore<@NonNull ISegment> store = createStore(SegmentStoreType.Fast, 10000);
+        SegmentStoreFactory.writeSegmentStoreSnapshot(store, getFile(), VERSION);
+        ISegmentStore<@NonNull ISegment> loaded = SegmentStoreFactory.loadSegmentStoreSnapshot(getFile(), reader, VERSION);
+
+        Iterable<@NonNull ISegment> intersecting = loaded.getIntersectingElements(5000, 5010);
+        loaded.getSummaries(0, 10000, 10);
+        assertEquals(0, nbRead.get());
+        int nbIntersecting = Iterables.size(intersecting);
+        assertEquals(Iterables.size(store.getIntersectingElements(5000, 5010)), nbIntersecting);
+        assertEquals(nbIntersecting, nbRead.get());
+        loaded.dispose();
+        store.dispose();
+    }
+
+    /**
+     * Test saving and loading an empty store
+     *
+     * @throws IOException
+     *             Exception with the snapshot file
+     */
+    @Test
+    public void testEmptyStore() throws IOException {
+        ISegmentStore<@NonNull ISegment> store = createStore(SegmentStoreType.Fast, 0);
+        SegmentStoreFactory.writeSegmentStoreSnapshot(store, getFile(), VERSION);
+        ISegmentStore<@NonNull ISegment> loaded = SegmentStoreFactory.loadSegmentStoreSnapshot(getFile(), READER, VERSION);
+        assertTrue(loaded.isEmpty());
+        assertEquals(0, Iterables.size(loaded.getIntersectingElements(0, Long.MAX_VALUE)));
+    }
+
+    /**
+     * Test that a loaded store cannot be modified
+     *
+     * @throws IOException
+     *             Exception with the snapshot file
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void testReadOnly() throws IOException {
+        ISegmentStore<@NonNull ISegment> store = createStore(SegmentStoreType.Fast, 10);
+        SegmentStoreFactory.writeSegmentStoreSnapshot(store, getFile(), VERSION);
+        ISegmentStore<@NonNull ISegment> loaded = SegmentStoreFactory.loadSegmentStoreSnapshot(getFile(), READER, VERSION);
+        loaded.add(new BasicSegment(0, 1));
+    }
+
+    /**
+     * Test that a snapshot of another version is not loaded
+     *
+     * @throws IOException
+     *             Exception with the snapshot file
+     */
+    @Test(expected = IOException.class)
+    public void testWrongVersion() throws IOException {
+        ISegmentStore<@NonNull ISegment> store = createStore(SegmentStoreType.Fast, 10);
+        SegmentStoreFactory.writeSegmentStoreSnapshot(store, getFile(), VERSION);
+        SegmentStoreFactory.loadSegmentStoreSnapshot(getFile(), READER, VERSION + 1);
+    }
+
+    /**
+     * Test that a file that is not a snapshot is not loaded
+     *
+     * @throws IOException
+     *             Exception with the snapshot file
+     */
+    @Test(expected = IOException.class)
+    public void testInvalidFile() throws IOException {
+        Files.write(getFile(), new byte[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10 });
+        SegmentStoreFactory.loadSegmentStoreSnapshot(getFile(), READER, VERSION);
+    }
+
+    private static void assertIterablesEqual(Iterable<@NonNull ISegment> expected, Iterable<@NonNull ISegment> actual) {
+        Iterator<@NonNull ISegment> actualIterator = actual.iterator();
+        for (ISegment segment : expected) {
+            assertTrue(actualIterator.hasNext());
+            ISegment other = actualIterator.next();
+            assertEquals(segment.getStart(), other.getStart());
+            assertEquals(segment.getEnd(), other.getEnd());
+        }
+        assertTrue(!actualIterator.hasNext());
+    }
+}
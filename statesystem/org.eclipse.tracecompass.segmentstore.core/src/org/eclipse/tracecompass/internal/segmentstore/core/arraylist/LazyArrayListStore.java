@@ -27,6 +27,7 @@ import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.segmentstore.core.BasicSegment;
 import org.eclipse.tracecompass.segmentstore.core.ISegment;
 import org.eclipse.tracecompass.segmentstore.core.ISegmentStore;
+import org.eclipse.tracecompass.segmentstore.core.SegmentSummary;
 
 import com.google.common.collect.ImmutableList;
 
@@ -69,7 +70,15 @@ public class LazyArrayListStore<@NonNull E extends ISegment> implements ISegment
      */
     protected final List<E> fStore;
 
+    /**
+     * The minimum number of segments in the store for the summaries to be
+     * pre-aggregated. Under this number, iterating over the segments is cheap
+     * enough.
+     */
+    private static final int SUMMARY_INDEX_THRESHOLD = 4096;
+
     private @Nullable transient Iterable<E> fLastSnapshot = null;
+    private @Nullable transient SegmentSummaryIndex<E> fSummaryIndex = null;
 
     private volatile boolean fDirty = false;
     private volatile long fStart = Long.MAX_VALUE;
@@ -158,6 +167,7 @@ public class LazyArrayListStore<@NonNull E extends ISegment> implements ISegment
             setDirtyIfNeeded(val);
             fStore.add(getInsertionPoint(val), val);
             fLastSnapshot = null;
+            fSummaryIndex = null;
             fStart = Math.min(fStart, val.getStart());
             fEnd = Math.max(fEnd, val.getEnd());
             return true;
@@ -269,6 +279,7 @@ public class LazyArrayListStore<@NonNull E extends ISegment> implements ISegment
         try {
             fStore.clear();
             fLastSnapshot = null;
+            fSummaryIndex = null;
             fDirty = false;
         } finally {
             fLock.unlock();
@@ -330,6 +341,35 @@ public class LazyArrayListStore<@NonNull E extends ISegment> implements ISegment
         }
     }
 
+    @Override
+    public List<SegmentSummary> getSummaries(long start, long end, int nbBuckets) {
+        fLock.lock();
+        try {
+            if (fStore.size() < SUMMARY_INDEX_THRESHOLD) {
+                return ISegmentStore.super.getSummaries(start, end, nbBuckets);
+            }
+            if (fDirty) {
+                sortStore();
+            }
+            SegmentSummaryIndex<E> index = fSummaryIndex;
+            if (index == null) {
+                /*
+                 * The index is built on the first query after the store was
+                 * modified, typically once the store is complete.
+                 */
+                index = new SegmentSummaryIndex<>(fStore);
+                fSummaryIndex = index;
+            }
+            List<SegmentSummary> buckets = SegmentSummary.createBuckets(start, end, nbBuckets);
+            for (SegmentSummary bucket : buckets) {
+                index.summarize(bucket.getStart(), bucket.getEnd(), bucket);
+            }
+            return buckets;
+        } finally {
+            fLock.unlock();
+        }
+    }
+
     @Override
     public void dispose() {
         clear();
@@ -0,0 +1,265 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.segmentstore.core.arraylist;
+
+import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.tracecompass.datastore.core.interval.IHTIntervalReader;
+import org.eclipse.tracecompass.datastore.core.serialization.SafeByteBufferFactory;
+import org.eclipse.tracecompass.internal.segmentstore.core.arraylist.SnapshotSegmentStore.Mapping;
+import org.eclipse.tracecompass.segmentstore.core.ISegment;
+
+/**
+ * Compact binary snapshot of the segments of an array list store. The
+ * snapshot file is memory-mapped when read back in a
+ * {@link SnapshotSegmentStore}, and segments are only deserialized when they
+ * are accessed, so loading a snapshot does not depend on the number of
+ * segments.
+ *
+ * The file layout is:
+ * <ul>
+ * <li>a fixed size header, with the number of segments and the time range of
+ * the store</li>
+ * <li>the table of the absolute position, start time and end time of each
+ * segment in the file, plus the end of the last segment</li>
+ * <li>the segments, serialized with {@link ISegment#writeSegment}, sorted in
+ * the order of the store</li>
+ * <li>the table of the index of the first segment of each mapped region, so
+ * that no segment crosses a region boundary</li>
+ * </ul>
+ *
+ * The header is written last, so that a partially written file is never
+ * considered valid.
+ */
+public final class SegmentStoreSnapshot {
+
+    /** The number of longs per segment in the table */
+    static final int TABLE_ENTRY_SIZE = 3;
+    /** The byte order of the file */
+    static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    private static final int MAGIC_NUMBER = 0x05E65A9A;
+    private static final int FORMAT_VERSION = 2;
+    private static final int HEADER_SIZE = 4 * Integer.BYTES + 4 * Long.BYTES;
+
+    /** Maximum size of a memory-mapped region of segments */
+    private static final long MAX_REGION_SIZE = 1L << 30;
+    private static final int WRITE_BUFFER_SIZE = 1 << 20;
+    private static final String TMP_EXTENSION = ".tmp"; //$NON-NLS-1$
+
+    private SegmentStoreSnapshot() {
+        // Do nothing
+    }
+
+    /**
+     * Write the segments to a snapshot file. The file is written under a
+     * temporary name and moved in place once complete.
+     *
+     * @param segments
+     *            The segments to write, sorted by start, then end times. They
+     *            will be iterated twice and must not change in between.
+     * @param size
+     *            The number of segments
+     * @param file
+     *            The file to write
+     * @param version
+     *            The version of the segments' serialization format
+     * @throws IOException
+     *             If the file cannot be written
+     */
+    public static <@NonNull E extends ISegment> void write(Iterable<E> segments, int size, Path file, int version) throws IOException {
+        long tableSize = getTableSize(size);
+        if (tableSize > Integer.MAX_VALUE) {
+            throw new IOException("Too many segments for a snapshot: " + size); //$NON-NLS-1$
+        }
+        Path tmpFile = file.resolveSibling(file.getFileName() + TMP_EXTENSION);
+        long dataStart = HEADER_SIZE + tableSize;
+        long start = Long.MAX_VALUE;
+        long end = Long.MIN_VALUE;
+        List<Long> regions = new ArrayList<>();
+        try (FileChannel fc = FileChannel.open(tmpFile, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = checkNotNull(ByteBuffer.allocate(WRITE_BUFFER_SIZE).order(ORDER));
+
+            /* First pass: the table of the segments and the regions */
+            fc.position(HEADER_SIZE);
+            long position = dataStart;
+            long regionStart = dataStart;
+            int count = 0;
+            for (E segment : segments) {
+                int segmentSize = segment.getSizeOnDisk();
+                if (segmentSize <= 0) {
+                    throw new IOException("Segment cannot be serialized: " + segment); //$NON-NLS-1$
+                }
+                if (count == 0 || position + segmentSize - regionStart > MAX_REGION_SIZE) {
+                    regions.add((long) count);
+                    regionStart = position;
+                }
+                putLong(fc, buffer, position);
+                putLong(fc, buffer, segment.getStart());
+                putLong(fc, buffer, segment.getEnd());
+                position += segmentSize;
+                start = Math.min(start, segment.getStart());
+                end = Math.max(end, segment.getEnd());
+                count++;
+            }
+            if (count != size) {
+                throw new IOException("The segments changed while writing the snapshot"); //$NON-NLS-1$
+            }
+            putLong(fc, buffer, position);
+            long dataEnd = position;
+
+            /* Second pass: the segments themselves */
+            for (E segment : segments) {
+                int segmentSize = segment.getSizeOnDisk();
+                if (segmentSize > buffer.remaining()) {
+                    flush(fc, buffer);
+                }
+                if (segmentSize > buffer.capacity()) {
+                    ByteBuffer large = checkNotNull(ByteBuffer.allocate(segmentSize).order(ORDER));
+                    segment.writeSegment(SafeByteBufferFactory.wrapWriter(large, segmentSize));
+                    large.flip();
+                    writeFully(fc, large);
+                } else {
+                    segment.writeSegment(SafeByteBufferFactory.wrapWriter(buffer, segmentSize));
+                }
+            }
+            flush(fc, buffer);
+            if (fc.position() != dataEnd) {
+                throw new IOException("The size on disk of the segments does not match their serialized size"); //$NON-NLS-1$
+            }
+
+            /* The regions, then the header */
+            for (Long region : regions) {
+                putLong(fc, buffer, region);
+            }
+            flush(fc, buffer);
+            buffer.putInt(MAGIC_NUMBER);
+            buffer.putInt(FORMAT_VERSION);
+            buffer.putInt(version);
+            buffer.putInt(regions.size());
+            buffer.putLong(size);
+            buffer.putLong(start);
+            buffer.putLong(end);
+            buffer.putLong(dataEnd);
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                fc.write(buffer, buffer.position());
+            }
+            fc.force(false);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmpFile);
+            throw e;
+        }
+        Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Read a snapshot file and create a store backed by the memory-mapped
+     * file. The store is read-only, adding segments to it throws an
+     * {@link UnsupportedOperationException}. Clearing or disposing the store
+     * releases the mapped file.
+     *
+     * @param file
+     *            The snapshot file
+     * @param reader
+     *            The reader to deserialize the segments
+     * @param version
+     *            The expected version of the segments' serialization format
+     * @return The segment store
+     * @throws IOException
+     *             If the file cannot be read or is not a valid snapshot of
+     *             the expected version
+     */
+    public static <@NonNull E extends ISegment> SnapshotSegmentStore<E> read(Path file, IHTIntervalReader<E> reader, int version) throws IOException {
+        try (FileChannel fc = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = checkNotNull(ByteBuffer.allocate(HEADER_SIZE).order(ORDER));
+            while (header.hasRemaining()) {
+                if (fc.read(header, header.position()) < 0) {
+                    throw new IOException("Snapshot file is too small"); //$NON-NLS-1$
+                }
+            }
+            header.flip();
+            if (header.getInt() != MAGIC_NUMBER || header.getInt() != FORMAT_VERSION) {
+                throw new IOException("Not a segment store snapshot file"); //$NON-NLS-1$
+            }
+            if (header.getInt() != version) {
+                throw new IOException("Wrong segment store snapshot version"); //$NON-NLS-1$
+            }
+            int nbRegions = header.getInt();
+            long size = header.getLong();
+            long start = header.getLong();
+            long end = header.getLong();
+            long dataEnd = header.getLong();
+            if (size < 0 || size > Integer.MAX_VALUE || getTableSize(size) > Integer.MAX_VALUE || fc.size() != dataEnd + (long) nbRegions * Long.BYTES) {
+                throw new IOException("Corrupted segment store snapshot file"); //$NON-NLS-1$
+            }
+
+            LongBuffer table = checkNotNull(fc.map(MapMode.READ_ONLY, HEADER_SIZE, getTableSize(size)).order(ORDER).asLongBuffer());
+            LongBuffer regionTable = fc.map(MapMode.READ_ONLY, dataEnd, (long) nbRegions * Long.BYTES).order(ORDER).asLongBuffer();
+            int[] regionFirst = new int[nbRegions];
+            ByteBuffer[] regions = new ByteBuffer[nbRegions];
+            for (int i = 0; i < nbRegions; i++) {
+                regionFirst[i] = (int) regionTable.get(i);
+            }
+            for (int i = 0; i < nbRegions; i++) {
+                long regionStart = table.get(TABLE_ENTRY_SIZE * regionFirst[i]);
+                long regionEnd = table.get(TABLE_ENTRY_SIZE * (i + 1 < nbRegions ? regionFirst[i + 1] : (int) size));
+                MappedByteBuffer region = fc.map(MapMode.READ_ONLY, regionStart, regionEnd - regionStart);
+                region.order(ORDER);
+                regions[i] = region;
+            }
+            return new SnapshotSegmentStore<>(new Mapping(table, regionFirst, regions, (int) size), reader, start, end);
+        }
+    }
+
+    /**
+     * Get the size in bytes of the table of the segments, with one entry per
+     * segment plus the end of the last segment
+     */
+    private static long getTableSize(long size) {
+        return (TABLE_ENTRY_SIZE * size + 1) * Long.BYTES;
+    }
+
+    private static void putLong(FileChannel fc, ByteBuffer buffer, long value) throws IOException {
+        if (buffer.remaining() < Long.BYTES) {
+            flush(fc, buffer);
+        }
+        buffer.putLong(value);
+    }
+
+    private static void flush(FileChannel fc, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        writeFully(fc, buffer);
+        buffer.clear();
+    }
+
+    private static void writeFully(FileChannel fc, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            fc.write(buffer);
+        }
+    }
+}
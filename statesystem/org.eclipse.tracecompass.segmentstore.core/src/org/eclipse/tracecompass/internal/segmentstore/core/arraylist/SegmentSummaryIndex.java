@@ -0,0 +1,264 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.segmentstore.core.arraylist;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.tracecompass.segmentstore.core.ISegment;
+import org.eclipse.tracecompass.segmentstore.core.SegmentSummary;
+
+/**
+ * Multi-resolution index of pre-aggregated summaries over a list of segments
+ * sorted by start time. Much like the state system mipmaps, the finest level
+ * splits the time range of the segments' start times in buckets of equal
+ * width, and each upper level aggregates {@link #RESOLUTION} buckets of the
+ * level below.
+ *
+ * Queries are exact: the buckets fully contained in the queried range are read
+ * from the index, while the segments at the edges of the range are read from
+ * the sorted list. The index is immutable, it must be rebuilt if the list is
+ * modified.
+ *
+ * @param <E>
+ *            The type of segment
+ */
+public class SegmentSummaryIndex<@NonNull E extends ISegment> {
+
+    /**
+     * The number of buckets of a level aggregated in one bucket of the level
+     * above.
+     */
+    public static final int RESOLUTION = 16;
+
+    /**
+     * The maximum number of buckets at the finest level
+     */
+    private static final int MAX_LEAVES = 1 << 16;
+
+    private final List<E> fSegments;
+    private final long fOrigin;
+    private final long fLastStart;
+    private final long fLeafWidth;
+    private final int fNbLeaves;
+
+    /** Index in the list of the first segment of each leaf, plus the size */
+    private final int[] fLeafFirstIndex;
+    /** Prefix sums of the segment lengths per leaf */
+    private final long[] fLengthPrefix;
+    /** Minimum and maximum lengths per bucket, level 0 being the leaves */
+    private final List<long[]> fMinLevels = new ArrayList<>();
+    private final List<long[]> fMaxLevels = new ArrayList<>();
+
+    /**
+     * Constructor. Builds the index in one pass over the segments.
+     *
+     * @param sortedSegments
+     *            The non-empty list of segments, sorted by start time. The
+     *            index keeps a reference to the list, which must not be
+     *            modified afterwards.
+     */
+    public SegmentSummaryIndex(List<E> sortedSegments) {
+        if (sortedSegments.isEmpty()) {
+            throw new IllegalArgumentException("Cannot index an empty list"); //$NON-NLS-1$
+        }
+        fSegments = sortedSegments;
+        int size = sortedSegments.size();
+        fOrigin = sortedSegments.get(0).getStart();
+        fLastStart = sortedSegments.get(size - 1).getStart();
+
+        /*
+         * Use a power of 2 for the leaf width and no more leaves than there are
+         * segments.
+         */
+        int maxLeaves = Math.min(MAX_LEAVES, Integer.highestOneBit(size));
+        long span = fLastStart - fOrigin;
+        long width = 1;
+        while (Long.compareUnsigned(Long.divideUnsigned(span, width), maxLeaves) >= 0 && width < (1L << 62)) {
+            width <<= 1;
+        }
+        fLeafWidth = width;
+        fNbLeaves = getLeaf(fLastStart) + 1;
+
+        fLeafFirstIndex = new int[fNbLeaves + 1];
+        fLengthPrefix = new long[fNbLeaves + 1];
+        long[] mins = new long[fNbLeaves];
+        long[] maxs = new long[fNbLeaves];
+        int leaf = -1;
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            E segment = sortedSegments.get(i);
+            int segLeaf = getLeaf(segment.getStart());
+            while (leaf < segLeaf) {
+                leaf++;
+                fLeafFirstIndex[leaf] = i;
+                fLengthPrefix[leaf] = total;
+                mins[leaf] = Long.MAX_VALUE;
+                maxs[leaf] = Long.MIN_VALUE;
+            }
+            long length = segment.getLength();
+            total += length;
+            mins[leaf] = Math.min(mins[leaf], length);
+            maxs[leaf] = Math.max(maxs[leaf], length);
+        }
+        fLeafFirstIndex[fNbLeaves] = size;
+        fLengthPrefix[fNbLeaves] = total;
+
+        fMinLevels.add(mins);
+        fMaxLevels.add(maxs);
+        while (mins.length > 1) {
+            int levelSize = (mins.length + RESOLUTION - 1) / RESOLUTION;
+            long[] upMins = new long[levelSize];
+            long[] upMaxs = new long[levelSize];
+            for (int i = 0; i < levelSize; i++) {
+                long min = Long.MAX_VALUE;
+                long max = Long.MIN_VALUE;
+                for (int j = i * RESOLUTION; j < Math.min(mins.length, (i + 1) * RESOLUTION); j++) {
+                    min = Math.min(min, mins[j]);
+                    max = Math.max(max, maxs[j]);
+                }
+                upMins[i] = min;
+                upMaxs[i] = max;
+            }
+            fMinLevels.add(upMins);
+            fMaxLevels.add(upMaxs);
+            mins = upMins;
+            maxs = upMaxs;
+        }
+    }
+
+    /**
+     * Get the width of the buckets at the finest level of the index
+     *
+     * @return The width of the leaves
+     */
+    public long getLeafWidth() {
+        return fLeafWidth;
+    }
+
+    /**
+     * Add to a summary the segments whose start time is within the range
+     *
+     * @param start
+     *            The start of the range, inclusive
+     * @param end
+     *            The end of the range, inclusive
+     * @param summary
+     *            The summary to update
+     */
+    public void summarize(long start, long end, SegmentSummary summary) {
+        if (end < fOrigin || start > fLastStart || end < start) {
+            return;
+        }
+        long from = Math.max(start, fOrigin);
+        long to = Math.min(end, fLastStart);
+
+        /*
+         * The leaves fully contained in the range. Offsets from the origin are
+         * unsigned, to support any time range.
+         */
+        long fromOffset = from - fOrigin;
+        int firstLeaf = getLeaf(from);
+        if (Long.remainderUnsigned(fromOffset, fLeafWidth) != 0) {
+            firstLeaf++;
+        }
+        long toOffset = to - fOrigin;
+        int lastLeaf = getLeaf(to);
+        if (to < fLastStart && Long.remainderUnsigned(toOffset, fLeafWidth) != fLeafWidth - 1) {
+            lastLeaf--;
+        }
+
+        if (firstLeaf > lastLeaf) {
+            summarizeSegments(lowerBound(from), upperBound(to), summary);
+            return;
+        }
+        summarizeSegments(lowerBound(from), fLeafFirstIndex[firstLeaf], summary);
+        summarizeLeaves(firstLeaf, lastLeaf, summary);
+        summarizeSegments(fLeafFirstIndex[lastLeaf + 1], upperBound(to), summary);
+    }
+
+    private void summarizeLeaves(int firstLeaf, int lastLeaf, SegmentSummary summary) {
+        long count = fLeafFirstIndex[lastLeaf + 1] - fLeafFirstIndex[firstLeaf];
+        if (count == 0) {
+            return;
+        }
+        long total = fLengthPrefix[lastLeaf + 1] - fLengthPrefix[firstLeaf];
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        int a = firstLeaf;
+        int b = lastLeaf;
+        int level = 0;
+        while (a <= b) {
+            long[] mins = fMinLevels.get(level);
+            long[] maxs = fMaxLevels.get(level);
+            while (a <= b && a % RESOLUTION != 0) {
+                min = Math.min(min, mins[a]);
+                max = Math.max(max, maxs[a]);
+                a++;
+            }
+            while (a <= b && (b + 1) % RESOLUTION != 0) {
+                min = Math.min(min, mins[b]);
+                max = Math.max(max, maxs[b]);
+                b--;
+            }
+            /* The remaining buckets are aligned on the level above */
+            a /= RESOLUTION;
+            b = (b + 1) / RESOLUTION - 1;
+            level++;
+        }
+        summary.update(count, min, max, total);
+    }
+
+    private void summarizeSegments(int fromIndex, int toIndex, SegmentSummary summary) {
+        for (int i = fromIndex; i < toIndex; i++) {
+            summary.update(fSegments.get(i));
+        }
+    }
+
+    /**
+     * Get the index of the first segment whose start time is greater or equal
+     * to the given time, searching only in the leaf of that time.
+     */
+    private int lowerBound(long time) {
+        if (time > fLastStart) {
+            return fSegments.size();
+        }
+        if (time <= fOrigin) {
+            return 0;
+        }
+        int leaf = getLeaf(time);
+        int low = fLeafFirstIndex[leaf];
+        int high = fLeafFirstIndex[leaf + 1];
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (fSegments.get(mid).getStart() < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Get the index following the last segment whose start time is lower or
+     * equal to the given time.
+     */
+    private int upperBound(long time) {
+        return time >= fLastStart ? fSegments.size() : lowerBound(time + 1);
+    }
+
+    private int getLeaf(long time) {
+        return (int) Long.divideUnsigned(time - fOrigin, fLeafWidth);
+    }
+}
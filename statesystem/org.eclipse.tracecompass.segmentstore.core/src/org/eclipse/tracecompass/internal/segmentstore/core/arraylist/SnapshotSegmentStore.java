@@ -0,0 +1,337 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.segmentstore.core.arraylist;
+
+import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNull;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.datastore.core.interval.IHTIntervalReader;
+import org.eclipse.tracecompass.datastore.core.serialization.SafeByteBufferFactory;
+import org.eclipse.tracecompass.segmentstore.core.BasicSegment;
+import org.eclipse.tracecompass.segmentstore.core.ISegment;
+import org.eclipse.tracecompass.segmentstore.core.ISegmentStore;
+import org.eclipse.tracecompass.segmentstore.core.SegmentSummary;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Read-only segment store backed by the memory-mapped file of a
+ * {@link SegmentStoreSnapshot}. The start and end times of the segments are
+ * read from the table of the file, so searching the segments, iterating over
+ * them and summarizing them does not deserialize anything. A segment is only
+ * deserialized when an iterator returns it.
+ *
+ * The segments are iterated in the order of the {@link LazyArrayListStore}:
+ * by start time, then end time.
+ *
+ * @param <E>
+ *            The type of segment held in this store
+ */
+public class SnapshotSegmentStore<@NonNull E extends ISegment> implements ISegmentStore<E> {
+
+    private static final Mapping EMPTY = new Mapping(checkNotNull(LongBuffer.allocate(1)), new int[0], new ByteBuffer[0], 0);
+
+    private final IHTIntervalReader<E> fReader;
+    private final long fStart;
+    private final long fEnd;
+
+    private volatile Mapping fMapping;
+    private volatile @Nullable SegmentSummaryIndex<BasicSegment> fSummaryIndex = null;
+
+    /**
+     * The mapped content of a snapshot file. It is never modified, so that the
+     * iterators keep reading it after the store is cleared.
+     */
+    static final class Mapping {
+        private final LongBuffer fTable;
+        private final int[] fRegionFirst;
+        private final ByteBuffer[] fRegions;
+        private final int fSize;
+
+        /**
+         * Constructor
+         *
+         * @param table
+         *            The table of the offset, start and end time of each
+         *            segment, followed by the end offset of the last segment
+         * @param regionFirst
+         *            The index of the first segment of each region
+         * @param regions
+         *            The mapped regions of segments
+         * @param size
+         *            The number of segments
+         */
+        Mapping(LongBuffer table, int[] regionFirst, ByteBuffer[] regions, int size) {
+            fTable = table;
+            fRegionFirst = regionFirst;
+            fRegions = regions;
+            fSize = size;
+        }
+
+        private long getOffset(int index) {
+            return fTable.get(SegmentStoreSnapshot.TABLE_ENTRY_SIZE * index);
+        }
+
+        private long getStart(int index) {
+            return fTable.get(SegmentStoreSnapshot.TABLE_ENTRY_SIZE * index + 1);
+        }
+
+        private long getEnd(int index) {
+            return fTable.get(SegmentStoreSnapshot.TABLE_ENTRY_SIZE * index + 2);
+        }
+
+        private <@NonNull E extends ISegment> E read(int index, IHTIntervalReader<E> reader, ByteOrder order) {
+            int region = Arrays.binarySearch(fRegionFirst, index);
+            if (region < 0) {
+                region = -region - 2;
+            }
+            long regionStart = getOffset(fRegionFirst[region]);
+            long offset = getOffset(index);
+            int segmentSize = (int) (getOffset(index + 1) - offset);
+            /* Duplicate the buffer, so that concurrent reads are safe */
+            ByteBuffer buffer = fRegions[region].duplicate().order(order);
+            buffer.position((int) (offset - regionStart));
+            return reader.readInterval(SafeByteBufferFactory.wrapReader(buffer, segmentSize));
+        }
+
+        /**
+         * Get the index of the first segment starting after a time
+         */
+        private int upperBound(long time) {
+            int low = 0;
+            int high = fSize;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (getStart(mid) <= time) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    /**
+     * The segments of a mapping with only their start and end times, to
+     * summarize them without deserializing them
+     */
+    private static final class BoundsList extends AbstractList<BasicSegment> implements RandomAccess {
+        private final Mapping fSegments;
+
+        public BoundsList(Mapping mapping) {
+            fSegments = mapping;
+        }
+
+        @Override
+        public BasicSegment get(int index) {
+            return new BasicSegment(fSegments.getStart(index), fSegments.getEnd(index));
+        }
+
+        @Override
+        public int size() {
+            return fSegments.fSize;
+        }
+    }
+
+    /**
+     * Constructor
+     *
+     * @param mapping
+     *            The mapped content of the snapshot file
+     * @param reader
+     *            The reader to deserialize the segments
+     * @param start
+     *            The minimum start time of the segments
+     * @param end
+     *            The maximum end time of the segments
+     */
+    SnapshotSegmentStore(Mapping mapping, IHTIntervalReader<E> reader, long start, long end) {
+        fMapping = mapping;
+        fReader = reader;
+        fStart = start;
+        fEnd = end;
+    }
+
+    /**
+     * Get the segments of a mapping that intersect a range, in order. Only the
+     * segments starting before the end of the range are visited.
+     */
+    private Iterable<E> getSegments(Mapping mapping, long start, long end) {
+        if (mapping.fSize == 0 || start > fEnd || end < fStart) {
+            return Collections.emptyList();
+        }
+        int last = mapping.upperBound(end);
+        return () -> new SegmentIterator(mapping, last, start);
+    }
+
+    /**
+     * Iterator over the segments of a mapping ending after a time, that reads
+     * a segment from the file only when it is returned
+     */
+    private final class SegmentIterator implements Iterator<E> {
+        private final Mapping fSegments;
+        private final int fLast;
+        private final long fRangeStart;
+        private int fNext;
+
+        public SegmentIterator(Mapping mapping, int last, long rangeStart) {
+            fSegments = mapping;
+            fLast = last;
+            fRangeStart = rangeStart;
+            fNext = findNext(0);
+        }
+
+        private int findNext(int from) {
+            int index = from;
+            while (index < fLast && fSegments.getEnd(index) < fRangeStart) {
+                index++;
+            }
+            return index;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return fNext < fLast;
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int index = fNext;
+            fNext = findNext(index + 1);
+            return fSegments.read(index, fReader, SegmentStoreSnapshot.ORDER);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Methods from Collection
+    // ------------------------------------------------------------------------
+
+    @Override
+    public Iterator<E> iterator() {
+        Mapping mapping = fMapping;
+        return new SegmentIterator(mapping, mapping.fSize, Long.MIN_VALUE);
+    }
+
+    @Override
+    public int size() {
+        return fMapping.fSize;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return fMapping.fSize == 0;
+    }
+
+    @Override
+    public boolean contains(@Nullable Object o) {
+        if (!(o instanceof ISegment)) {
+            return false;
+        }
+        ISegment segment = (ISegment) o;
+        for (E element : getSegments(fMapping, segment.getStart(), segment.getStart())) {
+            if (element.equals(segment)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean containsAll(@Nullable Collection<?> c) {
+        if (c == null) {
+            return false;
+        }
+        for (Object o : c) {
+            if (!contains(o)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Object[] toArray() {
+        return Lists.newArrayList(this).toArray();
+    }
+
+    @Override
+    public <T> T[] toArray(T[] a) {
+        return Lists.newArrayList(this).toArray(a);
+    }
+
+    @Override
+    public boolean add(@Nullable E val) {
+        throw new UnsupportedOperationException("A segment store snapshot is read-only"); //$NON-NLS-1$
+    }
+
+    @Override
+    public boolean addAll(@Nullable Collection<? extends E> c) {
+        throw new UnsupportedOperationException("A segment store snapshot is read-only"); //$NON-NLS-1$
+    }
+
+    @Override
+    public void clear() {
+        /* Release the mapped file, the file itself is left untouched */
+        fMapping = EMPTY;
+        fSummaryIndex = null;
+    }
+
+    // ------------------------------------------------------------------------
+    // Methods added by ISegmentStore
+    // ------------------------------------------------------------------------
+
+    @Override
+    public Iterable<E> getIntersectingElements(long start, long end) {
+        return getSegments(fMapping, start, end);
+    }
+
+    @Override
+    public List<SegmentSummary> getSummaries(long start, long end, int nbBuckets) {
+        Mapping mapping = fMapping;
+        if (mapping.fSize == 0) {
+            return ISegmentStore.super.getSummaries(start, end, nbBuckets);
+        }
+        SegmentSummaryIndex<BasicSegment> index = fSummaryIndex;
+        if (index == null) {
+            /* Built from the table of the file on the first query */
+            index = new SegmentSummaryIndex<>(new BoundsList(mapping));
+            fSummaryIndex = index;
+        }
+        List<SegmentSummary> buckets = SegmentSummary.createBuckets(start, end, nbBuckets);
+        for (SegmentSummary bucket : buckets) {
+            index.summarize(bucket.getStart(), bucket.getEnd(), bucket);
+        }
+        return buckets;
+    }
+
+    @Override
+    public void dispose() {
+        clear();
+    }
+}
@@ -130,6 +130,40 @@ public interface ISegmentStore<E extends ISegment> extends Collection<E> {
         return list;
     }
 
+    /**
+     * Get the summaries of the segments whose start time is within a time
+     * range, split in time buckets of equal width. Each summary gives the
+     * number of segments starting in the bucket, as well as the minimum,
+     * maximum and total of their lengths.
+     *
+     * The default implementation iterates over the segments in the range.
+     * Stores that maintain pre-aggregated summaries can answer in a time that
+     * depends on the number of buckets instead.
+     *
+     * @param start
+     *            The start of the range, inclusive
+     * @param end
+     *            The end of the range, inclusive
+     * @param nbBuckets
+     *            The maximum number of buckets to split the range into
+     * @return The summaries, ordered by time, covering the whole range
+     * @since 3.1
+     */
+    default List<SegmentSummary> getSummaries(long start, long end, int nbBuckets) {
+        List<SegmentSummary> buckets = SegmentSummary.createBuckets(start, end, nbBuckets);
+        SegmentSummary first = buckets.get(0);
+        long width = first.getEnd() - first.getStart() + 1;
+        for (E segment : getIntersectingElements(start, end)) {
+            long segStart = segment.getStart();
+            if (segStart < start) {
+                continue;
+            }
+            int index = buckets.size() == 1 ? 0 : (int) Long.divideUnsigned(segStart - start, width);
+            buckets.get(index).update(segment);
+        }
+        return buckets;
+    }
+
     /**
      * Dispose the data structure and release any system resources associated
      * with it.
@@ -14,6 +14,8 @@
 
 package org.eclipse.tracecompass.segmentstore.core;
 
+import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNull;
+
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.HashSet;
@@ -24,6 +26,8 @@ import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.datastore.core.interval.IHTIntervalReader;
 import org.eclipse.tracecompass.internal.segmentstore.core.arraylist.ArrayListStore;
 import org.eclipse.tracecompass.internal.segmentstore.core.arraylist.LazyArrayListStore;
+import org.eclipse.tracecompass.internal.segmentstore.core.arraylist.SegmentStoreSnapshot;
+import org.eclipse.tracecompass.internal.segmentstore.core.arraylist.SnapshotSegmentStore;
 import org.eclipse.tracecompass.internal.segmentstore.core.segmentHistoryTree.HistoryTreeSegmentStore;
 import org.eclipse.tracecompass.internal.segmentstore.core.treemap.TreeMapStore;
 
@@ -148,6 +152,57 @@ public final class SegmentStoreFactory<E> {
         return new HistoryTreeSegmentStore<>(segmentFile, segmentReader, version);
     }
 
+    /**
+     * Save the segments of an in-memory segment store to a compact snapshot
+     * file, that can later be loaded with
+     * {@link #loadSegmentStoreSnapshot(Path, IHTIntervalReader, int)}. The
+     * segments must be serializable with {@link ISegment#writeSegment}.
+     *
+     * @param store
+     *            The segment store to save. It should not be modified while
+     *            it is being saved.
+     * @param segmentFile
+     *            The file where to save the segments
+     * @param version
+     *            The version number of the segment reader/writer
+     * @throws IOException
+     *             Exceptions when writing the file
+     * @since 3.1
+     */
+    public static <E extends ISegment> void writeSegmentStoreSnapshot(ISegmentStore<E> store, Path segmentFile, int version) throws IOException {
+        /*
+         * The array list stores iterate in the order of the snapshot, other
+         * stores need to be sorted.
+         */
+        Iterable<E> segments = (store instanceof LazyArrayListStore || store instanceof SnapshotSegmentStore) ? store : store.iterator(checkNotNull(SegmentComparators.INTERVAL_START_COMPARATOR.thenComparing(SegmentComparators.INTERVAL_END_COMPARATOR)));
+        SegmentStoreSnapshot.write(segments, store.size(), segmentFile, version);
+    }
+
+    /**
+     * Load a segment store previously saved with
+     * {@link #writeSegmentStoreSnapshot(ISegmentStore, Path, int)}. The file
+     * is memory-mapped and segments are only read when they are accessed, so
+     * loading is fast regardless of the number of segments. The returned store
+     * searches and summarizes the segments from the mapped file, without
+     * reading them on the heap. It is read-only.
+     *
+     * @param segmentFile
+     *            The snapshot file
+     * @param segmentReader
+     *            The factory to read the segments from a safe byte buffer
+     * @param version
+     *            The version number of the segment reader/writer. If it does
+     *            not match the version of the file, an exception is thrown.
+     * @return The segment store
+     * @throws IOException
+     *             Exceptions when reading the file, or if the file is not a
+     *             valid snapshot of this version
+     * @since 3.1
+     */
+    public static <E extends ISegment> ISegmentStore<E> loadSegmentStoreSnapshot(Path segmentFile, IHTIntervalReader<E> segmentReader, int version) throws IOException {
+        return SegmentStoreSnapshot.read(segmentFile, segmentReader, version);
+    }
+
     private static Set<@NonNull SegmentStoreType> getListOfFlags(SegmentStoreType... segmentTypes) {
         Set<@NonNull SegmentStoreType> segments = new HashSet<>();
         for(@Nullable SegmentStoreType segmentType : segmentTypes ) {
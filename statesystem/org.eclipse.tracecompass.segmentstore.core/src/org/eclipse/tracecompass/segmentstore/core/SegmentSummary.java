@@ -0,0 +1,208 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.segmentstore.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Aggregated summary of the segments whose start time falls in a time bucket.
+ * It keeps the number of segments, as well as the minimum, maximum and total
+ * of their lengths. Summaries can be merged, so that a summary of a large
+ * bucket can be obtained from the summaries of smaller buckets.
+ *
+ * @since 3.1
+ */
+public final class SegmentSummary {
+
+    private final long fStart;
+    private final long fEnd;
+
+    private long fCount = 0;
+    private long fMinLength = Long.MAX_VALUE;
+    private long fMaxLength = Long.MIN_VALUE;
+    private long fTotalLength = 0;
+
+    /**
+     * Constructor
+     *
+     * @param start
+     *            The start of the time bucket, inclusive
+     * @param end
+     *            The end of the time bucket, inclusive
+     */
+    public SegmentSummary(long start, long end) {
+        if (end < start) {
+            throw new IllegalArgumentException();
+        }
+        fStart = start;
+        fEnd = end;
+    }
+
+    /**
+     * Create the empty summaries for a time range split in buckets of equal
+     * width. The last bucket may be narrower than the others, so that it ends
+     * exactly at the end of the range.
+     *
+     * @param start
+     *            The start of the range, inclusive
+     * @param end
+     *            The end of the range, inclusive
+     * @param nbBuckets
+     *            The maximum number of buckets to split the range into
+     * @return The list of empty summaries, ordered by time, covering the whole
+     *         range
+     */
+    public static List<SegmentSummary> createBuckets(long start, long end, int nbBuckets) {
+        if (end < start || nbBuckets <= 0) {
+            throw new IllegalArgumentException();
+        }
+        /*
+         * The range is computed as an unsigned value so that very wide ranges
+         * (ie [Long.MIN_VALUE, Long.MAX_VALUE]) do not overflow.
+         */
+        long range = end - start;
+        long width = Long.divideUnsigned(range, nbBuckets) + 1;
+        List<SegmentSummary> buckets = new ArrayList<>(nbBuckets);
+        long offset = 0;
+        for (int i = 0; i < nbBuckets; i++) {
+            long bucketStart = start + offset;
+            long lastOffset = offset + width - 1;
+            if (Long.compareUnsigned(lastOffset, range) >= 0 || Long.compareUnsigned(lastOffset, offset) < 0) {
+                buckets.add(new SegmentSummary(bucketStart, end));
+                break;
+            }
+            buckets.add(new SegmentSummary(bucketStart, start + lastOffset));
+            offset = lastOffset + 1;
+        }
+        return buckets;
+    }
+
+    /**
+     * Get the start of the time bucket summarized by this object
+     *
+     * @return The start of the bucket, inclusive
+     */
+    public long getStart() {
+        return fStart;
+    }
+
+    /**
+     * Get the end of the time bucket summarized by this object
+     *
+     * @return The end of the bucket, inclusive
+     */
+    public long getEnd() {
+        return fEnd;
+    }
+
+    /**
+     * Get the number of segments starting in this bucket
+     *
+     * @return The number of segments
+     */
+    public long getCount() {
+        return fCount;
+    }
+
+    /**
+     * Get the minimum length of the segments starting in this bucket
+     *
+     * @return The minimum length, or {@link Long#MAX_VALUE} if the bucket is
+     *         empty
+     */
+    public long getMinLength() {
+        return fMinLength;
+    }
+
+    /**
+     * Get the maximum length of the segments starting in this bucket
+     *
+     * @return The maximum length, or {@link Long#MIN_VALUE} if the bucket is
+     *         empty
+     */
+    public long getMaxLength() {
+        return fMaxLength;
+    }
+
+    /**
+     * Get the sum of the lengths of the segments starting in this bucket
+     *
+     * @return The total length
+     */
+    public long getTotalLength() {
+        return fTotalLength;
+    }
+
+    /**
+     * Get the mean length of the segments starting in this bucket
+     *
+     * @return The mean length, or {@link Double#NaN} if the bucket is empty
+     */
+    public double getMeanLength() {
+        return fCount == 0 ? Double.NaN : (double) fTotalLength / fCount;
+    }
+
+    /**
+     * Update the summary with a segment. The caller is responsible to make sure
+     * the segment starts in this summary's bucket.
+     *
+     * @param segment
+     *            The segment to add to the summary
+     */
+    public void update(ISegment segment) {
+        long length = segment.getLength();
+        fCount++;
+        fMinLength = Math.min(fMinLength, length);
+        fMaxLength = Math.max(fMaxLength, length);
+        fTotalLength += length;
+    }
+
+    /**
+     * Update the summary with pre-aggregated values
+     *
+     * @param count
+     *            The number of segments
+     * @param minLength
+     *            The minimum length of those segments
+     * @param maxLength
+     *            The maximum length of those segments
+     * @param totalLength
+     *            The sum of the lengths of those segments
+     */
+    public void update(long count, long minLength, long maxLength, long totalLength) {
+        if (count == 0) {
+            return;
+        }
+        fCount += count;
+        fMinLength = Math.min(fMinLength, minLength);
+        fMaxLength = Math.max(fMaxLength, maxLength);
+        fTotalLength += totalLength;
+    }
+
+    /**
+     * Merge the values of another summary into this one. The time bucket of
+     * this summary is not modified.
+     *
+     * @param other
+     *            The other summary
+     */
+    public void merge(SegmentSummary other) {
+        update(other.fCount, other.fMinLength, other.fMaxLength, other.fTotalLength);
+    }
+
+    @Override
+    public String toString() {
+        return "SegmentSummary [" + fStart + ", " + fEnd + "]: count=" + fCount + //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                ", min=" + fMinLength + ", max=" + fMaxLength + ", total=" + fTotalLength; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+    }
+}
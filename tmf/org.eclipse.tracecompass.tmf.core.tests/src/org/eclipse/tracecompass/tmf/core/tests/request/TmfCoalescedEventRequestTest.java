@@ -18,16 +18,23 @@ package org.eclipse.tracecompass.tmf.core.tests.request;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.util.IllformedLocaleException;
+import java.util.List;
+import java.util.Set;
 import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.tracecompass.internal.tmf.core.component.TmfProviderManager;
 import org.eclipse.tracecompass.internal.tmf.core.request.TmfCoalescedEventRequest;
 import org.eclipse.tracecompass.tmf.core.component.ITmfEventProvider;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
 import org.eclipse.tracecompass.tmf.core.exceptions.TmfTraceException;
+import org.eclipse.tracecompass.tmf.core.request.ITmfEventRequest;
 import org.eclipse.tracecompass.tmf.core.request.ITmfEventRequest.ExecutionType;
 import org.eclipse.tracecompass.tmf.core.request.TmfEventRequest;
 import org.eclipse.tracecompass.tmf.core.signal.TmfSignal;
@@ -42,6 +49,9 @@ import org.eclipse.tracecompass.tmf.tests.stubs.trace.TmfTraceStub;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
 /**
  * Test suite for the TmfCoalescedEventRequest class.
  */
@@ -234,6 +244,28 @@ public class TmfCoalescedEventRequestTest {
         assertEquals("addRequest", 2147483647, coalescedRequest.getNbRequested());
     }
 
+    // ------------------------------------------------------------------------
+    // getEventTypes
+    // ------------------------------------------------------------------------
+
+    @Test
+    public void testGetEventTypes() {
+        TmfCoalescedEventRequest coalescedRequest = new TmfCoalescedEventRequest(ITmfEvent.class, range1, 0, ITmfEventRequest.ALL_DATA, ExecutionType.FOREGROUND, 0);
+        assertNull("getEventTypes", coalescedRequest.getEventTypes());
+
+        TmfEventRequest req1 = new TmfEventRequestStub(ITmfEvent.class, range1);
+        req1.setEventTypes(ImmutableSet.of("a", "b"));
+        TmfEventRequest req2 = new TmfEventRequestStub(ITmfEvent.class, range1);
+        req2.setEventTypes(ImmutableSet.of("b", "c"));
+        coalescedRequest.addRequest(req1);
+        coalescedRequest.addRequest(req2);
+        assertEquals("getEventTypes", ImmutableSet.of("a", "b", "c"), coalescedRequest.getEventTypes());
+
+        /* A request for all the events needs them all */
+        coalescedRequest.addRequest(new TmfEventRequestStub(ITmfEvent.class, range1));
+        assertNull("getEventTypes", coalescedRequest.getEventTypes());
+    }
+
     // ------------------------------------------------------------------------
     // done
     // ------------------------------------------------------------------------
@@ -548,6 +580,267 @@ public class TmfCoalescedEventRequestTest {
         fTrace = null;
     }
 
+    // ------------------------------------------------------------------------
+    // Attaching
+    // ------------------------------------------------------------------------
+
+    @Test
+    public void testAttachRequest() {
+        fTrace = setupTrace(TEST_TRACE.getFullPath());
+        TmfCoalescedEventRequest coalescedRequest = new TmfCoalescedEventRequest(ITmfEvent.class, range1, 0, ITmfEventRequest.ALL_DATA, ExecutionType.BACKGROUND, 0);
+        TmfEventRequest req1 = new TmfEventRequestStub(ITmfEvent.class, range2, ITmfEventRequest.ALL_DATA, 200, ExecutionType.BACKGROUND, 0);
+        TmfEventRequest req2 = new TmfEventRequestStub(ITmfEvent.class, range2, 100, 200, ExecutionType.FOREGROUND, 0);
+        TmfEventRequest req3 = new TmfEventRequestStub(ITmfEvent.class, range2, 100, 200, ExecutionType.BACKGROUND, 1);
+        TmfEventRequest req4 = new TmfEventRequestStub(ITmfEvent.class, range1, 100, 200, ExecutionType.BACKGROUND, 0);
+
+        assertTrue("attachRequest", coalescedRequest.attachRequest(req1, fTrace));
+        assertFalse("attachRequest", coalescedRequest.attachRequest(req2, fTrace));
+        assertFalse("attachRequest", coalescedRequest.attachRequest(req3, fTrace));
+        assertFalse("isCompleted", coalescedRequest.isCompleted());
+
+        // A request reading part of the events cannot be joined
+        TmfCoalescedEventRequest partialRequest = new TmfCoalescedEventRequest(ITmfEvent.class, range2, 0, 100, ExecutionType.BACKGROUND, 0);
+        assertFalse("attachRequest", partialRequest.attachRequest(req4, fTrace));
+
+        coalescedRequest.cancel();
+        assertTrue("isClosed", coalescedRequest.isClosed());
+        assertTrue("isCancelled", req1.isCancelled());
+        assertFalse("attachRequest", coalescedRequest.attachRequest(req4, fTrace));
+
+        fTrace.dispose();
+        fTrace = null;
+    }
+
+    @Test
+    public void testAttachRequestEventTypes() {
+        fTrace = setupTrace(TEST_TRACE.getFullPath());
+        TmfCoalescedEventRequest coalescedRequest = new TmfCoalescedEventRequest(ITmfEvent.class, range1, 0, ITmfEventRequest.ALL_DATA, ExecutionType.BACKGROUND, 0);
+        TmfEventRequest req1 = new TmfEventRequestStub(ITmfEvent.class, range1, ITmfEventRequest.ALL_DATA, 200, ExecutionType.BACKGROUND, 0);
+        req1.setEventTypes(ImmutableSet.of("a"));
+        coalescedRequest.addRequest(req1);
+
+        // The events of other types are not read
+        TmfEventRequest req2 = new TmfEventRequestStub(ITmfEvent.class, range1, ITmfEventRequest.ALL_DATA, 200, ExecutionType.BACKGROUND, 0);
+        req2.setEventTypes(ImmutableSet.of("b"));
+        assertFalse("attachRequest", coalescedRequest.attachRequest(req2, fTrace));
+        TmfEventRequest req3 = new TmfEventRequestStub(ITmfEvent.class, range1, ITmfEventRequest.ALL_DATA, 200, ExecutionType.BACKGROUND, 0);
+        assertFalse("attachRequest", coalescedRequest.attachRequest(req3, fTrace));
+        TmfEventRequest req4 = new TmfEventRequestStub(ITmfEvent.class, range1, ITmfEventRequest.ALL_DATA, 200, ExecutionType.BACKGROUND, 0);
+        req4.setEventTypes(ImmutableSet.of("a"));
+        assertTrue("attachRequest", coalescedRequest.attachRequest(req4, fTrace));
+
+        // All the events are read for a request without event types
+        coalescedRequest.addRequest(new TmfEventRequestStub(ITmfEvent.class, range1, ITmfEventRequest.ALL_DATA, 200, ExecutionType.BACKGROUND, 0));
+        assertTrue("attachRequest", coalescedRequest.attachRequest(req2, fTrace));
+
+        coalescedRequest.cancel();
+        fTrace.dispose();
+        fTrace = null;
+    }
+
+    @Test
+    public void testCompletionListener() {
+        final AtomicInteger count = new AtomicInteger();
+        TmfCoalescedEventRequest coalescedRequest = new TmfCoalescedEventRequest(ITmfEvent.class, range1, 0, ITmfEventRequest.ALL_DATA, ExecutionType.BACKGROUND, 0);
+        coalescedRequest.setCompletionListener(count::incrementAndGet);
+        assertEquals("completions", 0, count.get());
+        coalescedRequest.cancel();
+        coalescedRequest.done();
+        assertEquals("completions", 1, count.get());
+
+        // The listener of a completed request is called right away
+        coalescedRequest.setCompletionListener(count::incrementAndGet);
+        assertEquals("completions", 2, count.get());
+    }
+
+    @Test
+    public void testAttachedRequest() throws InterruptedException {
+        final int nbEvents = 10000;
+        final int attachIndex = 2000;
+        fTrace = setupTrace(TEST_TRACE.getFullPath());
+
+        final Vector<ITmfEvent> events2 = new Vector<>();
+        final TmfEventRequest attachedRequest = new TmfEventRequest(ITmfEvent.class, range1, 0, ITmfEventRequest.ALL_DATA, ExecutionType.BACKGROUND) {
+            @Override
+            public void handleData(ITmfEvent event) {
+                super.handleData(event);
+                events2.add(event);
+            }
+        };
+        final Vector<ITmfEvent> events1 = new Vector<>();
+        TmfEventRequest request = new TmfEventRequest(ITmfEvent.class, range1, 0, ITmfEventRequest.ALL_DATA, ExecutionType.BACKGROUND) {
+            @Override
+            public void handleData(ITmfEvent event) {
+                super.handleData(event);
+                events1.add(event);
+                if (events1.size() == attachIndex) {
+                    fTrace.sendRequest(attachedRequest);
+                }
+            }
+        };
+        fTrace.sendRequest(request);
+        request.waitForCompletion();
+        attachedRequest.waitForCompletion();
+
+        try {
+            assertFalse("isCancelled", attachedRequest.isCancelled());
+            assertEquals("nbEvents", nbEvents, events1.size());
+            assertEquals("nbEvents", nbEvents, events2.size());
+            // The attached request received the events it missed first
+            for (int i = 0; i < nbEvents; i++) {
+                assertEquals("Ordered events", i + 1, events2.get(i).getTimestamp().getValue());
+            }
+        } finally {
+            fTrace.dispose();
+            fTrace = null;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Batches
+    // ------------------------------------------------------------------------
+
+    private TmfEventRequest createBatchedRequest(final int batchSize) {
+        return new TmfEventRequestStub(ITmfEvent.class, range1) {
+            @Override
+            public int getBatchSize() {
+                return batchSize;
+            }
+        };
+    }
+
+    @Test
+    public void testGetBatchSize() {
+        TmfCoalescedEventRequest coalescedRequest = new TmfCoalescedEventRequest(ITmfEvent.class, range1, 0, ITmfEventRequest.ALL_DATA, ExecutionType.FOREGROUND, 0);
+        assertEquals("getBatchSize", 1, coalescedRequest.getBatchSize());
+
+        coalescedRequest.addRequest(createBatchedRequest(1000));
+        assertEquals("getBatchSize", 1000, coalescedRequest.getBatchSize());
+        coalescedRequest.addRequest(createBatchedRequest(100));
+        assertEquals("getBatchSize", 100, coalescedRequest.getBatchSize());
+
+        /* A request handling the events one by one is not delayed */
+        coalescedRequest.addRequest(new TmfEventRequestStub(ITmfEvent.class, range1));
+        assertEquals("getBatchSize", 1, coalescedRequest.getBatchSize());
+    }
+
+    @Test
+    public void testBatchedRequest() throws InterruptedException {
+        final int nbEvents = 10000;
+        final int batchSize = 300;
+        fTrace = setupTrace(TEST_TRACE.getFullPath());
+
+        final Vector<ITmfEvent> batchedEvents = new Vector<>();
+        final Vector<Integer> batchSizes = new Vector<>();
+        TmfEventRequest batchedRequest = new TmfEventRequest(ITmfEvent.class, range1, 0, ITmfEventRequest.ALL_DATA, ExecutionType.FOREGROUND) {
+            @Override
+            public int getBatchSize() {
+                return batchSize;
+            }
+
+            @Override
+            public void handleData(List<@NonNull ITmfEvent> events) {
+                super.handleData(events);
+                batchSizes.add(events.size());
+                batchedEvents.addAll(events);
+            }
+        };
+        final Vector<ITmfEvent> events = new Vector<>();
+        TmfEventRequest request = new TmfEventRequest(ITmfEvent.class, range1, 0, ITmfEventRequest.ALL_DATA, ExecutionType.FOREGROUND) {
+            @Override
+            public void handleData(ITmfEvent event) {
+                super.handleData(event);
+                events.add(event);
+            }
+        };
+
+        fTrace.sendRequest(batchedRequest);
+        fTrace.sendRequest(request);
+        batchedRequest.waitForCompletion();
+        request.waitForCompletion();
+
+        try {
+            assertEquals("nbEvents", nbEvents, batchedEvents.size());
+            assertEquals("getNbRead", nbEvents, batchedRequest.getNbRead());
+            assertEquals("nbEvents", nbEvents, events.size());
+            for (int i = 0; i < nbEvents; i++) {
+                assertEquals("Ordered events", i + 1, batchedEvents.get(i).getTimestamp().getValue());
+            }
+            for (int size : batchSizes) {
+                assertTrue("Batch size", size > 0 && size <= batchSize);
+            }
+        } finally {
+            fTrace.dispose();
+            fTrace = null;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Parallel sub-requests
+    // ------------------------------------------------------------------------
+
+    /**
+     * A background request recording its events and the threads handling
+     * them
+     */
+    private static class RecordingRequest extends TmfEventRequest {
+        private final List<ITmfEvent> fEvents = new Vector<>();
+        private final Set<Thread> fThreads = ConcurrentHashMap.newKeySet();
+
+        public RecordingRequest() {
+            super(ITmfEvent.class, TmfTimeRange.ETERNITY, 0, ITmfEventRequest.ALL_DATA, ExecutionType.BACKGROUND);
+        }
+
+        @Override
+        public void handleData(ITmfEvent event) {
+            super.handleData(event);
+            fEvents.add(event);
+            fThreads.add(Thread.currentThread());
+        }
+    }
+
+    @Test
+    public void testParallelRequests() throws InterruptedException {
+        final int nbEvents = 10000;
+        fTrace = setupTrace(TEST_TRACE.getFullPath());
+
+        RecordingRequest parallel1 = new RecordingRequest();
+        RecordingRequest parallel2 = new RecordingRequest();
+        RecordingRequest cancelledRequest = new RecordingRequest() {
+            @Override
+            public void handleData(ITmfEvent event) {
+                super.handleData(event);
+                if (getNbRead() == 1000) {
+                    cancel();
+                }
+            }
+        };
+        fTrace.sendRequest(parallel1);
+        fTrace.sendRequest(parallel2);
+        fTrace.sendRequest(cancelledRequest);
+        parallel1.waitForCompletion();
+        parallel2.waitForCompletion();
+        cancelledRequest.waitForCompletion();
+
+        try {
+            for (RecordingRequest request : ImmutableList.of(parallel1, parallel2)) {
+                assertFalse("isCancelled", request.isCancelled());
+                assertEquals("nbEvents", nbEvents, request.fEvents.size());
+                for (int i = 0; i < nbEvents; i++) {
+                    assertEquals("Ordered events", i + 1, request.fEvents.get(i).getTimestamp().getValue());
+                }
+                // The events of a request are handled by one thread
+                assertEquals("Threads", 1, request.fThreads.size());
+            }
+            assertFalse("Parallel requests", parallel1.fThreads.equals(parallel2.fThreads));
+            assertTrue("isCancelled", cancelledRequest.isCancelled());
+            assertEquals("nbEvents", 1000, cancelledRequest.fEvents.size());
+        } finally {
+            fTrace.dispose();
+            fTrace = null;
+        }
+    }
+
     @Test
     public void testSingleTimeRequest() throws InterruptedException {
 
@@ -0,0 +1,250 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.tmf.core.tests.request;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.eclipse.tracecompass.internal.tmf.core.request.TmfRequestExecutor;
+import org.eclipse.tracecompass.tmf.core.component.TmfEventProvider;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
+import org.eclipse.tracecompass.tmf.core.event.TmfEvent;
+import org.eclipse.tracecompass.tmf.core.request.ITmfEventRequest;
+import org.eclipse.tracecompass.tmf.core.request.ITmfEventRequest.ExecutionType;
+import org.eclipse.tracecompass.tmf.core.request.TmfEventRequest;
+import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimeRange;
+import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimestamp;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfContext;
+import org.eclipse.tracecompass.tmf.core.trace.TmfContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+import org.junit.rules.Timeout;
+
+/**
+ * Test the lanes of the {@link TmfRequestExecutor}
+ */
+public class TmfRequestExecutorTest {
+
+    /** Time-out tests after 1 minute */
+    @Rule
+    public TestRule globalTimeout = new Timeout(1, TimeUnit.MINUTES);
+
+    /** Enough events for a request to last for the whole test */
+    private static final int NB_EVENTS = Integer.MAX_VALUE;
+    private static final long EVENT_DELAY = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private SlowEventProvider fProvider;
+
+    /**
+     * An event provider reading its events slowly. The requests are not
+     * coalesced, so that they reach the executor as they are sent.
+     */
+    private static class SlowEventProvider extends TmfEventProvider {
+
+        public SlowEventProvider() {
+            super("SlowEventProvider", ITmfEvent.class); //$NON-NLS-1$
+        }
+
+        @Override
+        public void sendRequest(ITmfEventRequest request) {
+            queueRequest(request);
+        }
+
+        @Override
+        public ITmfContext armRequest(ITmfEventRequest request) {
+            return new TmfContext(null, request.getIndex());
+        }
+
+        @Override
+        public ITmfEvent getNext(ITmfContext context) {
+            LockSupport.parkNanos(EVENT_DELAY);
+            long rank = context.getRank();
+            context.increaseRank();
+            return new TmfEvent(null, rank, TmfTimestamp.fromNanos(rank), null, null);
+        }
+    }
+
+    /**
+     * A request counting its events
+     */
+    private static class CountingRequest extends TmfEventRequest {
+        private volatile int fNbEvents = 0;
+
+        public CountingRequest(int nbRequested, ExecutionType type) {
+            super(ITmfEvent.class, TmfTimeRange.ETERNITY, 0, nbRequested, type);
+        }
+
+        @Override
+        public void handleData(ITmfEvent event) {
+            super.handleData(event);
+            fNbEvents++;
+        }
+
+        public int getNbEvents() {
+            return fNbEvents;
+        }
+    }
+
+    /**
+     * Create the event provider
+     */
+    @Before
+    public void setUp() {
+        fProvider = new SlowEventProvider();
+    }
+
+    /**
+     * Dispose the event provider
+     */
+    @After
+    public void tearDown() {
+        fProvider.dispose();
+    }
+
+    /**
+     * Test that a foreground request completes while a long background request
+     * is running
+     *
+     * @throws InterruptedException
+     *             if the test is interrupted
+     */
+    @Test
+    public void testForegroundDuringBackground() throws InterruptedException {
+        CountingRequest background = new CountingRequest(NB_EVENTS, ExecutionType.BACKGROUND);
+        CountingRequest foreground = new CountingRequest(100, ExecutionType.FOREGROUND);
+        fProvider.sendRequest(background);
+        background.waitForStart();
+        fProvider.sendRequest(foreground);
+        foreground.waitForCompletion();
+
+        assertEquals(100, foreground.getNbEvents());
+        assertFalse(background.isCompleted());
+        background.cancel();
+        background.waitForCompletion();
+        assertTrue(background.isCancelled());
+    }
+
+    /**
+     * Test that a new foreground request preempts a long foreground request
+     *
+     * @throws InterruptedException
+     *             if the test is interrupted
+     */
+    @Test
+    public void testPreemptedForeground() throws InterruptedException {
+        CountingRequest longForeground = new CountingRequest(NB_EVENTS, ExecutionType.FOREGROUND);
+        CountingRequest shortForeground = new CountingRequest(100, ExecutionType.FOREGROUND);
+        fProvider.sendRequest(longForeground);
+        longForeground.waitForStart();
+        fProvider.sendRequest(shortForeground);
+        shortForeground.waitForCompletion();
+
+        assertEquals(100, shortForeground.getNbEvents());
+        assertFalse(longForeground.isCompleted());
+        longForeground.cancel();
+        longForeground.waitForCompletion();
+    }
+
+    /**
+     * Test that all the requests queued in a lane are executed
+     *
+     * @throws InterruptedException
+     *             if the test is interrupted
+     */
+    @Test
+    public void testManyRequests() throws InterruptedException {
+        List<CountingRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            CountingRequest request = new CountingRequest(100, ExecutionType.FOREGROUND);
+            requests.add(request);
+            fProvider.sendRequest(request);
+        }
+        for (CountingRequest request : requests) {
+            request.waitForCompletion();
+            assertFalse(request.isCancelled());
+            assertEquals(100, request.getNbEvents());
+        }
+    }
+
+    /**
+     * Test that the long background requests of more event providers than
+     * there are processors all progress at the same time
+     *
+     * @throws InterruptedException
+     *             if the test is interrupted
+     */
+    @Test
+    public void testBackgroundProviders() throws InterruptedException {
+        int nbProviders = Math.max(2, Runtime.getRuntime().availableProcessors() + 1);
+        List<SlowEventProvider> providers = new ArrayList<>();
+        List<CountingRequest> requests = new ArrayList<>();
+        try {
+            for (int i = 0; i < nbProviders; i++) {
+                SlowEventProvider provider = new SlowEventProvider();
+                CountingRequest request = new CountingRequest(NB_EVENTS, ExecutionType.BACKGROUND);
+                providers.add(provider);
+                requests.add(request);
+                provider.sendRequest(request);
+            }
+            for (CountingRequest request : requests) {
+                request.waitForStart();
+                while (request.getNbEvents() < 100) {
+                    Thread.sleep(10);
+                }
+            }
+            for (CountingRequest request : requests) {
+                assertFalse(request.isCompleted());
+                request.cancel();
+                request.waitForCompletion();
+            }
+        } finally {
+            providers.forEach(SlowEventProvider::dispose);
+        }
+    }
+
+    /**
+     * Test that disposing the provider cancels its running and suspended
+     * requests
+     *
+     * @throws InterruptedException
+     *             if the test is interrupted
+     */
+    @Test
+    public void testDispose() throws InterruptedException {
+        CountingRequest first = new CountingRequest(NB_EVENTS, ExecutionType.FOREGROUND);
+        CountingRequest second = new CountingRequest(NB_EVENTS, ExecutionType.FOREGROUND);
+        CountingRequest background = new CountingRequest(NB_EVENTS, ExecutionType.BACKGROUND);
+        fProvider.sendRequest(first);
+        first.waitForStart();
+        fProvider.sendRequest(second);
+        second.waitForStart();
+        fProvider.sendRequest(background);
+        background.waitForStart();
+
+        fProvider.dispose();
+        first.waitForCompletion();
+        second.waitForCompletion();
+        background.waitForCompletion();
+        assertTrue(first.isCancelled());
+        assertTrue(second.isCancelled());
+        assertTrue(background.isCancelled());
+    }
+}
@@ -0,0 +1,138 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.tmf.core.tests.trace;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.tracecompass.internal.tmf.core.trace.experiment.TmfExperimentContext;
+import org.eclipse.tracecompass.internal.tmf.core.trace.experiment.TmfExperimentContext.ContextTuple;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
+import org.eclipse.tracecompass.tmf.core.event.TmfEvent;
+import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimestamp;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfContext;
+import org.eclipse.tracecompass.tmf.core.trace.TmfContext;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Test the merge of the events of the traces in the {@link TmfExperimentContext}
+ */
+@SuppressWarnings("javadoc")
+public class TmfExperimentContextTest {
+
+    /**
+     * Merge the events of the traces the way the experiment reads them
+     *
+     * @param traces
+     *            the timestamps of the events of each trace, in order
+     * @return the indexes of the traces of the merged events
+     */
+    private static List<Integer> merge(long[][] traces) {
+        TmfExperimentContext context = new TmfExperimentContext(traces.length);
+        int[] positions = new int[traces.length];
+        for (int i = 0; i < traces.length; i++) {
+            setNext(context, traces, positions, i);
+        }
+        List<Integer> merged = new ArrayList<>();
+        long previous = Long.MIN_VALUE;
+        ContextTuple next = context.getNext();
+        while (next != null) {
+            long timestamp = next.getEvent().getTimestamp().getValue();
+            assertTrue("Ordered events", timestamp >= previous);
+            previous = timestamp;
+            merged.add(next.getIndex());
+            setNext(context, traces, positions, next.getIndex());
+            next = context.getNext();
+        }
+        return merged;
+    }
+
+    private static void setNext(TmfExperimentContext context, long[][] traces, int[] positions, int trace) {
+        ITmfContext traceContext = new TmfContext(null, positions[trace]);
+        ITmfEvent event = null;
+        if (positions[trace] < traces[trace].length) {
+            event = new TmfEvent(null, positions[trace], TmfTimestamp.fromNanos(traces[trace][positions[trace]]), null, null);
+            positions[trace]++;
+        }
+        context.setContent(trace, traceContext, event);
+    }
+
+    @Test
+    public void testNoTraces() {
+        TmfExperimentContext context = new TmfExperimentContext(0);
+        assertNull(context.getNext());
+    }
+
+    @Test
+    public void testOneTrace() {
+        assertEquals(ImmutableList.of(0, 0, 0), merge(new long[][] { { 1, 2, 3 } }));
+    }
+
+    @Test
+    public void testMerge() {
+        long[][] traces = {
+                { 1, 4, 7 },
+                { 2, 5 },
+                {},
+                { 3, 6, 8, 9 }
+        };
+        assertEquals(ImmutableList.of(0, 1, 3, 0, 1, 3, 0, 3, 3), merge(traces));
+    }
+
+    @Test
+    public void testSameTimestamps() {
+        long[][] traces = {
+                { 1, 2 },
+                { 1, 2 },
+                { 1, 2 }
+        };
+        // The trace with the lowest index comes first
+        assertEquals(ImmutableList.of(0, 1, 2, 0, 1, 2), merge(traces));
+    }
+
+    @Test
+    public void testManyTraces() {
+        Random random = new Random(42);
+        for (int nbTraces = 1; nbTraces <= 33; nbTraces++) {
+            long[][] traces = new long[nbTraces][];
+            int nbEvents = 0;
+            for (int i = 0; i < nbTraces; i++) {
+                traces[i] = new long[random.nextInt(50)];
+                long timestamp = 0;
+                for (int j = 0; j < traces[i].length; j++) {
+                    timestamp += random.nextInt(10);
+                    traces[i][j] = timestamp;
+                }
+                nbEvents += traces[i].length;
+            }
+            assertEquals(nbEvents, merge(traces).size());
+        }
+    }
+
+    @Test
+    public void testTraceWithoutNextEvent() {
+        TmfExperimentContext context = new TmfExperimentContext(2);
+        context.setContent(0, new TmfContext(), new TmfEvent(null, 0, TmfTimestamp.fromNanos(1), null, null));
+        context.setContent(1, new TmfContext(), new TmfEvent(null, 0, TmfTimestamp.fromNanos(2), null, null));
+        assertEquals(0, context.getNext().getIndex());
+        // The content of trace 0 is not set again, it has no more events
+        assertEquals(1, context.getNext().getIndex());
+        assertNull(context.getNext());
+    }
+}
@@ -16,9 +16,14 @@
 
 package org.eclipse.tracecompass.internal.tmf.core.component;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinPool.ManagedBlocker;
 
+import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.tracecompass.internal.tmf.core.Activator;
 import org.eclipse.tracecompass.internal.tmf.core.TmfCoreTracer;
 import org.eclipse.tracecompass.tmf.core.component.ITmfEventProvider;
@@ -37,6 +42,13 @@ import org.eclipse.tracecompass.tmf.core.trace.ITmfContext;
  */
 public class TmfEventThread implements Runnable {
 
+    // ------------------------------------------------------------------------
+    // Constants
+    // ------------------------------------------------------------------------
+
+    /** The initial capacity of the batches, for the requests with large ones */
+    private static final int BATCH_CAPACITY = 4096;
+
     // ------------------------------------------------------------------------
     // Attributes
     // ------------------------------------------------------------------------
@@ -71,6 +83,27 @@ public class TmfEventThread implements Runnable {
     /** The flag for suspending a thread */
     private volatile boolean fIsPaused = false;
 
+    /**
+     * Waits until the thread is resumed. A pool running the thread adds a
+     * thread while it is suspended, so suspended requests do not starve the
+     * requests of the pool.
+     */
+    private final ManagedBlocker fPauseBlocker = new ManagedBlocker() {
+        @Override
+        public boolean block() throws InterruptedException {
+            CountDownLatch latch = fLatch;
+            if (fIsPaused) {
+                latch.await();
+            }
+            return !fIsPaused;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return !fIsPaused;
+        }
+    };
+
     // ------------------------------------------------------------------------
     // Constructor
     // ------------------------------------------------------------------------
@@ -171,6 +204,8 @@ public class TmfEventThread implements Runnable {
         fRequest.start();
         int nbRequested = fRequest.getNbRequested();
         int nbRead = 0;
+        int batchSize = fRequest.getBatchSize();
+        List<@NonNull ITmfEvent> batch = batchSize > 1 ? new ArrayList<>(Math.min(batchSize, BATCH_CAPACITY)) : null;
 
         ITmfContext context = null;
         try {
@@ -190,13 +225,23 @@ public class TmfEventThread implements Runnable {
 
                 TmfCoreTracer.traceEvent(fProvider, fRequest, event);
                 if (fRequest.getDataType().isInstance(event)) {
-                    fRequest.handleData(event);
+                    if (batch == null) {
+                        fRequest.handleData(event);
+                    } else {
+                        batch.add(event);
+                        if (batch.size() >= batchSize) {
+                            handleBatch(batch);
+                        }
+                    }
                 }
 
                 // Pause execution if requested
-                while (fIsPaused) {
-                    CountDownLatch latch = fLatch;
-                    latch.await();
+                if (fIsPaused) {
+                    // Do not hold the events while paused
+                    if (batch != null) {
+                        handleBatch(batch);
+                    }
+                    ForkJoinPool.managedBlock(fPauseBlocker);
                 }
 
                 // To avoid an unnecessary read passed the last event requested
@@ -205,6 +250,10 @@ public class TmfEventThread implements Runnable {
                 }
             }
 
+            if (batch != null && !fRequest.isCancelled()) {
+                handleBatch(batch);
+            }
+
             isCompleted = true;
 
             if (fRequest.isCancelled()) {
@@ -225,6 +274,13 @@ public class TmfEventThread implements Runnable {
         }
     }
 
+    private void handleBatch(List<@NonNull ITmfEvent> batch) {
+        if (!batch.isEmpty()) {
+            fRequest.handleData(batch);
+            batch.clear();
+        }
+    }
+
     // ------------------------------------------------------------------------
     // Operations
     // ------------------------------------------------------------------------
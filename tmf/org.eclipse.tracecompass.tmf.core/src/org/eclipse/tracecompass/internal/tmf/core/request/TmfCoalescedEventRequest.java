@@ -17,22 +17,47 @@
 package org.eclipse.tracecompass.internal.tmf.core.request;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
 
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.internal.tmf.core.Activator;
 import org.eclipse.tracecompass.internal.tmf.core.TmfCoreTracer;
+import org.eclipse.tracecompass.tmf.core.component.TmfEventProvider;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
 import org.eclipse.tracecompass.tmf.core.request.ITmfEventRequest;
 import org.eclipse.tracecompass.tmf.core.request.TmfEventRequest;
 import org.eclipse.tracecompass.tmf.core.timestamp.ITmfTimestamp;
 import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimeRange;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfContext;
 
 /**
  * The TMF coalesced event request
+ * <p>
+ * Requests can be attached to a coalesced request while it reads the events.
+ * An attached request receives the events in a queue, handled by its own task,
+ * which first reads the events the request missed. It receives all its events
+ * in order while the events after them are read only once, and the coalesced
+ * request does not wait for the events it missed.
+ * <p>
+ * A background request reading all the events for several sub-requests
+ * reading all their events puts the events in a queue for some of them, up to
+ * the number of processors, so the sub-requests process the events in
+ * parallel. The other sub-requests are handled by the thread reading the
+ * events.
+ * <p>
+ * The queues are handled by tasks of the background pool of the request
+ * executors. The coalesced request does not wait for its queues: it is
+ * completed once the events are read, and a sub-request with a queue is
+ * completed after it, once its task handled the events of the queue.
  *
  * @author Francois Chouinard
  */
@@ -42,8 +67,11 @@ public class TmfCoalescedEventRequest extends TmfEventRequest {
     // Attributes
     // ------------------------------------------------------------------------
 
+    /** The maximum number of sub-requests handling their events in parallel */
+    private static final int MAX_QUEUES = Runtime.getRuntime().availableProcessors();
+
     /** The list of coalesced requests */
-    private final List<ITmfEventRequest> fRequests = new ArrayList<>();
+    private final List<ITmfEventRequest> fRequests = new CopyOnWriteArrayList<>();
 
     /**
      * We do not use super.fRange, because in the case of coalesced requests,
@@ -56,6 +84,43 @@ public class TmfCoalescedEventRequest extends TmfEventRequest {
      */
     private Map<String, Set<ITmfEventRequest>> fRequestsCache = new HashMap<>();
 
+    /**
+     * The requests attached while the events are read, not yet receiving
+     * them, with the providers of the events they missed. No request is
+     * attached once this request is closed, when it is seen completed.
+     * Attaching does not lock this request, since the sub-requests may attach
+     * requests when they complete.
+     */
+    private final Object fAttachLock = new Object();
+    private final Map<ITmfEventRequest, TmfEventProvider> fAttachedRequests = new LinkedHashMap<>();
+    private volatile boolean fHasAttachedRequests = false;
+    private boolean fClosed = false;
+
+    /**
+     * The timestamp of the last event read before each attached request
+     * received the events read. They read the events up to this timestamp
+     * themselves.
+     */
+    private final Map<ITmfEventRequest, ITmfTimestamp> fAttachTimestamps = new HashMap<>();
+
+    /** The timestamp of the last event read */
+    private @Nullable ITmfTimestamp fLastTimestamp = null;
+
+    /**
+     * The events read for the sub-requests with a batch size greater than 1,
+     * not yet delivered
+     */
+    private final Map<ITmfEventRequest, List<@NonNull ITmfEvent>> fBatches = new HashMap<>();
+
+    /**
+     * The queues of the sub-requests handling the events in their own
+     * tasks, set when this request starts
+     */
+    private volatile Map<ITmfEventRequest, TmfRequestQueue> fQueues = Collections.emptyMap();
+
+    /** The listener called once this request is completed */
+    private final AtomicReference<@Nullable Runnable> fCompletionListener = new AtomicReference<>();
+
     // ------------------------------------------------------------------------
     // Constructor
     // ------------------------------------------------------------------------
@@ -108,6 +173,26 @@ public class TmfCoalescedEventRequest extends TmfEventRequest {
         return fRange;
     }
 
+    /**
+     * Get the union of the event types of the sub-requests, null if one of
+     * them handles all the events
+     */
+    @Override
+    public @Nullable Set<@NonNull String> getEventTypes() {
+        if (fRequests.isEmpty()) {
+            return null;
+        }
+        Set<@NonNull String> eventTypes = new HashSet<>();
+        for (ITmfEventRequest request : fRequests) {
+            Set<@NonNull String> requestEventTypes = request.getEventTypes();
+            if (requestEventTypes == null) {
+                return null;
+            }
+            eventTypes.addAll(requestEventTypes);
+        }
+        return eventTypes;
+    }
+
     // ------------------------------------------------------------------------
     // Management
     // ------------------------------------------------------------------------
@@ -189,6 +274,173 @@ public class TmfCoalescedEventRequest extends TmfEventRequest {
         }
     }
 
+    /**
+     * Attach a request to this one while it reads the events. The request
+     * first reads the events this request already read, then receives the
+     * events read by this request. The request must be within the range of
+     * this request.
+     *
+     * @param request
+     *            The request to attach
+     * @param provider
+     *            The provider of the events the request missed
+     * @return true if the request is attached, false if this request is
+     *         completed or the request is not compatible
+     */
+    public boolean attachRequest(ITmfEventRequest request, TmfEventProvider provider) {
+        synchronized (fAttachLock) {
+            if (fClosed || !isAttachable(request)) {
+                return false;
+            }
+            fAttachedRequests.put(request, provider);
+            fHasAttachedRequests = true;
+            return true;
+        }
+    }
+
+    /**
+     * Set the listener called once this request is completed, whether it is
+     * done, cancelled or failed. It is called right away if this request is
+     * already completed.
+     *
+     * @param listener
+     *            The listener
+     */
+    public void setCompletionListener(Runnable listener) {
+        fCompletionListener.set(listener);
+        if (super.isCompleted()) {
+            notifyCompletion();
+        }
+    }
+
+    private void notifyCompletion() {
+        Runnable listener = fCompletionListener.getAndSet(null);
+        if (listener != null) {
+            listener.run();
+        }
+    }
+
+    /**
+     * @return true if no request can be attached to this request anymore
+     */
+    public boolean isClosed() {
+        synchronized (fAttachLock) {
+            return fClosed;
+        }
+    }
+
+    /**
+     * Close this request if no request is attached and waiting for the events
+     *
+     * @return true if it is closed
+     */
+    private boolean close() {
+        synchronized (fAttachLock) {
+            if (!fAttachedRequests.isEmpty()) {
+                return false;
+            }
+            fClosed = true;
+            return true;
+        }
+    }
+
+    private List<ITmfEventRequest> closeAttachedRequests() {
+        synchronized (fAttachLock) {
+            fClosed = true;
+            List<ITmfEventRequest> attachedRequests = new ArrayList<>(fAttachedRequests.keySet());
+            fAttachedRequests.clear();
+            fHasAttachedRequests = false;
+            return attachedRequests;
+        }
+    }
+
+    private boolean isAttachable(ITmfEventRequest request) {
+        TmfTimeRange range = request.getRange();
+        // The events read are filtered by the event types of the sub-requests
+        Set<@NonNull String> eventTypes = getEventTypes();
+        return (request.getExecType() == getExecType() &&
+                (eventTypes == null || eventTypes.equals(request.getEventTypes())) &&
+                request.getDependencyLevel() == getDependencyLevel() &&
+                fNbRequested == ITmfEventRequest.ALL_DATA &&
+                (request.getIndex() == 0 || request.getIndex() >= fIndex) &&
+                fRange.getStartTime().compareTo(range.getStartTime()) <= 0 &&
+                fRange.getEndTime().compareTo(range.getEndTime()) >= 0);
+    }
+
+    /**
+     * Add the attached requests to the coalesced requests. The attached
+     * requests which missed events receive the events in a queue, whose task
+     * first reads the events they missed.
+     *
+     * @param reading
+     *            true if this request reads more events, then the attached
+     *            requests read the events up to the last event read, false if
+     *            they read all their events
+     */
+    private void addAttachedRequests(boolean reading) {
+        ITmfTimestamp end = reading ? fLastTimestamp : null;
+        Map<ITmfEventRequest, TmfEventProvider> attachedRequests;
+        synchronized (fAttachLock) {
+            attachedRequests = new LinkedHashMap<>(fAttachedRequests);
+        }
+        Map<ITmfEventRequest, TmfRequestQueue> queues = new HashMap<>(fQueues);
+        for (Map.Entry<ITmfEventRequest, TmfEventProvider> entry : attachedRequests.entrySet()) {
+            ITmfEventRequest request = entry.getKey();
+            if (!request.isCompleted()) {
+                request.start();
+                if (end != null || !reading) {
+                    TmfEventProvider provider = entry.getValue();
+                    TmfRequestQueue queue = new TmfRequestQueue(request, "TmfRequestQueue " + request.getRequestId(), //$NON-NLS-1$
+                            q -> readMissedEvents(request, provider, end, q));
+                    queues.put(request, queue);
+                    queue.start();
+                }
+            }
+            fRequests.add(request);
+            if (end != null) {
+                fAttachTimestamps.put(request, end);
+            }
+            synchronized (fAttachLock) {
+                fAttachedRequests.remove(request);
+                fHasAttachedRequests = !fAttachedRequests.isEmpty();
+            }
+            if (TmfCoreTracer.isRequestTraced()) {
+                TmfCoreTracer.traceRequest(request.getRequestId(), "ATTACHED to " + getRequestId()); //$NON-NLS-1$
+            }
+        }
+        fQueues = queues;
+        fRequestsCache.clear();
+    }
+
+    /**
+     * Read the events an attached request missed, with its own context, in the
+     * task of its queue. This request may complete meanwhile, the attached
+     * request is completed once its queue is closed.
+     */
+    private void readMissedEvents(ITmfEventRequest request, TmfEventProvider provider, @Nullable ITmfTimestamp end, TmfRequestQueue queue) {
+        TmfTimeRange range = request.getRange();
+        ITmfTimestamp endTime = (end == null || end.compareTo(range.getEndTime()) > 0) ? range.getEndTime() : end;
+        TmfEventRequest missedRequest = new TmfEventRequest(ITmfEvent.class, new TmfTimeRange(range.getStartTime(), endTime),
+                request.getIndex(), ITmfEventRequest.ALL_DATA, getExecType()) {
+            // Only arms the context
+        };
+        ITmfContext context = provider.armRequest(missedRequest);
+        if (context == null) {
+            return;
+        }
+        try {
+            ITmfEvent event = provider.getNext(context);
+            while (event != null && event.getTimestamp().compareTo(endTime) <= 0 && !request.isCompleted()) {
+                if (request.getProviderFilter().matches(event) && range.contains(event.getTimestamp())) {
+                    queue.handle(event);
+                }
+                event = provider.getNext(context);
+            }
+        } finally {
+            context.dispose();
+        }
+    }
+
     /**
      * @return The list of IDs of the sub-requests
      */
@@ -209,8 +461,37 @@ public class TmfCoalescedEventRequest extends TmfEventRequest {
     // ITmfEventRequest
     // ------------------------------------------------------------------------
 
+    /**
+     * The events are read in batches if all the sub-requests handle them in
+     * batches, of the smallest of their sizes. Otherwise they are read one by
+     * one, and the events of the sub-requests handling them in batches are
+     * still gathered for each of them.
+     */
+    @Override
+    public int getBatchSize() {
+        if (fRequests.isEmpty()) {
+            return 1;
+        }
+        int batchSize = Integer.MAX_VALUE;
+        for (ITmfEventRequest request : fRequests) {
+            batchSize = Math.min(batchSize, Math.max(1, request.getBatchSize()));
+        }
+        return batchSize;
+    }
+
+    @Override
+    public void handleData(List<@NonNull ITmfEvent> events) {
+        for (ITmfEvent event : events) {
+            handleData(event);
+        }
+        flushBatches();
+    }
+
     @Override
     public void handleData(ITmfEvent data) {
+        if (fHasAttachedRequests) {
+            addAttachedRequests(true);
+        }
         super.handleData(data);
 
         long index = getIndex() + getNbRead() - 1;
@@ -230,30 +511,83 @@ public class TmfCoalescedEventRequest extends TmfEventRequest {
         }
 
         // dispatch event to relevant requests
+        ITmfTimestamp ts = data.getTimestamp();
         for (ITmfEventRequest request : requests) {
             long start = request.getIndex();
-            if (!request.isCompleted() && index >= start && request.getNbRead() < request.getNbRequested()) {
-                ITmfTimestamp ts = data.getTimestamp();
-                if (request.getRange().contains(ts)) {
-                    if (request.getDataType().isInstance(data)) {
-                        try {
-                            request.handleData(data);
-                        } catch (Exception e) {
-                            /*
-                             * We don't usually catch all exception, but here it
-                             * is important because this will cause the request
-                             * thread to hang forever and the other requests to
-                             * be stopped. This should properly cancel the
-                             * request with the exception and let the rest
-                             * continue.
-                             */
-                            Activator.logError("An uncaught exception happened on request " + request + ": " + e.getMessage());  //$NON-NLS-1$//$NON-NLS-2$
-                            request.fail(e);
-                        }
+            if (!request.isCompleted() && index >= start) {
+                if (!fAttachTimestamps.isEmpty()) {
+                    // The attached requests read these events themselves
+                    ITmfTimestamp attachTimestamp = fAttachTimestamps.get(request);
+                    if (attachTimestamp != null && ts.compareTo(attachTimestamp) <= 0) {
+                        continue;
                     }
                 }
+                if (request.getRange().contains(ts)) {
+                    dispatch(request, data);
+                }
             }
         }
+        fLastTimestamp = ts;
+    }
+
+    private void dispatch(ITmfEventRequest request, ITmfEvent data) {
+        TmfRequestQueue queue = fQueues.get(request);
+        if (queue != null) {
+            queue.put(data);
+            return;
+        }
+        int batchSize = request.getBatchSize();
+        if (batchSize > 1) {
+            List<@NonNull ITmfEvent> batch = fBatches.computeIfAbsent(request, r -> new ArrayList<>());
+            if (request.getNbRead() + batch.size() < request.getNbRequested() && request.getDataType().isInstance(data)) {
+                batch.add(data);
+                if (batch.size() >= batchSize) {
+                    flush(request, batch);
+                }
+            }
+        } else if (request.getNbRead() < request.getNbRequested() && request.getDataType().isInstance(data)) {
+            try {
+                request.handleData(data);
+            } catch (Exception e) {
+                /*
+                 * We don't usually catch all exception, but here it is
+                 * important because this will cause the request thread to
+                 * hang forever and the other requests to be stopped. This
+                 * should properly cancel the request with the exception and
+                 * let the rest continue.
+                 */
+                Activator.logError("An uncaught exception happened on request " + request + ": " + e.getMessage());  //$NON-NLS-1$//$NON-NLS-2$
+                request.fail(e);
+            }
+        }
+    }
+
+    /**
+     * Deliver the events read for the sub-requests handling them in batches
+     */
+    private void flushBatches() {
+        for (Map.Entry<ITmfEventRequest, List<@NonNull ITmfEvent>> entry : fBatches.entrySet()) {
+            ITmfEventRequest request = entry.getKey();
+            if (request.isCompleted()) {
+                entry.getValue().clear();
+            } else {
+                flush(request, entry.getValue());
+            }
+        }
+    }
+
+    private static void flush(ITmfEventRequest request, List<@NonNull ITmfEvent> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            request.handleData(batch);
+        } catch (Exception e) {
+            // As for the events handled one by one
+            Activator.logError("An uncaught exception happened on request " + request + ": " + e.getMessage());  //$NON-NLS-1$//$NON-NLS-2$
+            request.fail(e);
+        }
+        batch.clear();
     }
 
     @Override
@@ -263,34 +597,93 @@ public class TmfCoalescedEventRequest extends TmfEventRequest {
                 request.start();
             }
         }
+        startQueues();
         super.start();
     }
 
+    /**
+     * Give a queue to the sub-requests reading all the events of a background
+     * request, if there are several, so they handle the events in parallel.
+     * The number of queues is bounded by the number of processors.
+     */
+    private void startQueues() {
+        if (getExecType() != ExecutionType.BACKGROUND || getNbRequested() != ITmfEventRequest.ALL_DATA) {
+            return;
+        }
+        List<ITmfEventRequest> requests = new ArrayList<>();
+        for (ITmfEventRequest request : fRequests) {
+            if (!request.isCompleted() && request.getNbRequested() == ITmfEventRequest.ALL_DATA) {
+                requests.add(request);
+            }
+        }
+        if (requests.size() < 2) {
+            return;
+        }
+        Map<ITmfEventRequest, TmfRequestQueue> queues = new HashMap<>();
+        for (ITmfEventRequest request : requests.subList(0, Math.min(requests.size(), MAX_QUEUES))) {
+            TmfRequestQueue queue = new TmfRequestQueue(request, "TmfRequestQueue " + request.getRequestId()); //$NON-NLS-1$
+            queues.put(request, queue);
+            queue.start();
+        }
+        fQueues = queues;
+    }
+
+    /**
+     * Close the queues of the sub-requests, their tasks complete them once
+     * they handled the events
+     */
+    private void closeQueues() {
+        for (TmfRequestQueue queue : fQueues.values()) {
+            queue.close();
+        }
+    }
+
     @Override
     public synchronized void done() {
+        synchronized (fAttachLock) {
+            fClosed = true;
+        }
+        // The requests attached after the last event read all their events
+        addAttachedRequests(false);
+        flushBatches();
+        closeQueues();
+        /*
+         * The sub-requests with a queue are completed by its task, after this
+         * request
+         */
+        Map<ITmfEventRequest, TmfRequestQueue> queues = fQueues;
         for (ITmfEventRequest request : fRequests) {
-            if (!request.isCompleted()) {
+            if (!request.isCompleted() && !queues.containsKey(request)) {
                 request.done();
             }
         }
         super.done();
+        notifyCompletion();
     }
 
     @Override
     public void fail(Exception e) {
+        for (ITmfEventRequest request : closeAttachedRequests()) {
+            request.fail(e);
+        }
         for (ITmfEventRequest request : fRequests) {
             request.fail(e);
         }
+        closeQueues();
         super.fail(e);
     }
 
     @Override
     public void cancel() {
+        for (ITmfEventRequest request : closeAttachedRequests()) {
+            request.cancel();
+        }
         for (ITmfEventRequest request : fRequests) {
             if (!request.isCompleted()) {
                 request.cancel();
             }
         }
+        closeQueues();
         super.cancel();
     }
 
@@ -301,6 +694,11 @@ public class TmfCoalescedEventRequest extends TmfEventRequest {
             return true;
         }
 
+        // The attached requests did not receive their events yet
+        if (fHasAttachedRequests) {
+            return false;
+        }
+
         // Secondly, check if all sub-requests are finished
         if (!fRequests.isEmpty()) {
             // If all sub requests are completed the coalesced request is
@@ -310,7 +708,7 @@ public class TmfCoalescedEventRequest extends TmfEventRequest {
                     return false;
                 }
             }
-            return true;
+            return close();
         }
 
         // Coalescing request is not finished if there are no sub-requests
@@ -324,6 +722,11 @@ public class TmfCoalescedEventRequest extends TmfEventRequest {
             return true;
         }
 
+        // The attached requests did not receive their events yet
+        if (fHasAttachedRequests) {
+            return false;
+        }
+
         // Secondly, check if all sub-requests are canceled
         if (!fRequests.isEmpty()) {
             // If all sub requests are canceled the coalesced request is
@@ -333,7 +736,7 @@ public class TmfCoalescedEventRequest extends TmfEventRequest {
                     return false;
                 }
             }
-            return true;
+            return close();
         }
 
         // Coalescing request is not canceled if there are no sub-requests
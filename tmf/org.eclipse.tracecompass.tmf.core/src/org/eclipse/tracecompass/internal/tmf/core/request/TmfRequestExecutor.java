@@ -16,19 +16,23 @@
 
 package org.eclipse.tracecompass.internal.tmf.core.request;
 
-import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNull;
-
-import java.util.Queue;
-import java.util.Timer;
-import java.util.TimerTask;
-import java.util.concurrent.ArrayBlockingQueue;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.concurrent.Executor;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.common.core.log.TraceCompassLog;
 import org.eclipse.tracecompass.common.core.log.TraceCompassLogUtils;
 import org.eclipse.tracecompass.common.core.log.TraceCompassLogUtils.FlowScopeLog;
@@ -38,16 +42,23 @@ import org.eclipse.tracecompass.internal.tmf.core.component.TmfEventThread;
 import org.eclipse.tracecompass.tmf.core.request.ITmfEventRequest.ExecutionType;
 
 /**
- * The request scheduler works with 5 slots with a specific time. It has 4 slots
- * for foreground requests and 1 slot for background requests, and it passes
- * through all the slots (foreground first and background after).
+ * The request scheduler has one lane per execution type. The lanes of an
+ * event provider run at the same time, each one running one request at a
+ * time and passing to the next request of the lane every time slice.
  *
- * Example: if we have one foreground and one background request, the foreground
- * request will be executed four times more often than the background request.
+ * The requests of all the event providers run on two pools shared by all
+ * the executors, one per lane. The foreground requests run on a
+ * work-stealing pool bounded by the number of processors. The background
+ * requests run on lower priority threads, one per event provider running a
+ * background request, so that the background requests of every provider
+ * progress no matter how many providers there are. A new foreground request
+ * preempts the running foreground request right away, so it does not wait
+ * for the end of the time slice. The sub-requests of the coalesced background
+ * requests handling their events in parallel also run on the background pool.
  *
  * @author Francois Chouinard
  * @author Simon Delisle
- * @version 1.1
+ * @version 2.0
  */
 public class TmfRequestExecutor implements Executor {
 
@@ -59,61 +70,135 @@ public class TmfRequestExecutor implements Executor {
     // ------------------------------------------------------------------------
 
     private static final long REQUEST_TIME = 100;
-    private static final int FOREGROUND_SLOT = 4;
+    private static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
+
+    private static final Executor FOREGROUND_POOL = createPool("Foreground", PARALLELISM, Thread.NORM_PRIORITY); //$NON-NLS-1$
+    /*
+     * Not bounded, the background requests of a provider would otherwise wait
+     * for the end of the requests of the other providers
+     */
+    private static final Executor BACKGROUND_POOL = createUnboundedPool("Background", Thread.NORM_PRIORITY - 1); //$NON-NLS-1$
+
+    /** Timer of the time slices of all the executors */
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "TmfRequestExecutor timer"); //$NON-NLS-1$
+        thread.setDaemon(true);
+        return thread;
+    });
 
     // ------------------------------------------------------------------------
     // Attributes
     // ------------------------------------------------------------------------
 
-    // The request executor
-    private final ExecutorService fExecutor = Executors.newCachedThreadPool();
     private final String fExecutorName;
 
-    // The request queues
-    private final Queue<TmfEventThread> fForegroundTasks = new ArrayBlockingQueue<>(10);
-    private final Queue<TmfEventThread> fBackgroundTasks = new ArrayBlockingQueue<>(10);
+    // The request lanes
+    private final Map<ExecutionType, Lane> fLanes = new EnumMap<>(ExecutionType.class);
 
-    // The tasks
-    private TmfEventThread fActiveTask;
+    private @Nullable ScheduledFuture<?> fTimerTask;
 
-    private Timer fTimer;
-    private TimerTask fTimerTask;
+    private volatile boolean fShutdown = false;
 
-    private int fForegroundCycle = 0;
+    /**
+     * The requests of one execution type and the one running
+     */
+    private static final class Lane {
+        private final Executor fPool;
+        private final Deque<TmfEventThread> fTasks = new ArrayDeque<>();
+        private @Nullable TmfEventThread fActiveTask;
+
+        public Lane(Executor pool) {
+            fPool = pool;
+        }
+    }
 
     // ------------------------------------------------------------------------
     // Constructors
     // ------------------------------------------------------------------------
 
     /**
-     * Default constructor
+     * Default constructor, runs the requests on the pools shared by all the
+     * executors
      */
     public TmfRequestExecutor() {
-        // We know the canonical name is not null because we use ExecutorService
-        // only
-        String canonicalName = checkNotNull(fExecutor.getClass().getCanonicalName());
-        fExecutorName = canonicalName.substring(canonicalName.lastIndexOf('.') + 1);
+        this(FOREGROUND_POOL, BACKGROUND_POOL);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param foreground
+     *            the executor running the foreground requests
+     * @param background
+     *            the executor running the background requests
+     */
+    public TmfRequestExecutor(Executor foreground, Executor background) {
+        fLanes.put(ExecutionType.FOREGROUND, new Lane(foreground));
+        fLanes.put(ExecutionType.BACKGROUND, new Lane(background));
+        String name = foreground.getClass().getSimpleName();
+        fExecutorName = name.isEmpty() ? foreground.getClass().getName() : name;
         if (TmfCoreTracer.isComponentTraced()) {
-            TmfCoreTracer.trace(fExecutor + " created"); //$NON-NLS-1$
+            TmfCoreTracer.trace(this + " created"); //$NON-NLS-1$
         }
     }
 
+    private static Executor createPool(String name, int parallelism, int priority) {
+        return new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("TmfRequestExecutor " + name + ' ' + thread.getPoolIndex()); //$NON-NLS-1$
+            thread.setPriority(priority);
+            return thread;
+        }, null, true);
+    }
+
+    private static Executor createUnboundedPool(String name, int priority) {
+        AtomicInteger index = new AtomicInteger();
+        return Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "TmfRequestExecutor " + name + ' ' + index.getAndIncrement()); //$NON-NLS-1$
+            thread.setDaemon(true);
+            thread.setPriority(priority);
+            return thread;
+        });
+    }
+
     // ------------------------------------------------------------------------
     // Getters
     // ------------------------------------------------------------------------
 
+    /**
+     * Get the pool running the background requests, shared by all the
+     * executors. The queues of the sub-requests of a coalesced background
+     * request handle their events on it, at the background priority. They
+     * wait for the events of their coalesced request, so they are paused
+     * while their coalesced request is suspended.
+     *
+     * @return the background pool
+     */
+    static Executor getBackgroundPool() {
+        return BACKGROUND_POOL;
+    }
+
     /**
      * @return the shutdown state (i.e. if it is accepting new requests)
      */
     public boolean isShutdown() {
-        return fExecutor.isShutdown();
+        return fShutdown;
     }
 
     /**
      * @return the termination state
      */
-    public boolean isTerminated() {
-        return fExecutor.isTerminated();
+    public synchronized boolean isTerminated() {
+        if (!fShutdown) {
+            return false;
+        }
+        for (Lane lane : fLanes.values()) {
+            TmfEventThread activeTask = lane.fActiveTask;
+            if (activeTask != null && !activeTask.getThread().isCompleted()) {
+                return false;
+            }
+        }
+        return true;
     }
 
     // ------------------------------------------------------------------------
@@ -123,14 +208,12 @@ public class TmfRequestExecutor implements Executor {
     /**
      * Initialize the executor
      */
-    public void init() {
-        if (fTimer != null) {
+    public synchronized void init() {
+        if (fTimerTask != null || fShutdown) {
             return;
         }
-        // Initialize the timer for the schedSwitch
-        fTimerTask = new SchedSwitch();
-        fTimer = new Timer(true);
-        fTimer.schedule(fTimerTask, 0, REQUEST_TIME);
+        // Initialize the timer of the time slices
+        fTimerTask = TIMER.scheduleAtFixedRate(this::scheduleNext, 0, REQUEST_TIME, TimeUnit.MILLISECONDS);
     }
 
     @Override
@@ -145,82 +228,52 @@ public class TmfRequestExecutor implements Executor {
         try (FlowScopeLog scope = new FlowScopeLogBuilder(LOGGER, Level.FINE, "RequestExecutor:CreatingThread").setCategory(LOG_CATEGORY).build()) { //$NON-NLS-1$
             // Wrap the thread in a MyThread
             TmfEventThread thread = (TmfEventThread) command;
+            ExecutionType priority = thread.getExecType();
+            Lane lane = getLane(priority);
             TmfEventThread wrapper = new TmfEventThread(thread) {
                 @Override
                 public void run() {
                     try (FlowScopeLog log = new FlowScopeLogBuilder(LOGGER, Level.FINE, "RequestExecutor:RunningRequest", "thread", thread.getThread(), "execution type", thread.getExecType()).setParentScope(scope).build()) { //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
                         thread.run();
                     } finally {
-                        scheduleNext();
+                        taskCompleted(lane, this);
                     }
                 }
             };
 
-            // Add the thread to the appropriate queue
-            ExecutionType priority = thread.getExecType();
-
-            if (priority == ExecutionType.FOREGROUND) {
-                if (!fForegroundTasks.offer(wrapper)) {
-                    wrapper.cancel();
-                }
-            } else {
-                if (!fBackgroundTasks.offer(wrapper)) {
-                    wrapper.cancel();
-                }
+            if (fShutdown) {
+                wrapper.cancel();
+                return;
             }
-        }
-    }
 
-    /**
-     * Timer task to trigger scheduleNext()
-     */
-    private class SchedSwitch extends TimerTask {
-
-        SchedSwitch() {
-        }
-
-        @Override
-        public void run() {
-            scheduleNext();
+            // Add the thread to its lane
+            lane.fTasks.add(wrapper);
+            if (lane.fActiveTask == null) {
+                schedule(lane);
+            } else if (priority == ExecutionType.FOREGROUND) {
+                // Do not make the new interactive request wait for the slice
+                switchTask(lane);
+            }
         }
     }
 
     /**
-     * Executes the next pending request, if applicable.
+     * Executes the next pending request of every lane whose time slice is
+     * over, if applicable.
      */
     protected synchronized void scheduleNext() {
-        if (!isShutdown()) {
-            if (fActiveTask == null) {
-                schedule();
-            } else if (fActiveTask.getExecType() == ExecutionType.FOREGROUND) {
-                if (fActiveTask.getThread().isCompleted()) {
-                    fActiveTask = null;
-                    schedule();
-                } else {
-                    if (hasTasks()) {
-                        fActiveTask.getThread().suspend();
-                        if (!fForegroundTasks.offer(fActiveTask)) {
-                            fActiveTask.cancel();
-                            fActiveTask = null;
-                        }
-                        schedule();
-                    }
-                }
-
-            } else if (fActiveTask.getExecType() == ExecutionType.BACKGROUND) {
-                if (fActiveTask.getThread().isCompleted()) {
-                    fActiveTask = null;
-                    schedule();
-                } else {
-                    if (hasTasks()) {
-                        fActiveTask.getThread().suspend();
-                        if (!fBackgroundTasks.offer(fActiveTask)) {
-                            fActiveTask.cancel();
-                            fActiveTask = null;
-                        }
-                        schedule();
-                    }
-                }
+        if (fShutdown) {
+            return;
+        }
+        for (Lane lane : fLanes.values()) {
+            TmfEventThread activeTask = lane.fActiveTask;
+            if (activeTask == null) {
+                schedule(lane);
+            } else if (activeTask.getThread().isCompleted()) {
+                lane.fActiveTask = null;
+                schedule(lane);
+            } else if (!lane.fTasks.isEmpty()) {
+                switchTask(lane);
             }
         }
     }
@@ -229,28 +282,26 @@ public class TmfRequestExecutor implements Executor {
      * Stops the executor
      */
     public synchronized void stop() {
-        if (fTimerTask != null) {
-            fTimerTask.cancel();
-        }
-
-        if (fTimer != null) {
-            fTimer.cancel();
+        fShutdown = true;
+        ScheduledFuture<?> timerTask = fTimerTask;
+        if (timerTask != null) {
+            timerTask.cancel(false);
+            fTimerTask = null;
         }
 
-        if (fActiveTask != null) {
-            fActiveTask.cancel();
-        }
-
-        while ((fActiveTask = fForegroundTasks.poll()) != null) {
-            fActiveTask.cancel();
-        }
-        while ((fActiveTask = fBackgroundTasks.poll()) != null) {
-            fActiveTask.cancel();
+        for (Lane lane : fLanes.values()) {
+            TmfEventThread activeTask = lane.fActiveTask;
+            if (activeTask != null) {
+                cancel(activeTask);
+            }
+            TmfEventThread task;
+            while ((task = lane.fTasks.poll()) != null) {
+                cancel(task);
+            }
         }
 
-        fExecutor.shutdown();
         if (TmfCoreTracer.isComponentTraced()) {
-            TmfCoreTracer.trace(fExecutor + " terminated"); //$NON-NLS-1$
+            TmfCoreTracer.trace(this + " terminated"); //$NON-NLS-1$
         }
     }
 
@@ -258,59 +309,62 @@ public class TmfRequestExecutor implements Executor {
     // Helper methods
     // ------------------------------------------------------------------------
 
-    /**
-     * Determine which type of request (foreground or background) we schedule
-     * next
-     */
-    private void schedule() {
-        if (!fForegroundTasks.isEmpty()) {
-            scheduleNextForeground();
-        } else {
-            scheduleNextBackground();
-        }
+    private Lane getLane(ExecutionType type) {
+        Lane lane = fLanes.get(type);
+        return lane != null ? lane : fLanes.get(ExecutionType.BACKGROUND);
     }
 
     /**
-     * Schedule the next foreground request
+     * A request of a lane completed, run the next one
      */
-    private void scheduleNextForeground() {
-        if (fForegroundCycle < FOREGROUND_SLOT || fBackgroundTasks.isEmpty()) {
-            ++fForegroundCycle;
-            fActiveTask = fForegroundTasks.poll();
-            executefActiveTask();
-        } else {
-            fActiveTask = null;
-            scheduleNextBackground();
+    private synchronized void taskCompleted(Lane lane, TmfEventThread task) {
+        if (lane.fActiveTask == task) {
+            lane.fActiveTask = null;
+            if (!fShutdown) {
+                schedule(lane);
+            }
         }
     }
 
     /**
-     * Schedule the next background request
+     * Suspend the active request of a lane and run the next one
      */
-    private void scheduleNextBackground() {
-        fForegroundCycle = 0;
-        if (!fBackgroundTasks.isEmpty()) {
-            fActiveTask = fBackgroundTasks.poll();
-            executefActiveTask();
+    private static void switchTask(Lane lane) {
+        TmfEventThread activeTask = lane.fActiveTask;
+        if (activeTask != null) {
+            activeTask.getThread().suspend();
+            lane.fTasks.add(activeTask);
         }
+        schedule(lane);
     }
 
     /**
-     * Execute or resume the active task
+     * Execute or resume the next request of a lane
      */
-    private void executefActiveTask() {
-        if (fActiveTask.getThread().isPaused()) {
-            fActiveTask.getThread().resume();
+    private static void schedule(Lane lane) {
+        TmfEventThread task = lane.fTasks.poll();
+        while (task != null && task.getThread().isCompleted()) {
+            task = lane.fTasks.poll();
+        }
+        lane.fActiveTask = task;
+        if (task == null) {
+            return;
+        }
+        if (task.getThread().isPaused()) {
+            task.getThread().resume();
         } else {
-            fExecutor.execute(fActiveTask);
+            lane.fPool.execute(task);
         }
     }
 
     /**
-     * Check if the scheduler has tasks
+     * Cancel a request, resuming it so that it exits and frees its thread
      */
-    private boolean hasTasks() {
-        return !(fForegroundTasks.isEmpty() && fBackgroundTasks.isEmpty());
+    private static void cancel(TmfEventThread task) {
+        task.cancel();
+        if (task.getThread().isPaused()) {
+            task.getThread().resume();
+        }
     }
 
     // ------------------------------------------------------------------------
@@ -0,0 +1,187 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.tmf.core.request;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.common.core.collect.BufferedBlockingQueue;
+import org.eclipse.tracecompass.internal.tmf.core.Activator;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
+import org.eclipse.tracecompass.tmf.core.event.TmfEvent;
+import org.eclipse.tracecompass.tmf.core.request.ITmfEventRequest;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfContext;
+
+/**
+ * The queue of the events read for a sub-request of a coalesced request. The
+ * events are handled by a task of the background pool of the request
+ * executors, so the sub-requests of a coalesced request process the events in
+ * parallel while the trace is read once. The events of a sub-request are still
+ * handled in order, by one task.
+ * <p>
+ * The task completes the sub-request once the queue is closed and the events
+ * before are handled, so after the coalesced request is completed.
+ * <p>
+ * The task can first handle other events, such as the events a request
+ * attached to a coalesced request missed, before the events of the queue.
+ */
+class TmfRequestQueue {
+
+    private static final int QUEUE_SIZE = 127;
+    private static final int CHUNK_SIZE = 127;
+
+    /** Fake event marking the end of the events */
+    private static final @NonNull ITmfEvent END_EVENT = new TmfEvent(null, ITmfContext.UNKNOWN_RANK, null, null, null);
+
+    private final ITmfEventRequest fRequest;
+    private final BufferedBlockingQueue<ITmfEvent> fQueue = new BufferedBlockingQueue<>(QUEUE_SIZE, CHUNK_SIZE);
+    private final String fName;
+    private final @Nullable Consumer<TmfRequestQueue> fFirst;
+    private final int fBatchSize;
+    private final List<@NonNull ITmfEvent> fBatch = new ArrayList<>();
+    private volatile boolean fClosed = false;
+
+    /**
+     * Constructor
+     *
+     * @param request
+     *            the sub-request handling the events
+     * @param name
+     *            the name of the thread while it handles the events
+     */
+    public TmfRequestQueue(ITmfEventRequest request, String name) {
+        this(request, name, null);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param request
+     *            the sub-request handling the events
+     * @param name
+     *            the name of the thread while it handles the events
+     * @param first
+     *            the code run by the task before it handles the events of
+     *            the queue, which handles the events to handle first with
+     *            handle(), or null
+     */
+    public TmfRequestQueue(ITmfEventRequest request, String name, @Nullable Consumer<TmfRequestQueue> first) {
+        fRequest = request;
+        fFirst = first;
+        fBatchSize = request.getBatchSize();
+        fName = name;
+    }
+
+    /**
+     * Start the task handling the events
+     */
+    public void start() {
+        TmfRequestExecutor.getBackgroundPool().execute(this::run);
+    }
+
+    /**
+     * Add an event to the queue. The events of a closed queue are ignored.
+     *
+     * @param event
+     *            the event
+     */
+    public void put(ITmfEvent event) {
+        if (!fClosed) {
+            fQueue.put(event);
+        }
+    }
+
+    /**
+     * Close the queue. The events in the queue are handled, then the
+     * sub-request is completed if it was not cancelled or failed.
+     */
+    public synchronized void close() {
+        if (!fClosed) {
+            fClosed = true;
+            fQueue.put(END_EVENT);
+            fQueue.flushInputBuffer();
+        }
+    }
+
+    /**
+     * Handle an event in the task of the queue. Only the code run first by
+     * the task gives events this way, the other events are put in the
+     * queue.
+     *
+     * @param event
+     *            the event
+     */
+    public void handle(ITmfEvent event) {
+        ITmfEventRequest request = fRequest;
+        if (!request.isCompleted() && request.getNbRead() < request.getNbRequested() && request.getDataType().isInstance(event)) {
+            try {
+                if (fBatchSize <= 1) {
+                    request.handleData(event);
+                } else {
+                    fBatch.add(event);
+                    if (fBatch.size() >= fBatchSize) {
+                        request.handleData(fBatch);
+                        fBatch.clear();
+                    }
+                }
+            } catch (Exception e) {
+                // As for the events dispatched by the coalesced request
+                Activator.logError("An uncaught exception happened on request " + request + ": " + e.getMessage()); //$NON-NLS-1$ //$NON-NLS-2$
+                request.fail(e);
+            }
+        }
+    }
+
+    private void run() {
+        Thread thread = Thread.currentThread();
+        String name = thread.getName();
+        thread.setName(fName);
+        try {
+            handleEvents();
+        } finally {
+            thread.setName(name);
+        }
+    }
+
+    private void handleEvents() {
+        ITmfEventRequest request = fRequest;
+        try {
+            Consumer<TmfRequestQueue> first = fFirst;
+            if (first != null) {
+                first.accept(this);
+            }
+        } catch (Exception e) {
+            Activator.logError("An uncaught exception happened on request " + request + ": " + e.getMessage()); //$NON-NLS-1$ //$NON-NLS-2$
+            request.fail(e);
+        }
+        ITmfEvent event = fQueue.take();
+        /* This is a singleton, we want to do != instead of !x.equals */
+        while (event != END_EVENT) {
+            handle(event);
+            event = fQueue.take();
+        }
+        try {
+            if (!fBatch.isEmpty() && !request.isCompleted()) {
+                request.handleData(fBatch);
+            }
+            if (!request.isCompleted()) {
+                request.done();
+            }
+        } catch (Exception e) {
+            Activator.logError("An uncaught exception happened on request " + request + ": " + e.getMessage()); //$NON-NLS-1$ //$NON-NLS-2$
+            request.fail(e);
+        }
+    }
+}
@@ -17,9 +17,9 @@
 package org.eclipse.tracecompass.internal.tmf.core.trace.experiment;
 
 import java.util.Arrays;
-import java.util.PriorityQueue;
 
 import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfContext;
 import org.eclipse.tracecompass.tmf.core.trace.TmfContext;
@@ -37,6 +37,11 @@ import com.google.common.annotations.VisibleForTesting;
  * <p>
  * The last trace refers to the trace from which the last event was "consumed"
  * at the experiment level.
+ * <p>
+ * The next events of the traces are merged with a loser tree: each internal
+ * node keeps the trace that lost the comparison at that node, so replacing the
+ * event of the trace just consumed takes one comparison per level of the
+ * tree. The context is used by one reader at a time and is not synchronized.
  */
 public final class TmfExperimentContext extends TmfContext {
 
@@ -102,11 +107,25 @@ public final class TmfExperimentContext extends TmfContext {
     // ------------------------------------------------------------------------
 
     private final ITmfContext[] fContexts;
+
+    /** The next event of each trace, null if the trace has no more events */
+    private final @Nullable ContextTuple[] fTuples;
+
+    /**
+     * The loser tree, the index of the winning trace at 0 and the index of the
+     * losing trace at each internal node. The children of node n are the
+     * nodes 2n and 2n + 1, and the trace i is the leaf at node length + i.
+     */
+    private final int[] fTree;
+
+    /** True if the tree must be built again before the next event */
+    private boolean fDirty = true;
+
     /**
-     * fPriority is a PriorityQueue of initial capacity fContexts.length,
-     * ordered by increasing timestamps of the ContextTuple events.
+     * The trace of the last event returned, its event replaced in the tree
+     * when it is set, or -1
      */
-    private final PriorityQueue<ContextTuple> fPriority;
+    private int fPending = -1;
 
     // ------------------------------------------------------------------------
     // Constructors
@@ -124,7 +143,8 @@ public final class TmfExperimentContext extends TmfContext {
             throw new IllegalArgumentException("TmfExperimentContext size cannot be negative"); //$NON-NLS-1$
         }
         fContexts = new ITmfContext[nbTraces];
-        fPriority = new PriorityQueue<>(Math.max(1, nbTraces), null);
+        fTuples = new @Nullable ContextTuple[nbTraces];
+        fTree = new int[Math.max(1, nbTraces)];
     }
 
     @Override
@@ -151,8 +171,12 @@ public final class TmfExperimentContext extends TmfContext {
      */
     public void setContent(int traceIndex, ITmfContext ctx, ITmfEvent event) {
         fContexts[traceIndex] = ctx;
-        if (event != null && ctx != null) {
-            fPriority.add(new ContextTuple(traceIndex, event, ctx));
+        fTuples[traceIndex] = (event != null && ctx != null) ? new ContextTuple(traceIndex, event, ctx) : null;
+        if (traceIndex == fPending) {
+            fPending = -1;
+            replay(traceIndex);
+        } else {
+            fDirty = true;
         }
     }
 
@@ -165,7 +189,80 @@ public final class TmfExperimentContext extends TmfContext {
      *         priority queue.
      */
     public ContextTuple getNext() {
-        return fPriority.poll();
+        if (fTuples.length == 0) {
+            return null;
+        }
+        if (fDirty) {
+            build();
+        } else if (fPending >= 0) {
+            // The event of the trace was not replaced, it has no more events
+            replay(fPending);
+        }
+        int winner = fTree[0];
+        ContextTuple tuple = fTuples[winner];
+        if (tuple == null) {
+            fPending = -1;
+            return null;
+        }
+        fTuples[winner] = null;
+        fPending = winner;
+        return tuple;
+    }
+
+    // ------------------------------------------------------------------------
+    // Loser tree
+    // ------------------------------------------------------------------------
+
+    /**
+     * @return true if the next event of trace a comes before the one of trace
+     *         b, the traces with no more events coming last
+     */
+    private boolean isBefore(int a, int b) {
+        ContextTuple tupleA = fTuples[a];
+        if (tupleA == null) {
+            return false;
+        }
+        ContextTuple tupleB = fTuples[b];
+        return tupleB == null || tupleA.compareTo(tupleB) < 0;
+    }
+
+    private void build() {
+        int length = fTuples.length;
+        int[] winners = new int[2 * length];
+        for (int i = 0; i < length; i++) {
+            winners[length + i] = i;
+        }
+        for (int node = length - 1; node >= 1; node--) {
+            int left = winners[2 * node];
+            int right = winners[2 * node + 1];
+            if (isBefore(right, left)) {
+                winners[node] = right;
+                fTree[node] = left;
+            } else {
+                winners[node] = left;
+                fTree[node] = right;
+            }
+        }
+        fTree[0] = length == 1 ? 0 : winners[1];
+        fDirty = false;
+        fPending = -1;
+    }
+
+    /**
+     * Play the matches of a trace up to the root, after its event changed. It
+     * must be the trace of the last winner.
+     */
+    private void replay(int traceIndex) {
+        int winner = traceIndex;
+        for (int node = (fTuples.length + traceIndex) / 2; node >= 1; node /= 2) {
+            int loser = fTree[node];
+            if (isBefore(loser, winner)) {
+                fTree[node] = winner;
+                winner = loser;
+            }
+        }
+        fTree[0] = winner;
+        fPending = -1;
     }
 
     /**
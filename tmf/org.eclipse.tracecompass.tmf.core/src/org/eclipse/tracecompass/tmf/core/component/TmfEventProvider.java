@@ -26,6 +26,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.tracecompass.common.core.NonNullUtils;
@@ -72,6 +73,12 @@ public abstract class TmfEventProvider extends TmfComponent implements ITmfEvent
     /** List of coalesced requests */
     private final List<TmfCoalescedEventRequest> fPendingCoalescedRequests = new LinkedList<>();
 
+    /**
+     * List of queued coalesced background requests, that requests can join,
+     * until they are completed
+     */
+    private final List<TmfCoalescedEventRequest> fRunningCoalescedRequests = new CopyOnWriteArrayList<>();
+
     /** The type of event handled by this provider */
     private Class<? extends ITmfEvent> fType;
 
@@ -190,6 +197,14 @@ public abstract class TmfEventProvider extends TmfComponent implements ITmfEvent
 
     @Override
     public void sendRequest(final ITmfEventRequest request) {
+        /*
+         * Join a background request already reading the events rather than
+         * reading them again.
+         */
+        if (request.getExecType() == ExecutionType.BACKGROUND && attachToRunningRequest(request)) {
+            return;
+        }
+
         synchronized (fLock) {
 
             if (TmfCoreTracer.isRequestTraced()) {
@@ -340,6 +355,29 @@ public abstract class TmfEventProvider extends TmfComponent implements ITmfEvent
         }
     }
 
+    /*
+     * Attaches a request to a queued coalesced request if compatible. The
+     * provider lock is not held while attaching, as the coalesced requests
+     * call the sub-requests with their own lock held.
+     */
+    private boolean attachToRunningRequest(ITmfEventRequest request) {
+        if (fRunningCoalescedRequests.isEmpty()) {
+            return false;
+        }
+        if (request.getProviderFilter() == null) {
+            request.setProviderFilter(this);
+        }
+        for (TmfCoalescedEventRequest runningRequest : fRunningCoalescedRequests) {
+            if (runningRequest.attachRequest(request, this)) {
+                if (TmfCoreTracer.isRequestTraced()) {
+                    TmfCoreTracer.traceRequest(request.getRequestId(), "ATTACHING to " + runningRequest.getRequestId()); //$NON-NLS-1$
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
     /*
      * Sends a request with the parent if compatible.
      */
@@ -416,6 +454,16 @@ public abstract class TmfEventProvider extends TmfComponent implements ITmfEvent
 
         TmfEventThread thread = new TmfEventThread(this, request);
 
+        if (request instanceof TmfCoalescedEventRequest && request.getExecType() == ExecutionType.BACKGROUND) {
+            TmfCoalescedEventRequest coalescedRequest = (TmfCoalescedEventRequest) request;
+            fRunningCoalescedRequests.add(coalescedRequest);
+            /*
+             * Not under the provider lock, as the request completes with its
+             * own lock held
+             */
+            coalescedRequest.setCompletionListener(() -> fRunningCoalescedRequests.remove(coalescedRequest));
+        }
+
         if (TmfCoreTracer.isRequestTraced()) {
             TmfCoreTracer.traceRequest(request.getRequestId(), "QUEUED"); //$NON-NLS-1$
         }
@@ -629,6 +677,7 @@ public abstract class TmfEventProvider extends TmfComponent implements ITmfEvent
                 request.cancel();
             }
             fPendingCoalescedRequests.clear();
+            fRunningCoalescedRequests.clear();
         }
     }
 
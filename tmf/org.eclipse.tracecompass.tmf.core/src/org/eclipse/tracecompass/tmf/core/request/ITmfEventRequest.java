@@ -15,6 +15,9 @@
 
 package org.eclipse.tracecompass.tmf.core.request;
 
+import java.util.List;
+import java.util.Set;
+
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
@@ -116,6 +119,35 @@ public interface ITmfEventRequest {
      */
     void setProviderFilter(ITmfFilter filter);
 
+    /**
+     * Get the names of the event types handled by this request. The event
+     * providers may then skip the events of the other types without reading
+     * them completely, so the request can still receive events of other
+     * types. Only the requests for all the events of a time range can be
+     * narrowed this way, the ranks of the events being unknown.
+     *
+     * @return the names of the event types handled by this request, or null
+     *         if the request handles all the events
+     * @since 7.2
+     */
+    default @Nullable Set<@NonNull String> getEventTypes() {
+        return null;
+    }
+
+    /**
+     * Get the number of events this request handles at once. The events of
+     * a request with a batch size greater than 1 are delivered in lists of up
+     * to that many events, through {@link #handleData(List)}, which spares
+     * the per-event overhead to the requests reading many events, like the
+     * indexing or the statistics.
+     *
+     * @return the batch size, 1 to receive the events one by one
+     * @since 7.2
+     */
+    default int getBatchSize() {
+        return 1;
+    }
+
     // ------------------------------------------------------------------------
     // Request state predicates
     // ------------------------------------------------------------------------
@@ -158,6 +190,21 @@ public interface ITmfEventRequest {
      */
     void handleData(@NonNull ITmfEvent event);
 
+    /**
+     * Process a batch of events, in order. Only called if the
+     * {@link #getBatchSize() batch size} is greater than 1. The list is
+     * reused for the next batch, so it must not be kept.
+     *
+     * @param events
+     *            The trace events to process
+     * @since 7.2
+     */
+    default void handleData(List<@NonNull ITmfEvent> events) {
+        for (ITmfEvent event : events) {
+            handleData(event);
+        }
+    }
+
     // ------------------------------------------------------------------------
     // Request notifications
     // ------------------------------------------------------------------------
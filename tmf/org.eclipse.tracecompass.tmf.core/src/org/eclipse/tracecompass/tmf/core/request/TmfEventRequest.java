@@ -15,8 +15,13 @@
 
 package org.eclipse.tracecompass.tmf.core.request;
 
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinPool.ManagedBlocker;
 
+import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.internal.tmf.core.TmfCoreTracer;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
@@ -28,7 +33,8 @@ import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimeRange;
  * Open ranges can be used, especially for continuous streaming.
  * <p>
  * The request is processed asynchronously by a TmfEventProvider and, as events
- * become available, handleData() is invoked synchronously for each one.
+ * become available, handleData() is invoked synchronously for each one, or for
+ * each batch of events if the request has a batch size greater than 1.
  * <p>
  * The TmfEventProvider indicates that the request is completed by calling
  * done(). The request can be cancelled at any time with cancel().
@@ -108,6 +114,8 @@ public abstract class TmfEventRequest implements ITmfEventRequest {
 
     private @Nullable Throwable fFailureCause;
 
+    private @Nullable Set<@NonNull String> fEventTypes;
+
     // ------------------------------------------------------------------------
     // Constructors
     // ------------------------------------------------------------------------
@@ -304,6 +312,14 @@ public abstract class TmfEventRequest implements ITmfEventRequest {
         return fFailureCause;
     }
 
+    /**
+     * @since 7.2
+     */
+    @Override
+    public @Nullable Set<@NonNull String> getEventTypes() {
+        return fEventTypes;
+    }
+
     // ------------------------------------------------------------------------
     // Setters
     // ------------------------------------------------------------------------
@@ -324,6 +340,20 @@ public abstract class TmfEventRequest implements ITmfEventRequest {
         setIndex(index);
     }
 
+    /**
+     * Set the names of the event types handled by this request, so the event
+     * providers can skip the events of the other types. This must be called
+     * before sending the request.
+     *
+     * @param eventTypes
+     *            the names of the event types handled by this request, or
+     *            null if the request handles all the events
+     * @since 7.2
+     */
+    public void setEventTypes(@Nullable Set<@NonNull String> eventTypes) {
+        fEventTypes = eventTypes;
+    }
+
     // ------------------------------------------------------------------------
     // Operators
     // ------------------------------------------------------------------------
@@ -333,6 +363,18 @@ public abstract class TmfEventRequest implements ITmfEventRequest {
         fNbRead++;
     }
 
+    /**
+     * Counts the events of the batch. The requests with a batch size greater
+     * than 1 override this method to process the events, and call it. The
+     * events of the batch are not passed to {@link #handleData(ITmfEvent)}.
+     *
+     * @since 7.2
+     */
+    @Override
+    public void handleData(List<@NonNull ITmfEvent> events) {
+        fNbRead += events.size();
+    }
+
     @Override
     public void handleStarted() {
         if (TmfCoreTracer.isRequestTraced()) {
@@ -389,12 +431,31 @@ public abstract class TmfEventRequest implements ITmfEventRequest {
      *             If the thread was interrupted while waiting
      */
     public void waitForStart() throws InterruptedException {
-        fStartedLatch.await();
+        await(fStartedLatch);
     }
 
     @Override
     public void waitForCompletion() throws InterruptedException {
-        fCompletedLatch.await();
+        await(fCompletedLatch);
+    }
+
+    /**
+     * Wait for a latch. A pool running the caller, such as the thread of
+     * another request, adds a thread while it waits.
+     */
+    private static void await(CountDownLatch latch) throws InterruptedException {
+        ForkJoinPool.managedBlock(new ManagedBlocker() {
+            @Override
+            public boolean block() throws InterruptedException {
+                latch.await();
+                return true;
+            }
+
+            @Override
+            public boolean isReleasable() {
+                return latch.getCount() == 0;
+            }
+        });
     }
 
     @Override
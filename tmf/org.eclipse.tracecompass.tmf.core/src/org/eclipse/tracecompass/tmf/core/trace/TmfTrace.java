@@ -557,16 +557,24 @@ public abstract class TmfTrace extends TmfEventProvider implements ITmfTrace, IT
     @Override
     public abstract ITmfEvent parseEvent(ITmfContext context);
 
+    /**
+     * Reads the event with the lock of the trace, since the current location
+     * is shared by the readers. The method itself is not synchronized, so the
+     * traces that do not share a location, like the experiments, can read
+     * without the lock.
+     */
     @Override
-    public synchronized ITmfEvent getNext(final ITmfContext context) {
-        // parseEvent() does not update the context
-        final ITmfEvent event = parseEvent(context);
-        if (event != null) {
-            updateAttributes(context, event);
-            context.setLocation(getCurrentLocation());
-            context.increaseRank();
+    public ITmfEvent getNext(final ITmfContext context) {
+        synchronized (this) {
+            // parseEvent() does not update the context
+            final ITmfEvent event = parseEvent(context);
+            if (event != null) {
+                updateAttributes(context, event);
+                context.setLocation(getCurrentLocation());
+                context.increaseRank();
+            }
+            return event;
         }
-        return event;
     }
 
     /**
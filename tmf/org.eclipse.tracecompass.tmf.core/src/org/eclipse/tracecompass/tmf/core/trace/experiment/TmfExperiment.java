@@ -49,6 +49,7 @@ import org.eclipse.tracecompass.internal.tmf.core.trace.experiment.TmfExperiment
 import org.eclipse.tracecompass.internal.tmf.core.trace.experiment.TmfLocationArray;
 import org.eclipse.tracecompass.tmf.core.TmfCommonConstants;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
+import org.eclipse.tracecompass.tmf.core.event.ITmfLostEvent;
 import org.eclipse.tracecompass.tmf.core.event.aspect.ITmfEventAspect;
 import org.eclipse.tracecompass.tmf.core.event.aspect.TmfBaseAspects;
 import org.eclipse.tracecompass.tmf.core.exceptions.TmfTraceException;
@@ -421,8 +422,11 @@ public class TmfExperiment extends TmfTrace implements ITmfPersistentlyIndexable
     // ITmfTrace trace positioning
     // ------------------------------------------------------------------------
 
+    /**
+     * Not synchronized, each trace is positioned with its own lock
+     */
     @Override
-    public synchronized ITmfContext seekEvent(final ITmfLocation location) {
+    public ITmfContext seekEvent(final ITmfLocation location) {
         // Validate the location
         if (location != null && !(location instanceof TmfExperimentLocation)) {
             return null; // Throw an exception?
@@ -443,11 +447,18 @@ public class TmfExperiment extends TmfTrace implements ITmfPersistentlyIndexable
         long rank = 0;
         for (int i = 0; i < length; i++) {
             // Get the relevant trace attributes
-            final ITmfContext traceContext = ((ITmfTrace) getChild(i)).seekEvent(locations[i]);
-            traceContext.setRank(ranks[i]);
-            // update location after seek
-            locations[i] = traceContext.getLocation();
-            context.setContent(i, traceContext, ((ITmfTrace) getChild(i)).getNext(traceContext));
+            final ITmfTrace trace = (ITmfTrace) getChild(i);
+            /*
+             * The lock of the trace, as in its getNext(), since some traces
+             * move their current location when seeking
+             */
+            synchronized (trace) {
+                final ITmfContext traceContext = trace.seekEvent(locations[i]);
+                traceContext.setRank(ranks[i]);
+                // update location after seek
+                locations[i] = traceContext.getLocation();
+                context.setContent(i, traceContext, trace.getNext(traceContext));
+            }
             rank += ranks[i];
         }
 
@@ -556,14 +567,20 @@ public class TmfExperiment extends TmfTrace implements ITmfPersistentlyIndexable
     // ------------------------------------------------------------------------
 
     @Override
-    public synchronized ITmfEvent parseEvent(final ITmfContext context) {
+    public ITmfEvent parseEvent(final ITmfContext context) {
         final ITmfContext tmpContext = seekEvent(context.getLocation());
         final ITmfEvent event = getNext(tmpContext);
         return event;
     }
 
+    /**
+     * Not synchronized, the events of the traces are merged in the context,
+     * so the readers of the experiment read it concurrently. Only the events
+     * extending the time range, the number of events or the index update the
+     * attributes of the experiment, with its lock.
+     */
     @Override
-    public synchronized ITmfEvent getNext(ITmfContext context) {
+    public ITmfEvent getNext(ITmfContext context) {
 
         // Make sure that we have something to read from
         if (getNbChildren() == 0) {
@@ -582,7 +599,9 @@ public class TmfExperiment extends TmfTrace implements ITmfPersistentlyIndexable
         ITmfEvent event = null;
         if (next != null) {
             event = next.getEvent();
-            updateAttributes(experimentContext, event);
+            if (isNewInformation(experimentContext, event)) {
+                updateAttributes(experimentContext, event);
+            }
             experimentContext.increaseRank();
 
             // Update the experiment location
@@ -603,6 +622,26 @@ public class TmfExperiment extends TmfTrace implements ITmfPersistentlyIndexable
         return event;
     }
 
+    /**
+     * @return true if the event at the context is not yet counted in the
+     *         number of events, or not in the time range of the experiment
+     */
+    private boolean isNewInformation(ITmfContext context, ITmfEvent event) {
+        /*
+         * The number of events is updated after the time range, which is then
+         * at least as recent when read after it
+         */
+        if (!context.hasValidRank() || context.getRank() >= getNbEvents()) {
+            return true;
+        }
+        ITmfTimestamp timestamp = event.getTimestamp();
+        ITmfTimestamp endTime = (event instanceof ITmfLostEvent) ? ((ITmfLostEvent) event).getTimeRange().getEndTime() : timestamp;
+        ITmfTimestamp startTime = getStartTime();
+        ITmfTimestamp traceEndTime = getEndTime();
+        return startTime.equals(TmfTimestamp.BIG_BANG) || startTime.compareTo(timestamp) > 0 ||
+                traceEndTime.equals(TmfTimestamp.BIG_CRUNCH) || traceEndTime.compareTo(endTime) < 0;
+    }
+
     @Override
     public ITmfTimestamp getInitialRangeOffset() {
 
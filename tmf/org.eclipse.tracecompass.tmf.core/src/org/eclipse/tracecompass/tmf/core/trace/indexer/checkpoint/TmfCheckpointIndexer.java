@@ -15,6 +15,7 @@
 
 package org.eclipse.tracecompass.tmf.core.trace.indexer.checkpoint;
 
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -66,6 +67,12 @@ public class TmfCheckpointIndexer implements ITmfTraceIndexer {
 
     private static final @NonNull Logger LOGGER = TraceCompassLog.getLogger(TmfCheckpointIndexer.class);
 
+    /**
+     * The maximum number of events the indexing request receives at once,
+     * small so the events are not held in memory
+     */
+    private static final int MAX_BATCH_SIZE = 128;
+
     // ------------------------------------------------------------------------
     // Attributes
     // ------------------------------------------------------------------------
@@ -76,6 +83,12 @@ public class TmfCheckpointIndexer implements ITmfTraceIndexer {
     /** The interval between checkpoints */
     private final int fCheckpointInterval;
 
+    /**
+     * The number of events the indexing request receives at once, which
+     * divides the checkpoint interval
+     */
+    private final int fBatchSize;
+
     /** The event trace to index */
     private boolean fIsIndexing;
 
@@ -119,10 +132,24 @@ public class TmfCheckpointIndexer implements ITmfTraceIndexer {
     public TmfCheckpointIndexer(final ITmfTrace trace, final int interval) {
         fTrace = trace;
         fCheckpointInterval = interval;
+        fBatchSize = getBatchSize(interval);
         fTraceIndex = createIndex(trace);
         fIsIndexing = false;
     }
 
+    /**
+     * Get the largest batch size dividing the checkpoint interval, so the
+     * batches end on the checkpoints
+     */
+    private static int getBatchSize(int interval) {
+        for (int batchSize = Math.min(interval, MAX_BATCH_SIZE); batchSize > 1; batchSize--) {
+            if (interval % batchSize == 0) {
+                return batchSize;
+            }
+        }
+        return 1;
+    }
+
     /**
      * Creates the index instance. Classes extending this class can override
      * this to provide a different index implementation.
@@ -195,10 +222,16 @@ public class TmfCheckpointIndexer implements ITmfTraceIndexer {
                 indexingTimeRange, indexingOffset, ITmfEventRequest.ALL_DATA,
                 ITmfEventRequest.ExecutionType.BACKGROUND) {
             @Override
-            public void handleData(final ITmfEvent event) {
-                super.handleData(event);
+            public int getBatchSize() {
+                return fBatchSize;
+            }
+
+            @Override
+            public void handleData(List<@NonNull ITmfEvent> events) {
+                int nbRead = getNbRead();
+                super.handleData(events);
                 // Update the trace status at regular intervals
-                if ((getNbRead() % fCheckpointInterval) == 0) {
+                if ((nbRead / fCheckpointInterval) != (getNbRead() / fCheckpointInterval)) {
                     updateTraceStatus();
                 }
             }